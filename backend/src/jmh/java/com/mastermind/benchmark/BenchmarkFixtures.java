@@ -0,0 +1,44 @@
+package com.mastermind.benchmark;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.service.GameLogicService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic secrets and histories shared by the benchmarks, so results are
+ * comparable from run to run.
+ */
+final class BenchmarkFixtures {
+
+    private static final Color[] PALETTE = Color.values();
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<Color> randomCode(Random random, int slotCount) {
+        List<Color> code = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            code.add(PALETTE[random.nextInt(PALETTE.length)]);
+        }
+        return code;
+    }
+
+    /**
+     * Build a history of random, non-winning guesses scored against a secret.
+     */
+    static List<GuessAttempt> randomHistory(GameLogicService logic, Random random,
+                                            List<Color> secret, int depth) {
+        List<GuessAttempt> history = new ArrayList<>(depth);
+        while (history.size() < depth) {
+            List<Color> guess = randomCode(random, secret.size());
+            if (!guess.equals(secret)) {
+                history.add(new GuessAttempt(guess, logic.evaluateGuess(secret, guess)));
+            }
+        }
+        return history;
+    }
+}
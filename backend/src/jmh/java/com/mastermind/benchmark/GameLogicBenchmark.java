@@ -0,0 +1,89 @@
+package com.mastermind.benchmark;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.service.GameLogicService;
+import com.mastermind.solver.CodeSpace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for guess scoring and secret generation in GameLogicService.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLogicBenchmark {
+
+    private static final int CODES = 1024;
+
+    @Param({"4", "5", "6", "7", "8"})
+    public int slotCount;
+
+    private GameLogicService gameLogicService;
+    private CodeSpace space;
+    private List<List<Color>> secrets;
+    private List<List<Color>> guesses;
+    private int[] packedSecrets;
+    private int[] packedGuesses;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameLogicService = new GameLogicService();
+        space = CodeSpace.of(slotCount);
+        space.feedbackTable();
+        Random random = new Random(42);
+        secrets = new ArrayList<>(CODES);
+        guesses = new ArrayList<>(CODES);
+        packedSecrets = new int[CODES];
+        packedGuesses = new int[CODES];
+        for (int i = 0; i < CODES; i++) {
+            secrets.add(BenchmarkFixtures.randomCode(random, slotCount));
+            guesses.add(BenchmarkFixtures.randomCode(random, slotCount));
+            packedSecrets[i] = space.encode(secrets.get(i));
+            packedGuesses[i] = space.encode(guesses.get(i));
+        }
+    }
+
+    @Benchmark
+    public Feedback evaluateGuess() {
+        int i = index++ & (CODES - 1);
+        return gameLogicService.evaluateGuess(secrets.get(i), guesses.get(i));
+    }
+
+    @Benchmark
+    public int evaluatePacked() {
+        int i = index++ & (CODES - 1);
+        return space.feedback(packedSecrets[i], packedGuesses[i]);
+    }
+
+    @Benchmark
+    public int evaluatePackedComputed() {
+        int i = index++ & (CODES - 1);
+        return space.computeFeedback(packedSecrets[i], packedGuesses[i]);
+    }
+
+    @Benchmark
+    public List<Color> generateSecret() {
+        return gameLogicService.generateSecret(slotCount);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mastermind.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mastermind.dto.GameResponse;
+import com.mastermind.model.Color;
+import com.mastermind.model.Game;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.service.GameLogicService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and serializing the GameResponse returned by every game endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameResponseBenchmark {
+
+    @Param({"0", "5", "10"})
+    public int historyDepth;
+
+    private ObjectMapper objectMapper;
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        GameLogicService gameLogicService = new GameLogicService();
+        Random random = new Random(historyDepth);
+        List<Color> secret = BenchmarkFixtures.randomCode(random, 4);
+        game = new Game(secret, 4);
+        for (GuessAttempt attempt : BenchmarkFixtures.randomHistory(gameLogicService, random, secret, historyDepth)) {
+            game.addGuessAttempt(attempt);
+        }
+    }
+
+    @Benchmark
+    public GameResponse fromGame() {
+        return GameResponse.fromGame(game);
+    }
+
+    @Benchmark
+    public String fromGameSerialized() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(GameResponse.fromGame(game));
+    }
+}
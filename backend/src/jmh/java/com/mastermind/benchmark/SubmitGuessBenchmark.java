@@ -0,0 +1,104 @@
+package com.mastermind.benchmark;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Game;
+import com.mastermind.service.GameLogicService;
+import com.mastermind.service.GameService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of GameService.submitGuess with many threads sharing one service.
+ * In submitGuess each thread plays its own game, so contention is on the service's
+ * maps rather than on a single game's history; in submitGuessSharedGame every thread
+ * guesses on the same game, so they all queue on that game's lock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SubmitGuessBenchmark {
+
+    private static final int MAX_HISTORY = 10;
+
+    @State(Scope.Benchmark)
+    public static class SharedService {
+        GameService gameService;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            gameService = new GameService(new GameLogicService());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedGame {
+        String gameId;
+
+        @Setup(Level.Trial)
+        public void setUp(SharedService shared) {
+            gameId = shared.gameService.createGame(4).getId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PlayerGame {
+        String gameId;
+        List<List<Color>> guesses;
+        int index;
+
+        @Setup(Level.Trial)
+        public void setUp(SharedService shared) {
+            gameId = shared.gameService.createGame(4).getId();
+            Random random = new Random(Thread.currentThread().threadId());
+            guesses = new ArrayList<>(64);
+            for (int i = 0; i < 64; i++) {
+                guesses.add(BenchmarkFixtures.randomCode(random, 4));
+            }
+        }
+
+        List<Color> nextGuess() {
+            return guesses.get(index++ & (guesses.size() - 1));
+        }
+    }
+
+    @Benchmark
+    public Game submitGuess(SharedService shared, PlayerGame player) {
+        Game game = shared.gameService.getGame(player.gameId);
+        if (game.isGameOver() || game.getHistory().size() >= MAX_HISTORY) {
+            shared.gameService.resetGame(player.gameId);
+        }
+        return shared.gameService.submitGuess(player.gameId, player.nextGuess());
+    }
+
+    @Benchmark
+    public Game submitGuessSharedGame(SharedService shared, SharedGame sharedGame, PlayerGame player) {
+        Game game = shared.gameService.getGame(sharedGame.gameId);
+        if (game.isGameOver() || game.getHistory().size() >= MAX_HISTORY) {
+            shared.gameService.resetGame(sharedGame.gameId);
+        }
+        try {
+            return shared.gameService.submitGuess(sharedGame.gameId, player.nextGuess());
+        } catch (IllegalStateException e) {
+            // Another thread finished the game between the check and this guess
+            return shared.gameService.resetGame(sharedGame.gameId);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mastermind.benchmark;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.service.GameLogicService;
+import com.mastermind.solver.SuggestionStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for GameLogicService.suggestGuess over board sizes, history depths and strategies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SuggestGuessBenchmark {
+
+    @Param({"4", "5", "6", "7", "8"})
+    public int slotCount;
+
+    @Param({"1", "3", "6"})
+    public int historyDepth;
+
+    @Param({"first", "minimax", "entropy", "expected"})
+    public String strategy;
+
+    private GameLogicService gameLogicService;
+    private List<GuessAttempt> history;
+    private SuggestionStrategy suggestionStrategy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameLogicService = new GameLogicService();
+        Random random = new Random(7L * slotCount + historyDepth);
+        List<Color> secret = BenchmarkFixtures.randomCode(random, slotCount);
+        suggestionStrategy = SuggestionStrategy.fromString(strategy);
+        history = BenchmarkFixtures.randomHistory(gameLogicService, random, secret, historyDepth);
+    }
+
+    @Benchmark
+    public List<Color> suggestGuess() {
+        return gameLogicService.suggestGuess(history, slotCount, suggestionStrategy);
+    }
+}
@@ -1,8 +1,10 @@
 package com.mastermind.config;
 
+import com.mastermind.dto.SuggestionHeaders;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -45,6 +47,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins(originsList.toArray(new String[0]))
                 .allowedMethods(methodsList.toArray(new String[0]))
                 .allowedHeaders(allowedHeaders)
+                .exposedHeaders(SuggestionHeaders.STATUS, SuggestionHeaders.STRATEGY, HttpHeaders.RETRY_AFTER)
                 .allowCredentials(allowCredentials)
                 .maxAge(3600); // Cache preflight response for 1 hour
     }
@@ -63,6 +66,7 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.setAllowedOrigins(originsList);
         configuration.setAllowedMethods(methodsList);
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(SuggestionHeaders.STATUS, SuggestionHeaders.STRATEGY, HttpHeaders.RETRY_AFTER));
         configuration.setAllowCredentials(allowCredentials);
         configuration.setMaxAge(3600L);
 
@@ -0,0 +1,80 @@
+package com.mastermind.config;
+
+import com.mastermind.store.GameJournal;
+import com.mastermind.store.GameStore;
+import com.mastermind.store.InMemoryGameStore;
+import com.mastermind.store.OffHeapGameStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Store for single-player and multiplayer games, with its expiry and size bounds, and
+ * the journal that brings them, their matches and their players back after a restart.
+ */
+@Configuration
+public class GameStoreConfig {
+
+    // Where games are kept: "heap", or "off-heap" to hold millions of games in direct memory
+    @Value("${mastermind.game.store.type:heap}")
+    private String type = "heap";
+
+    // Minutes a game in progress is kept without being played
+    @Value("${mastermind.game.store.idle-ttl-minutes:30}")
+    private long idleTtlMinutes = 30;
+
+    // Minutes a finished game is kept without being looked at
+    @Value("${mastermind.game.store.finished-ttl-minutes:2}")
+    private long finishedTtlMinutes = 2;
+
+    @Value("${mastermind.game.store.max-games:" + InMemoryGameStore.DEFAULT_MAX_GAMES + "}")
+    private int maxGames = InMemoryGameStore.DEFAULT_MAX_GAMES;
+
+    // Bound on the estimated heap size of stored games, in megabytes
+    @Value("${mastermind.game.store.max-mb:128}")
+    private long maxMb = InMemoryGameStore.DEFAULT_MAX_BYTES >> 20;
+
+    // Bound on direct memory for the off-heap store's blocks, in megabytes
+    @Value("${mastermind.game.store.off-heap.max-mb:1024}")
+    private long offHeapMaxMb = OffHeapGameStore.DEFAULT_MAX_BYTES >> 20;
+
+    // Size of each off-heap block; a game's record spills into more blocks as its history grows
+    @Value("${mastermind.game.store.off-heap.block-bytes:" + OffHeapGameStore.DEFAULT_BLOCK_BYTES + "}")
+    private int offHeapBlockBytes = OffHeapGameStore.DEFAULT_BLOCK_BYTES;
+
+    // Directory for the journal of game events replayed on startup (empty = games are lost on restart)
+    @Value("${mastermind.game.journal.dir:}")
+    private String journalDir = "";
+
+    // Most time a journaled event waits before it is forced to disk along with the others since the last sync
+    @Value("${mastermind.game.journal.sync-interval-ms:20}")
+    private long journalSyncIntervalMs = 20;
+
+    @Bean
+    public GameJournal gameJournal() {
+        if (journalDir.isBlank()) {
+            return GameJournal.disabled();
+        }
+        if (journalSyncIntervalMs <= 0) {
+            throw new IllegalArgumentException("Game journal sync interval must be positive");
+        }
+        return new GameJournal(Path.of(journalDir), journalSyncIntervalMs);
+    }
+
+    @Bean
+    public GameStore gameStore() {
+        Duration idleTtl = Duration.ofMinutes(idleTtlMinutes);
+        Duration finishedTtl = Duration.ofMinutes(finishedTtlMinutes);
+        switch (type) {
+            case "heap":
+                return new InMemoryGameStore(idleTtl, finishedTtl, maxGames, maxMb << 20);
+            case "off-heap":
+                return new OffHeapGameStore(idleTtl, finishedTtl, maxGames, offHeapMaxMb << 20, offHeapBlockBytes);
+            default:
+                throw new IllegalArgumentException("Unknown game store type: " + type + " (expected heap or off-heap)");
+        }
+    }
+}
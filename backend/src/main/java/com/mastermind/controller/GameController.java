@@ -1,21 +1,36 @@
 package com.mastermind.controller;
 
+import com.mastermind.dto.CandidatePageResponse;
 import com.mastermind.dto.CreateGameRequest;
 import com.mastermind.dto.ErrorResponse;
 import com.mastermind.dto.GameResponse;
 import com.mastermind.dto.GuessRequest;
+import com.mastermind.dto.SuggestionHeaders;
 import com.mastermind.model.Color;
 import com.mastermind.model.Game;
+import com.mastermind.model.GameSnapshot;
+import com.mastermind.model.Suggestion;
 import com.mastermind.service.GameService;
+import com.mastermind.service.PlayerSessionService;
+import com.mastermind.service.SolverAdmission;
+import com.mastermind.service.SuggestionExecutor;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SuggestionStrategy;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -29,10 +44,17 @@ public class GameController {
     private static final Logger logger = LoggerFactory.getLogger(GameController.class);
     
     private final GameService gameService;
+    private final SuggestionExecutor suggestionExecutor;
+    private final SolverAdmission solverAdmission;
+    private final PlayerSessionService playerSessionService;
 
     @Autowired
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, SuggestionExecutor suggestionExecutor,
+                          SolverAdmission solverAdmission, PlayerSessionService playerSessionService) {
         this.gameService = gameService;
+        this.suggestionExecutor = suggestionExecutor;
+        this.solverAdmission = solverAdmission;
+        this.playerSessionService = playerSessionService;
     }
 
     /**
@@ -92,11 +114,15 @@ public class GameController {
      * 
      * GET /api/games/{gameId}
      * 
+     * The response carries the game version as its ETag; a request whose If-None-Match
+     * matches the current version gets 304 Not Modified with no body.
+     * 
      * @param gameId The unique game identifier
-     * @return The current game state (without secret)
+     * @param request The request, for its If-None-Match header
+     * @return The current game state (without secret), or null once a 304 has been set
      */
     @GetMapping("/{gameId}")
-    public ResponseEntity<?> getGame(@PathVariable String gameId) {
+    public ResponseEntity<?> getGame(@PathVariable String gameId, WebRequest request) {
         try {
             logger.debug("Getting game state for ID: {}", gameId);
             
@@ -106,7 +132,13 @@ public class GameController {
                 return ResponseEntity.notFound().build();
             }
             
-            return ResponseEntity.ok(GameResponse.fromGame(game));
+            GameSnapshot snapshot = game.snapshot();
+            String eTag = "\"" + snapshot.getVersion() + "\"";
+            if (request.checkNotModified(eTag)) {
+                // Weak and listed ETags and * are matched too; the 304 and its ETag are already set
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(GameResponse.fromSnapshot(snapshot));
             
         } catch (Exception e) {
             logger.error("Error getting game: {}", gameId, e);
@@ -229,38 +261,207 @@ public class GameController {
     /**
      * Get a suggested guess for the current game state.
      * 
-     * GET /api/games/{gameId}/suggest
+     * GET /api/games/{gameId}/suggest?strategy=first|minimax|entropy|expected&pool=consistent|all&budgetMs=N
+     * 
+     * The {@value SuggestionHeaders#STATUS} response header is "optimal" if the search ran
+     * to completion, or "truncated" if the suggestion is the best found within the budget.
+     * 
+     * The search runs on the {@link SuggestionExecutor} rather than the request thread. When
+     * its queue is full the request fails fast with 503 and a Retry-After header.
+     * 
+     * Searches are charged to the player's session, or to the client address without one.
+     * A session ID that is not logged in is ignored, so inventing new IDs does not reset the balance.
+     * A session short on solver CPU time gets a cheaper strategy, named in the
+     * {@value SuggestionHeaders#STRATEGY} header, and one that has spent it all gets 429
+     * with a Retry-After header.
      * 
      * @param gameId The unique game identifier
+     * @param strategy Optional suggestion strategy; the server default is used when absent
+     * @param pool Optional guess pool for the partition strategies; the server default is used when absent
+     * @param budgetMs Optional time limit for the search in milliseconds, capped at the server limit; the server limit is used when absent
+     * @param sessionId Optional logged-in player session the search is charged to
+     * @param request The HTTP request, for the client address
      * @return A suggested guess based on the game history
      */
     @GetMapping("/{gameId}/suggest")
-    public ResponseEntity<?> suggestGuess(@PathVariable String gameId) {
+    public CompletableFuture<ResponseEntity<?>> suggestGuess(@PathVariable String gameId,
+                                        @RequestParam(required = false) String strategy,
+                                        @RequestParam(required = false) String pool,
+                                        @RequestParam(required = false) Long budgetMs,
+                                        @RequestParam(required = false) String sessionId,
+                                        HttpServletRequest request) {
+        SuggestionStrategy suggestionStrategy = null;
+        if (strategy != null) {
+            try {
+                suggestionStrategy = SuggestionStrategy.fromString(strategy);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid strategy for suggestion on game {}: {}", gameId, strategy);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(new ErrorResponse("INVALID_STRATEGY", e.getMessage())));
+            }
+        }
+        GuessPool guessPool = null;
+        if (pool != null) {
+            try {
+                guessPool = GuessPool.fromString(pool);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid guess pool for suggestion on game {}: {}", gameId, pool);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(new ErrorResponse("INVALID_POOL", e.getMessage())));
+            }
+        }
+
+        if (budgetMs != null && budgetMs <= 0) {
+            logger.warn("Invalid budget for suggestion on game {}: {}", gameId, budgetMs);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new ErrorResponse("INVALID_BUDGET", "Budget must be positive: " + budgetMs)));
+        }
+
+        logger.debug("Getting suggestion for game: {} (strategy: {}, pool: {}, budget: {} ms)", gameId, strategy, pool, budgetMs);
+        String account = sessionId != null && playerSessionService.getSession(sessionId).isPresent()
+                ? "session:" + sessionId
+                : request != null ? "address:" + request.getRemoteAddr() : "game:" + gameId;
+        SolverAdmission.Admission admission;
         try {
-            logger.debug("Getting suggestion for game: {}", gameId);
-            
-            List<Color> suggestion = gameService.suggestGuess(gameId);
+            admission = solverAdmission.admit(account, gameId, suggestionStrategy, guessPool, budgetMs);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid request for suggestion on game {}: {}", gameId, e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        if (admission.isRejected()) {
+            logger.warn("Solver CPU budget spent for {}, rejecting suggestion for game: {}", account, gameId);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()))
+                    .body(new ErrorResponse("CPU_BUDGET_EXHAUSTED", "Solver time for this session is used up, retry later")));
+        }
+        if (admission.getDecision() == SolverAdmission.Decision.DOWNGRADED) {
+            logger.info("Downgraded suggestion for game {} to {} / {} (estimated {} evaluations)", gameId,
+                    admission.getStrategy(), admission.getGuessPool(), admission.getEstimatedEvaluations());
+        }
+
+        try {
+            return suggestionExecutor
+                    .submit(() -> solverAdmission.suggest(admission, gameId, budgetMs))
+                    .handle((suggestion, error) -> suggestionResponse(gameId, admission, suggestion, error));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Suggestion queue full, rejecting request for game: {}", gameId);
+            solverAdmission.release(admission);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(suggestionExecutor.getRetryAfterSeconds()))
+                    .body(new ErrorResponse("SERVICE_BUSY", "Too many suggestions in progress, retry later")));
+        }
+    }
+
+    /**
+     * Turn the outcome of a suggestion search into its response.
+     */
+    private ResponseEntity<?> suggestionResponse(String gameId, SolverAdmission.Admission admission,
+                                                 Suggestion suggestion, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof IllegalArgumentException) {
+            logger.warn("Invalid request for suggestion on game {}: {}", gameId, error.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+        if (error != null) {
+            logger.error("Error getting suggestion for game: {}", gameId, error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to generate suggestion"));
+        }
+        
+        if (suggestion == null) {
+            logger.info("No suggestion available for game: {}", gameId);
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+        
+        // Convert Color enum to string for JSON response
+        List<String> suggestionStrings = suggestion.getGuess().stream()
+                .map(Color::getValue)
+                .collect(Collectors.toList());
+        
+        String status = suggestion.isOptimal() ? "optimal" : "truncated";
+        logger.info("Generated suggestion for game {}: {} ({})", gameId, suggestionStrings, status);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(SuggestionHeaders.STATUS, status);
+        if (admission.getStrategy() != null) {
+            response.header(SuggestionHeaders.STRATEGY, admission.getStrategy().getValue());
+        }
+        return response.body(suggestionStrings);
+    }
+
+    /**
+     * Get one page of the secrets still consistent with the game history, in palette order.
+     * 
+     * GET /api/games/{gameId}/candidates?offset=N&limit=N
+     * 
+     * @param gameId The unique game identifier
+     * @param offset Number of candidates to skip
+     * @param limit Most candidates to return, up to the server's maximum page size
+     * @return The page of candidates
+     */
+    @GetMapping("/{gameId}/candidates")
+    public ResponseEntity<?> getCandidates(@PathVariable String gameId,
+                                         @RequestParam(defaultValue = "0") long offset,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        int maxLimit = gameService.getMaxCandidatePageSize();
+        if (offset < 0 || limit < 1 || limit > maxLimit) {
+            logger.warn("Invalid candidate page for game {}: offset {}, limit {}", gameId, offset, limit);
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("INVALID_PAGE",
+                            "Offset must not be negative and limit must be between 1 and " + maxLimit));
+        }
+
+        try {
+            logger.debug("Getting candidates for game: {} (offset: {}, limit: {})", gameId, offset, limit);
             
-            if (suggestion == null) {
-                logger.info("No suggestion available for game: {}", gameId);
-                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            if (gameService.getGame(gameId) == null) {
+                logger.warn("Game not found for candidates request: {}", gameId);
+                return ResponseEntity.notFound().build();
             }
             
-            // Convert Color enum to string for JSON response
-            List<String> suggestionStrings = suggestion.stream()
-                    .map(Color::getValue)
+            List<List<String>> candidates = gameService.getCandidatePage(gameId, offset, limit).stream()
+                    .map(code -> code.stream().map(Color::getValue).collect(Collectors.toList()))
                     .collect(Collectors.toList());
             
-            logger.info("Generated suggestion for game {}: {}", gameId, suggestionStrings);
-            return ResponseEntity.ok(suggestionStrings);
+            return ResponseEntity.ok(new CandidatePageResponse(offset, limit, candidates));
             
         } catch (IllegalArgumentException e) {
-            logger.warn("Invalid request for suggestion on game {}: {}", gameId, e.getMessage());
-            return ResponseEntity.notFound().build();
+            logger.warn("Invalid request for candidates on game {}: {}", gameId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("INVALID_REQUEST", e.getMessage()));
         } catch (Exception e) {
-            logger.error("Error getting suggestion for game: {}", gameId, e);
+            logger.error("Error getting candidates for game: {}", gameId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to generate suggestion"));
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get candidates"));
+        }
+    }
+
+    /**
+     * Count the secrets still consistent with the game history.
+     * 
+     * GET /api/games/{gameId}/candidates/count
+     * 
+     * @param gameId The unique game identifier
+     * @return The number of remaining possible secrets
+     */
+    @GetMapping("/{gameId}/candidates/count")
+    public ResponseEntity<?> countCandidates(@PathVariable String gameId) {
+        try {
+            if (gameService.getGame(gameId) == null) {
+                logger.warn("Game not found for candidate count: {}", gameId);
+                return ResponseEntity.notFound().build();
+            }
+            
+            return ResponseEntity.ok(gameService.countCandidates(gameId));
+            
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid request for candidate count on game {}: {}", gameId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("INVALID_REQUEST", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error counting candidates for game: {}", gameId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to count candidates"));
         }
     }
 
@@ -286,4 +487,137 @@ public class GameController {
                     .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get colors"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the size and hit/miss counters of the suggestion cache shared by all games.
+     * 
+     * GET /api/games/suggestion-cache
+     * 
+     * @return Cache statistics
+     */
+    @GetMapping("/suggestion-cache")
+    public ResponseEntity<?> getSuggestionCacheStats() {
+        try {
+            return ResponseEntity.ok(gameService.getSuggestionCacheStats());
+            
+        } catch (Exception e) {
+            logger.error("Error getting suggestion cache statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get suggestion cache statistics"));
+        }
+    }
+
+    /**
+     * Get the admission control counters for suggestion searches.
+     * 
+     * GET /api/games/solver-admission
+     * 
+     * @return Admitted, downgraded and rejected requests, and CPU time charged
+     */
+    @GetMapping("/solver-admission")
+    public ResponseEntity<?> getSolverAdmissionStats() {
+        try {
+            return ResponseEntity.ok(solverAdmission.stats());
+            
+        } catch (Exception e) {
+            logger.error("Error getting solver admission statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get solver admission statistics"));
+        }
+    }
+
+    /**
+     * Get the load and timings of the executor that runs suggestion searches.
+     * 
+     * GET /api/games/suggest-executor
+     * 
+     * @return Queue depth, rejections and run times
+     */
+    @GetMapping("/suggest-executor")
+    public ResponseEntity<?> getSuggestionExecutorStats() {
+        try {
+            return ResponseEntity.ok(suggestionExecutor.stats());
+            
+        } catch (Exception e) {
+            logger.error("Error getting suggestion executor statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get suggestion executor statistics"));
+        }
+    }
+
+    /**
+     * Get the counters for next hints worked out in the background.
+     * 
+     * GET /api/games/speculative-hints
+     * 
+     * @return Tasks started, kept, served, cancelled and skipped, and the load average
+     */
+    @GetMapping("/speculative-hints")
+    public ResponseEntity<?> getSpeculativeHintStats() {
+        try {
+            return ResponseEntity.ok(gameService.getSpeculativeHintStats());
+            
+        } catch (Exception e) {
+            logger.error("Error getting speculative hint statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get speculative hint statistics"));
+        }
+    }
+
+    /**
+     * Get the depth and refill counters of the pre-generated secret and ID pools.
+     * 
+     * GET /api/games/secret-supply
+     * 
+     * @return Per pool: items ready, items served, empty-pool misses and refill rate
+     */
+    @GetMapping("/secret-supply")
+    public ResponseEntity<?> getSecretSupplyStats() {
+        try {
+            return ResponseEntity.ok(gameService.getSecretSupplyStats());
+            
+        } catch (Exception e) {
+            logger.error("Error getting secret supply statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get secret supply statistics"));
+        }
+    }
+
+    /**
+     * Get the size and eviction counters of the game store.
+     * 
+     * GET /api/games/game-store
+     * 
+     * @return Games held, their estimated size and bounds, and games dropped by cause
+     */
+    @GetMapping("/game-store")
+    public ResponseEntity<?> getGameStoreStats() {
+        try {
+            return ResponseEntity.ok(gameService.getGameStoreStats());
+            
+        } catch (Exception e) {
+            logger.error("Error getting game store statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get game store statistics"));
+        }
+    }
+
+    /**
+     * Get the counters of the game journal.
+     * 
+     * GET /api/games/journal
+     * 
+     * @return Whether games are journaled, events appended, and how many each disk sync covered
+     */
+    @GetMapping("/journal")
+    public ResponseEntity<?> getJournalStats() {
+        try {
+            return ResponseEntity.ok(gameService.getJournalStats());
+            
+        } catch (Exception e) {
+            logger.error("Error getting game journal statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to get game journal statistics"));
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.mastermind.service.GameMatchService;
 import com.mastermind.service.GameService;
 import com.mastermind.service.InvitationService;
 import com.mastermind.service.PlayerSessionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -47,9 +48,10 @@ public class MultiplayerController {
      * Login endpoint - Creates a new player session
      */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request,
+                                               HttpServletRequest httpRequest) {
         try {
-            PlayerSession session = playerSessionService.login(request.getNickname());
+            PlayerSession session = playerSessionService.login(request.getNickname(), httpRequest.getRemoteAddr());
             
             // Broadcast updated player list to all connected clients
             broadcastPlayerList();
@@ -58,6 +60,9 @@ public class MultiplayerController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(LoginResponse.failure(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(LoginResponse.failure(e.getMessage()));
         }
     }
 
@@ -0,0 +1,25 @@
+package com.mastermind.dto;
+
+import java.util.List;
+
+/**
+ * One page of the secrets still consistent with a game's history.
+ */
+public class CandidatePageResponse {
+    private long offset;
+    private int limit;
+    private List<List<String>> candidates;
+
+    public CandidatePageResponse(long offset, int limit, List<List<String>> candidates) {
+        this.offset = offset;
+        this.limit = limit;
+        this.candidates = candidates;
+    }
+
+    public long getOffset() { return offset; }
+    public int getLimit() { return limit; }
+    public List<List<String>> getCandidates() { return candidates; }
+
+    /** True if the page is full, so more candidates may follow. */
+    public boolean isMore() { return candidates.size() == limit; }
+}
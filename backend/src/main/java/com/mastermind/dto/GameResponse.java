@@ -2,6 +2,7 @@ package com.mastermind.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mastermind.model.Game;
+import com.mastermind.model.GameSnapshot;
 import com.mastermind.model.GuessAttempt;
 
 import java.time.LocalDateTime;
@@ -31,6 +32,10 @@ public class GameResponse {
     @JsonProperty("slotCount")
     private int slotCount;
 
+    // Goes up with every change to the game, so clients can tell whether their copy is current
+    @JsonProperty("version")
+    private int version;
+
     public GameResponse() {
         // Default constructor for Jackson
     }
@@ -39,13 +44,22 @@ public class GameResponse {
      * Create a GameResponse from a Game entity, excluding the secret.
      */
     public static GameResponse fromGame(Game game) {
+        return fromSnapshot(game.snapshot());
+    }
+
+    /**
+     * Create a GameResponse from one version of a game, excluding the secret. The
+     * history is the snapshot's own view, so nothing is copied or locked.
+     */
+    public static GameResponse fromSnapshot(GameSnapshot snapshot) {
         GameResponse response = new GameResponse();
-        response.id = game.getId();
-        response.history = game.getHistory();
-        response.gameOver = game.isGameOver();
-        response.won = game.isWon();
-        response.createdAt = game.getCreatedAt();
-        response.slotCount = game.getSlotCount();
+        response.id = snapshot.getId();
+        response.history = snapshot.getHistory();
+        response.gameOver = snapshot.isGameOver();
+        response.won = snapshot.isWon();
+        response.createdAt = snapshot.getCreatedAt();
+        response.slotCount = snapshot.getSlotCount();
+        response.version = snapshot.getVersion();
         return response;
     }
 
@@ -98,6 +112,14 @@ public class GameResponse {
         this.slotCount = slotCount;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return String.format("GameResponse{id='%s', gameOver=%s, won=%s, historySize=%d}", 
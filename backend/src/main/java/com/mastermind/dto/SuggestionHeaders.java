@@ -0,0 +1,16 @@
+package com.mastermind.dto;
+
+/**
+ * Response headers sent with suggestions, shared by the controller and the CORS setup that exposes them.
+ */
+public final class SuggestionHeaders {
+
+    /** Tells whether a suggestion is optimal or truncated by the search budget. */
+    public static final String STATUS = "X-Suggestion-Status";
+
+    /** Names the strategy a suggestion was searched with, after any downgrade. */
+    public static final String STRATEGY = "X-Suggestion-Strategy";
+
+    private SuggestionHeaders() {
+    }
+}
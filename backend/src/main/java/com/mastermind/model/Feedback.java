@@ -1,5 +1,6 @@
 package com.mastermind.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -15,6 +16,10 @@ public class Feedback {
     @JsonProperty("partial") 
     private int partial;
 
+    // Part of a game's history shared by every reader, so not to be changed
+    @JsonIgnore
+    private boolean readOnly;
+
     public Feedback() {
         // Default constructor for Jackson
     }
@@ -24,11 +29,21 @@ public class Feedback {
         this.partial = partial;
     }
 
+    /**
+     * @return Feedback whose setters throw, for a history shared between readers
+     */
+    static Feedback readOnly(int exact, int partial) {
+        Feedback feedback = new Feedback(exact, partial);
+        feedback.readOnly = true;
+        return feedback;
+    }
+
     public int getExact() {
         return exact;
     }
 
     public void setExact(int exact) {
+        checkWritable();
         this.exact = exact;
     }
 
@@ -37,9 +52,16 @@ public class Feedback {
     }
 
     public void setPartial(int partial) {
+        checkWritable();
         this.partial = partial;
     }
 
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Feedback from a game's history is read-only");
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
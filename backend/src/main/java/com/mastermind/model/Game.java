@@ -1,127 +1,390 @@
 package com.mastermind.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mastermind.solver.CodeSpace;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SuggestionStrategy;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents a complete Mastermind game session.
  * Contains the secret code, game history, current state, and metadata.
+ *
+ * The state is held as an immutable {@link GameSnapshot} behind an
+ * {@link AtomicReference}: every change publishes the next version, and every getter
+ * reads whichever version is current, so readers never lock. Callers that read more
+ * than one property should take a {@link #snapshot()} once, so they all come from the
+ * same version. Changes are synchronized on the game, since adding a guess writes into
+ * arrays the newest snapshot shares; a changed game is never seen half-changed.
+ *
+ * The secret and each guess are held as {@link CodeSpace} codes, one {@code int} per
+ * {@value CodeSpace#MAX_PACKED_SLOTS} slots, each feedback as its packed index in as few
+ * bytes as the board needs (one, up to 14 slots), and the creation time as epoch
+ * milliseconds. {@link #getSecret()} and {@link #getHistory()} build list and
+ * {@link GuessAttempt} views of that state for callers and JSON; changing a view does
+ * not change the game.
  */
 public class Game {
-    
-    @JsonProperty("id")
-    private String id;
-    
-    @JsonProperty("secret")
-    private List<Color> secret;
-    
-    @JsonProperty("history")
-    private List<GuessAttempt> history;
-    
-    @JsonProperty("gameOver")
-    private boolean gameOver;
-    
-    @JsonProperty("won")
-    private boolean won;
-    
-    @JsonProperty("createdAt")
-    private LocalDateTime createdAt;
-    
-    @JsonProperty("slotCount")
-    private int slotCount;
+
+    // ID length, creation time, slot count, version, guess count, flags and hint settings
+    private static final int RECORD_HEADER_BYTES = 2 + 8 + 4 + 4 + 4 + 3;
+
+    private final AtomicReference<GameSnapshot> state;
+
+    // Settings of the last hint asked for, or null if the player hasn't asked for one
+    private volatile SuggestionStrategy hintStrategy;
+
+    private volatile GuessPool hintPool;
+
+    // Next hint, worked out in the background; only valid while its version is current
+    private volatile PrecomputedHint precomputedHint;
 
     public Game() {
         // Default constructor for Jackson
-        this.id = UUID.randomUUID().toString();
-        this.history = new ArrayList<>();
-        this.gameOver = false;
-        this.won = false;
-        this.createdAt = LocalDateTime.now();
-        this.slotCount = 4; // Default slot count
+        this(GameSnapshot.initial(UUID.randomUUID().toString(), System.currentTimeMillis(), 4, null));
+    }
+
+    private Game(GameSnapshot initial) {
+        this.state = new AtomicReference<>(initial);
     }
 
     public Game(List<Color> secret, int slotCount) {
-        this();
-        this.secret = secret;
-        this.slotCount = slotCount;
+        this(UUID.randomUUID().toString(), secret, slotCount);
+    }
+
+    /**
+     * @param id The game ID, already generated
+     */
+    public Game(String id, List<Color> secret, int slotCount) {
+        this(GameSnapshot.initial(id, System.currentTimeMillis(), slotCount, secret));
+    }
+
+    /**
+     * @return The current state of the game, which later changes leave as it is
+     */
+    @JsonIgnore
+    public GameSnapshot snapshot() {
+        return state.get();
+    }
+
+    /**
+     * Publish the next version of the state. Callers hold the game's monitor.
+     */
+    private void publish(GameSnapshot next) {
+        state.set(next);
+        this.precomputedHint = null;
     }
 
+    @JsonProperty("id")
     public String getId() {
-        return id;
+        return state.get().getId();
     }
 
-    public void setId(String id) {
-        this.id = id;
+    public synchronized void setId(String id) {
+        publish(state.get().withId(id));
     }
 
+    /**
+     * @return A new list holding the secret, or null if none is set
+     */
+    @JsonProperty("secret")
     public List<Color> getSecret() {
-        return secret;
+        return state.get().getSecret();
     }
 
-    public void setSecret(List<Color> secret) {
-        this.secret = secret;
+    /**
+     * Set the secret, which must have one color per slot.
+     *
+     * @throws IllegalArgumentException if the secret has the wrong length or contains null
+     */
+    public synchronized void setSecret(List<Color> secret) {
+        publish(state.get().withSecret(secret));
     }
 
+    /**
+     * Get the secret packed as a {@link CodeSpace} code.
+     * @return The packed secret, or {@link CodeSpace#UNPACKED} if it cannot be packed
+     */
+    @JsonIgnore
+    public int getPackedSecret() {
+        return state.get().getPackedSecret();
+    }
+
+    /**
+     * @return The guesses so far, each with its feedback, as an unmodifiable view of the
+     *         current version that later guesses don't change
+     */
+    @JsonProperty("history")
     public List<GuessAttempt> getHistory() {
-        return history;
+        return state.get().getHistory();
     }
 
-    public void setHistory(List<GuessAttempt> history) {
-        this.history = history;
+    /**
+     * Replace the history, keeping the game state as it is.
+     *
+     * @throws IllegalArgumentException if a guess has the wrong length or a feedback is impossible
+     */
+    public synchronized void setHistory(List<GuessAttempt> history) {
+        GameSnapshot current = state.get();
+        GameSnapshot next = current.withoutHistory();
+        for (GuessAttempt attempt : history) {
+            next = next.withGuess(attempt);
+        }
+        // Adding guesses may have set the flags; a replaced history leaves them alone
+        publish(next.withState(current.isGameOver(), current.isWon()));
+    }
+
+    /**
+     * @return Number of guesses made
+     */
+    @JsonIgnore
+    public int getGuessCount() {
+        return state.get().getGuessCount();
     }
 
+    @JsonProperty("gameOver")
     public boolean isGameOver() {
-        return gameOver;
+        return state.get().isGameOver();
     }
 
-    public void setGameOver(boolean gameOver) {
-        this.gameOver = gameOver;
+    public synchronized void setGameOver(boolean gameOver) {
+        GameSnapshot current = state.get();
+        publish(current.withState(gameOver, current.isWon()));
     }
 
+    @JsonProperty("won")
     public boolean isWon() {
-        return won;
+        return state.get().isWon();
     }
 
-    public void setWon(boolean won) {
-        this.won = won;
+    public synchronized void setWon(boolean won) {
+        GameSnapshot current = state.get();
+        publish(current.withState(current.isGameOver(), won));
     }
 
+    @JsonProperty("createdAt")
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return state.get().getCreatedAt();
     }
 
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+    public synchronized void setCreatedAt(LocalDateTime createdAt) {
+        publish(state.get().withCreatedAt(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
     }
 
+    @JsonProperty("slotCount")
     public int getSlotCount() {
-        return slotCount;
+        return state.get().getSlotCount();
+    }
+
+    /**
+     * Set the number of slots, repacking the secret for the new length.
+     *
+     * @throws IllegalStateException if guesses have already been made
+     */
+    public synchronized void setSlotCount(int slotCount) {
+        if (slotCount != state.get().getSlotCount()) {
+            publish(state.get().withSlotCount(slotCount));
+        }
+    }
+
+    /**
+     * @return Approximate heap size of this game and its history
+     */
+    @JsonIgnore
+    public long estimatedBytes() {
+        GameSnapshot current = state.get();
+        // The game, its state reference and snapshot, the ID string, and the secret, guess and feedback arrays
+        return 32 + 16 + 48 + 56 + 2L * current.getId().length() + current.arrayBytes();
+    }
+
+    /**
+     * Encode the game as a self-contained record, for stores that keep games outside
+     * the heap. The record holds everything but the precomputed hint: the ID, creation
+     * time, slot count, version, state flags and hint settings, then the packed secret,
+     * guesses and feedbacks as they are held here.
+     *
+     * @return The record, read back by {@link #fromRecord(ByteBuffer)}
+     */
+    public byte[] toRecord() {
+        GameSnapshot current = state.get();
+        byte[] idBytes = current.getId().getBytes(StandardCharsets.UTF_8);
+        int slotCount = current.getSlotCount();
+        int guessCount = current.getGuessCount();
+        int ints = GameSnapshot.codeInts(slotCount);
+        int width = GameSnapshot.feedbackBytes(slotCount);
+        int secretInts = current.hasSecret() ? ints : 0;
+        ByteBuffer out = ByteBuffer.allocate(RECORD_HEADER_BYTES + idBytes.length
+                + 4 * (secretInts + guessCount * ints) + guessCount * width);
+        out.putShort((short) idBytes.length).put(idBytes);
+        out.putLong(current.getCreatedAtMillis()).putInt(slotCount).putInt(current.getVersion()).putInt(guessCount);
+        out.put((byte) ((current.isGameOver() ? 1 : 0) | (current.isWon() ? 2 : 0) | (current.hasSecret() ? 4 : 0)));
+        SuggestionStrategy strategy = hintStrategy;
+        GuessPool pool = hintPool;
+        out.put((byte) (strategy == null ? 0 : strategy.ordinal() + 1));
+        out.put((byte) (pool == null ? 0 : pool.ordinal() + 1));
+        int[] secret = current.secretCode();
+        for (int i = 0; i < secretInts; i++) {
+            out.putInt(secret[i]);
+        }
+        int[] guesses = current.guessCodes();
+        for (int i = 0; i < guessCount * ints; i++) {
+            out.putInt(guesses[i]);
+        }
+        out.put(current.feedbackBytes(), 0, guessCount * width);
+        return out.array();
     }
 
-    public void setSlotCount(int slotCount) {
-        this.slotCount = slotCount;
+    /**
+     * Decode a record written by {@link #toRecord()}.
+     *
+     * @param record The record, from its position; the position is moved past it
+     * @return A new game with the recorded state
+     * @throws IllegalArgumentException if the record is truncated or malformed
+     */
+    public static Game fromRecord(ByteBuffer record) {
+        try {
+            byte[] idBytes = new byte[Short.toUnsignedInt(record.getShort())];
+            record.get(idBytes);
+            String id = new String(idBytes, StandardCharsets.UTF_8);
+            long createdAtMillis = record.getLong();
+            int slotCount = record.getInt();
+            int version = record.getInt();
+            int guessCount = record.getInt();
+            int flags = record.get();
+            int strategy = record.get();
+            int pool = record.get();
+            if (slotCount <= 0 || guessCount < 0) {
+                throw new IllegalArgumentException("Malformed game record for " + id);
+            }
+            int ints = GameSnapshot.codeInts(slotCount);
+            int[] secret = null;
+            if ((flags & 4) != 0) {
+                secret = new int[ints];
+                record.asIntBuffer().get(secret);
+                record.position(record.position() + 4 * ints);
+            }
+            int[] guesses = new int[guessCount * ints];
+            record.asIntBuffer().get(guesses);
+            record.position(record.position() + 4 * guesses.length);
+            byte[] feedbacks = new byte[guessCount * GameSnapshot.feedbackBytes(slotCount)];
+            record.get(feedbacks);
+            Game game = new Game(new GameSnapshot(id, createdAtMillis, slotCount, secret, guesses, feedbacks,
+                    guessCount, (flags & 1) != 0, (flags & 2) != 0, version));
+            game.hintStrategy = strategy == 0 ? null : SuggestionStrategy.values()[strategy - 1];
+            game.hintPool = pool == 0 ? null : GuessPool.values()[pool - 1];
+            return game;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or malformed game record", e);
+        }
     }
 
     /**
      * Add a guess attempt to the game history and update game state.
      * @param guessAttempt The guess attempt (guess + feedback) to add
+     * @throws IllegalArgumentException if the guess has the wrong length or the feedback is impossible
      */
-    public void addGuessAttempt(GuessAttempt guessAttempt) {
-        this.history.add(guessAttempt);
-        
-        // Check if game is won (all exact matches)
-        if (guessAttempt.getFeedback().getExact() == slotCount) {
-            this.won = true;
-            this.gameOver = true;
+    public synchronized void addGuessAttempt(GuessAttempt guessAttempt) {
+        publish(state.get().withGuess(guessAttempt));
+    }
+
+    /**
+     * Empty the history, discarding any precomputed hint.
+     */
+    public synchronized void clearHistory() {
+        publish(state.get().withoutHistory());
+    }
+
+    /**
+     * Start the game over with a new secret, in one version: no guesses, not over, not won.
+     *
+     * @throws IllegalArgumentException if the secret has the wrong length or contains null
+     */
+    public synchronized void restart(List<Color> secret) {
+        publish(state.get().restarted(secret));
+    }
+
+    /**
+     * @return A number that changes whenever the game does
+     */
+    @JsonIgnore
+    public int getVersion() {
+        return state.get().getVersion();
+    }
+
+    /**
+     * Remember the settings of a hint the player asked for.
+     */
+    public void recordHintSettings(SuggestionStrategy strategy, GuessPool guessPool) {
+        this.hintStrategy = strategy;
+        this.hintPool = guessPool;
+    }
+
+    /**
+     * @return The strategy of the last hint asked for, or null if none was
+     */
+    @JsonIgnore
+    public SuggestionStrategy getHintStrategy() {
+        return hintStrategy;
+    }
+
+    @JsonIgnore
+    public GuessPool getHintPool() {
+        return hintPool;
+    }
+
+    /**
+     * Keep a hint worked out ahead of the request for it, unless the history has moved on.
+     *
+     * @param version The {@link #getVersion()} the hint was worked out for
+     * @return true if the hint was kept
+     */
+    public synchronized boolean offerPrecomputedHint(int version, SuggestionStrategy strategy, GuessPool guessPool,
+                                                     Suggestion suggestion) {
+        if (version != state.get().getVersion()) {
+            return false;
+        }
+        this.precomputedHint = new PrecomputedHint(version, strategy, guessPool, suggestion);
+        return true;
+    }
+
+    /**
+     * Read without a lock: the hint is checked against the current version, so one left
+     * over from before a change is never returned.
+     *
+     * @return The hint worked out for the current history with these settings, or null if there is none
+     */
+    public Suggestion getPrecomputedHint(SuggestionStrategy strategy, GuessPool guessPool) {
+        PrecomputedHint hint = precomputedHint;
+        return hint != null && hint.version == state.get().getVersion()
+                && hint.strategy == strategy && hint.guessPool == guessPool ? hint.suggestion : null;
+    }
+
+    private static final class PrecomputedHint {
+        final int version;
+        final SuggestionStrategy strategy;
+        final GuessPool guessPool;
+        final Suggestion suggestion;
+
+        PrecomputedHint(int version, SuggestionStrategy strategy, GuessPool guessPool, Suggestion suggestion) {
+            this.version = version;
+            this.strategy = strategy;
+            this.guessPool = guessPool;
+            this.suggestion = suggestion;
         }
     }
 
     @Override
     public String toString() {
+        GameSnapshot current = state.get();
         return String.format("Game{id='%s', gameOver=%s, won=%s, historySize=%d}", 
-                           id, gameOver, won, history.size());
+                           current.getId(), current.isGameOver(), current.isWon(), current.getGuessCount());
     }
 }
\ No newline at end of file
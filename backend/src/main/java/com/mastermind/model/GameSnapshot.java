@@ -0,0 +1,308 @@
+package com.mastermind.model;
+
+import com.mastermind.solver.CodeSpace;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state of a {@link Game} at one version, which never changes once published.
+ *
+ * Each change to a game publishes a new snapshot with the next version. The guesses
+ * and feedbacks are packed into arrays that successive snapshots share: adding a
+ * guess writes past the end of the newest snapshot's history and publishes a snapshot
+ * that sees one more entry, so older snapshots keep seeing exactly their own history
+ * and nothing is copied until the arrays fill up. {@link #getHistory()} decodes the
+ * snapshot's part of those arrays on first use into an immutable list that every later
+ * reader of the snapshot shares, so reading a snapshot takes no lock and decodes each
+ * guess at most once.
+ */
+public final class GameSnapshot {
+
+    private static final int[] NO_CODES = new int[0];
+    private static final byte[] NO_FEEDBACKS = new byte[0];
+
+    private final String id;
+    private final long createdAtMillis;
+    private final int slotCount;
+    // Null if no secret is set
+    private final int[] secret;
+    // Codes of every guess in order, codeInts(slotCount) ints each; may run past guessCount
+    private final int[] guesses;
+    // Packed feedback of every guess in order, feedbackBytes(slotCount) bytes each, big-endian
+    private final byte[] feedbacks;
+    private final int guessCount;
+    private final boolean gameOver;
+    private final boolean won;
+    private final int version;
+    // Decoded on the first getHistory(); a race only decodes it twice
+    private volatile List<GuessAttempt> history;
+
+    GameSnapshot(String id, long createdAtMillis, int slotCount, int[] secret, int[] guesses, byte[] feedbacks,
+                 int guessCount, boolean gameOver, boolean won, int version) {
+        this.id = id;
+        this.createdAtMillis = createdAtMillis;
+        this.slotCount = slotCount;
+        this.secret = secret;
+        this.guesses = guesses;
+        this.feedbacks = feedbacks;
+        this.guessCount = guessCount;
+        this.gameOver = gameOver;
+        this.won = won;
+        this.version = version;
+    }
+
+    /**
+     * @return Version 0 of a game with no guesses
+     * @throws IllegalArgumentException if the secret is set and has the wrong length
+     */
+    static GameSnapshot initial(String id, long createdAtMillis, int slotCount, List<Color> secret) {
+        return new GameSnapshot(id, createdAtMillis, slotCount, pack(secret, slotCount), NO_CODES, NO_FEEDBACKS,
+                0, false, false, 0);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneId.systemDefault());
+    }
+
+    long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return A new list holding the secret, or null if none is set
+     */
+    public List<Color> getSecret() {
+        return secret == null ? null : decode(secret, 0, slotCount);
+    }
+
+    /**
+     * @return The secret packed as a {@link CodeSpace} code, or {@link CodeSpace#UNPACKED} if it cannot be packed
+     */
+    public int getPackedSecret() {
+        return secret == null || !CodeSpace.isPackable(slotCount) ? CodeSpace.UNPACKED : secret[0];
+    }
+
+    boolean hasSecret() {
+        return secret != null;
+    }
+
+    /**
+     * @return The guesses of this version, each with its feedback, as an immutable list
+     */
+    public List<GuessAttempt> getHistory() {
+        List<GuessAttempt> decoded = history;
+        if (decoded == null) {
+            GuessAttempt[] attempts = new GuessAttempt[guessCount];
+            for (int i = 0; i < guessCount; i++) {
+                attempts[i] = attemptAt(i);
+            }
+            decoded = List.of(attempts);
+            history = decoded;
+        }
+        return decoded;
+    }
+
+    public int getGuessCount() {
+        return guessCount;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    /**
+     * @return A number that goes up with every change to the game
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The next version, with this guess added; only for the newest snapshot of a game,
+     *         by one thread at a time, since it writes into the arrays this snapshot shares
+     * @throws IllegalArgumentException if the guess has the wrong length or the feedback is impossible
+     */
+    GameSnapshot withGuess(GuessAttempt attempt) {
+        List<Color> guess = attempt.getGuess();
+        Feedback feedback = attempt.getFeedback();
+        checkCode(guess, slotCount);
+        int exact = feedback.getExact();
+        int partial = feedback.getPartial();
+        if (exact < 0 || partial < 0 || exact + partial > slotCount) {
+            throw new IllegalArgumentException("Impossible feedback for " + slotCount + " slots: " + feedback);
+        }
+        int ints = codeInts(slotCount);
+        int width = feedbackBytes(slotCount);
+        int[] nextGuesses = guesses;
+        byte[] nextFeedbacks = feedbacks;
+        if ((guessCount + 1) * ints > guesses.length) {
+            int capacity = Math.max(4, guessCount * 2);
+            nextGuesses = Arrays.copyOf(guesses, capacity * ints);
+            nextFeedbacks = Arrays.copyOf(feedbacks, capacity * width);
+        }
+        encode(guess, nextGuesses, guessCount * ints);
+        int packed = exact * (slotCount + 1) + partial;
+        for (int b = 0; b < width; b++) {
+            nextFeedbacks[guessCount * width + b] = (byte) (packed >>> (8 * (width - 1 - b)));
+        }
+        boolean solved = exact == slotCount;
+        return new GameSnapshot(id, createdAtMillis, slotCount, secret, nextGuesses, nextFeedbacks, guessCount + 1,
+                gameOver || solved, won || solved, version + 1);
+    }
+
+    /**
+     * @return The next version, with no guesses
+     */
+    GameSnapshot withoutHistory() {
+        return new GameSnapshot(id, createdAtMillis, slotCount, secret, NO_CODES, NO_FEEDBACKS, 0,
+                gameOver, won, version + 1);
+    }
+
+    /**
+     * @return The next version, with a new secret, no guesses, and the game in play
+     */
+    GameSnapshot restarted(List<Color> newSecret) {
+        return new GameSnapshot(id, createdAtMillis, slotCount, pack(newSecret, slotCount), NO_CODES, NO_FEEDBACKS, 0,
+                false, false, version + 1);
+    }
+
+    GameSnapshot withSecret(List<Color> newSecret) {
+        return new GameSnapshot(id, createdAtMillis, slotCount, pack(newSecret, slotCount), guesses, feedbacks,
+                guessCount, gameOver, won, version + 1);
+    }
+
+    /**
+     * @return The next version with this many slots, the secret kept only if it still fits
+     * @throws IllegalStateException if guesses have already been made
+     */
+    GameSnapshot withSlotCount(int newSlotCount) {
+        if (guessCount > 0) {
+            throw new IllegalStateException("Slot count cannot change once guesses are made");
+        }
+        List<Color> code = getSecret();
+        int[] repacked = code != null && code.size() == newSlotCount ? pack(code, newSlotCount) : null;
+        return new GameSnapshot(id, createdAtMillis, newSlotCount, repacked, NO_CODES, NO_FEEDBACKS, 0,
+                gameOver, won, version + 1);
+    }
+
+    GameSnapshot withState(boolean newGameOver, boolean newWon) {
+        return new GameSnapshot(id, createdAtMillis, slotCount, secret, guesses, feedbacks, guessCount,
+                newGameOver, newWon, version + 1);
+    }
+
+    GameSnapshot withId(String newId) {
+        return new GameSnapshot(newId, createdAtMillis, slotCount, secret, guesses, feedbacks, guessCount,
+                gameOver, won, version + 1);
+    }
+
+    GameSnapshot withCreatedAt(long newCreatedAtMillis) {
+        return new GameSnapshot(id, newCreatedAtMillis, slotCount, secret, guesses, feedbacks, guessCount,
+                gameOver, won, version + 1);
+    }
+
+    // The packed arrays as held, for records; guesses and feedbacks may run past guessCount
+    int[] secretCode() {
+        return secret;
+    }
+
+    int[] guessCodes() {
+        return guesses;
+    }
+
+    byte[] feedbackBytes() {
+        return feedbacks;
+    }
+
+    /**
+     * @return Approximate heap size of the secret, guess and feedback arrays
+     */
+    long arrayBytes() {
+        return 3 * 16 + 4L * codeInts(slotCount) + 4L * guesses.length + feedbacks.length;
+    }
+
+    private GuessAttempt attemptAt(int index) {
+        int feedback = feedbackAt(index);
+        // Shared by every reader of the history, so not to be changed by any of them
+        Feedback unpacked = Feedback.readOnly(feedback / (slotCount + 1), feedback % (slotCount + 1));
+        List<Color> guess = Collections.unmodifiableList(decode(guesses, index * codeInts(slotCount), slotCount));
+        return CodeSpace.isPackable(slotCount)
+                ? new GuessAttempt(guess, unpacked, guesses[index], feedback)
+                : new GuessAttempt(guess, unpacked, CodeSpace.UNPACKED, CodeSpace.UNPACKED);
+    }
+
+    private int feedbackAt(int index) {
+        int width = feedbackBytes(slotCount);
+        int packed = 0;
+        for (int b = 0; b < width; b++) {
+            packed = (packed << 8) | (feedbacks[index * width + b] & 0xff);
+        }
+        return packed;
+    }
+
+    private static int[] pack(List<Color> code, int slotCount) {
+        if (code == null) {
+            return null;
+        }
+        checkCode(code, slotCount);
+        int[] packed = new int[codeInts(slotCount)];
+        encode(code, packed, 0);
+        return packed;
+    }
+
+    private static void checkCode(List<Color> code, int slotCount) {
+        if (code == null || code.size() != slotCount) {
+            throw new IllegalArgumentException("Code must contain " + slotCount + " colors");
+        }
+    }
+
+    /** Ints per code: one {@link CodeSpace} code per {@value CodeSpace#MAX_PACKED_SLOTS} slots. */
+    static int codeInts(int slotCount) {
+        return (slotCount + CodeSpace.MAX_PACKED_SLOTS - 1) / CodeSpace.MAX_PACKED_SLOTS;
+    }
+
+    /** Bytes per feedback: enough for every packed feedback on the board. */
+    static int feedbackBytes(int slotCount) {
+        long feedbackCount = (long) (slotCount + 1) * (slotCount + 1);
+        return feedbackCount <= 1 << 8 ? 1 : feedbackCount <= 1 << 16 ? 2 : 4;
+    }
+
+    private static void encode(List<Color> code, int[] out, int offset) {
+        for (int start = 0; start < code.size(); start += CodeSpace.MAX_PACKED_SLOTS) {
+            int end = Math.min(code.size(), start + CodeSpace.MAX_PACKED_SLOTS);
+            out[offset++] = CodeSpace.of(end - start).encode(code.subList(start, end));
+        }
+    }
+
+    private static List<Color> decode(int[] codes, int offset, int slotCount) {
+        List<Color> colors = new ArrayList<>(slotCount);
+        for (int start = 0; start < slotCount; start += CodeSpace.MAX_PACKED_SLOTS) {
+            int end = Math.min(slotCount, start + CodeSpace.MAX_PACKED_SLOTS);
+            colors.addAll(CodeSpace.of(end - start).decode(codes[offset++]));
+        }
+        return colors;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GameSnapshot{id='%s', version=%d, gameOver=%s, won=%s, historySize=%d}",
+                id, version, gameOver, won, guessCount);
+    }
+}
@@ -1,6 +1,8 @@
 package com.mastermind.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mastermind.solver.CodeSpace;
 import java.util.List;
 
 /**
@@ -17,6 +19,16 @@ public class GuessAttempt {
     @JsonProperty("feedback")
     private Feedback feedback;
 
+    @JsonIgnore
+    private int packedGuess = CodeSpace.UNPACKED;
+
+    @JsonIgnore
+    private int packedFeedback = CodeSpace.UNPACKED;
+
+    // A view of a game's history shared by every reader, so not to be changed
+    @JsonIgnore
+    private boolean readOnly;
+
     public GuessAttempt() {
         // Default constructor for Jackson
     }
@@ -26,6 +38,17 @@ public class GuessAttempt {
         this.feedback = feedback;
     }
 
+    /**
+     * Create a read-only attempt, as a view of a game's history, whose packed forms may
+     * already be known. The guess and feedback passed in must be read-only too.
+     */
+    GuessAttempt(List<Color> guess, Feedback feedback, int packedGuess, int packedFeedback) {
+        this(guess, feedback);
+        this.packedGuess = packedGuess;
+        this.packedFeedback = packedFeedback;
+        this.readOnly = true;
+    }
+
     /**
      * Get the original guess that was made.
      * @return The list of colors guessed
@@ -35,7 +58,10 @@ public class GuessAttempt {
     }
 
     public void setGuess(List<Color> guess) {
+        checkWritable();
         this.guess = guess;
+        this.packedGuess = CodeSpace.UNPACKED;
+        this.packedFeedback = CodeSpace.UNPACKED;
     }
 
     /**
@@ -47,7 +73,39 @@ public class GuessAttempt {
     }
 
     public void setFeedback(Feedback feedback) {
+        checkWritable();
         this.feedback = feedback;
+        this.packedFeedback = CodeSpace.UNPACKED;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Guesses in a game's history are read-only");
+        }
+    }
+
+    /**
+     * Get the guess packed as a {@link CodeSpace} code, computed on first use.
+     * @return The packed guess, or {@link CodeSpace#UNPACKED} if it cannot be packed
+     */
+    @JsonIgnore
+    public int getPackedGuess() {
+        if (packedGuess == CodeSpace.UNPACKED) {
+            packedGuess = CodeSpace.tryPack(guess);
+        }
+        return packedGuess;
+    }
+
+    /**
+     * Get the feedback packed for the code space of this guess, computed on first use.
+     * @return The packed feedback, or {@link CodeSpace#UNPACKED} if the guess cannot be packed
+     */
+    @JsonIgnore
+    public int getPackedFeedback() {
+        if (packedFeedback == CodeSpace.UNPACKED && feedback != null && getPackedGuess() != CodeSpace.UNPACKED) {
+            packedFeedback = CodeSpace.of(guess.size()).packFeedback(feedback);
+        }
+        return packedFeedback;
     }
 
     @Override
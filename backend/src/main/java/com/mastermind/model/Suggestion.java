@@ -0,0 +1,49 @@
+package com.mastermind.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A suggested guess, and whether the solver finished its search to produce it.
+ * A truncated suggestion is the best guess found before the solver's time or
+ * evaluation limit was reached.
+ */
+public class Suggestion {
+
+    private final List<Color> guess;
+    private final boolean optimal;
+
+    public Suggestion(List<Color> guess, boolean optimal) {
+        this.guess = guess;
+        this.optimal = optimal;
+    }
+
+    public List<Color> getGuess() {
+        return guess;
+    }
+
+    /**
+     * @return true if the search ran to completion, false if it was cut short
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Suggestion that = (Suggestion) o;
+        return optimal == that.optimal && Objects.equals(guess, that.guess);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(guess, optimal);
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{guess=" + guess + ", optimal=" + optimal + "}";
+    }
+}
@@ -3,13 +3,41 @@ package com.mastermind.service;
 import com.mastermind.model.Color;
 import com.mastermind.model.Feedback;
 import com.mastermind.model.GuessAttempt;
+import com.mastermind.model.Suggestion;
+import com.mastermind.solver.CandidateSet;
+import com.mastermind.solver.CodeRangeSpliterator;
+import com.mastermind.solver.CodeSpace;
+import com.mastermind.solver.ConstraintSolver;
+import com.mastermind.solver.FeedbackScorer;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.OpeningBook;
+import com.mastermind.solver.PackedHistory;
+import com.mastermind.solver.PartitionSearch;
+import com.mastermind.solver.SearchBudget;
+import com.mastermind.solver.StrategyTree;
+import com.mastermind.solver.SuggestionStrategy;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service class containing the core game logic for Mastermind.
@@ -18,27 +46,70 @@ import java.util.Random;
 @Service
 public class GameLogicService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GameLogicService.class);
     private static final Color[] AVAILABLE_COLORS = Color.values();
-    private static final Random RANDOM = new SecureRandom();
+
+    // Worker threads for large suggestion searches (0 = one per available processor)
+    @Value("${mastermind.solver.parallelism:0}")
+    private int solverParallelism;
+
+    @Value("${mastermind.solver.max-evaluations:" + PartitionSearch.DEFAULT_MAX_EVALUATIONS + "}")
+    private long solverMaxEvaluations = PartitionSearch.DEFAULT_MAX_EVALUATIONS;
+
+    @Value("${mastermind.solver.parallel-threshold:" + PartitionSearch.DEFAULT_PARALLEL_THRESHOLD + "}")
+    private long solverParallelThreshold = PartitionSearch.DEFAULT_PARALLEL_THRESHOLD;
+
+    // Board sizes that get an opening book for the precomputed strategy, loaded or computed after startup
+    @Value("${mastermind.solver.opening-book.slot-counts:}")
+    private int[] openingBookSlotCounts = {};
+
+    // Strategy and pool that opening books and strategy trees answer for
+    @Value("${mastermind.solver.precomputed.strategy:minimax}")
+    private SuggestionStrategy openingBookStrategy = SuggestionStrategy.MINIMAX;
+
+    @Value("${mastermind.solver.precomputed.pool:all}")
+    private GuessPool openingBookPool = GuessPool.ALL;
+
+    // Code space size from which consistent codes are found by constraint propagation instead of enumeration
+    @Value("${mastermind.solver.constraint.min-codes:10000000}")
+    private long constraintMinCodes = 10_000_000L;
+
+    // Board sizes answered from a strategy tree for the precomputed strategy, mapped at startup
+    @Value("${mastermind.solver.strategy-tree.slot-counts:4,5}")
+    private int[] strategyTreeSlotCounts = {4, 5};
+
+    // Directory searched for tree files before the bundled ones (empty = bundled only)
+    @Value("${mastermind.solver.strategy-tree.dir:}")
+    private String strategyTreeDir = "";
+
+    private final SecretSupply secretSupply;
+    // Created on first use, once the solver settings are injected
+    private final Lazy<PartitionSearch> partitionSearch = new Lazy<>(() -> new PartitionSearch(
+            solverParallelism > 0 ? solverParallelism : Runtime.getRuntime().availableProcessors(),
+            solverMaxEvaluations, solverParallelThreshold));
+    private final Map<Integer, OpeningBook> openingBooks = new ConcurrentHashMap<>();
+    private final Map<Integer, StrategyTree> strategyTrees = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GameLogicService(SecretSupply secretSupply) {
+        this.secretSupply = secretSupply;
+    }
+
+    public GameLogicService() {
+        this(new SecretSupply());
+    }
 
     /**
      * Generate a random secret code for the game.
      * Equivalent to the TypeScript generateSecret() function.
      * 
+     * Secrets come from the {@link SecretSupply}, pre-generated for common board sizes.
+     * 
      * @param slotCount Number of slots in the secret code
      * @return List of randomly selected colors
      */
     public List<Color> generateSecret(int slotCount) {
-        if (slotCount <= 0) {
-            throw new IllegalArgumentException("Slot count must be positive");
-        }
-
-        List<Color> secret = new ArrayList<>(slotCount);
-        for (int i = 0; i < slotCount; i++) {
-            int randomIndex = RANDOM.nextInt(AVAILABLE_COLORS.length);
-            secret.add(AVAILABLE_COLORS[randomIndex]);
-        }
-        return secret;
+        return secretSupply.nextSecret(slotCount);
     }
 
     /**
@@ -49,6 +120,9 @@ public class GameLogicService {
      * 1. Count exact matches (correct color in correct position)
      * 2. Count partial matches (correct color in wrong position)
      * 
+     * Scoring is delegated to the allocation-free {@link FeedbackScorer}, which derives
+     * partial matches from per-color count histograms.
+     * 
      * @param secret The secret code to guess
      * @param guess The player's guess
      * @return Feedback containing exact and partial match counts
@@ -64,7 +138,21 @@ public class GameLogicService {
         }
 
         int slotCount = secret.size();
-        
+        if (slotCount > FeedbackScorer.MAX_SLOTS) {
+            return evaluateGuessByMarking(secret, guess);
+        }
+
+        int packed = FeedbackScorer.score(secret, guess);
+        return new Feedback(FeedbackScorer.exactOf(packed, slotCount), FeedbackScorer.partialOf(packed, slotCount));
+    }
+
+    /**
+     * Reference scoring by marking matched positions, used only for codes too long
+     * for the histogram scorer.
+     */
+    private Feedback evaluateGuessByMarking(List<Color> secret, List<Color> guess) {
+        int slotCount = secret.size();
+
         // Create copies to avoid modifying original lists
         Color[] secretCopy = secret.toArray(new Color[0]);
         Color[] guessCopy = guess.toArray(new Color[0]);
@@ -141,22 +229,463 @@ public class GameLogicService {
      * This algorithm tries all possible guesses and returns the first that, when used as
      * a potential secret, would produce the same feedback for each historical guess.
      *
+     * Boards small enough to pack into a {@link CodeSpace} are searched over packed codes,
+     * using the precomputed feedback table where available.
+     *
      * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
      * @param slotCount Number of slots in the guess
      * @return A compatible guess, or null if none found
      */
     public List<Color> suggestGuess(List<GuessAttempt> guessAttempts, int slotCount) {
-        List<Color> colors = getAvailableColors();
-        int colorCount = colors.size();
+        return guessOf(suggest(guessAttempts, slotCount, SuggestionStrategy.FIRST, GuessPool.ALL, SearchBudget.unlimited()));
+    }
+
+    /**
+     * Suggest a guess using the given strategy, drawing from every code on the board.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the guess
+     * @param strategy How to choose among possible guesses
+     * @return The suggested guess, or null if no code is consistent with the history
+     */
+    public List<Color> suggestGuess(List<GuessAttempt> guessAttempts, int slotCount, SuggestionStrategy strategy) {
+        return suggestGuess(guessAttempts, slotCount, strategy, GuessPool.ALL);
+    }
+
+    /**
+     * Suggest a guess using the given strategy.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the guess
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @return The suggested guess, or null if no code is consistent with the history
+     */
+    public List<Color> suggestGuess(List<GuessAttempt> guessAttempts, int slotCount,
+                                    SuggestionStrategy strategy, GuessPool guessPool) {
+        return guessOf(suggest(guessAttempts, slotCount, strategy, guessPool, SearchBudget.unlimited()));
+    }
+
+    /**
+     * Suggest a guess using the given strategy, within a search budget.
+     *
+     * {@link SuggestionStrategy#FIRST} picks the first consistent code in palette order, or a
+     * random code for an empty history. The partition strategies consult the opening book,
+     * then score the guesses in the pool against every code still consistent with the
+     * history; boards too large to pack fall back to the first consistent code.
+     *
+     * When the budget runs out, the best guess found so far is returned as a truncated
+     * suggestion, and if no consistent code was found yet, a random one.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the guess
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @param budget The search budget for this suggestion
+     * @return The suggestion, or null if no code is consistent with the history
+     */
+    public Suggestion suggest(List<GuessAttempt> guessAttempts, int slotCount,
+                              SuggestionStrategy strategy, GuessPool guessPool, SearchBudget budget) {
+        boolean packable = CodeSpace.isPackable(slotCount);
+        if (strategy != SuggestionStrategy.FIRST && !packable) {
+            // Partition strategies need packed codes; settle for the first consistent code
+            budget.truncate();
+        }
+        if (guessAttempts.isEmpty() && (strategy == SuggestionStrategy.FIRST || !packable)) {
+            // If no previous attempts, return a random guess instead of always starting with four reds
+            return new Suggestion(generateSecret(slotCount), !budget.isTruncated());
+        }
+        if (!guessAttempts.isEmpty() && usesConstraintSolver(slotCount)) {
+            if (strategy != SuggestionStrategy.FIRST) {
+                // Too many candidates to partition; settle for the first consistent code
+                budget.truncate();
+            }
+            return toSuggestion(ConstraintSolver.of(guessAttempts, slotCount).firstConsistent(budget), slotCount, budget);
+        }
+        if (!packable) {
+            return toSuggestion(suggestGuessUnpacked(guessAttempts, slotCount, budget), slotCount, budget);
+        }
+
+        CodeSpace space = CodeSpace.of(slotCount);
+        if (strategy == SuggestionStrategy.FIRST) {
+            int code = partitionSearch.get().firstConsistent(PackedHistory.of(guessAttempts, space), budget);
+            return toSuggestion(code != CodeSpace.UNPACKED ? space.decode(code) : null, slotCount, budget);
+        }
+
+        List<Color> booked = precomputedGuess(guessAttempts, slotCount, strategy, guessPool);
+        if (booked != null) {
+            return new Suggestion(booked, !budget.isTruncated());
+        }
+
+        if (guessAttempts.isEmpty() && !partitionSearch.get().canSearchOpening(space)) {
+            // Opening move on a very large board: even one guess per symmetry class is too costly
+            budget.truncate();
+            return new Suggestion(generateSecret(slotCount), false);
+        }
+
+        return suggest(buildCandidates(guessAttempts, slotCount, budget), strategy, guessPool, budget);
+    }
+
+    /**
+     * Check whether suggestions for a board are found by constraint propagation rather than
+     * by enumerating its codes.
+     *
+     * @param slotCount Number of slots in the game
+     * @return true if the board's code space reaches the configured threshold
+     */
+    public boolean usesConstraintSolver(int slotCount) {
+        return Math.pow(AVAILABLE_COLORS.length, slotCount) >= constraintMinCodes;
+    }
+
+    /**
+     * Build the set of codes consistent with a history, enumerating in parallel on large boards.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the game
+     * @return The consistent codes
+     * @throws IllegalArgumentException if the board is too large to pack
+     */
+    public CandidateSet buildCandidates(List<GuessAttempt> guessAttempts, int slotCount) {
+        return buildCandidates(guessAttempts, slotCount, SearchBudget.unlimited());
+    }
+
+    /**
+     * Build the set of codes consistent with a history within a search budget. If the budget
+     * runs out, the set holds only the codes found so far and the budget is marked truncated.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the game
+     * @param budget The search budget
+     * @return The consistent codes found
+     * @throws IllegalArgumentException if the board is too large to pack
+     */
+    public CandidateSet buildCandidates(List<GuessAttempt> guessAttempts, int slotCount, SearchBudget budget) {
+        return partitionSearch.get().candidates(PackedHistory.of(guessAttempts, CodeSpace.of(slotCount)), budget);
+    }
+
+    /**
+     * Estimate the work of a suggestion, in feedback evaluations, before running it.
+     *
+     * Building the candidates costs one evaluation per code and attempt, and the search
+     * costs one per guess and candidate. When the candidate count is not known yet, each
+     * attempt is assumed to split the candidates evenly over half the possible feedbacks.
+     * Boards solved by constraint propagation cost a pass over every attempt and slot for
+     * each slot assigned.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the game
+     * @param candidateCount Codes still consistent with the history, or -1 if not known
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @return The estimated evaluations, 0 for answers served without a search
+     */
+    public long estimateEvaluations(List<GuessAttempt> guessAttempts, int slotCount, long candidateCount,
+                                    SuggestionStrategy strategy, GuessPool guessPool) {
+        int history = guessAttempts.size();
+        if (history > 0 && usesConstraintSolver(slotCount)) {
+            // One propagation pass per attempt and slot for each assignment; backtracking is not foreseen
+            return (long) slotCount * slotCount * history;
+        }
+        if (!CodeSpace.isPackable(slotCount)) {
+            // Scanned code by code until the search budget runs out
+            double codes = Math.pow(AVAILABLE_COLORS.length, slotCount);
+            return history == 0 ? 0 : (long) Math.min(Long.MAX_VALUE, codes * history);
+        }
+        if (history == 0 && strategy == SuggestionStrategy.FIRST
+                || precomputedGuess(guessAttempts, slotCount, strategy, guessPool) != null) {
+            return 0;
+        }
+
+        CodeSpace space = CodeSpace.of(slotCount);
+        long enumeration = (long) space.size() * history;
+        if (strategy == SuggestionStrategy.FIRST) {
+            return enumeration;
+        }
+        if (history == 0 && !partitionSearch.get().canSearchOpening(space)) {
+            return 0;
+        }
+        long candidates = candidateCount >= 0
+                ? candidateCount
+                : Math.max(1, (long) (space.size() / Math.pow(Math.max(2, space.feedbackCount() / 2.0), history)));
+        return enumeration + partitionSearch.get().estimateEvaluations(space, candidates, strategy, guessPool);
+    }
+
+    /**
+     * Count the codes consistent with a history without collecting them.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the game
+     * @return The number of consistent codes
+     * @throws IllegalArgumentException if the board is too large to pack
+     */
+    public int countCandidates(List<GuessAttempt> guessAttempts, int slotCount) {
+        return partitionSearch.get().count(PackedHistory.of(guessAttempts, CodeSpace.of(slotCount)));
+    }
+
+    /**
+     * Suggest a guess from a set of codes already known to be consistent with the history,
+     * drawing from every code on the board.
+     *
+     * @param candidates Codes still consistent with the history
+     * @param strategy How to choose among possible guesses
+     * @return The suggested guess, or null if the set is empty
+     */
+    public List<Color> suggestGuess(CandidateSet candidates, SuggestionStrategy strategy) {
+        return suggestGuess(candidates, strategy, GuessPool.ALL);
+    }
+
+    /**
+     * Suggest a guess from a set of codes already known to be consistent with the history.
+     * Cost depends on the size of the set, not on the length of the history.
+     *
+     * @param candidates Codes still consistent with the history
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @return The suggested guess, or null if the set is empty
+     */
+    public List<Color> suggestGuess(CandidateSet candidates, SuggestionStrategy strategy, GuessPool guessPool) {
+        return guessOf(suggest(candidates, strategy, guessPool, SearchBudget.unlimited()));
+    }
+
+    /**
+     * Suggest a guess from a set of consistent codes within a search budget.
+     *
+     * @param candidates Codes still consistent with the history
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @param budget The search budget for this suggestion
+     * @return The suggestion, or null if the set is empty and the search ran to completion
+     */
+    public Suggestion suggest(CandidateSet candidates, SuggestionStrategy strategy, GuessPool guessPool,
+                              SearchBudget budget) {
+        CodeSpace space = candidates.getSpace();
+        if (candidates.isEmpty()) {
+            return toSuggestion(null, space.getSlotCount(), budget);
+        }
+        int guess = partitionSearch.get().bestGuess(candidates, strategy, guessPool, budget);
+        return new Suggestion(space.decode(guess), !budget.isTruncated());
+    }
+
+    /**
+     * Wrap a search result. A search that ran out of budget before finding any
+     * consistent code still suggests something: a random code.
+     */
+    private Suggestion toSuggestion(List<Color> guess, int slotCount, SearchBudget budget) {
+        if (guess == null) {
+            return budget.isTruncated() ? new Suggestion(generateSecret(slotCount), false) : null;
+        }
+        return new Suggestion(guess, !budget.isTruncated());
+    }
+
+    private static List<Color> guessOf(Suggestion suggestion) {
+        return suggestion != null ? suggestion.getGuess() : null;
+    }
+
+    /**
+     * Look up the next guess without searching: in the strategy tree for the board if the
+     * history followed it, otherwise in the opening book.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the game
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @return The precomputed guess, or null if neither covers this board, strategy, pool and history
+     */
+    public List<Color> precomputedGuess(List<GuessAttempt> guessAttempts, int slotCount,
+                                        SuggestionStrategy strategy, GuessPool guessPool) {
+        List<Color> planned = strategyTreeGuess(guessAttempts, slotCount, strategy, guessPool);
+        return planned != null ? planned : openingBookGuess(guessAttempts, slotCount, strategy, guessPool);
+    }
+
+    /**
+     * Look up the next guess in the strategy tree for the board, if the history followed the tree.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the game
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @return The planned guess, or null if there is no tree for this board, strategy and pool,
+     *         or the history played a guess the tree would not have
+     */
+    public List<Color> strategyTreeGuess(List<GuessAttempt> guessAttempts, int slotCount,
+                                         SuggestionStrategy strategy, GuessPool guessPool) {
+        StrategyTree tree = strategyTrees.get(slotCount);
+        if (tree == null || !tree.plays(strategy, guessPool)) {
+            return null;
+        }
+        int code = tree.lookup(PackedHistory.of(guessAttempts, tree.getSpace()));
+        return code != CodeSpace.UNPACKED ? tree.getSpace().decode(code) : null;
+    }
+
+    /**
+     * Use a tree for its board, replacing any earlier tree for the same board.
+     *
+     * @param tree The strategy tree
+     */
+    public void installStrategyTree(StrategyTree tree) {
+        strategyTrees.put(tree.getSpace().getSlotCount(), tree);
+    }
+
+    /**
+     * Map the strategy trees for the configured boards at startup. Trees are built offline
+     * by PrecomputedGenerator; boards without one are searched as usual.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStrategyTrees() {
+        if (openingBookStrategy == SuggestionStrategy.FIRST) {
+            return;
+        }
+        for (int slotCount : strategyTreeSlotCounts) {
+            try {
+                StrategyTree tree = loadStrategyTree(slotCount);
+                if (tree != null) {
+                    installStrategyTree(tree);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not load strategy tree for {} slots", slotCount, e);
+            }
+        }
+    }
+
+    /**
+     * Map the tree for a board from the tree directory, or from the classpath. A bundled
+     * tree inside a jar can't be mapped in place, so it is copied to a temporary file first.
+     *
+     * @return The tree, or null if there is none for this board
+     */
+    StrategyTree loadStrategyTree(int slotCount) throws IOException {
+        String name = StrategyTree.resourceName(CodeSpace.of(slotCount), openingBookStrategy, openingBookPool);
+        Path file;
+        if (!strategyTreeDir.isEmpty() && Files.isRegularFile(Paths.get(strategyTreeDir).resolve(name))) {
+            file = Paths.get(strategyTreeDir).resolve(name);
+        } else {
+            URL resource = GameLogicService.class.getClassLoader().getResource(name);
+            if (resource == null) {
+                logger.info("No strategy tree for {} slots, suggestions will be searched", slotCount);
+                return null;
+            }
+            if ("file".equals(resource.getProtocol())) {
+                try {
+                    file = Paths.get(resource.toURI());
+                } catch (URISyntaxException e) {
+                    throw new IOException("Bad strategy tree location: " + resource, e);
+                }
+            } else {
+                file = Files.createTempFile("strategy-tree-", ".tree");
+                file.toFile().deleteOnExit();
+                try (InputStream in = resource.openStream()) {
+                    Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        StrategyTree tree = StrategyTree.map(file);
+        logger.info("Mapped {} from {}", tree, file);
+        return tree;
+    }
+
+    /**
+     * Look up the next guess in the opening book for the board, if the book covers the history.
+     *
+     * @param guessAttempts List of previous guess attempts (guess + feedback pairs)
+     * @param slotCount Number of slots in the game
+     * @param strategy How to choose among possible guesses
+     * @param guessPool Which codes may be suggested
+     * @return The booked guess, or null if there is no book for this board, strategy and pool,
+     *         or the history is past the book
+     */
+    public List<Color> openingBookGuess(List<GuessAttempt> guessAttempts, int slotCount,
+                                        SuggestionStrategy strategy, GuessPool guessPool) {
+        if (guessAttempts.size() > 1) {
+            return null;
+        }
+        OpeningBook book = openingBooks.get(slotCount);
+        if (book == null || !book.plays(strategy, guessPool)) {
+            return null;
+        }
+        int code = book.lookup(PackedHistory.of(guessAttempts, book.getSpace()));
+        return code != CodeSpace.UNPACKED ? book.getSpace().decode(code) : null;
+    }
+
+    /**
+     * Use a book for its board, replacing any earlier book for the same board.
+     *
+     * @param book The opening book
+     */
+    public void installOpeningBook(OpeningBook book) {
+        openingBooks.put(book.getSpace().getSlotCount(), book);
+    }
 
-        // If no previous attempts, return a random guess instead of always starting with four reds
-        if (guessAttempts.isEmpty()) {
-            return generateSecret(slotCount);
+    /**
+     * Load the opening books for the configured boards once the application is up.
+     * Books bundled on the classpath are read; the rest are computed on a background
+     * thread so startup is not delayed. Until a book is ready, suggestions are searched.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpeningBooks() {
+        if (openingBookStrategy == SuggestionStrategy.FIRST || openingBookSlotCounts.length == 0) {
+            return;
         }
+        Thread loader = new Thread(() -> {
+            for (int slotCount : openingBookSlotCounts) {
+                try {
+                    installOpeningBook(loadOpeningBook(slotCount));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not load opening book for {} slots", slotCount, e);
+                }
+            }
+        }, "opening-book");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Read the bundled book for a board, or compute it with an unlimited search budget.
+     */
+    OpeningBook loadOpeningBook(int slotCount) throws IOException {
+        CodeSpace space = CodeSpace.of(slotCount);
+        String resource = OpeningBook.resourceName(space, openingBookStrategy, openingBookPool);
+        try (InputStream in = GameLogicService.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                OpeningBook book = OpeningBook.read(in);
+                logger.info("Loaded {} from {}", book, resource);
+                return book;
+            }
+        }
+
+        long start = System.nanoTime();
+        int parallelism = solverParallelism > 0 ? solverParallelism : Runtime.getRuntime().availableProcessors();
+        try (PartitionSearch search = new PartitionSearch(parallelism, Long.MAX_VALUE, solverParallelThreshold)) {
+            OpeningBook book = OpeningBook.compute(space, openingBookStrategy, openingBookPool, search);
+            logger.info("Computed {} in {} ms", book, (System.nanoTime() - start) / 1_000_000);
+            return book;
+        }
+    }
+
+    /**
+     * Stop the suggestion worker pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        PartitionSearch search = partitionSearch.getIfCreated();
+        if (search != null) {
+            search.close();
+        }
+    }
+
+    /**
+     * Suggestion search over {@code List<Color>} candidates, for boards too large to pack.
+     */
+    private List<Color> suggestGuessUnpacked(List<GuessAttempt> guessAttempts, int slotCount, SearchBudget budget) {
+        List<Color> colors = getAvailableColors();
+        int colorCount = colors.size();
 
         // Generate all possible guesses (cartesian product)
         int[] indices = new int[slotCount];
+        long visited = 0;
         while (true) {
+            if ((++visited & (CodeRangeSpliterator.BUDGET_CHECK_INTERVAL - 1)) == 0 && budget.isExhausted()) {
+                return null;
+            }
             List<Color> candidate = new ArrayList<>(slotCount);
             for (int i = 0; i < slotCount; i++) {
                 candidate.add(colors.get(indices[i]));
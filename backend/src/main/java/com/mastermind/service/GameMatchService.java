@@ -4,12 +4,15 @@ import com.mastermind.model.Game;
 import com.mastermind.model.GameMatch;
 import com.mastermind.model.PlayerResult;
 import com.mastermind.model.ResultType;
+import com.mastermind.store.GameJournal;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 public class GameMatchService {
@@ -17,10 +20,60 @@ public class GameMatchService {
     private final Map<String, String> nicknameToMatchId = new ConcurrentHashMap<>();
     private final GameService gameService;
     private final LeaderboardService leaderboardService;
+    private final GameJournal journal;
 
-    public GameMatchService(GameService gameService, LeaderboardService leaderboardService) {
+    public GameMatchService(GameService gameService, LeaderboardService leaderboardService, GameJournal journal) {
         this.gameService = gameService;
         this.leaderboardService = leaderboardService;
+        this.journal = journal;
+    }
+
+    /**
+     * Once this service is fully built, listen for games dropped from the game store and
+     * load the matches journaled before the last shutdown or crash. A match whose games
+     * were not recovered can't be finished, so it is dropped.
+     */
+    @PostConstruct
+    public void recoverMatches() {
+        gameService.addEvictionListener((game, cause) -> gameEvicted(game.getId()));
+        for (GameMatch match : journal.recoverMatches(this::forEachMatch)) {
+            if (isLost(match.getPlayer1GameId()) || isLost(match.getPlayer2GameId())) {
+                journal.matchEnded(match.getMatchId());
+                continue;
+            }
+            matches.put(match.getMatchId(), match);
+            nicknameToMatchId.put(match.getPlayer1Nickname(), match.getMatchId());
+            nicknameToMatchId.put(match.getPlayer2Nickname(), match.getMatchId());
+        }
+    }
+
+    private boolean isLost(String gameId) {
+        return gameId != null && gameService.getGame(gameId) == null;
+    }
+
+    /**
+     * Visit every match, each one held still while it is visited
+     */
+    private void forEachMatch(Consumer<GameMatch> action) {
+        for (GameMatch match : matches.values()) {
+            synchronized (match) {
+                // Not one ended since the iterator passed it
+                if (matches.get(match.getMatchId()) == match) {
+                    action.accept(match);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancel the match a game dropped from the game store belonged to, since it can't be finished
+     */
+    private void gameEvicted(String gameId) {
+        for (GameMatch match : matches.values()) {
+            if (gameId.equals(match.getPlayer1GameId()) || gameId.equals(match.getPlayer2GameId())) {
+                cancelMatch(match.getPlayer1Nickname());
+            }
+        }
     }
 
     /**
@@ -36,9 +89,13 @@ public class GameMatchService {
         }
 
         GameMatch match = new GameMatch(player1Nickname, player2Nickname);
-        matches.put(match.getMatchId(), match);
-        nicknameToMatchId.put(player1Nickname, match.getMatchId());
-        nicknameToMatchId.put(player2Nickname, match.getMatchId());
+        // Journal writes for one match are made under its monitor, so they land in order
+        synchronized (match) {
+            matches.put(match.getMatchId(), match);
+            nicknameToMatchId.put(player1Nickname, match.getMatchId());
+            nicknameToMatchId.put(player2Nickname, match.getMatchId());
+            journal.matchChanged(match);
+        }
 
         return match;
     }
@@ -57,20 +114,27 @@ public class GameMatchService {
             throw new IllegalStateException("Match not found");
         }
 
-        if (match.getPlayer1Nickname().equals(nickname)) {
-            match.setPlayer1GameId(gameId);
-            match.setPlayer1Ready(true);
-        } else if (match.getPlayer2Nickname().equals(nickname)) {
-            match.setPlayer2GameId(gameId);
-            match.setPlayer2Ready(true);
-        } else {
-            throw new IllegalStateException("Player not in this match");
-        }
+        synchronized (match) {
+            if (matches.get(matchId) != match) {
+                // Ended meanwhile, so a change journaled now would bring it back on replay
+                throw new IllegalStateException("Match not found");
+            }
+            if (match.getPlayer1Nickname().equals(nickname)) {
+                match.setPlayer1GameId(gameId);
+                match.setPlayer1Ready(true);
+            } else if (match.getPlayer2Nickname().equals(nickname)) {
+                match.setPlayer2GameId(gameId);
+                match.setPlayer2Ready(true);
+            } else {
+                throw new IllegalStateException("Player not in this match");
+            }
 
-        // If both players are ready, update status
-        if (match.areBothPlayersReady() && match.getStatus() == GameMatch.MatchStatus.SETUP) {
-            match.setStatus(GameMatch.MatchStatus.PLAYING);
-            match.setStartedAt(LocalDateTime.now());
+            // If both players are ready, update status
+            if (match.areBothPlayersReady() && match.getStatus() == GameMatch.MatchStatus.SETUP) {
+                match.setStatus(GameMatch.MatchStatus.PLAYING);
+                match.setStartedAt(LocalDateTime.now());
+            }
+            journal.matchChanged(match);
         }
 
         return match;
@@ -105,8 +169,8 @@ public class GameMatchService {
      * End a match
      */
     public void endMatch(String matchId) {
-        GameMatch match = matches.remove(matchId);
-        if (match != null) {
+        GameMatch match = matches.get(matchId);
+        if (match != null && removeMatch(match)) {
             // Try to record results for leaderboard before cleaning match
             try {
                 String p1 = match.getPlayer1Nickname();
@@ -119,8 +183,8 @@ public class GameMatchService {
                 boolean p2Won = g2 != null && g2.isWon();
                 boolean draw = p1Won && p2Won;
 
-                Integer g1Guesses = g1 != null ? g1.getHistory().size() : null;
-                Integer g2Guesses = g2 != null ? g2.getHistory().size() : null;
+                Integer g1Guesses = g1 != null ? g1.getGuessCount() : null;
+                Integer g2Guesses = g2 != null ? g2.getGuessCount() : null;
 
                 PlayerResult r1 = new PlayerResult();
                 r1.setNickname(p1);
@@ -155,14 +219,29 @@ public class GameMatchService {
         String matchId = nicknameToMatchId.get(nickname);
         if (matchId != null) {
             GameMatch match = matches.get(matchId);
-            if (match != null) {
+            if (match != null && removeMatch(match)) {
                 nicknameToMatchId.remove(match.getPlayer1Nickname());
                 nicknameToMatchId.remove(match.getPlayer2Nickname());
-                matches.remove(matchId);
             }
         }
     }
 
+    /**
+     * Remove a match and journal its end, under its monitor so no change to it is
+     * journaled after the end.
+     *
+     * @return true if this call removed the match
+     */
+    private boolean removeMatch(GameMatch match) {
+        synchronized (match) {
+            if (!matches.remove(match.getMatchId(), match)) {
+                return false;
+            }
+            journal.matchEnded(match.getMatchId());
+            return true;
+        }
+    }
+
     /**
      * Get the game ID for a player's opponent
      */
@@ -3,34 +3,132 @@ package com.mastermind.service;
 import com.mastermind.model.Color;
 import com.mastermind.model.Feedback;
 import com.mastermind.model.Game;
+import com.mastermind.model.GameSnapshot;
 import com.mastermind.model.GuessAttempt;
+import com.mastermind.model.Suggestion;
+import com.mastermind.solver.CandidateSet;
+import com.mastermind.solver.CodeSpace;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.PackedHistory;
+import com.mastermind.solver.SearchBudget;
+import com.mastermind.solver.SuggestionCache;
+import com.mastermind.solver.SuggestionStrategy;
+import com.mastermind.store.GameJournal;
+import com.mastermind.store.GameStore;
+import com.mastermind.store.InMemoryGameStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service for managing Mastermind game sessions.
  * Handles game creation, state management, and guess processing.
+ * Each change to a game is made under a lock chosen by its ID, so concurrent guesses
+ * and resets on one game apply one after the other while other games carry on.
  */
 @Service
 public class GameService {
 
+    // Locks guarding changes to games, each shared by the games whose IDs hash to it
+    private static final int LOCK_STRIPES = 1024;
+
     private final GameLogicService gameLogicService;
-    private final Map<String, Game> activeGames;
-    private final Map<String, Feedback> gameFeedbacks;
+    private final SecretSupply secretSupply;
+    private final GameStore activeGames;
+    private final GameJournal journal;
+    private final ReentrantLock[] gameLocks;
+    // Consistent secrets per game, created on the first hint and narrowed on each guess
+    private final Map<String, VersionedCandidates> gameCandidates;
+    // Games the store dropped while this thread held a game's lock, cleaned up once it lets go
+    private final ThreadLocal<List<String>> droppedWhileLocked = new ThreadLocal<>();
     
     @Value("${mastermind.game.slot-count:4}")
     private int defaultSlotCount;
 
+    @Value("${mastermind.solver.default-strategy:first}")
+    private SuggestionStrategy defaultStrategy = SuggestionStrategy.FIRST;
+
+    @Value("${mastermind.solver.default-pool:consistent}")
+    private GuessPool defaultPool = GuessPool.CONSISTENT;
+
+    // Time limit for one suggestion, and the most a client may ask for (0 = no limit)
+    @Value("${mastermind.solver.max-millis:2000}")
+    private long defaultMaxMillis = 2000;
+
+    // Bound on the suggestion cache shared by all games, in megabytes of candidate sets
+    @Value("${mastermind.solver.cache.max-mb:64}")
+    private long suggestionCacheMaxMb = SuggestionCache.DEFAULT_MAX_BYTES >> 20;
+
+    // Most candidates returned by one page of GET /games/{id}/candidates
+    @Value("${mastermind.solver.candidates.max-page-size:1000}")
+    private int maxCandidatePageSize = 1000;
+
+    // Background threads working out the next hint for games that use hints (0 = off)
+    @Value("${mastermind.solver.speculative.threads:1}")
+    private int speculativeThreads = 1;
+
+    // Load average per processor above which background hints are skipped (0 = no limit)
+    @Value("${mastermind.solver.speculative.max-load:0.75}")
+    private double speculativeMaxLoad = 0.75;
+
+    // Fixed time limit for one background hint, whatever budget the player's requests carry
+    @Value("${mastermind.solver.speculative.max-millis:250}")
+    private long speculativeMaxMillis = 250;
+
+    private final Lazy<SuggestionCache> suggestionCache =
+            new Lazy<>(() -> new SuggestionCache(suggestionCacheMaxMb << 20));
+    private final Lazy<SpeculativeHints> speculativeHints =
+            new Lazy<>(() -> new SpeculativeHints(Math.max(1, speculativeThreads), speculativeMaxLoad));
+
     @Autowired
-    public GameService(GameLogicService gameLogicService) {
+    public GameService(GameLogicService gameLogicService, SecretSupply secretSupply, GameStore gameStore,
+                       GameJournal journal) {
         this.gameLogicService = gameLogicService;
-        this.activeGames = new ConcurrentHashMap<>();
-        this.gameFeedbacks = new ConcurrentHashMap<>();
+        this.secretSupply = secretSupply;
+        this.activeGames = gameStore;
+        this.journal = journal;
+        this.gameLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            gameLocks[i] = new ReentrantLock();
+        }
+        this.gameCandidates = new ConcurrentHashMap<>();
+        gameStore.addEvictionListener((game, cause) -> {
+            List<String> deferred = droppedWhileLocked.get();
+            if (deferred != null && !lockFor(game.getId()).isHeldByCurrentThread()) {
+                // Dropped while making room for a change to another game: waiting here for this
+                // game's lock could deadlock with a thread doing the same the other way round
+                deferred.add(game.getId());
+            } else {
+                cleanUpDropped(game.getId());
+            }
+        });
+    }
+
+    public GameService(GameLogicService gameLogicService, SecretSupply secretSupply, GameStore gameStore) {
+        this(gameLogicService, secretSupply, gameStore, GameJournal.disabled());
+    }
+
+    public GameService(GameLogicService gameLogicService) {
+        this(gameLogicService, new SecretSupply(), new InMemoryGameStore());
+    }
+
+    /**
+     * Load the games journaled before the last shutdown or crash back into the store.
+     */
+    @PostConstruct
+    public void recoverGames() {
+        for (Game game : journal.recover()) {
+            activeGames.put(game);
+        }
     }
 
     /**
@@ -50,8 +148,9 @@ public class GameService {
      */
     public Game createGame(int slotCount) {
         List<Color> secret = gameLogicService.generateSecret(slotCount);
-        Game game = new Game(secret, slotCount);
-        activeGames.put(game.getId(), game);
+        Game game = new Game(secretSupply.nextId(), secret, slotCount);
+        activeGames.put(game);
+        journal.created(game);
         return game;
     }
 
@@ -69,8 +168,9 @@ public class GameService {
                                              slotCount + " valid colors");
         }
         
-        Game game = new Game(customSecret, slotCount);
-        activeGames.put(game.getId(), game);
+        Game game = new Game(secretSupply.nextId(), customSecret, slotCount);
+        activeGames.put(game);
+        journal.created(game);
         return game;
     }
 
@@ -94,32 +194,139 @@ public class GameService {
      * @throws IllegalStateException if game is already over
      */
     public Game submitGuess(String gameId, List<Color> guessColors) {
-        Game game = activeGames.get(gameId);
-        if (game == null) {
-            throw new IllegalArgumentException("Game not found: " + gameId);
-        }
+        ReentrantLock lock = lockGame(gameId);
+        try {
+            Game game = activeGames.get(gameId);
+            if (game == null) {
+                throw new IllegalArgumentException("Game not found: " + gameId);
+            }
 
-        if (game.isGameOver()) {
-            throw new IllegalStateException("Game is already over");
-        }
+            if (game.isGameOver()) {
+                throw new IllegalStateException("Game is already over");
+            }
 
-        if (!gameLogicService.isValidGuess(guessColors, game.getSlotCount())) {
-            throw new IllegalArgumentException("Invalid guess: must contain " + 
-                                             game.getSlotCount() + " valid colors");
+            if (!gameLogicService.isValidGuess(guessColors, game.getSlotCount())) {
+                throw new IllegalArgumentException("Invalid guess: must contain " + 
+                                                 game.getSlotCount() + " valid colors");
+            }
+
+            // Evaluate the guess against the secret
+            Feedback feedback = gameLogicService.evaluateGuess(game.getSecret(), guessColors);
+            
+            // Create and add the guess attempt to game history
+            GuessAttempt guessAttempt = new GuessAttempt(guessColors, feedback);
+            game.addGuessAttempt(guessAttempt);
+            if (!activeGames.replace(game)) {
+                // Dropped by the store after the lookup
+                throw new IllegalArgumentException("Game not found: " + gameId);
+            }
+            journal.guessed(gameId, game.getVersion(), guessAttempt);
+
+            // Narrow the hint candidates, if this game has asked for hints. The filter runs
+            // outside the map so it never holds up other games in the same bin.
+            VersionedCandidates held = gameCandidates.get(gameId);
+            if (held != null) {
+                if (held.version == game.getVersion() - 1) {
+                    publishCandidates(gameId, new VersionedCandidates(game.getVersion(),
+                            held.candidates.filter(guessAttempt.getPackedGuess(), guessAttempt.getPackedFeedback())));
+                } else {
+                    // Built for an older version than the one guessed on, so of no use
+                    gameCandidates.remove(gameId, held);
+                }
+            }
+
+            speculateNextHint(game);
+            return game;
+        } finally {
+            unlockGame(lock);
         }
+    }
 
-        // Evaluate the guess against the secret
-        Feedback feedback = gameLogicService.evaluateGuess(game.getSecret(), guessColors);
-        gameFeedbacks.put(gameId, feedback);
-        
-        // Create and add the guess attempt to game history
-        GuessAttempt guessAttempt = new GuessAttempt(guessColors, feedback);
-        game.addGuessAttempt(guessAttempt);
+    /**
+     * Get the lock that every change to a game is made under, from its lookup to its
+     * put back, so concurrent changes to one game apply one after the other. Games the
+     * store drops are cleaned up under it too. Games share a fixed set of locks rather
+     * than each having its own, so nothing has to be created or cleaned up per game.
+     */
+    private ReentrantLock lockFor(String gameId) {
+        int hash = gameId.hashCode();
+        return gameLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
 
-        return game;
+    /**
+     * Take a game's lock before changing it. Games the store drops meanwhile to make
+     * room are cleaned up by {@link #unlockGame(ReentrantLock)}.
+     */
+    private ReentrantLock lockGame(String gameId) {
+        ReentrantLock lock = lockFor(gameId);
+        lock.lock();
+        droppedWhileLocked.set(new ArrayList<>());
+        return lock;
+    }
+
+    /**
+     * Release a game's lock, then clean up the games the store dropped while it was held,
+     * each under its own lock, now that this thread holds no other.
+     */
+    private void unlockGame(ReentrantLock lock) {
+        List<String> dropped = droppedWhileLocked.get();
+        droppedWhileLocked.remove();
+        lock.unlock();
+        for (String gameId : dropped) {
+            cleanUpDropped(gameId);
+        }
     }
 
+    /**
+     * Drop the state of a game the store dropped and journal its deletion, under the
+     * game's lock, so a change already under way is journaled before the deletion.
+     */
+    private void cleanUpDropped(String gameId) {
+        ReentrantLock lock = lockFor(gameId);
+        lock.lock();
+        try {
+            forget(gameId);
+            journal.deleted(gameId);
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    /**
+     * Start working out the next hint in the background, for a game whose player has asked
+     * for hints before, so the next request can be answered at once. Any task still running
+     * for the previous guess is cancelled.
+     */
+    private void speculateNextHint(Game game) {
+        SuggestionStrategy strategy = game.getHintStrategy();
+        if (speculativeThreads <= 0 || strategy == null || !activeGames.keepsGameInstances()) {
+            // A store that decodes a new game on every lookup would lose the hint
+            return;
+        }
+        if (game.isGameOver()) {
+            speculativeHints.get().cancel(game.getId());
+            return;
+        }
+        GuessPool guessPool = game.getHintPool();
+        // The version and the history it belongs to, read together
+        GameSnapshot snapshot = game.snapshot();
+        int version = snapshot.getVersion();
+        List<GuessAttempt> history = snapshot.getHistory();
+        if (gameLogicService.precomputedGuess(history, game.getSlotCount(), strategy, guessPool) != null) {
+            // Answered from a book or tree without searching anyway
+            speculativeHints.get().cancel(game.getId());
+            return;
+        }
+        // Nobody is charged for this search, so it gets a small budget of its own
+        SearchBudget budget = SearchBudget.ofMillis(speculativeMaxMillis);
+        speculativeHints.get().start(game.getId(), budget, () -> {
+            Suggestion suggestion = search(game.getId(), version, history, game.getSlotCount(), strategy, guessPool, budget);
+            if (suggestion != null && suggestion.isOptimal()
+                    && game.offerPrecomputedHint(version, strategy, guessPool, suggestion)) {
+                speculativeHints.get().recordStored();
+            }
+        });
+    }
 
     /**
      * Get the solution (secret code) for a game.
@@ -140,19 +347,27 @@ public class GameService {
      * @return The reset game, or null if game not found
      */
     public Game resetGame(String gameId) {
-        Game game = activeGames.get(gameId);
-        if (game == null) {
-            return null;
-        }
+        ReentrantLock lock = lockGame(gameId);
+        try {
+            Game game = activeGames.get(gameId);
+            if (game == null) {
+                return null;
+            }
 
-        // Generate new secret and reset game state
-        List<Color> newSecret = gameLogicService.generateSecret(game.getSlotCount());
-        game.setSecret(newSecret);
-        game.getHistory().clear();
-        game.setGameOver(false);
-        game.setWon(false);
+            // Generate new secret and reset game state
+            List<Color> newSecret = gameLogicService.generateSecret(game.getSlotCount());
+            game.restart(newSecret);
+            gameCandidates.remove(gameId);
+            cancelSpeculation(gameId);
+            if (!activeGames.replace(game)) {
+                return null;
+            }
+            journal.reset(gameId, game.getVersion(), newSecret);
 
-        return game;
+            return game;
+        } finally {
+            unlockGame(lock);
+        }
     }
 
     /**
@@ -162,7 +377,69 @@ public class GameService {
      * @return true if game was removed, false if not found
      */
     public boolean deleteGame(String gameId) {
-        return activeGames.remove(gameId) != null;
+        ReentrantLock lock = lockGame(gameId);
+        try {
+            forget(gameId);
+            if (activeGames.remove(gameId) == null) {
+                return false;
+            }
+            journal.deleted(gameId);
+            return true;
+        } finally {
+            unlockGame(lock);
+        }
+    }
+
+    /**
+     * Drop the per-game solver state of a game that is gone from the store.
+     */
+    private void forget(String gameId) {
+        gameCandidates.remove(gameId);
+        cancelSpeculation(gameId);
+    }
+
+    /**
+     * Drop games idle past their time to live, so abandoned games don't pile up
+     * between lookups.
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictExpiredGames() {
+        activeGames.evictExpired();
+    }
+
+    /**
+     * Register a listener for games the store drops because they expired or it was full.
+     */
+    public void addEvictionListener(GameStore.EvictionListener listener) {
+        activeGames.addEvictionListener(listener);
+    }
+
+    /**
+     * Get the size and eviction counters of the game store.
+     * 
+     * @return Games held, their estimated size, and games dropped by cause
+     */
+    public GameStore.Stats getGameStoreStats() {
+        return activeGames.stats();
+    }
+
+    /**
+     * Fold the game journal into a snapshot of the games held, so recovery doesn't
+     * replay every event since startup.
+     */
+    @Scheduled(fixedDelayString = "${mastermind.game.journal.compact-interval-ms:600000}",
+            initialDelayString = "${mastermind.game.journal.compact-interval-ms:600000}")
+    public void compactJournal() {
+        journal.compact(activeGames::forEach);
+    }
+
+    /**
+     * Get the counters of the game journal.
+     * 
+     * @return Events appended, syncs and compactions since startup
+     */
+    public GameJournal.Stats getJournalStats() {
+        return journal.stats();
     }
 
     /**
@@ -175,19 +452,414 @@ public class GameService {
     }
 
     /**
-     * Get a suggested guess for the current game state.
+     * Get a suggested guess for the current game state, using the default strategy.
      * 
      * @param gameId The unique game identifier
      * @return A suggested guess based on the game history
      * @throws IllegalArgumentException if the game doesn't exist
      */
     public List<Color> suggestGuess(String gameId) {
+        return suggestGuess(gameId, defaultStrategy);
+    }
+
+    /**
+     * Get a suggested guess for the current game state.
+     * 
+     * @param gameId The unique game identifier
+     * @param strategy How to choose the suggestion
+     * @return A suggested guess based on the game history
+     * @throws IllegalArgumentException if the game doesn't exist
+     */
+    public List<Color> suggestGuess(String gameId, SuggestionStrategy strategy) {
+        return suggestGuess(gameId, strategy, defaultPool);
+    }
+
+    /**
+     * Get a suggested guess for the current game state.
+     * 
+     * @param gameId The unique game identifier
+     * @param strategy How to choose the suggestion, or null for the default strategy
+     * @param guessPool Which codes may be suggested, or null for the default pool
+     * @return A suggested guess based on the game history
+     * @throws IllegalArgumentException if the game doesn't exist
+     */
+    public List<Color> suggestGuess(String gameId, SuggestionStrategy strategy, GuessPool guessPool) {
+        Suggestion suggestion = suggest(gameId, strategy, guessPool, null);
+        return suggestion != null ? suggestion.getGuess() : null;
+    }
+
+    /**
+     * Get a suggested guess for the current game state within a time budget.
+     * If the budget runs out, the best guess found so far is returned, marked as not optimal.
+     * 
+     * @param gameId The unique game identifier
+     * @param strategy How to choose the suggestion, or null for the default strategy
+     * @param guessPool Which codes may be suggested, or null for the default pool
+     * @param budgetMillis Time allowed for the search, up to the server limit, or null for the server limit
+     * @return The suggestion, or null if no code is consistent with the game history
+     * @throws IllegalArgumentException if the game doesn't exist or the budget is not positive
+     */
+    public Suggestion suggest(String gameId, SuggestionStrategy strategy, GuessPool guessPool, Long budgetMillis) {
+        return suggestWithin(gameId, strategy, guessPool, createBudget(budgetMillis));
+    }
+
+    /**
+     * Create the search budget for one suggestion.
+     * 
+     * A client's budget is capped at the server limit, so no request can lift it.
+     * 
+     * @param budgetMillis Time allowed for the search, up to the server limit, or null for the server limit
+     * @return The budget
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public SearchBudget createBudget(Long budgetMillis) {
+        return SearchBudget.ofMillis(budgetMillis(budgetMillis));
+    }
+
+    /**
+     * @param budgetMillis Time asked for a search, or null for the server limit
+     * @return Time the search is allowed, capped at the server limit (0 = no limit)
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public long budgetMillis(Long budgetMillis) {
+        if (budgetMillis == null) {
+            return defaultMaxMillis;
+        }
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Budget must be positive: " + budgetMillis);
+        }
+        return defaultMaxMillis > 0 ? Math.min(budgetMillis, defaultMaxMillis) : budgetMillis;
+    }
+
+    /**
+     * Get a suggested guess for the current game state within a search budget the caller
+     * keeps, so it can read the truncation flag and worker CPU time afterwards.
+     * 
+     * @param gameId The unique game identifier
+     * @param strategy How to choose the suggestion, or null for the default strategy
+     * @param guessPool Which codes may be suggested, or null for the default pool
+     * @param budget The search budget
+     * @return The suggestion, or null if no code is consistent with the game history
+     * @throws IllegalArgumentException if the game doesn't exist
+     */
+    public Suggestion suggestWithin(String gameId, SuggestionStrategy strategy, GuessPool guessPool, SearchBudget budget) {
+        if (strategy == null) {
+            strategy = defaultStrategy;
+        }
+        if (guessPool == null) {
+            guessPool = defaultPool;
+        }
+        Game game;
+        ReentrantLock lock = lockGame(gameId);
+        try {
+            game = activeGames.get(gameId);
+            if (game == null) {
+                throw new IllegalArgumentException("Game not found: " + gameId);
+            }
+            if (game.getHintStrategy() != strategy || game.getHintPool() != guessPool) {
+                game.recordHintSettings(strategy, guessPool);
+                if (!activeGames.replace(game)) {
+                    throw new IllegalArgumentException("Game not found: " + gameId);
+                }
+            }
+        } finally {
+            unlockGame(lock);
+        }
+        // The search runs on the history as of now, without holding up guesses
+        GameSnapshot snapshot = game.snapshot();
+        List<GuessAttempt> history = snapshot.getHistory();
+
+        List<Color> booked = gameLogicService.precomputedGuess(history, game.getSlotCount(), strategy, guessPool);
+        if (booked != null) {
+            return new Suggestion(booked, true);
+        }
+
+        Suggestion ready = game.getPrecomputedHint(strategy, guessPool);
+        if (ready != null) {
+            speculativeHints.get().recordServed();
+            return ready;
+        }
+
+        SuggestionCache.Entry entry = getCacheEntry(history, game.getSlotCount());
+        if (entry != null) {
+            return suggestFromCache(entry, strategy, guessPool, budget);
+        }
+        
+        CandidateSet candidates = getCandidates(gameId, snapshot, budget);
+        if (candidates == null) {
+            return gameLogicService.suggest(history, game.getSlotCount(), strategy, guessPool, budget);
+        }
+        return gameLogicService.suggest(candidates, strategy, guessPool, budget);
+    }
+
+    /**
+     * Search a hint for a snapshot of a game's history off the request thread. The game's
+     * candidate set is only read, never built, and only if it belongs to the snapshot's version.
+     */
+    private Suggestion search(String gameId, int version, List<GuessAttempt> history, int slotCount,
+                              SuggestionStrategy strategy, GuessPool guessPool, SearchBudget budget) {
+        SuggestionCache.Entry entry = getCacheEntry(history, slotCount);
+        if (entry != null) {
+            return suggestFromCache(entry, strategy, guessPool, budget);
+        }
+        CandidateSet candidates = candidatesAt(gameId, version);
+        if (candidates == null) {
+            return gameLogicService.suggest(history, slotCount, strategy, guessPool, budget);
+        }
+        return gameLogicService.suggest(candidates, strategy, guessPool, budget);
+    }
+
+    /**
+     * Answer from a shared cache entry, searching and filling it in on a miss.
+     */
+    private Suggestion suggestFromCache(SuggestionCache.Entry entry, SuggestionStrategy strategy,
+                                        GuessPool guessPool, SearchBudget budget) {
+        CodeSpace space = entry.getCandidates().getSpace();
+        int cached = entry.getSuggestion(strategy, guessPool);
+        if (cached != CodeSpace.UNPACKED) {
+            return new Suggestion(space.decode(cached), true);
+        }
+        Suggestion suggestion = gameLogicService.suggest(entry.getCandidates(), strategy, guessPool, budget);
+        if (suggestion != null && suggestion.isOptimal()) {
+            entry.putSuggestion(strategy, guessPool, space.encode(suggestion.getGuess()));
+        }
+        return suggestion;
+    }
+
+    /**
+     * Estimate the work of a suggestion before running it, using the candidate count when
+     * the game or the shared cache already knows it.
+     * 
+     * @param gameId The unique game identifier
+     * @param strategy How to choose the suggestion, or null for the default strategy
+     * @param guessPool Which codes may be suggested, or null for the default pool
+     * @return The estimated feedback evaluations
+     * @throws IllegalArgumentException if the game doesn't exist
+     */
+    public long estimateEvaluations(String gameId, SuggestionStrategy strategy, GuessPool guessPool) {
         Game game = activeGames.get(gameId);
         if (game == null) {
             throw new IllegalArgumentException("Game not found: " + gameId);
         }
-        
-        return gameLogicService.suggestGuess(game.getHistory(), game.getSlotCount());
+        if (game.getPrecomputedHint(strategy != null ? strategy : defaultStrategy,
+                guessPool != null ? guessPool : defaultPool) != null) {
+            return 0;
+        }
+        // Runs before admission, so it only looks up candidate sets and never builds one
+        GameSnapshot snapshot = game.snapshot();
+        List<GuessAttempt> history = snapshot.getHistory();
+        SuggestionCache.Entry entry = findCacheEntry(history, snapshot.getSlotCount());
+        CandidateSet candidates = entry != null ? entry.getCandidates() : candidatesAt(gameId, snapshot.getVersion());
+        return gameLogicService.estimateEvaluations(history, snapshot.getSlotCount(),
+                candidates != null ? candidates.size() : -1,
+                strategy != null ? strategy : defaultStrategy, guessPool != null ? guessPool : defaultPool);
+    }
+
+    public SuggestionStrategy getDefaultStrategy() {
+        return defaultStrategy;
+    }
+
+    public GuessPool getDefaultPool() {
+        return defaultPool;
+    }
+
+    /**
+     * Count the secrets still consistent with a game's history.
+     * Uses the game's candidate set if hints built one; otherwise the codes are counted without being collected.
+     * 
+     * @param gameId The unique game identifier
+     * @return The number of remaining possible secrets
+     * @throws IllegalArgumentException if the game doesn't exist or its board is too large to count
+     */
+    public int countCandidates(String gameId) {
+        GameSnapshot snapshot = getPackableGame(gameId).snapshot();
+        CandidateSet candidates = snapshot.getGuessCount() == 0 ? null : candidatesAt(gameId, snapshot.getVersion());
+        if (candidates != null) {
+            return candidates.size();
+        }
+        return gameLogicService.countCandidates(snapshot.getHistory(), snapshot.getSlotCount());
+    }
+
+    /**
+     * Get one page of the secrets still consistent with a game's history, in palette order.
+     * 
+     * Boards with feedback masks page through the shared cache's candidate bitmap, and games
+     * whose hints built a candidate set page through that; otherwise the code space is streamed
+     * lazily, testing each code against the history, so only the requested page is held in memory.
+     * 
+     * @param gameId The unique game identifier
+     * @param offset Number of candidates to skip
+     * @param limit Most candidates to return
+     * @return Up to {@code limit} candidates, empty past the last one
+     * @throws IllegalArgumentException if the game doesn't exist or its board is too large to enumerate
+     */
+    public List<List<Color>> getCandidatePage(String gameId, long offset, int limit) {
+        GameSnapshot snapshot = getPackableGame(gameId).snapshot();
+        List<GuessAttempt> history = snapshot.getHistory();
+        CodeSpace space = CodeSpace.of(snapshot.getSlotCount());
+        SuggestionCache.Entry entry = getCacheEntry(history, snapshot.getSlotCount());
+        CandidateSet candidates = entry != null ? entry.getCandidates()
+                : history.isEmpty() ? null : candidatesAt(gameId, snapshot.getVersion());
+
+        int[] codes = candidates != null
+                ? candidates.page(offset, limit)
+                : PackedHistory.of(history, space).consistentStream().skip(offset).limit(limit).toArray();
+        List<List<Color>> page = new ArrayList<>(codes.length);
+        for (int code : codes) {
+            page.add(space.decode(code));
+        }
+        return page;
+    }
+
+    /**
+     * @return Most candidates one call to {@link #getCandidatePage(String, long, int)} may ask for
+     */
+    public int getMaxCandidatePageSize() {
+        return maxCandidatePageSize;
+    }
+
+    private Game getPackableGame(String gameId) {
+        Game game = activeGames.get(gameId);
+        if (game == null) {
+            throw new IllegalArgumentException("Game not found: " + gameId);
+        }
+        if (!CodeSpace.isPackable(game.getSlotCount())) {
+            throw new IllegalArgumentException("Board too large to enumerate candidates: " + game.getSlotCount() + " slots");
+        }
+        return game;
+    }
+
+    /**
+     * Get the shared cache entry for a game's history.
+     * Games without any guesses yet, or on boards the cache does not cover, have no entry.
+     */
+    private SuggestionCache.Entry getCacheEntry(List<GuessAttempt> attempts, int slotCount) {
+        if (attempts.isEmpty() || !CodeSpace.isPackable(slotCount)) {
+            return null;
+        }
+        CodeSpace space = CodeSpace.of(slotCount);
+        if (!SuggestionCache.supports(space)) {
+            return null;
+        }
+        PackedHistory history = PackedHistory.of(attempts, space);
+        return history.isSatisfiable() ? suggestionCache.get().entry(history) : null;
+    }
+
+    /**
+     * Look up the shared cache entry for a history without creating it or any of its prefixes.
+     */
+    private SuggestionCache.Entry findCacheEntry(List<GuessAttempt> attempts, int slotCount) {
+        if (attempts.isEmpty() || !CodeSpace.isPackable(slotCount) || !SuggestionCache.supports(CodeSpace.of(slotCount))) {
+            return null;
+        }
+        return suggestionCache.get().find(PackedHistory.of(attempts, CodeSpace.of(slotCount)));
+    }
+
+    /**
+     * Get the suggestion cache statistics, for sizing the cache.
+     * 
+     * @return Cache size and hit/miss counters
+     */
+    public SuggestionCache.Stats getSuggestionCacheStats() {
+        return suggestionCache.get().stats();
+    }
+
+    /**
+     * Get the background hint statistics, for sizing the threads and load limit.
+     * 
+     * @return Tasks started, kept, served, cancelled and skipped
+     */
+    public SpeculativeHints.Stats getSpeculativeHintStats() {
+        return speculativeHints.get().stats();
+    }
+
+    /**
+     * Get the depth and counters of the pre-generated secret and ID pools.
+     * 
+     * @return One entry per pool
+     */
+    public List<SecretSupply.Stats> getSecretSupplyStats() {
+        return secretSupply.stats();
+    }
+
+    private void cancelSpeculation(String gameId) {
+        SpeculativeHints hints = speculativeHints.getIfCreated();
+        if (hints != null) {
+            hints.cancel(gameId);
+        }
+    }
+
+    /**
+     * Stop the background hint threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        SpeculativeHints hints = speculativeHints.getIfCreated();
+        if (hints != null) {
+            hints.shutdown();
+        }
+    }
+
+    /**
+     * Get the game's candidate set for a snapshot, building it from the snapshot's history
+     * if the game holds none for that version. Games without any guesses yet, or whose board
+     * is too large to enumerate, have no set. A set cut short by the budget is returned but
+     * not kept.
+     *
+     * The set is built outside any lock, so a guess may land meanwhile; it is published
+     * under the game's lock with the version it was built for, and readers of other
+     * versions ignore it.
+     */
+    private CandidateSet getCandidates(String gameId, GameSnapshot snapshot, SearchBudget budget) {
+        if (snapshot.getGuessCount() == 0 || !CodeSpace.isPackable(snapshot.getSlotCount())
+                || gameLogicService.usesConstraintSolver(snapshot.getSlotCount())) {
+            return null;
+        }
+        CandidateSet candidates = candidatesAt(gameId, snapshot.getVersion());
+        if (candidates != null) {
+            return candidates;
+        }
+        CandidateSet built = gameLogicService.buildCandidates(snapshot.getHistory(), snapshot.getSlotCount(), budget);
+        if (!budget.isTruncated()) {
+            ReentrantLock lock = lockGame(gameId);
+            try {
+                // Not for a game deleted or dropped while the set was built
+                if (activeGames.contains(gameId)) {
+                    publishCandidates(gameId, new VersionedCandidates(snapshot.getVersion(), built));
+                }
+            } finally {
+                unlockGame(lock);
+            }
+        }
+        return built;
+    }
+
+    /**
+     * @return The game's candidate set if it was built for this version, otherwise null
+     */
+    private CandidateSet candidatesAt(String gameId, int version) {
+        VersionedCandidates held = gameCandidates.get(gameId);
+        return held != null && held.version == version ? held.candidates : null;
+    }
+
+    /**
+     * Keep a candidate set unless the game already holds one for the same or a later version.
+     */
+    private void publishCandidates(String gameId, VersionedCandidates candidates) {
+        gameCandidates.merge(gameId, candidates, (held, built) -> held.version >= built.version ? held : built);
+    }
+
+    /**
+     * A game's candidate set and the version of the game it was built for.
+     */
+    private static final class VersionedCandidates {
+        private final int version;
+        private final CandidateSet candidates;
+
+        VersionedCandidates(int version, CandidateSet candidates) {
+            this.version = version;
+            this.candidates = candidates;
+        }
     }
 
     /**
@@ -0,0 +1,45 @@
+package com.mastermind.service;
+
+import java.util.function.Supplier;
+
+/**
+ * A value created on first use, for services whose settings are injected after they are
+ * constructed, or whose threads should only start once they are needed. The factory runs
+ * at most once, under the holder's lock; later reads take no lock.
+ *
+ * @param <T> The type of the value
+ */
+final class Lazy<T> {
+
+    private final Supplier<T> factory;
+    private volatile T value;
+
+    Lazy(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @return The value, created now if this is the first use
+     */
+    T get() {
+        T current = value;
+        if (current == null) {
+            synchronized (this) {
+                current = value;
+                if (current == null) {
+                    current = factory.get();
+                    value = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return The value if it has been created, otherwise null; for stats and shutdown,
+     *         which should not create it
+     */
+    T getIfCreated() {
+        return value;
+    }
+}
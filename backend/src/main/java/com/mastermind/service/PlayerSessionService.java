@@ -2,10 +2,15 @@ package com.mastermind.service;
 
 import com.mastermind.dto.PlayerListResponse;
 import com.mastermind.model.PlayerSession;
+import com.mastermind.store.GameJournal;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -14,6 +19,49 @@ public class PlayerSessionService {
     private final Map<String, PlayerSession> activeSessions = new ConcurrentHashMap<>();
     // Map nickname to sessionId for quick lookup
     private final Map<String, String> nicknameToSessionId = new ConcurrentHashMap<>();
+    private final GameJournal journal;
+    // Logins from each client address in its current minute
+    private final Map<String, LoginWindow> loginWindows = new ConcurrentHashMap<>();
+
+    // New sessions one client address may open per minute (0 = no limit), so logging in again
+    // and again can't be used to get a fresh solver CPU budget each time
+    @Value("${mastermind.sessions.max-logins-per-minute:10}")
+    private int maxLoginsPerMinute = 10;
+
+    @Autowired
+    public PlayerSessionService(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    public PlayerSessionService() {
+        this(GameJournal.disabled());
+    }
+
+    /**
+     * Load the sessions journaled before the last shutdown or crash, so players can carry on
+     * with the session IDs they hold
+     */
+    @PostConstruct
+    public void recoverSessions() {
+        for (PlayerSession session : journal.recoverSessions(this::forEachSession)) {
+            activeSessions.put(session.getSessionId(), session);
+            nicknameToSessionId.put(session.getNickname().toLowerCase(), session.getSessionId());
+        }
+    }
+
+    /**
+     * Visit every session, each one held still while it is visited
+     */
+    private void forEachSession(Consumer<PlayerSession> action) {
+        for (PlayerSession session : activeSessions.values()) {
+            synchronized (session) {
+                // Not one logged out since the iterator passed it
+                if (activeSessions.get(session.getSessionId()) == session) {
+                    action.accept(session);
+                }
+            }
+        }
+    }
 
     /**
      * Check if a nickname is already in use
@@ -29,6 +77,19 @@ public class PlayerSessionService {
         return nicknameToSessionId.containsKey(nickname.toLowerCase());
     }
 
+    /**
+     * Login a player with a unique nickname, counting the login against the client address
+     *
+     * @throws IllegalStateException if the address has opened too many sessions in the last minute
+     */
+    public PlayerSession login(String nickname, String clientAddress) {
+        if (maxLoginsPerMinute > 0
+                && !loginWindows.computeIfAbsent(clientAddress, address -> new LoginWindow()).tryAcquire(maxLoginsPerMinute)) {
+            throw new IllegalStateException("Too many logins from this address, retry in a minute");
+        }
+        return login(nickname);
+    }
+
     /**
      * Login a player with a unique nickname
      */
@@ -46,9 +107,13 @@ public class PlayerSessionService {
         // Create new player session
         PlayerSession session = new PlayerSession(sessionId, normalizedNickname);
         
-        // Store the session
-        activeSessions.put(sessionId, session);
-        nicknameToSessionId.put(normalizedNickname.toLowerCase(), sessionId);
+        // Store the session; journal writes for one session are made under its monitor,
+        // so they land in order
+        synchronized (session) {
+            activeSessions.put(sessionId, session);
+            nicknameToSessionId.put(normalizedNickname.toLowerCase(), sessionId);
+            journal.sessionChanged(session);
+        }
         
         return session;
     }
@@ -57,9 +122,16 @@ public class PlayerSessionService {
      * Logout a player by session ID
      */
     public void logout(String sessionId) {
-        PlayerSession session = activeSessions.remove(sessionId);
-        if (session != null) {
-            nicknameToSessionId.remove(session.getNickname().toLowerCase());
+        PlayerSession session = activeSessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            if (!activeSessions.remove(sessionId, session)) {
+                return;
+            }
+            nicknameToSessionId.remove(session.getNickname().toLowerCase(), sessionId);
+            journal.sessionEnded(sessionId);
         }
     }
 
@@ -96,7 +168,14 @@ public class PlayerSessionService {
     public void updatePlayerStatus(String sessionId, PlayerSession.PlayerStatus status) {
         PlayerSession session = activeSessions.get(sessionId);
         if (session != null) {
-            session.setStatus(status);
+            synchronized (session) {
+                if (activeSessions.get(sessionId) != session) {
+                    // Logged out meanwhile, so a change journaled now would bring it back on replay
+                    return;
+                }
+                session.setStatus(status);
+                journal.sessionChanged(session);
+            }
         }
     }
 
@@ -131,6 +210,7 @@ public class PlayerSessionService {
      * Remove inactive players (no activity for more than 10 minutes)
      */
     public int removeInactivePlayers() {
+        loginWindows.values().removeIf(LoginWindow::isOver);
         java.time.LocalDateTime cutoffTime = java.time.LocalDateTime.now().minusMinutes(10);
         List<String> toRemove = new ArrayList<>();
 
@@ -160,4 +240,30 @@ public class PlayerSessionService {
         }
         return Optional.empty();
     }
+
+    /**
+     * Logins from one client address in a one-minute window
+     */
+    private static final class LoginWindow {
+        private static final long WINDOW_NANOS = 60_000_000_000L;
+
+        private long startedAt = System.nanoTime();
+        private int logins;
+
+        synchronized boolean tryAcquire(int limit) {
+            if (isOver()) {
+                startedAt = System.nanoTime();
+                logins = 0;
+            }
+            if (logins >= limit) {
+                return false;
+            }
+            logins++;
+            return true;
+        }
+
+        synchronized boolean isOver() {
+            return System.nanoTime() - startedAt >= WINDOW_NANOS;
+        }
+    }
 }
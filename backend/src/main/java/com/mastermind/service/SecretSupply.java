@@ -0,0 +1,326 @@
+package com.mastermind.service;
+
+import com.mastermind.model.Color;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pre-generated secrets and game IDs, so creating a game never waits on a random source.
+ *
+ * Each pooled board size, and game IDs, get a lock-free queue that a background thread
+ * tops up in batches whenever it falls below half full. Taking from a queue is a single
+ * non-blocking poll; only when a burst drains it does the caller generate its own. All
+ * randomness comes from one SecureRandom per thread, reseeded from the system's entropy
+ * after a fixed number of draws, so threads never share a generator.
+ */
+@Component
+public class SecretSupply {
+
+    private static final Color[] COLORS = Color.values();
+
+    // Board sizes whose secrets are pooled; other sizes are generated on demand
+    @Value("${mastermind.secrets.pool.slot-counts:4}")
+    private int[] pooledSlotCounts = {4};
+
+    // Items each pool is topped up to
+    @Value("${mastermind.secrets.pool.capacity:1024}")
+    private int capacity = 1024;
+
+    // Items generated per refill step, between checks of the pool depth
+    @Value("${mastermind.secrets.pool.batch-size:128}")
+    private int batchSize = 128;
+
+    // Draws from a thread's generator between reseeds
+    @Value("${mastermind.secrets.reseed-interval:65536}")
+    private long reseedInterval = 65536;
+
+    private final ThreadLocal<Source> sources = ThreadLocal.withInitial(() -> new Source(newRandom()));
+    private final Map<Integer, Pool<List<Color>>> secretPools = new ConcurrentHashMap<>();
+    private final Lazy<Pool<String>> idPool = new Lazy<>(() -> new Pool<>("ids", this::generateId));
+    private final Lazy<ExecutorService> refiller = new Lazy<>(() -> Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "secret-refill");
+        thread.setDaemon(true);
+        return thread;
+    }));
+
+    public SecretSupply() {
+    }
+
+    /**
+     * @param pooledSlotCounts Board sizes whose secrets are pooled
+     * @param capacity Items each pool is topped up to
+     * @param batchSize Items generated per refill step
+     */
+    public SecretSupply(int[] pooledSlotCounts, int capacity, int batchSize) {
+        this.pooledSlotCounts = pooledSlotCounts;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Take a random secret.
+     *
+     * @param slotCount Number of slots in the secret code
+     * @return A new list of uniformly random colors
+     * @throws IllegalArgumentException if the slot count is not positive
+     */
+    public List<Color> nextSecret(int slotCount) {
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("Slot count must be positive");
+        }
+        Pool<List<Color>> pool = secretPool(slotCount);
+        return pool != null ? pool.take() : generateSecret(slotCount);
+    }
+
+    /**
+     * Take a random game ID.
+     *
+     * @return A new version 4 UUID string
+     */
+    public String nextId() {
+        return idPool.get().take();
+    }
+
+    private Pool<List<Color>> secretPool(int slotCount) {
+        Pool<List<Color>> pool = secretPools.get(slotCount);
+        if (pool == null) {
+            if (Arrays.stream(pooledSlotCounts).noneMatch(pooled -> pooled == slotCount)) {
+                return null;
+            }
+            pool = secretPools.computeIfAbsent(slotCount,
+                    slots -> new Pool<>("secrets-" + slots, () -> generateSecret(slots)));
+        }
+        return pool;
+    }
+
+    private List<Color> generateSecret(int slotCount) {
+        Source source = sources.get();
+        List<Color> secret = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            secret.add(COLORS[source.nextInt(COLORS.length)]);
+        }
+        return secret;
+    }
+
+    private String generateId() {
+        byte[] bytes = new byte[16];
+        sources.get().nextBytes(bytes);
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xff);
+            lsb = (lsb << 8) | (bytes[i + 8] & 0xff);
+        }
+        // Version 4 (random) and IETF variant, as UUID.randomUUID() sets them
+        msb = (msb & ~0xF000L) | 0x4000L;
+        lsb = (lsb & ~(0xC0L << 56)) | (0x80L << 56);
+        return new UUID(msb, lsb).toString();
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    private void scheduleRefill(Pool<?> pool) {
+        try {
+            refiller.get().execute(pool::refill);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; callers generate their own
+            pool.refilling.set(false);
+        }
+    }
+
+    /**
+     * @return A snapshot of every pool's depth and counters
+     */
+    public List<Stats> stats() {
+        List<Stats> stats = new ArrayList<>();
+        Pool<String> ids = idPool.getIfCreated();
+        if (ids != null) {
+            stats.add(ids.stats());
+        }
+        secretPools.values().forEach(pool -> stats.add(pool.stats()));
+        return stats;
+    }
+
+    /**
+     * Stop the refill thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService current = refiller.getIfCreated();
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * One thread's generator, reseeded after every {@code reseedInterval} draws.
+     */
+    private final class Source {
+        private final SecureRandom random;
+        private long draws;
+
+        Source(SecureRandom random) {
+            this.random = random;
+        }
+
+        int nextInt(int bound) {
+            countDraw();
+            return random.nextInt(bound);
+        }
+
+        void nextBytes(byte[] bytes) {
+            countDraw();
+            random.nextBytes(bytes);
+        }
+
+        private void countDraw() {
+            if (++draws >= reseedInterval) {
+                draws = 0;
+                try {
+                    random.reseed();
+                } catch (UnsupportedOperationException e) {
+                    random.setSeed(random.generateSeed(32));
+                }
+            }
+        }
+    }
+
+    /**
+     * A lock-free queue of generated items and its counters.
+     */
+    private final class Pool<T> {
+        private final String name;
+        private final Supplier<T> generator;
+        private final ConcurrentLinkedQueue<T> items = new ConcurrentLinkedQueue<>();
+        // Kept alongside the queue, whose size() walks every node
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private final LongAdder served = new LongAdder();
+        private final LongAdder missed = new LongAdder();
+        private final LongAdder refilled = new LongAdder();
+        private final LongAdder refillNanos = new LongAdder();
+
+        Pool(String name, Supplier<T> generator) {
+            this.name = name;
+            this.generator = generator;
+        }
+
+        T take() {
+            T item = items.poll();
+            int left = item != null ? depth.decrementAndGet() : depth.get();
+            if (left < capacity / 2 && refilling.compareAndSet(false, true)) {
+                scheduleRefill(this);
+            }
+            if (item == null) {
+                missed.increment();
+                return generator.get();
+            }
+            served.increment();
+            return item;
+        }
+
+        void refill() {
+            try {
+                while (depth.get() < capacity && !Thread.currentThread().isInterrupted()) {
+                    long start = System.nanoTime();
+                    int count = Math.min(batchSize, capacity - depth.get());
+                    List<T> batch = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        batch.add(generator.get());
+                    }
+                    refillNanos.add(System.nanoTime() - start);
+                    refilled.add(count);
+                    items.addAll(batch);
+                    depth.addAndGet(count);
+                }
+            } finally {
+                refilling.set(false);
+            }
+        }
+
+        Stats stats() {
+            return new Stats(name, capacity, depth.get(), served.sum(), missed.sum(), refilled.sum(), refillNanos.sum());
+        }
+    }
+
+    /**
+     * One pool's depth and counters at one point in time.
+     */
+    public static final class Stats {
+        private final String pool;
+        private final int capacity;
+        private final int depth;
+        private final long served;
+        private final long missed;
+        private final long refilled;
+        private final long refillNanos;
+
+        Stats(String pool, int capacity, int depth, long served, long missed, long refilled, long refillNanos) {
+            this.pool = pool;
+            this.capacity = capacity;
+            this.depth = depth;
+            this.served = served;
+            this.missed = missed;
+            this.refilled = refilled;
+            this.refillNanos = refillNanos;
+        }
+
+        /** "ids", or "secrets-" and the slot count. */
+        public String getPool() {
+            return pool;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /** Items ready to take now. */
+        public int getDepth() {
+            return depth;
+        }
+
+        /** Items taken from the pool. */
+        public long getServed() {
+            return served;
+        }
+
+        /** Takes that found the pool empty and generated their own. */
+        public long getMissed() {
+            return missed;
+        }
+
+        /** Items generated by the refill thread since startup. */
+        public long getRefilled() {
+            return refilled;
+        }
+
+        /** Items the refill thread generates per second of its own time, or 0 before the first refill. */
+        public double getRefillRatePerSecond() {
+            return refillNanos == 0 ? 0 : refilled * 1e9 / refillNanos;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.mastermind.service;
+
+import com.mastermind.model.Suggestion;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SearchBudget;
+import com.mastermind.solver.SuggestionStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for suggestion searches, against a CPU budget per player session.
+ *
+ * Each session has a bucket of solver CPU time that refills at a fixed rate. Before a
+ * search runs, its cost is estimated from the board, the history and the candidate
+ * count; a request whose estimate exceeds what is left in the bucket is downgraded to
+ * the consistent guess pool, then to the first consistent code, and a session whose
+ * bucket is empty is rejected until it refills. The estimate, capped at the request's
+ * time budget, is taken from the bucket when the request is admitted, so concurrent
+ * requests from one session can't all pass on the same balance; once the search is
+ * done, the difference from the CPU time it actually used, on its own thread and on the
+ * solver's workers, is settled with the session.
+ */
+@Service
+public class SolverAdmission {
+
+    private final GameService gameService;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder downgraded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder chargedNanos = new LongAdder();
+
+    // Solver CPU time a session may use per minute; also the most it can save up
+    @Value("${mastermind.solver.admission.cpu-seconds-per-minute:30}")
+    private double cpuSecondsPerMinute = 30;
+
+    // CPU time assumed per feedback evaluation when estimating a search
+    @Value("${mastermind.solver.admission.nanos-per-evaluation:5}")
+    private double nanosPerEvaluation = 5;
+
+    @Autowired
+    public SolverAdmission(GameService gameService) {
+        this.gameService = gameService;
+    }
+
+    /**
+     * @param cpuSecondsPerMinute Solver CPU time a session may use per minute
+     * @param nanosPerEvaluation CPU time assumed per feedback evaluation
+     */
+    public SolverAdmission(GameService gameService, double cpuSecondsPerMinute, double nanosPerEvaluation) {
+        this(gameService);
+        this.cpuSecondsPerMinute = cpuSecondsPerMinute;
+        this.nanosPerEvaluation = nanosPerEvaluation;
+    }
+
+    /**
+     * Decide how, or whether, to run a suggestion for a session, within the server's time limit.
+     *
+     * @see #admit(String, String, SuggestionStrategy, GuessPool, Long)
+     */
+    public Admission admit(String account, String gameId, SuggestionStrategy strategy, GuessPool guessPool) {
+        return admit(account, gameId, strategy, guessPool, null);
+    }
+
+    /**
+     * Decide how, or whether, to run a suggestion for a session, and reserve its expected
+     * CPU time. An admission that is not rejected must be run by {@link #suggest} or given
+     * back by {@link #release}.
+     *
+     * @param account The session the work is charged to
+     * @param gameId The unique game identifier
+     * @param strategy The requested strategy, or null for the default
+     * @param guessPool The requested guess pool, or null for the default
+     * @param budgetMillis Time allowed for the search, up to the server limit, or null for the server limit
+     * @return The decision, with the strategy and pool to run
+     * @throws IllegalArgumentException if the game doesn't exist
+     */
+    public Admission admit(String account, String gameId, SuggestionStrategy strategy, GuessPool guessPool,
+                           Long budgetMillis) {
+        if (strategy == null) {
+            strategy = gameService.getDefaultStrategy();
+        }
+        if (guessPool == null) {
+            guessPool = gameService.getDefaultPool();
+        }
+        long estimate = gameService.estimateEvaluations(gameId, strategy, guessPool);
+        long budgetNanos = gameService.budgetMillis(budgetMillis) * 1_000_000L;
+
+        Account bucket = account(account);
+        // Decided and reserved under the bucket's lock, so each request sees the reservations before it
+        synchronized (bucket) {
+            double balance = bucket.balance();
+            if (balance <= 0) {
+                rejected.increment();
+                long retryAfter = (long) Math.ceil(-balance / refillPerSecond());
+                return new Admission(Decision.REJECTED, account, strategy, guessPool, estimate, Math.max(1, retryAfter), 0);
+            }
+            if (strategy == SuggestionStrategy.FIRST || estimate * nanosPerEvaluation <= balance) {
+                admitted.increment();
+                return reserve(bucket, Decision.ADMITTED, account, strategy, guessPool, estimate, budgetNanos);
+            }
+
+            downgraded.increment();
+            if (guessPool == GuessPool.ALL && strategy != SuggestionStrategy.FIRST) {
+                long consistent = gameService.estimateEvaluations(gameId, strategy, GuessPool.CONSISTENT);
+                if (consistent * nanosPerEvaluation <= balance) {
+                    return reserve(bucket, Decision.DOWNGRADED, account, strategy, GuessPool.CONSISTENT, consistent,
+                            budgetNanos);
+                }
+            }
+            return reserve(bucket, Decision.DOWNGRADED, account, SuggestionStrategy.FIRST, guessPool,
+                    gameService.estimateEvaluations(gameId, SuggestionStrategy.FIRST, guessPool), budgetNanos);
+        }
+    }
+
+    /**
+     * Take the expected CPU time of an admitted search from its bucket: the estimate, but
+     * no more than the time budget allows (when there is one).
+     */
+    private Admission reserve(Account bucket, Decision decision, String account, SuggestionStrategy strategy,
+                              GuessPool guessPool, long estimate, long budgetNanos) {
+        long expected = (long) Math.min(Long.MAX_VALUE, estimate * nanosPerEvaluation);
+        long reserved = budgetNanos > 0 ? Math.min(expected, budgetNanos) : expected;
+        bucket.charge(reserved);
+        return new Admission(decision, account, strategy, guessPool, estimate, 0, reserved);
+    }
+
+    /**
+     * Run an admitted suggestion and charge the CPU time it used to its session.
+     *
+     * @param admission A decision that is not {@link Decision#REJECTED}
+     * @param gameId The unique game identifier
+     * @param budgetMillis Time allowed for the search, up to the server limit, or null for the server limit
+     * @return The suggestion, or null if no code is consistent with the game history
+     * @throws IllegalArgumentException if the game doesn't exist
+     */
+    public Suggestion suggest(Admission admission, String gameId, Long budgetMillis) {
+        if (admission.isRejected()) {
+            throw new IllegalStateException("Suggestion was not admitted");
+        }
+        long start = SearchBudget.threadCpuNanos();
+        SearchBudget budget = null;
+        try {
+            budget = gameService.createBudget(budgetMillis);
+            return gameService.suggestWithin(gameId, admission.getStrategy(), admission.getGuessPool(), budget);
+        } finally {
+            long used = SearchBudget.threadCpuNanos() - start + (budget == null ? 0 : budget.getWorkerCpuNanos());
+            chargedNanos.add(used);
+            // Settle the reservation: charge what was used beyond it, or give back what wasn't
+            account(admission.getAccount()).charge(used - admission.reservedNanos);
+        }
+    }
+
+    /**
+     * Give back the CPU time reserved for an admission that will not be run.
+     */
+    public void release(Admission admission) {
+        if (admission.reservedNanos > 0) {
+            account(admission.getAccount()).charge(-admission.reservedNanos);
+        }
+    }
+
+    /**
+     * Charge CPU time to a session.
+     */
+    public void charge(String account, long cpuNanos) {
+        chargedNanos.add(cpuNanos);
+        account(account).charge(cpuNanos);
+    }
+
+    /**
+     * @return A snapshot of the decision counters
+     */
+    public Stats stats() {
+        return new Stats(accounts.size(), admitted.sum(), downgraded.sum(), rejected.sum(), chargedNanos.sum());
+    }
+
+    /**
+     * Forget sessions whose buckets have refilled, so idle sessions cost nothing.
+     */
+    @Scheduled(fixedRate = 60000)
+    public void purgeIdleAccounts() {
+        accounts.values().removeIf(Account::isFull);
+    }
+
+    private Account account(String account) {
+        return accounts.computeIfAbsent(account, key -> new Account(capacityNanos(), refillPerSecond()));
+    }
+
+    private double capacityNanos() {
+        return cpuSecondsPerMinute * 1e9;
+    }
+
+    /** Nanoseconds of CPU a bucket regains per second. */
+    private double refillPerSecond() {
+        return capacityNanos() / 60;
+    }
+
+    /**
+     * One session's bucket of CPU time, refilled lazily when read.
+     */
+    private static final class Account {
+        private final double capacity;
+        private final double refillPerSecond;
+        private double balance;
+        private long refilledAt = System.nanoTime();
+
+        Account(double capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.balance = capacity;
+        }
+
+        synchronized double balance() {
+            long now = System.nanoTime();
+            balance = Math.min(capacity, balance + (now - refilledAt) / 1e9 * refillPerSecond);
+            refilledAt = now;
+            return balance;
+        }
+
+        synchronized void charge(long nanos) {
+            balance();
+            balance -= nanos;
+        }
+
+        synchronized boolean isFull() {
+            return balance() >= capacity;
+        }
+    }
+
+    /**
+     * Outcome of admission control for one request.
+     */
+    public enum Decision {
+        ADMITTED,
+        DOWNGRADED,
+        REJECTED
+    }
+
+    /**
+     * A decision together with the strategy and pool to run it with.
+     */
+    public static final class Admission {
+        private final Decision decision;
+        private final String account;
+        private final SuggestionStrategy strategy;
+        private final GuessPool guessPool;
+        private final long estimatedEvaluations;
+        private final long retryAfterSeconds;
+        // CPU time taken from the bucket when admitted, settled once the search has run
+        private final long reservedNanos;
+
+        Admission(Decision decision, String account, SuggestionStrategy strategy, GuessPool guessPool,
+                  long estimatedEvaluations, long retryAfterSeconds, long reservedNanos) {
+            this.decision = decision;
+            this.account = account;
+            this.strategy = strategy;
+            this.guessPool = guessPool;
+            this.estimatedEvaluations = estimatedEvaluations;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.reservedNanos = reservedNanos;
+        }
+
+        public Decision getDecision() {
+            return decision;
+        }
+
+        public boolean isRejected() {
+            return decision == Decision.REJECTED;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public SuggestionStrategy getStrategy() {
+            return strategy;
+        }
+
+        public GuessPool getGuessPool() {
+            return guessPool;
+        }
+
+        public long getEstimatedEvaluations() {
+            return estimatedEvaluations;
+        }
+
+        /** Seconds until a rejected session has CPU time again, or 0 if admitted. */
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * Admission counters at one point in time.
+     */
+    public static final class Stats {
+        private final int sessions;
+        private final long admitted;
+        private final long downgraded;
+        private final long rejected;
+        private final long chargedNanos;
+
+        Stats(int sessions, long admitted, long downgraded, long rejected, long chargedNanos) {
+            this.sessions = sessions;
+            this.admitted = admitted;
+            this.downgraded = downgraded;
+            this.rejected = rejected;
+            this.chargedNanos = chargedNanos;
+        }
+
+        /** Sessions with CPU time charged in the last minute or so. */
+        public int getSessions() {
+            return sessions;
+        }
+
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        /** Requests run with a cheaper strategy or pool than asked for. */
+        public long getDowngraded() {
+            return downgraded;
+        }
+
+        /** Requests turned away because the session's CPU budget was spent. */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /** Solver CPU time charged to all sessions since startup. */
+        public double getChargedCpuMillis() {
+            return chargedNanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.mastermind.service;
+
+import com.mastermind.solver.SearchBudget;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background threads that work out a game's next hint while the player thinks.
+ *
+ * At most one task runs per game: starting another cancels the one before, since a
+ * new guess makes its answer useless. Tasks run on a few minimum-priority threads
+ * and never queue; when every thread is busy, or the machine's load average per
+ * processor is above the limit, the work is skipped and the next hint is searched
+ * on request as usual.
+ */
+public class SpeculativeHints {
+
+    private static final OperatingSystemMXBean OS = ManagementFactory.getOperatingSystemMXBean();
+
+    private final int threads;
+    private final double maxLoadPerProcessor;
+    private final Map<String, Task> running = new ConcurrentHashMap<>();
+    // Started on the first task
+    private final Lazy<ThreadPoolExecutor> executor;
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder skippedBusy = new LongAdder();
+    private final LongAdder skippedLoad = new LongAdder();
+
+    /**
+     * @param threads Most tasks running at once across all games
+     * @param maxLoadPerProcessor Load average per processor above which tasks are skipped (0 or less = no limit)
+     */
+    public SpeculativeHints(int threads, double maxLoadPerProcessor) {
+        this.threads = threads;
+        this.maxLoadPerProcessor = maxLoadPerProcessor;
+        this.executor = new Lazy<>(() -> newExecutor(threads));
+    }
+
+    /**
+     * Start working out a game's next hint, cancelling any task still running for the game.
+     *
+     * @param gameId The game the hint is for
+     * @param budget The task's search budget, cancelled along with the task
+     * @param task The work; it should poll the budget
+     * @return true if the task was started, false if it was skipped
+     */
+    public boolean start(String gameId, SearchBudget budget, Runnable task) {
+        cancel(gameId);
+        if (isOverloaded()) {
+            skippedLoad.increment();
+            return false;
+        }
+        Task[] self = new Task[1];
+        self[0] = new Task(budget, () -> {
+            try {
+                task.run();
+            } finally {
+                running.remove(gameId, self[0]);
+            }
+        });
+        running.put(gameId, self[0]);
+        try {
+            executor.get().execute(self[0]);
+            started.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.remove(gameId, self[0]);
+            skippedBusy.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Cancel the task running for a game, if any.
+     */
+    public void cancel(String gameId) {
+        Task task = running.remove(gameId);
+        if (task != null && !task.isDone()) {
+            task.budget.cancel();
+            task.cancel(false);
+            cancelled.increment();
+        }
+    }
+
+    /**
+     * Record that a task finished with a hint worth keeping.
+     */
+    public void recordStored() {
+        stored.increment();
+    }
+
+    /**
+     * Record that a request was answered with a precomputed hint.
+     */
+    public void recordServed() {
+        served.increment();
+    }
+
+    private boolean isOverloaded() {
+        if (maxLoadPerProcessor <= 0) {
+            return false;
+        }
+        double load = OS.getSystemLoadAverage();
+        return load >= 0 && load / OS.getAvailableProcessors() > maxLoadPerProcessor;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "speculate-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+        // No queue: a task either gets a thread now or is skipped
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @return A snapshot of the counters
+     */
+    public Stats stats() {
+        return new Stats(threads, running.size(), OS.getSystemLoadAverage(), started.sum(), stored.sum(),
+                served.sum(), cancelled.sum(), skippedBusy.sum(), skippedLoad.sum());
+    }
+
+    /**
+     * Stop the background threads, cancelling running tasks.
+     */
+    public void shutdown() {
+        running.keySet().forEach(this::cancel);
+        ThreadPoolExecutor current = executor.getIfCreated();
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    private static final class Task extends FutureTask<Void> {
+        private final SearchBudget budget;
+
+        Task(SearchBudget budget, Runnable work) {
+            super(work, null);
+            this.budget = budget;
+        }
+    }
+
+    /**
+     * Background hint counters at one point in time.
+     */
+    public static final class Stats {
+        private final int threads;
+        private final int running;
+        private final double loadAverage;
+        private final long started;
+        private final long stored;
+        private final long served;
+        private final long cancelled;
+        private final long skippedBusy;
+        private final long skippedLoad;
+
+        Stats(int threads, int running, double loadAverage, long started, long stored, long served,
+              long cancelled, long skippedBusy, long skippedLoad) {
+            this.threads = threads;
+            this.running = running;
+            this.loadAverage = loadAverage;
+            this.started = started;
+            this.stored = stored;
+            this.served = served;
+            this.cancelled = cancelled;
+            this.skippedBusy = skippedBusy;
+            this.skippedLoad = skippedLoad;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        /** Tasks running now. */
+        public int getRunning() {
+            return running;
+        }
+
+        /** System load average over the last minute, or negative where unavailable. */
+        public double getLoadAverage() {
+            return loadAverage;
+        }
+
+        public long getStarted() {
+            return started;
+        }
+
+        /** Tasks that finished with a hint kept for the next request. */
+        public long getStored() {
+            return stored;
+        }
+
+        /** Requests answered with a hint worked out in the background. */
+        public long getServed() {
+            return served;
+        }
+
+        /** Tasks stopped because another guess arrived first, or the game was reset or deleted. */
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        /** Tasks not started because every thread was busy. */
+        public long getSkippedBusy() {
+            return skippedBusy;
+        }
+
+        /** Tasks not started because the machine was busy. */
+        public long getSkippedLoad() {
+            return skippedLoad;
+        }
+    }
+}
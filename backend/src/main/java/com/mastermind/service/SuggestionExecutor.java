@@ -0,0 +1,221 @@
+package com.mastermind.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead for suggestion searches: a fixed set of threads with a bounded queue.
+ *
+ * Searches grow exponentially with the board, so they run here instead of on the
+ * servlet threads that also serve guesses and game state. When every thread is
+ * busy and the queue is full, new work is rejected at once rather than waiting,
+ * and callers are told how long to back off before retrying.
+ */
+@Component
+public class SuggestionExecutor {
+
+    @Value("${mastermind.solver.executor.threads:2}")
+    private int threads = 2;
+
+    @Value("${mastermind.solver.executor.queue-capacity:16}")
+    private int queueCapacity = 16;
+
+    @Value("${mastermind.solver.executor.retry-after-seconds:1}")
+    private int retryAfterSeconds = 1;
+
+    // Started on the first submit, once the settings are injected
+    private final Lazy<ThreadPoolExecutor> executor = new Lazy<>(() -> {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "suggest-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), factory,
+                new ThreadPoolExecutor.AbortPolicy());
+    });
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+
+    public SuggestionExecutor() {
+    }
+
+    /**
+     * @param threads Threads running searches
+     * @param queueCapacity Searches that may wait for a thread before new ones are rejected
+     * @param retryAfterSeconds Back-off suggested to rejected callers
+     */
+    public SuggestionExecutor(int threads, int queueCapacity, int retryAfterSeconds) {
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Run a task on the bulkhead.
+     *
+     * @param task The work to run
+     * @return A future completed with the task's result, or exceptionally with what it threw
+     * @throws RejectedExecutionException if every thread is busy and the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        Supplier<T> timed = () -> {
+            long start = System.nanoTime();
+            waitNanos.add(start - queuedAt);
+            boolean success = false;
+            try {
+                T result = task.get();
+                success = true;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                runNanos.add(elapsed);
+                maxRunNanos.accumulate(elapsed);
+                (success ? completed : failed).increment();
+            }
+        };
+        try {
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(timed, executor.get());
+            submitted.increment();
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Seconds a rejected caller should wait before retrying
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * @return A snapshot of the queue and counters
+     */
+    public Stats stats() {
+        ThreadPoolExecutor current = executor.getIfCreated();
+        int active = current != null ? current.getActiveCount() : 0;
+        int queued = current != null ? current.getQueue().size() : 0;
+        return new Stats(threads, queueCapacity, active, queued, submitted.sum(), rejected.sum(),
+                completed.sum(), failed.sum(), runNanos.sum(), maxRunNanos.get(), waitNanos.sum());
+    }
+
+    /**
+     * Stop the suggestion threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        ThreadPoolExecutor current = executor.getIfCreated();
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Bulkhead load and timings at one point in time.
+     */
+    public static final class Stats {
+        private final int threads;
+        private final int queueCapacity;
+        private final int active;
+        private final int queueDepth;
+        private final long submitted;
+        private final long rejected;
+        private final long completed;
+        private final long failed;
+        private final long runNanos;
+        private final long maxRunNanos;
+        private final long waitNanos;
+
+        Stats(int threads, int queueCapacity, int active, int queueDepth, long submitted, long rejected,
+              long completed, long failed, long runNanos, long maxRunNanos, long waitNanos) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.active = active;
+            this.queueDepth = queueDepth;
+            this.submitted = submitted;
+            this.rejected = rejected;
+            this.completed = completed;
+            this.failed = failed;
+            this.runNanos = runNanos;
+            this.maxRunNanos = maxRunNanos;
+            this.waitNanos = waitNanos;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        /** Searches running now. */
+        public int getActive() {
+            return active;
+        }
+
+        /** Searches waiting for a thread. */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /** Searches accepted since startup. */
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        /** Searches turned away because the queue was full. */
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        /** Searches that ended with an exception. */
+        public long getFailed() {
+            return failed;
+        }
+
+        /** Mean search run time, or 0 before the first search finishes. */
+        public double getAverageRunMillis() {
+            long finished = completed + failed;
+            return finished == 0 ? 0 : runNanos / 1e6 / finished;
+        }
+
+        public double getMaxRunMillis() {
+            return maxRunNanos / 1e6;
+        }
+
+        /** Mean time a search waited in the queue, or 0 before the first search finishes. */
+        public double getAverageWaitMillis() {
+            long finished = completed + failed;
+            return finished == 0 ? 0 : waitNanos / 1e6 / finished;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.mastermind.solver;
+
+import java.util.Arrays;
+
+/**
+ * The codes still consistent with a game's history, as an immutable set.
+ *
+ * Dense sets are a {@code long[]} bitmap over the packed code space. Once fewer
+ * than 1 in 32 codes remain, the set switches to a sorted {@code int[]}, which is
+ * then smaller than the bitmap (the same split as a roaring bitmap container).
+ *
+ * A set is narrowed one attempt at a time with {@link #filter(int, int)}. Dense
+ * sets on spaces with {@link FeedbackMasks} intersect with the attempt's mask
+ * word by word; otherwise only the remaining codes are re-scored.
+ *
+ * Each set also carries the {@link Symmetry} of the guesses it was filtered by,
+ * under which it is closed, so a search can score one guess per orbit.
+ */
+public final class CandidateSet {
+
+    private final CodeSpace space;
+    private final long[] words;
+    private final int[] sparse;
+    private final int size;
+    private final Symmetry symmetry;
+    private volatile int[] codes;
+
+    private CandidateSet(CodeSpace space, long[] words, int[] sparse, int size, Symmetry symmetry) {
+        this.space = space;
+        this.words = words;
+        this.sparse = sparse;
+        this.size = size;
+        this.symmetry = symmetry;
+        this.codes = sparse;
+    }
+
+    /**
+     * @return The set of every code in the space
+     */
+    public static CandidateSet all(CodeSpace space) {
+        long[] words = new long[wordCount(space)];
+        Arrays.fill(words, -1L);
+        int tail = space.size() & 63;
+        if (tail != 0) {
+            words[words.length - 1] = (1L << tail) - 1;
+        }
+        return new CandidateSet(space, words, null, space.size(), Symmetry.full(space));
+    }
+
+    /**
+     * Build the set of codes consistent with a history.
+     *
+     * @param history The packed history
+     * @return The consistent codes
+     */
+    public static CandidateSet of(PackedHistory history) {
+        CodeSpace space = history.getSpace();
+        if (!history.isSatisfiable()) {
+            return new CandidateSet(space, null, new int[0], 0, Symmetry.none(space));
+        }
+        if (history.size() == 0 || FeedbackMasks.supports(space)) {
+            CandidateSet set = all(space);
+            for (int i = 0; i < history.size(); i++) {
+                set = set.filter(history.guessAt(i), history.feedbackAt(i));
+            }
+            return set;
+        }
+        int[] consistent = history.consistentCodes();
+        return fromSorted(space, consistent, consistent.length, Symmetry.of(history));
+    }
+
+    /**
+     * Wrap codes that are already known to be sorted and distinct, assuming no symmetry.
+     */
+    static CandidateSet ofSorted(CodeSpace space, int[] codes) {
+        return ofSorted(space, codes, Symmetry.none(space));
+    }
+
+    /**
+     * Wrap codes that are already known to be sorted, distinct and closed under a symmetry.
+     */
+    static CandidateSet ofSorted(CodeSpace space, int[] codes, Symmetry symmetry) {
+        return fromSorted(space, codes, codes.length, symmetry);
+    }
+
+    /**
+     * Narrow the set to the codes that would give the observed feedback to a guess.
+     * Filtering by an attempt the set already reflects returns an equal set.
+     *
+     * @param guess The packed guess
+     * @param feedback The packed feedback it received
+     * @return A new set with the inconsistent codes removed
+     */
+    public CandidateSet filter(int guess, int feedback) {
+        Symmetry narrowed = symmetry.fix(space, guess);
+        if (words != null) {
+            long[] mask = FeedbackMasks.get(space, guess, feedback);
+            if (mask != null) {
+                long[] result = new long[words.length];
+                for (int i = 0; i < words.length; i++) {
+                    result[i] = words[i] & mask[i];
+                }
+                return fromWords(space, result, narrowed);
+            }
+        }
+
+        if (words != null) {
+            long[] result = new long[words.length];
+            for (int code = first(); code >= 0; code = next(code)) {
+                if (space.feedback(code, guess) == feedback) {
+                    result[code >>> 6] |= 1L << code;
+                }
+            }
+            return fromWords(space, result, narrowed);
+        }
+
+        int[] remaining = new int[size];
+        int count = 0;
+        for (int code : sparse) {
+            if (space.feedback(code, guess) == feedback) {
+                remaining[count++] = code;
+            }
+        }
+        return fromSorted(space, remaining, count, narrowed);
+    }
+
+    public CodeSpace getSpace() {
+        return space;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The lowest code in the set, or {@link CodeSpace#UNPACKED} if it is empty
+     */
+    public int first() {
+        return next(-1);
+    }
+
+    public boolean contains(int code) {
+        if (words != null) {
+            return code >= 0 && code < space.size() && (words[code >>> 6] & (1L << code)) != 0;
+        }
+        return Arrays.binarySearch(sparse, code) >= 0;
+    }
+
+    /**
+     * @return A copy of the codes, in ascending order
+     */
+    public int[] toArray() {
+        return codes().clone();
+    }
+
+    /**
+     * Copy out one page of the codes, in ascending order. Dense sets skip to the
+     * page by counting bits a word at a time rather than listing every code.
+     *
+     * @param offset Number of codes to skip
+     * @param limit Most codes to return
+     * @return Up to {@code limit} codes, empty if the offset is past the end
+     */
+    public int[] page(long offset, int limit) {
+        if (offset >= size || limit <= 0) {
+            return new int[0];
+        }
+        int[] result = new int[(int) Math.min(limit, size - offset)];
+        if (words == null) {
+            System.arraycopy(sparse, (int) offset, result, 0, result.length);
+            return result;
+        }
+        long skip = offset;
+        int wordIndex = 0;
+        while (Long.bitCount(words[wordIndex]) <= skip) {
+            skip -= Long.bitCount(words[wordIndex++]);
+        }
+        long word = words[wordIndex];
+        for (; skip > 0; skip--) {
+            word &= word - 1;
+        }
+        int count = 0;
+        while (count < result.length) {
+            while (word == 0) {
+                word = words[++wordIndex];
+            }
+            result[count++] = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the set is held as a bitmap rather than a sorted array
+     */
+    public boolean isDense() {
+        return words != null;
+    }
+
+    /**
+     * @return Relabellings of codes that map this set onto itself
+     */
+    Symmetry symmetry() {
+        return symmetry;
+    }
+
+    /**
+     * Shared view of the codes in ascending order for searches in this package;
+     * materialized on first use for dense sets, and must not be modified.
+     */
+    int[] codes() {
+        int[] result = codes;
+        if (result == null) {
+            result = new int[size];
+            int count = 0;
+            for (int code = first(); code >= 0; code = next(code)) {
+                result[count++] = code;
+            }
+            codes = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return The smallest code greater than {@code code}, or {@link CodeSpace#UNPACKED}
+     */
+    private int next(int code) {
+        if (words == null) {
+            int index = Arrays.binarySearch(sparse, code + 1);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < sparse.length ? sparse[index] : CodeSpace.UNPACKED;
+        }
+        int from = code + 1;
+        int wordIndex = from >>> 6;
+        if (wordIndex >= words.length) {
+            return CodeSpace.UNPACKED;
+        }
+        long word = words[wordIndex] & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == words.length) {
+                return CodeSpace.UNPACKED;
+            }
+            word = words[wordIndex];
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Rough heap footprint, counting the code array a search would materialize for a dense set.
+     */
+    long estimatedBytes() {
+        return words != null ? words.length * 8L + size * 4L : sparse.length * 4L;
+    }
+
+    static int wordCount(CodeSpace space) {
+        return (space.size() + 63) >>> 6;
+    }
+
+    private static boolean isSparse(CodeSpace space, int count) {
+        return (long) count * 32 < space.size();
+    }
+
+    private static CandidateSet fromSorted(CodeSpace space, int[] codes, int count, Symmetry symmetry) {
+        if (isSparse(space, count)) {
+            return new CandidateSet(space, null, Arrays.copyOf(codes, count), count, symmetry);
+        }
+        long[] words = new long[wordCount(space)];
+        for (int i = 0; i < count; i++) {
+            words[codes[i] >>> 6] |= 1L << codes[i];
+        }
+        return new CandidateSet(space, words, null, count, symmetry);
+    }
+
+    private static CandidateSet fromWords(CodeSpace space, long[] words, Symmetry symmetry) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (!isSparse(space, count)) {
+            return new CandidateSet(space, words, null, count, symmetry);
+        }
+        int[] codes = new int[count];
+        int index = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                codes[index++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return new CandidateSet(space, null, codes, count, symmetry);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CandidateSet{slots=%d, size=%d, %s}",
+                space.getSlotCount(), size, isDense() ? "dense" : "sparse");
+    }
+}
@@ -0,0 +1,118 @@
+package com.mastermind.solver;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Splittable, ordered iteration over a range of packed codes {@code [from, to)}.
+ *
+ * Splitting hands off the lower half, so encounter order always follows code
+ * order and ordered reductions give the same result however the range is split.
+ * A range with a {@link SearchBudget} stops early, between blocks of
+ * {@link #BUDGET_CHECK_INTERVAL} codes, once the budget is exhausted.
+ */
+public final class CodeRangeSpliterator implements Spliterator.OfInt {
+
+    /** Default smallest range worth handing to another thread. */
+    public static final int DEFAULT_MIN_SPLIT = 1024;
+
+    /** Codes visited between checks of the search budget; a power of two. */
+    public static final int BUDGET_CHECK_INTERVAL = 4096;
+
+    private int next;
+    private final int to;
+    private final int minSplit;
+    private final SearchBudget budget;
+
+    public CodeRangeSpliterator(int from, int to) {
+        this(from, to, DEFAULT_MIN_SPLIT);
+    }
+
+    /**
+     * @param from First code, inclusive
+     * @param to Last code, exclusive
+     * @param minSplit Smallest range that {@link #trySplit()} will produce
+     */
+    public CodeRangeSpliterator(int from, int to, int minSplit) {
+        this(from, to, minSplit, null);
+    }
+
+    /**
+     * @param from First code, inclusive
+     * @param to Last code, exclusive
+     * @param minSplit Smallest range that {@link #trySplit()} will produce
+     * @param budget Budget that ends the iteration early, or null to always visit the whole range
+     */
+    public CodeRangeSpliterator(int from, int to, int minSplit, SearchBudget budget) {
+        this.next = from;
+        this.to = to;
+        this.minSplit = Math.max(1, minSplit);
+        this.budget = budget;
+    }
+
+    /**
+     * @return A spliterator over every code in the space
+     */
+    public static CodeRangeSpliterator of(CodeSpace space) {
+        return new CodeRangeSpliterator(0, space.size());
+    }
+
+    /**
+     * @return A spliterator over every code in the space that stops when the budget runs out
+     */
+    public static CodeRangeSpliterator of(CodeSpace space, SearchBudget budget) {
+        return new CodeRangeSpliterator(0, space.size(), DEFAULT_MIN_SPLIT, budget);
+    }
+
+    @Override
+    public OfInt trySplit() {
+        int remaining = to - next;
+        if (remaining < 2 * minSplit) {
+            return null;
+        }
+        int mid = next + (remaining >>> 1);
+        CodeRangeSpliterator prefix = new CodeRangeSpliterator(next, mid, minSplit, budget);
+        next = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (next >= to || (budget != null && (next & (BUDGET_CHECK_INTERVAL - 1)) == 0 && budget.isExhausted())) {
+            next = to;
+            return false;
+        }
+        action.accept(next++);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        int end = to;
+        if (budget == null) {
+            for (int code = next; code < end; code++) {
+                action.accept(code);
+            }
+            next = end;
+            return;
+        }
+        while (next < end && !budget.isExhausted()) {
+            int blockEnd = (int) Math.min(end, ((long) next | (BUDGET_CHECK_INTERVAL - 1)) + 1);
+            for (int code = next; code < blockEnd; code++) {
+                action.accept(code);
+            }
+            next = blockEnd;
+        }
+        next = end;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(0, to - next);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,249 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The space of all secret codes for a given slot count and color palette.
+ *
+ * Each code is packed into a single base-N {@code int} (N = palette size), with
+ * slot 0 as the most significant digit. Code {@code 0} is therefore all-first-color
+ * and codes enumerate in the same lexicographic order as the palette.
+ *
+ * Feedback is packed as {@code exact * (slotCount + 1) + partial}, a dense index in
+ * {@code [0, feedbackCount())} that fits in a byte for every board with a feedback table.
+ */
+public final class CodeSpace {
+
+    /** Largest slot count whose code space still fits in a positive {@code int}. */
+    public static final int MAX_PACKED_SLOTS = 11;
+
+    /** Marker for a code or feedback that has not been (or cannot be) packed. */
+    public static final int UNPACKED = -1;
+
+    private static final Color[] PALETTE = Color.values();
+    private static final Map<Integer, CodeSpace> SPACES = new ConcurrentHashMap<>();
+
+    private final int slotCount;
+    private final int colorCount;
+    private final int size;
+    private final int[] weights;
+    private volatile FeedbackTable feedbackTable;
+
+    private CodeSpace(int slotCount, Color[] palette) {
+        this.slotCount = slotCount;
+        this.colorCount = palette.length;
+        this.weights = new int[slotCount];
+        long size = 1;
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            weights[slot] = (int) size;
+            size *= colorCount;
+        }
+        this.size = (int) size;
+    }
+
+    /**
+     * Get the shared code space for the default color palette.
+     *
+     * @param slotCount Number of slots in a code
+     * @return The code space
+     * @throws IllegalArgumentException if codes of this length cannot be packed into an int
+     */
+    public static CodeSpace of(int slotCount) {
+        if (!isPackable(slotCount)) {
+            throw new IllegalArgumentException("Slot count " + slotCount + " cannot be packed");
+        }
+        return SPACES.computeIfAbsent(slotCount, count -> new CodeSpace(count, PALETTE));
+    }
+
+    /**
+     * Check whether codes with the given slot count can be packed into an int.
+     *
+     * @param slotCount Number of slots in a code
+     * @return true if {@link #of(int)} supports this slot count
+     */
+    public static boolean isPackable(int slotCount) {
+        return slotCount > 0 && slotCount <= MAX_PACKED_SLOTS;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getColorCount() {
+        return colorCount;
+    }
+
+    /**
+     * @return Number of distinct codes ({@code colorCount ^ slotCount})
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of distinct packed feedback values
+     */
+    public int feedbackCount() {
+        return (slotCount + 1) * (slotCount + 1);
+    }
+
+    /**
+     * Pack a list of colors into a code.
+     *
+     * @param colors The colors, one per slot
+     * @return The packed code
+     * @throws IllegalArgumentException if the list has the wrong length or contains null
+     */
+    public int encode(List<Color> colors) {
+        if (colors == null || colors.size() != slotCount) {
+            throw new IllegalArgumentException("Code must contain " + slotCount + " colors");
+        }
+        int code = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            Color color = colors.get(slot);
+            if (color == null) {
+                throw new IllegalArgumentException("Code cannot contain null colors");
+            }
+            code = code * colorCount + color.ordinal();
+        }
+        return code;
+    }
+
+    /**
+     * Pack a list of colors into a code of the matching space, if possible.
+     *
+     * @param colors The colors, one per slot
+     * @return The packed code, or {@link #UNPACKED} if the list is null, contains null,
+     *         or is too long to pack
+     */
+    public static int tryPack(List<Color> colors) {
+        if (colors == null || !isPackable(colors.size()) || colors.contains(null)) {
+            return UNPACKED;
+        }
+        return of(colors.size()).encode(colors);
+    }
+
+    /**
+     * Unpack a code into a new list of colors.
+     *
+     * @param code The packed code
+     * @return The colors, one per slot
+     */
+    public List<Color> decode(int code) {
+        List<Color> colors = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            colors.add(PALETTE[digit(code, slot)]);
+        }
+        return colors;
+    }
+
+    /**
+     * Unpack a code into palette indices without allocating.
+     *
+     * @param code The packed code
+     * @param out Destination with at least {@code slotCount} entries
+     */
+    public void digits(int code, byte[] out) {
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            out[slot] = (byte) (code % colorCount);
+            code /= colorCount;
+        }
+    }
+
+    /**
+     * Get the palette index at one slot of a packed code.
+     */
+    public int digit(int code, int slot) {
+        return (code / weights[slot]) % colorCount;
+    }
+
+    public int packFeedback(int exact, int partial) {
+        return exact * (slotCount + 1) + partial;
+    }
+
+    /**
+     * Pack a feedback object.
+     *
+     * @return The packed feedback, or {@link #UNPACKED} if no guess on this board could produce it
+     */
+    public int packFeedback(Feedback feedback) {
+        int exact = feedback.getExact();
+        int partial = feedback.getPartial();
+        if (exact < 0 || partial < 0 || exact + partial > slotCount) {
+            return UNPACKED;
+        }
+        return packFeedback(exact, partial);
+    }
+
+    public int exactOf(int packedFeedback) {
+        return packedFeedback / (slotCount + 1);
+    }
+
+    public int partialOf(int packedFeedback) {
+        return packedFeedback % (slotCount + 1);
+    }
+
+    public Feedback unpackFeedback(int packedFeedback) {
+        return new Feedback(exactOf(packedFeedback), partialOf(packedFeedback));
+    }
+
+    /**
+     * @return The packed feedback of a winning guess
+     */
+    public int winningFeedback() {
+        return packFeedback(slotCount, 0);
+    }
+
+    /**
+     * Score a guess against a secret, using the precomputed table when this space has one.
+     *
+     * @param secret The packed secret
+     * @param guess The packed guess
+     * @return The packed feedback
+     */
+    public int feedback(int secret, int guess) {
+        FeedbackTable table = feedbackTable();
+        return table != null ? table.get(secret, guess) : computeFeedback(secret, guess);
+    }
+
+    /**
+     * Score a guess against a secret without consulting the feedback table.
+     *
+     * @param secret The packed secret
+     * @param guess The packed guess
+     * @return The packed feedback
+     */
+    public int computeFeedback(int secret, int guess) {
+        return FeedbackScorer.score(secret, guess, slotCount, colorCount);
+    }
+
+    /**
+     * Get the precomputed feedback table for this space, building it on first use.
+     *
+     * @return The table, or null if the space is too large to tabulate
+     */
+    public FeedbackTable feedbackTable() {
+        FeedbackTable table = feedbackTable;
+        if (table == null && FeedbackTable.fits(this)) {
+            synchronized (this) {
+                table = feedbackTable;
+                if (table == null) {
+                    table = FeedbackTable.build(this);
+                    feedbackTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CodeSpace{slots=%d, colors=%d, size=%d}", slotCount, colorCount, size);
+    }
+}
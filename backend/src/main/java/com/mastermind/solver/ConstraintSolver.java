@@ -0,0 +1,397 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.GuessAttempt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds a code consistent with a history by constraint propagation and backtracking,
+ * for boards whose code space is too large to enumerate.
+ *
+ * Each slot keeps a domain of colors it may still take, and each color a lower and
+ * upper bound on how many times the secret holds it. Every attempt constrains both:
+ * its hits (exact plus partial) are a sum over colors of the smaller of the guess's
+ * and the secret's count, and its exact matches a sum over colors of the secret's
+ * count on the slots the guess gave that color. After every assignment, bounds on
+ * those sums remove or force colors and tighten the counts, until nothing changes or
+ * something can't be met. Slots are then assigned in order, lowest color first, so
+ * the first code found is the lowest consistent code: the same answer a scan of the
+ * whole space gives, at a cost that grows with how loosely the history constrains
+ * the secret rather than with the size of the space.
+ */
+public final class ConstraintSolver {
+
+    private static final Color[] COLORS = Color.values();
+
+    private final int slotCount;
+    private final int colorCount;
+    private final byte[][] guesses;
+    private final int[] exacts;
+    private final int[] hits;
+    // Per attempt, how many times each color appears in its guess
+    private final int[][] guessCounts;
+    private final boolean satisfiable;
+
+    // Search state, one array per depth so backtracking never undoes edits: the slots'
+    // color domains as bitmasks, then the lower and upper bound on each color's count
+    private int[][] domains;
+    private int[] solution;
+    private final int[] fixedCounts;
+    private final int[] reachCounts;
+    // Per color, for the attempt being applied: slots fixed to it or still open to it,
+    // where the guess has it (in) and elsewhere (out), and bounds on its exact matches
+    private final int[] fixedIn;
+    private final int[] reachIn;
+    private final int[] fixedOut;
+    private final int[] reachOut;
+    private final int[] shareMin;
+    private final int[] shareMax;
+    private long nodes;
+    private boolean stopped;
+
+    private ConstraintSolver(int slotCount, int colorCount, byte[][] guesses, int[] exacts, int[] hits,
+                             boolean satisfiable) {
+        this.slotCount = slotCount;
+        this.colorCount = colorCount;
+        this.guesses = guesses;
+        this.exacts = exacts;
+        this.hits = hits;
+        this.satisfiable = satisfiable;
+        this.guessCounts = new int[guesses.length][colorCount];
+        for (int a = 0; a < guesses.length; a++) {
+            for (byte color : guesses[a]) {
+                guessCounts[a][color]++;
+            }
+        }
+        this.fixedCounts = new int[colorCount];
+        this.reachCounts = new int[colorCount];
+        this.fixedIn = new int[colorCount];
+        this.reachIn = new int[colorCount];
+        this.fixedOut = new int[colorCount];
+        this.reachOut = new int[colorCount];
+        this.shareMin = new int[colorCount];
+        this.shareMax = new int[colorCount];
+    }
+
+    /**
+     * Set up a solver for a history.
+     *
+     * @param attempts The guess attempts, oldest first
+     * @param slotCount Number of slots in the game
+     * @return The solver
+     * @throws IllegalArgumentException if a guess has the wrong length or contains null
+     */
+    public static ConstraintSolver of(List<GuessAttempt> attempts, int slotCount) {
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("Slot count must be positive");
+        }
+        byte[][] guesses = new byte[attempts.size()][];
+        int[] exacts = new int[attempts.size()];
+        int[] hits = new int[attempts.size()];
+        boolean satisfiable = true;
+        for (int a = 0; a < guesses.length; a++) {
+            GuessAttempt attempt = attempts.get(a);
+            List<Color> guess = attempt.getGuess();
+            if (guess == null || guess.size() != slotCount) {
+                throw new IllegalArgumentException("Secret and guess must have same length");
+            }
+            guesses[a] = new byte[slotCount];
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (guess.get(slot) == null) {
+                    throw new IllegalArgumentException("Guess cannot contain null colors");
+                }
+                guesses[a][slot] = (byte) guess.get(slot).ordinal();
+            }
+            exacts[a] = attempt.getFeedback().getExact();
+            hits[a] = exacts[a] + attempt.getFeedback().getPartial();
+            satisfiable &= exacts[a] >= 0 && attempt.getFeedback().getPartial() >= 0 && hits[a] <= slotCount;
+        }
+        return new ConstraintSolver(slotCount, COLORS.length, guesses, exacts, hits, satisfiable);
+    }
+
+    /**
+     * Find the lowest code consistent with the history, in palette order with slot 0 most significant.
+     *
+     * @param budget The search budget, polled every {@link CodeRangeSpliterator#BUDGET_CHECK_INTERVAL} nodes
+     * @return The code, or null if none is consistent or the budget ran out first
+     */
+    public List<Color> firstConsistent(SearchBudget budget) {
+        if (!satisfiable) {
+            return null;
+        }
+        domains = new int[slotCount + 1][];
+        domains[0] = new int[slotCount + 2 * colorCount];
+        Arrays.fill(domains[0], 0, slotCount, (1 << colorCount) - 1);
+        Arrays.fill(domains[0], slotCount + colorCount, slotCount + 2 * colorCount, slotCount);
+        solution = null;
+        nodes = 0;
+        stopped = false;
+        if (!propagate(domains[0]) || !search(0, 0, budget)) {
+            return null;
+        }
+        List<Color> code = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            code.add(COLORS[Integer.numberOfTrailingZeros(solution[slot])]);
+        }
+        return code;
+    }
+
+    /**
+     * @return Search nodes visited by the last call to {@link #firstConsistent(SearchBudget)}
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Assign the first open slot at or after {@code slot}, trying each color left in its domain.
+     * Each level assigns at least one slot, so the depth never exceeds the slot count.
+     */
+    private boolean search(int depth, int slot, SearchBudget budget) {
+        if ((nodes++ & (CodeRangeSpliterator.BUDGET_CHECK_INTERVAL - 1)) == 0 && budget.isExhausted()) {
+            stopped = true;
+            return false;
+        }
+        int[] domain = domains[depth];
+        while (slot < slotCount && Integer.bitCount(domain[slot]) == 1) {
+            slot++;
+        }
+        if (slot == slotCount) {
+            solution = domain;
+            return true;
+        }
+        if (domains[depth + 1] == null) {
+            domains[depth + 1] = new int[domain.length];
+        }
+        int[] next = domains[depth + 1];
+        for (int colors = domain[slot]; colors != 0; colors &= colors - 1) {
+            System.arraycopy(domain, 0, next, 0, domain.length);
+            next[slot] = colors & -colors;
+            if (propagate(next) && search(depth + 1, slot + 1, budget)) {
+                return true;
+            }
+            if (stopped) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Narrow the domains and count bounds until every attempt's bounds hold with nothing
+     * left to remove or force.
+     *
+     * @return false if some attempt can no longer be satisfied
+     */
+    private boolean propagate(int[] state) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int a = 0; a < guesses.length; a++) {
+                int result = propagateExact(state, a);
+                if (result < 0) {
+                    return false;
+                }
+                changed |= result > 0;
+            }
+            int result = propagateCounts(state);
+            if (result < 0) {
+                return false;
+            }
+            changed |= result > 0;
+        }
+        return true;
+    }
+
+    /**
+     * Apply one attempt's exact count. Each color supplies as many exact matches as the
+     * secret has of it where the guess has it too; that share is bounded by the slots
+     * there, and by the color's count less what the other slots can hold. The shares
+     * must add up to the exact count, which bounds each share, and through it the count.
+     *
+     * @return -1 if it can't be met, 1 if a bound or domain changed, 0 otherwise
+     */
+    private int propagateExact(int[] state, int a) {
+        byte[] guess = guesses[a];
+        Arrays.fill(fixedIn, 0);
+        Arrays.fill(reachIn, 0);
+        Arrays.fill(fixedOut, 0);
+        Arrays.fill(reachOut, 0);
+        for (int slot = 0; slot < slotCount; slot++) {
+            int colors = state[slot];
+            if (colors == 0) {
+                return -1;
+            }
+            int guessed = guess[slot];
+            if (Integer.bitCount(colors) == 1) {
+                int color = Integer.numberOfTrailingZeros(colors);
+                if (color == guessed) {
+                    fixedIn[color]++;
+                } else {
+                    fixedOut[color]++;
+                }
+                continue;
+            }
+            for (; colors != 0; colors &= colors - 1) {
+                int color = Integer.numberOfTrailingZeros(colors);
+                if (color == guessed) {
+                    reachIn[color]++;
+                } else {
+                    reachOut[color]++;
+                }
+            }
+        }
+        int lo = slotCount;
+        int hi = slotCount + colorCount;
+        int sumMin = 0;
+        int sumMax = 0;
+        for (int color = 0; color < colorCount; color++) {
+            shareMin[color] = Math.max(fixedIn[color], state[lo + color] - fixedOut[color] - reachOut[color]);
+            shareMax[color] = Math.min(fixedIn[color] + reachIn[color], state[hi + color] - fixedOut[color]);
+            if (shareMin[color] > shareMax[color]) {
+                return -1;
+            }
+            sumMin += shareMin[color];
+            sumMax += shareMax[color];
+        }
+        int exact = exacts[a];
+        if (exact < sumMin || exact > sumMax) {
+            return -1;
+        }
+
+        boolean changed = false;
+        for (int color = 0; color < colorCount; color++) {
+            int most = exact - (sumMin - shareMin[color]);
+            int least = exact - (sumMax - shareMax[color]);
+            changed |= lower(state, hi + color, most + fixedOut[color] + reachOut[color]);
+            changed |= raise(state, lo + color, least + fixedOut[color]);
+            if (reachIn[color] == 0 || (most != fixedIn[color] && least != fixedIn[color] + reachIn[color])) {
+                continue;
+            }
+            // Either no open slot guessed in this color may match any more, or every one must
+            boolean match = most != fixedIn[color];
+            int bit = 1 << color;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (guess[slot] == color && state[slot] != bit && (state[slot] & bit) != 0) {
+                    state[slot] = match ? bit : state[slot] & ~bit;
+                }
+            }
+            changed = true;
+        }
+        return changed ? 1 : 0;
+    }
+
+    /**
+     * Tighten the bounds on how many of each color the secret holds, then apply them to the
+     * domains. Bounds come from the slots, from the counts summing to the slot count, and
+     * from each attempt's hits: a color contributes as many hits as the smaller of its
+     * count in the guess and in the secret.
+     *
+     * @return -1 if the bounds cross, 1 if a bound or domain changed, 0 otherwise
+     */
+    private int propagateCounts(int[] state) {
+        Arrays.fill(fixedCounts, 0);
+        Arrays.fill(reachCounts, 0);
+        for (int slot = 0; slot < slotCount; slot++) {
+            int colors = state[slot];
+            if (colors == 0) {
+                return -1;
+            }
+            if (Integer.bitCount(colors) == 1) {
+                fixedCounts[Integer.numberOfTrailingZeros(colors)]++;
+            } else {
+                for (; colors != 0; colors &= colors - 1) {
+                    reachCounts[Integer.numberOfTrailingZeros(colors)]++;
+                }
+            }
+        }
+        int lo = slotCount;
+        int hi = slotCount + colorCount;
+        boolean changed = false;
+        int sumLo = 0;
+        int sumHi = 0;
+        for (int color = 0; color < colorCount; color++) {
+            changed |= raise(state, lo + color, fixedCounts[color]);
+            changed |= lower(state, hi + color, fixedCounts[color] + reachCounts[color]);
+            sumLo += state[lo + color];
+            sumHi += state[hi + color];
+        }
+        if (sumLo > slotCount || sumHi < slotCount) {
+            return -1;
+        }
+        for (int color = 0; color < colorCount; color++) {
+            int otherLo = sumLo - state[lo + color];
+            int otherHi = sumHi - state[hi + color];
+            changed |= raise(state, lo + color, slotCount - otherHi);
+            changed |= lower(state, hi + color, slotCount - otherLo);
+        }
+
+        for (int a = 0; a < guesses.length; a++) {
+            int[] counts = guessCounts[a];
+            int least = 0;
+            int most = 0;
+            for (int color = 0; color < colorCount; color++) {
+                least += Math.min(state[lo + color], counts[color]);
+                most += Math.min(state[hi + color], counts[color]);
+            }
+            int target = hits[a];
+            if (target < least || target > most) {
+                return -1;
+            }
+            for (int color = 0; color < colorCount; color++) {
+                if (counts[color] == 0) {
+                    continue;
+                }
+                // Hits this color must and may still supply, given the others' bounds
+                int needed = target - (most - Math.min(state[hi + color], counts[color]));
+                int allowed = target - (least - Math.min(state[lo + color], counts[color]));
+                changed |= raise(state, lo + color, needed);
+                if (allowed < counts[color]) {
+                    changed |= lower(state, hi + color, allowed);
+                }
+            }
+        }
+
+        for (int color = 0; color < colorCount; color++) {
+            if (state[lo + color] > state[hi + color]) {
+                return -1;
+            }
+            if (reachCounts[color] == 0) {
+                continue;
+            }
+            int bit = 1 << color;
+            boolean full = fixedCounts[color] == state[hi + color];
+            boolean needsAll = fixedCounts[color] + reachCounts[color] == state[lo + color];
+            if (!full && !needsAll) {
+                continue;
+            }
+            // Either no open slot may take the color any more, or every one that can must
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (state[slot] != bit && (state[slot] & bit) != 0) {
+                    state[slot] = full ? state[slot] & ~bit : bit;
+                }
+            }
+            changed = true;
+        }
+        return changed ? 1 : 0;
+    }
+
+    private static boolean raise(int[] state, int index, int bound) {
+        if (bound > state[index]) {
+            state[index] = bound;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean lower(int[] state, int index, int bound) {
+        if (bound < state[index]) {
+            state[index] = bound;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mastermind.solver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared cache of "codes yielding feedback F for guess G" bitmaps.
+ *
+ * Intersecting a dense candidate bitmap with the mask for an attempt filters it
+ * with a word-wise AND instead of re-scoring every code. Masks are only built for
+ * spaces small enough that one full scan is cheap, and the cache is bounded by
+ * total size, evicting the least recently used masks first.
+ */
+final class FeedbackMasks {
+
+    /** Largest code space that gets masks: 6 slots, about 14 KB per mask. */
+    static final int MAX_CODES = 117_649;
+
+    /** Upper bound on cached mask words (64 MB). */
+    private static final long MAX_CACHED_WORDS = 8L * 1024 * 1024;
+
+    private static final Map<Long, long[]> CACHE = new LinkedHashMap<>(256, 0.75f, true);
+    private static long cachedWords;
+
+    private FeedbackMasks() {
+    }
+
+    static boolean supports(CodeSpace space) {
+        return space.size() <= MAX_CODES;
+    }
+
+    /**
+     * Get the mask of codes that give {@code feedback} to {@code guess}.
+     *
+     * @return The shared mask, which must not be modified, or null if the space is too large
+     */
+    static long[] get(CodeSpace space, int guess, int feedback) {
+        if (!supports(space)) {
+            return null;
+        }
+        Long key = ((long) space.getSlotCount() << 40) | ((long) guess << 8) | feedback;
+        synchronized (CACHE) {
+            long[] mask = CACHE.get(key);
+            if (mask != null) {
+                return mask;
+            }
+        }
+
+        long[] mask = build(space, guess, feedback);
+        synchronized (CACHE) {
+            if (CACHE.put(key, mask) == null) {
+                cachedWords += mask.length;
+            }
+            Iterator<Map.Entry<Long, long[]>> eldest = CACHE.entrySet().iterator();
+            while (cachedWords > MAX_CACHED_WORDS && eldest.hasNext()) {
+                cachedWords -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+        return mask;
+    }
+
+    private static long[] build(CodeSpace space, int guess, int feedback) {
+        long[] mask = new long[CandidateSet.wordCount(space)];
+        for (int code = 0; code < space.size(); code++) {
+            // Feedback is symmetric; (guess, code) walks one table row in order.
+            if (space.feedback(guess, code) == feedback) {
+                mask[code >>> 6] |= 1L << code;
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,144 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+
+import java.util.List;
+
+/**
+ * Allocation-free Mastermind scoring for codes of any length.
+ *
+ * Exact matches are counted in one pass. Partial matches come from per-color
+ * histograms: the colors shared by secret and guess are the sum over colors of
+ * the smaller of the two counts, minus the exact matches. Both histograms are
+ * held in a single {@code long} each, one 8-bit lane per color, so scoring
+ * never touches the heap. This supports palettes of up to 8 colors and codes
+ * of up to 255 slots.
+ *
+ * Results use the same packing as {@link CodeSpace#packFeedback(int, int)}:
+ * {@code exact * (slotCount + 1) + partial}.
+ */
+public final class FeedbackScorer {
+
+    /** Largest palette that fits one 8-bit lane per color in a long. */
+    public static final int MAX_COLORS = 8;
+
+    /** Longest code whose per-color counts cannot overflow an 8-bit lane. */
+    public static final int MAX_SLOTS = 255;
+
+    private static final int LANE_BITS = 8;
+    private static final int LANE_MASK = 0xFF;
+    private static final int PALETTE_SIZE = Color.values().length;
+
+    static {
+        if (PALETTE_SIZE > MAX_COLORS) {
+            throw new ExceptionInInitializerError("Palette too large for lane histograms");
+        }
+    }
+
+    private FeedbackScorer() {
+    }
+
+    /**
+     * Score a guess against a secret, both given as palette indices.
+     *
+     * @param secret The secret, one palette index per slot
+     * @param guess The guess, one palette index per slot
+     * @param colorCount Number of colors in the palette
+     * @return The packed feedback
+     */
+    public static int score(byte[] secret, byte[] guess, int colorCount) {
+        int slotCount = secret.length;
+        int exact = 0;
+        long secretCounts = 0;
+        long guessCounts = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int s = secret[slot];
+            int g = guess[slot];
+            if (s == g) {
+                exact++;
+            }
+            secretCounts += 1L << (s * LANE_BITS);
+            guessCounts += 1L << (g * LANE_BITS);
+        }
+        return pack(exact, common(secretCounts, guessCounts, colorCount) - exact, slotCount);
+    }
+
+    /**
+     * Score a guess against a secret, both packed as base-{@code colorCount} codes.
+     *
+     * @param secret The packed secret
+     * @param guess The packed guess
+     * @param slotCount Number of slots in a code
+     * @param colorCount Number of colors in the palette
+     * @return The packed feedback
+     */
+    public static int score(int secret, int guess, int slotCount, int colorCount) {
+        int exact = 0;
+        long secretCounts = 0;
+        long guessCounts = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int s = secret % colorCount;
+            int g = guess % colorCount;
+            secret /= colorCount;
+            guess /= colorCount;
+            if (s == g) {
+                exact++;
+            }
+            secretCounts += 1L << (s * LANE_BITS);
+            guessCounts += 1L << (g * LANE_BITS);
+        }
+        return pack(exact, common(secretCounts, guessCounts, colorCount) - exact, slotCount);
+    }
+
+    /**
+     * Score a guess against a secret given as color lists. Null entries never match.
+     *
+     * @param secret The secret colors
+     * @param guess The guessed colors, same length as the secret
+     * @return The packed feedback
+     */
+    public static int score(List<Color> secret, List<Color> guess) {
+        int slotCount = secret.size();
+        int exact = 0;
+        long secretCounts = 0;
+        long guessCounts = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            Color s = secret.get(slot);
+            Color g = guess.get(slot);
+            if (s != null && s == g) {
+                exact++;
+            }
+            if (s != null) {
+                secretCounts += 1L << (s.ordinal() * LANE_BITS);
+            }
+            if (g != null) {
+                guessCounts += 1L << (g.ordinal() * LANE_BITS);
+            }
+        }
+        return pack(exact, common(secretCounts, guessCounts, PALETTE_SIZE) - exact, slotCount);
+    }
+
+    public static int exactOf(int packedFeedback, int slotCount) {
+        return packedFeedback / (slotCount + 1);
+    }
+
+    public static int partialOf(int packedFeedback, int slotCount) {
+        return packedFeedback % (slotCount + 1);
+    }
+
+    private static int pack(int exact, int partial, int slotCount) {
+        return exact * (slotCount + 1) + partial;
+    }
+
+    /**
+     * Sum over colors of the smaller count in the two lane histograms.
+     */
+    private static int common(long secretCounts, long guessCounts, int colorCount) {
+        int common = 0;
+        for (int color = 0; color < colorCount; color++) {
+            int shift = color * LANE_BITS;
+            common += Math.min((int) (secretCounts >>> shift) & LANE_MASK, (int) (guessCounts >>> shift) & LANE_MASK);
+        }
+        return common;
+    }
+}
@@ -0,0 +1,51 @@
+package com.mastermind.solver;
+
+/**
+ * Precomputed {@code (secret, guess) -> feedback} lookup for small code spaces.
+ *
+ * Feedback is symmetric in secret and guess, so only one triangle is computed.
+ * The default 4-slot, 7-color board needs 2401 x 2401 bytes (about 5.8 MB).
+ */
+public final class FeedbackTable {
+
+    /** Largest code space that gets a table; 4096 codes is a 16 MB table. */
+    public static final int MAX_CODES = 4096;
+
+    private final int size;
+    private final byte[] table;
+
+    private FeedbackTable(int size, byte[] table) {
+        this.size = size;
+        this.table = table;
+    }
+
+    static boolean fits(CodeSpace space) {
+        return space.size() <= MAX_CODES && space.feedbackCount() <= 256;
+    }
+
+    static FeedbackTable build(CodeSpace space) {
+        int size = space.size();
+        byte[] table = new byte[size * size];
+        for (int secret = 0; secret < size; secret++) {
+            for (int guess = secret; guess < size; guess++) {
+                byte feedback = (byte) space.computeFeedback(secret, guess);
+                table[secret * size + guess] = feedback;
+                table[guess * size + secret] = feedback;
+            }
+        }
+        return new FeedbackTable(size, table);
+    }
+
+    /**
+     * @param secret The packed secret
+     * @param guess The packed guess
+     * @return The packed feedback
+     */
+    public int get(int secret, int guess) {
+        return table[secret * size + guess] & 0xFF;
+    }
+
+    public int size() {
+        return size;
+    }
+}
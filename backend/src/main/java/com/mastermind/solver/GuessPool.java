@@ -0,0 +1,41 @@
+package com.mastermind.solver;
+
+/**
+ * Which codes a partition strategy may suggest.
+ */
+public enum GuessPool {
+    /** Only codes still consistent with the history, so every suggestion can win. */
+    CONSISTENT("consistent"),
+    /** Every code on the board, falling back to the consistent codes when too costly to score. */
+    ALL("all");
+
+    private final String value;
+
+    GuessPool(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Convert string value to GuessPool enum.
+     * @param value String representation of the guess pool
+     * @return GuessPool enum value
+     * @throws IllegalArgumentException if the guess pool is not valid
+     */
+    public static GuessPool fromString(String value) {
+        for (GuessPool pool : GuessPool.values()) {
+            if (pool.value.equalsIgnoreCase(value)) {
+                return pool;
+            }
+        }
+        throw new IllegalArgumentException("Invalid guess pool: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
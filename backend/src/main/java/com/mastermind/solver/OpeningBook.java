@@ -0,0 +1,208 @@
+package com.mastermind.solver;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Precomputed first and second guesses for one board, strategy and guess pool.
+ *
+ * Every game opens from the empty history, and after the book's opening guess
+ * the second move depends only on the feedback it got, so both are looked up
+ * here instead of searched. Books are written in a small binary format: a
+ * header naming the board and strategy, the packed opening, then one packed
+ * reply per feedback ({@link CodeSpace#UNPACKED} where no secret gives it).
+ */
+public final class OpeningBook {
+
+    private static final int MAGIC = 0x4D4D4F42;
+    private static final int VERSION = 1;
+
+    private final CodeSpace space;
+    private final SuggestionStrategy strategy;
+    private final GuessPool guessPool;
+    private final int opening;
+    private final int[] replies;
+
+    private OpeningBook(CodeSpace space, SuggestionStrategy strategy, GuessPool guessPool, int opening, int[] replies) {
+        this.space = space;
+        this.strategy = strategy;
+        this.guessPool = guessPool;
+        this.opening = opening;
+        this.replies = replies;
+    }
+
+    /**
+     * Compute a book by searching the opening and every reply.
+     *
+     * @param space The board
+     * @param strategy The strategy the book plays
+     * @param guessPool The guess pool the book plays
+     * @param search The search to run, normally with a budget large enough for the full opening
+     * @return The computed book
+     * @throws IllegalArgumentException if the strategy is {@link SuggestionStrategy#FIRST}
+     */
+    public static OpeningBook compute(CodeSpace space, SuggestionStrategy strategy, GuessPool guessPool,
+                                      PartitionSearch search) {
+        if (strategy == SuggestionStrategy.FIRST) {
+            throw new IllegalArgumentException("Opening books need a partition strategy");
+        }
+        CandidateSet all = CandidateSet.all(space);
+        int opening = search.bestGuess(all, strategy, guessPool);
+        int[] replies = new int[space.feedbackCount()];
+        for (int feedback = 0; feedback < replies.length; feedback++) {
+            CandidateSet candidates = all.filter(opening, feedback);
+            replies[feedback] = candidates.isEmpty()
+                    ? CodeSpace.UNPACKED
+                    : search.bestGuess(candidates, strategy, guessPool);
+        }
+        return new OpeningBook(space, strategy, guessPool, opening, replies);
+    }
+
+    /**
+     * Read a book written by {@link #write(OutputStream)}.
+     *
+     * @param in The stream to read; it is not closed
+     * @return The book
+     * @throws IOException if the stream is not a valid book for this palette
+     */
+    public static OpeningBook read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readUnsignedByte() != VERSION) {
+            throw new IOException("Not an opening book");
+        }
+        int slotCount = data.readUnsignedByte();
+        int colorCount = data.readUnsignedByte();
+        if (!CodeSpace.isPackable(slotCount) || colorCount != CodeSpace.of(slotCount).getColorCount()) {
+            throw new IOException("Opening book is for a different board: " + slotCount + " slots, " + colorCount + " colors");
+        }
+        CodeSpace space = CodeSpace.of(slotCount);
+        SuggestionStrategy strategy;
+        GuessPool guessPool;
+        try {
+            strategy = SuggestionStrategy.fromString(data.readUTF());
+            guessPool = GuessPool.fromString(data.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unsupported opening book: " + e.getMessage(), e);
+        }
+        int opening = readCode(data, space);
+        int[] replies = new int[data.readUnsignedShort()];
+        if (replies.length != space.feedbackCount()) {
+            throw new IOException("Opening book has " + replies.length + " replies, expected " + space.feedbackCount());
+        }
+        for (int feedback = 0; feedback < replies.length; feedback++) {
+            replies[feedback] = readCode(data, space);
+        }
+        return new OpeningBook(space, strategy, guessPool, opening, replies);
+    }
+
+    private static int readCode(DataInputStream data, CodeSpace space) throws IOException {
+        int code = data.readInt();
+        if (code != CodeSpace.UNPACKED && (code < 0 || code >= space.size())) {
+            throw new IOException("Opening book code out of range: " + code);
+        }
+        return code;
+    }
+
+    /**
+     * Write the book in its binary format.
+     *
+     * @param out The stream to write; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(space.getSlotCount());
+        data.writeByte(space.getColorCount());
+        data.writeUTF(strategy.getValue());
+        data.writeUTF(guessPool.getValue());
+        data.writeInt(opening);
+        data.writeShort(replies.length);
+        for (int reply : replies) {
+            data.writeInt(reply);
+        }
+        data.flush();
+    }
+
+    /**
+     * Look up the next guess for a history of at most one attempt.
+     *
+     * @param history The packed history
+     * @return The packed guess, or {@link CodeSpace#UNPACKED} if the history is not in the book
+     */
+    public int lookup(PackedHistory history) {
+        if (history.getSpace() != space) {
+            return CodeSpace.UNPACKED;
+        }
+        if (history.size() == 0) {
+            return opening;
+        }
+        if (history.size() == 1 && history.guessAt(0) == opening && history.isSatisfiable()) {
+            return replies[history.feedbackAt(0)];
+        }
+        return CodeSpace.UNPACKED;
+    }
+
+    /**
+     * @return true if the book plays this strategy and guess pool
+     */
+    public boolean plays(SuggestionStrategy strategy, GuessPool guessPool) {
+        return this.strategy == strategy && this.guessPool == guessPool;
+    }
+
+    /**
+     * @return The classpath resource name this book is bundled under
+     */
+    public String resourceName() {
+        return resourceName(space, strategy, guessPool);
+    }
+
+    /**
+     * @return The classpath resource name for a bundled book
+     */
+    public static String resourceName(CodeSpace space, SuggestionStrategy strategy, GuessPool guessPool) {
+        return "opening-books/" + space.getSlotCount() + "x" + space.getColorCount()
+                + "-" + strategy.getValue() + "-" + guessPool.getValue() + ".bin";
+    }
+
+    public CodeSpace getSpace() {
+        return space;
+    }
+
+    public SuggestionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public GuessPool getGuessPool() {
+        return guessPool;
+    }
+
+    public int getOpening() {
+        return opening;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OpeningBook other = (OpeningBook) o;
+        return space == other.space && strategy == other.strategy && guessPool == other.guessPool
+                && opening == other.opening && Arrays.equals(replies, other.replies);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(space.getSlotCount(), strategy, guessPool, opening) * 31 + Arrays.hashCode(replies);
+    }
+
+    @Override
+    public String toString() {
+        return "OpeningBook{" + space + ", " + strategy + ", " + guessPool + ", opening=" + space.decode(opening) + "}";
+    }
+}
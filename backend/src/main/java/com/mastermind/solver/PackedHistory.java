@@ -0,0 +1,129 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.GuessAttempt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A guess/feedback history packed into parallel int arrays over one {@link CodeSpace}.
+ */
+public final class PackedHistory {
+
+    private final CodeSpace space;
+    private final int[] guesses;
+    private final int[] feedbacks;
+    private final boolean satisfiable;
+
+    private PackedHistory(CodeSpace space, int[] guesses, int[] feedbacks, boolean satisfiable) {
+        this.space = space;
+        this.guesses = guesses;
+        this.feedbacks = feedbacks;
+        this.satisfiable = satisfiable;
+    }
+
+    /**
+     * Pack a history of attempts.
+     *
+     * @param attempts The guess attempts, oldest first
+     * @param space The code space of the game
+     * @return The packed history
+     * @throws IllegalArgumentException if a guess does not fit the code space
+     */
+    public static PackedHistory of(List<GuessAttempt> attempts, CodeSpace space) {
+        int[] guesses = new int[attempts.size()];
+        int[] feedbacks = new int[attempts.size()];
+        boolean satisfiable = true;
+        for (int i = 0; i < guesses.length; i++) {
+            GuessAttempt attempt = attempts.get(i);
+            if (attempt.getGuess() == null || attempt.getGuess().size() != space.getSlotCount()) {
+                throw new IllegalArgumentException("Secret and guess must have same length");
+            }
+            guesses[i] = attempt.getPackedGuess();
+            feedbacks[i] = attempt.getPackedFeedback();
+            if (guesses[i] == CodeSpace.UNPACKED) {
+                throw new IllegalArgumentException("Guess cannot contain null colors");
+            }
+            satisfiable &= feedbacks[i] != CodeSpace.UNPACKED;
+        }
+        return new PackedHistory(space, guesses, feedbacks, satisfiable);
+    }
+
+    public CodeSpace getSpace() {
+        return space;
+    }
+
+    public int size() {
+        return guesses.length;
+    }
+
+    public int guessAt(int index) {
+        return guesses[index];
+    }
+
+    public int feedbackAt(int index) {
+        return feedbacks[index];
+    }
+
+    /**
+     * @return false if some recorded feedback is impossible on this board, so no code is consistent
+     */
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+
+    /**
+     * Check whether a code, taken as the secret, reproduces every recorded feedback.
+     *
+     * @param code The packed candidate secret
+     * @return true if the code is consistent with the whole history
+     */
+    public boolean isConsistent(int code) {
+        if (!satisfiable) {
+            return false;
+        }
+        for (int i = 0; i < guesses.length; i++) {
+            if (space.feedback(code, guesses[i]) != feedbacks[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stream the codes consistent with the history in ascending order, testing each
+     * code only as the stream reaches it, so nothing is collected up front.
+     *
+     * @return A lazy, sequential stream of the consistent codes
+     */
+    public IntStream consistentStream() {
+        if (!satisfiable) {
+            return IntStream.empty();
+        }
+        return StreamSupport.intStream(CodeRangeSpliterator.of(space), false).filter(this::isConsistent);
+    }
+
+    /**
+     * Collect every code consistent with the history, in ascending order.
+     *
+     * @return The consistent codes
+     */
+    public int[] consistentCodes() {
+        if (!satisfiable) {
+            return new int[0];
+        }
+        int[] codes = new int[Math.min(space.size(), 1024)];
+        int count = 0;
+        for (int code = 0; code < space.size(); code++) {
+            if (isConsistent(code)) {
+                if (count == codes.length) {
+                    codes = Arrays.copyOf(codes, Math.min(space.size(), codes.length * 2));
+                }
+                codes[count++] = code;
+            }
+        }
+        return Arrays.copyOf(codes, count);
+    }
+}
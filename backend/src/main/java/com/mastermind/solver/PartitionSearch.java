@@ -0,0 +1,462 @@
+package com.mastermind.solver;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.stream.StreamSupport;
+
+/**
+ * Chooses a guess by how it partitions the remaining candidate secrets.
+ *
+ * For each guess in the pool, the candidates are bucketed by the feedback they
+ * would give, and the guess is scored from the bucket sizes: the largest bucket
+ * for {@link SuggestionStrategy#MINIMAX}, the entropy of the buckets for
+ * {@link SuggestionStrategy#ENTROPY}, and the expected bucket size for
+ * {@link SuggestionStrategy#EXPECTED}. Ties prefer a guess that could itself be
+ * the secret, then the lowest code, so the result depends only on the candidates
+ * and never on iteration order or thread count.
+ *
+ * Large searches, and candidate enumeration on spaces without feedback masks,
+ * are split over a bounded {@link ForkJoinPool} along {@link CodeRangeSpliterator}s.
+ */
+public final class PartitionSearch implements AutoCloseable {
+
+    /** Default upper bound on guess x candidate evaluations for one search. */
+    public static final long DEFAULT_MAX_EVALUATIONS = 100_000_000L;
+
+    /** Default number of evaluations below which a search stays on the calling thread. */
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 250_000L;
+
+    /** Evaluations per leaf task when scoring in parallel. */
+    private static final long LEAF_EVALUATIONS = 50_000L;
+
+    private final ForkJoinPool pool;
+    private final long maxEvaluations;
+    private final long parallelThreshold;
+
+    /**
+     * @param parallelism Worker threads for large searches; 1 or less searches on the calling thread
+     * @param maxEvaluations Above this many evaluations the guess pool shrinks to the candidates
+     *                       themselves, and above that the search returns the first candidate
+     * @param parallelThreshold Searches with fewer evaluations than this stay on the calling thread
+     */
+    public PartitionSearch(int parallelism, long maxEvaluations, long parallelThreshold) {
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism, PartitionSearch::newWorker, null, false) : null;
+        this.maxEvaluations = maxEvaluations;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * @return A search with default limits that runs on the calling thread
+     */
+    public static PartitionSearch sequential() {
+        return new PartitionSearch(1, DEFAULT_MAX_EVALUATIONS, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public long getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    /**
+     * @return Worker threads in the pool, or 1 if searches run on the calling thread
+     */
+    public int getParallelism() {
+        return pool != null ? pool.getParallelism() : 1;
+    }
+
+    /**
+     * Build the set of codes consistent with a history, scanning the space in
+     * parallel when it is too large for feedback masks.
+     *
+     * @param history The packed history
+     * @return The consistent codes
+     */
+    public CandidateSet candidates(PackedHistory history) {
+        return candidates(history, SearchBudget.unlimited());
+    }
+
+    /**
+     * Build the set of codes consistent with a history, stopping early when the budget runs out.
+     * A truncated result holds only the consistent codes found before the deadline.
+     *
+     * @param history The packed history
+     * @param budget The search budget
+     * @return The consistent codes found
+     */
+    public CandidateSet candidates(PackedHistory history, SearchBudget budget) {
+        CodeSpace space = history.getSpace();
+        if (history.size() == 0 || !history.isSatisfiable() || FeedbackMasks.supports(space)) {
+            return CandidateSet.of(history);
+        }
+        int[] codes;
+        if (pool == null || space.size() < parallelThreshold) {
+            codes = StreamSupport.intStream(CodeRangeSpliterator.of(space, budget), false)
+                    .filter(history::isConsistent)
+                    .toArray();
+        } else {
+            codes = pool.submit(() ->
+                    StreamSupport.intStream(CodeRangeSpliterator.of(space, budget), true)
+                            .filter(history::isConsistent)
+                            .toArray())
+                    .join();
+        }
+        // A partial enumeration is not closed under the history's symmetry
+        return CandidateSet.ofSorted(space, codes, budget.isExhausted() ? Symmetry.none(space) : Symmetry.of(history));
+    }
+
+    /**
+     * Count the codes consistent with a history without collecting them,
+     * scanning the space in parallel when it is too large for feedback masks.
+     *
+     * @param history The packed history
+     * @return The number of consistent codes
+     */
+    public int count(PackedHistory history) {
+        CodeSpace space = history.getSpace();
+        if (!history.isSatisfiable()) {
+            return 0;
+        }
+        if (history.size() == 0) {
+            return space.size();
+        }
+        if (FeedbackMasks.supports(space)) {
+            return CandidateSet.of(history).size();
+        }
+        if (pool == null || space.size() < parallelThreshold) {
+            return (int) history.consistentStream().count();
+        }
+        return (int) (long) pool.submit(() ->
+                StreamSupport.intStream(CodeRangeSpliterator.of(space), true)
+                        .filter(history::isConsistent)
+                        .count())
+                .join();
+    }
+
+    /**
+     * Find the lowest code consistent with a history.
+     *
+     * @param history The packed history
+     * @param budget The search budget
+     * @return The packed code, or {@link CodeSpace#UNPACKED} if there is none or the budget ran out first
+     */
+    public int firstConsistent(PackedHistory history, SearchBudget budget) {
+        CodeSpace space = history.getSpace();
+        if (!history.isSatisfiable()) {
+            return CodeSpace.UNPACKED;
+        }
+        boolean parallel = pool != null && space.size() >= parallelThreshold;
+        if (!parallel) {
+            return StreamSupport.intStream(CodeRangeSpliterator.of(space, budget), false)
+                    .filter(history::isConsistent)
+                    .findFirst()
+                    .orElse(CodeSpace.UNPACKED);
+        }
+        return pool.submit(() ->
+                StreamSupport.intStream(CodeRangeSpliterator.of(space, budget), true)
+                        .filter(history::isConsistent)
+                        .findFirst()
+                        .orElse(CodeSpace.UNPACKED))
+                .join();
+    }
+
+    /**
+     * Find the best guess for the given candidate set, scoring every code when the budget allows.
+     *
+     * @param candidates Codes still consistent with the history
+     * @param strategy The scoring strategy
+     * @return The packed best guess
+     * @throws IllegalArgumentException if the set is empty
+     */
+    public int bestGuess(CandidateSet candidates, SuggestionStrategy strategy) {
+        return bestGuess(candidates, strategy, GuessPool.ALL);
+    }
+
+    /**
+     * Find the best guess for the given candidate set.
+     *
+     * @param candidates Codes still consistent with the history
+     * @param strategy The scoring strategy
+     * @param guessPool Which codes may be suggested
+     * @return The packed best guess
+     * @throws IllegalArgumentException if the set is empty
+     */
+    public int bestGuess(CandidateSet candidates, SuggestionStrategy strategy, GuessPool guessPool) {
+        return bestGuess(candidates, strategy, guessPool, SearchBudget.unlimited());
+    }
+
+    /**
+     * Find the best guess for the given candidate set within a time budget.
+     *
+     * Guesses that the set's {@link Symmetry} relates split the candidates alike,
+     * so only the lowest code of each orbit is scored; the answer is the same.
+     *
+     * When the budget runs out the best guess scored so far is returned, or the
+     * first candidate if none was scored yet. Narrowing the guess pool to stay
+     * within the evaluation limit also marks the budget truncated.
+     *
+     * @param candidates Codes still consistent with the history
+     * @param strategy The scoring strategy
+     * @param guessPool Which codes may be suggested
+     * @param budget The search budget
+     * @return The packed best guess
+     * @throws IllegalArgumentException if the set is empty
+     */
+    public int bestGuess(CandidateSet candidates, SuggestionStrategy strategy, GuessPool guessPool,
+                         SearchBudget budget) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No candidates to search");
+        }
+        long candidateCount = candidates.size();
+        if (candidateCount == 1 || strategy == SuggestionStrategy.FIRST) {
+            return candidates.first();
+        }
+
+        CodeSpace space = candidates.getSpace();
+        Symmetry symmetry = candidates.symmetry();
+        boolean reducible = !symmetry.isTrivial();
+        int[] spaceGuesses = null;
+        if (guessPool == GuessPool.ALL) {
+            spaceGuesses = reducible && space.size() <= maxEvaluations ? symmetry.representatives(space) : null;
+            long poolSize = spaceGuesses != null ? spaceGuesses.length : space.size();
+            if (poolSize * candidateCount <= maxEvaluations) {
+                return search(space, candidates.codes(), spaceGuesses, (int) poolSize, strategy, budget);
+            }
+            budget.truncate();
+        }
+
+        int[] guesses;
+        if (!reducible) {
+            guesses = candidateCount * candidateCount <= maxEvaluations ? candidates.codes() : null;
+        } else if (candidateCount == space.size() && spaceGuesses != null) {
+            guesses = spaceGuesses;
+        } else {
+            guesses = candidateCount <= maxEvaluations ? symmetry.representatives(space, candidates.codes()) : null;
+        }
+        if (guesses == null || guesses.length * candidateCount > maxEvaluations) {
+            budget.truncate();
+            return candidates.first();
+        }
+        return search(space, candidates.codes(), guesses, guesses.length, strategy, budget);
+    }
+
+    /**
+     * Estimate the guess x candidate evaluations {@link #bestGuess} would run, following
+     * the same narrowing of the guess pool. Symmetry can only make the search cheaper.
+     *
+     * @param space The board
+     * @param candidateCount Codes still consistent with the history
+     * @param strategy The scoring strategy
+     * @param guessPool Which codes may be suggested
+     * @return An upper bound on the evaluations, at most the evaluation limit
+     */
+    public long estimateEvaluations(CodeSpace space, long candidateCount, SuggestionStrategy strategy, GuessPool guessPool) {
+        if (candidateCount <= 1 || strategy == SuggestionStrategy.FIRST) {
+            return 0;
+        }
+        if (candidateCount == space.size() && canSearchOpening(space)) {
+            return Symmetry.openingOrbits(space) * space.size();
+        }
+        if (guessPool == GuessPool.ALL && space.size() * candidateCount <= maxEvaluations) {
+            return space.size() * candidateCount;
+        }
+        return candidateCount * candidateCount <= maxEvaluations ? candidateCount * candidateCount : 0;
+    }
+
+    /**
+     * @return true if the opening move, where every code is a candidate, can be searched within the evaluation limit
+     */
+    public boolean canSearchOpening(CodeSpace space) {
+        return space.size() <= maxEvaluations && Symmetry.openingOrbits(space) * space.size() <= maxEvaluations;
+    }
+
+    /**
+     * Score every guess in the pool and keep the best.
+     *
+     * @param guessPool Guesses to score, or null for every code in the space
+     */
+    private int search(CodeSpace space, int[] candidates, int[] guessPool, int poolSize,
+                       SuggestionStrategy strategy, SearchBudget budget) {
+        Scan scan = new Scan(space, candidates, guessPool, strategy, budget);
+        long evaluations = (long) poolSize * candidates.length;
+        int leafGuesses = (int) Math.max(1, LEAF_EVALUATIONS / candidates.length);
+        CodeRangeSpliterator range = new CodeRangeSpliterator(0, poolSize, leafGuesses);
+        Scored best = pool == null || evaluations < parallelThreshold
+                ? scan.score(range)
+                : pool.invoke(new ScoreTask(scan, range, leafGuesses));
+        // Only null if the budget ran out before the first guess was scored
+        return best != null ? best.guess : candidates[0];
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("solver-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * The best guess of a scanned range.
+     */
+    private static final class Scored {
+        final int guess;
+        final double cost;
+        final boolean consistent;
+
+        Scored(int guess, double cost, boolean consistent) {
+            this.guess = guess;
+            this.cost = cost;
+            this.consistent = consistent;
+        }
+
+        /**
+         * Lower cost wins, then a consistent guess, then the lower code.
+         */
+        boolean isBetterThan(Scored other) {
+            if (other == null || cost != other.cost) {
+                return other == null || cost < other.cost;
+            }
+            if (consistent != other.consistent) {
+                return consistent;
+            }
+            return guess < other.guess;
+        }
+    }
+
+    /**
+     * Scores the guesses at a range of pool positions against all candidates.
+     * Each call reuses one histogram; nothing is allocated per guess or candidate.
+     */
+    private static final class Scan {
+        private final CodeSpace space;
+        private final FeedbackTable table;
+        private final int[] candidates;
+        private final int[] guessPool;
+        private final SuggestionStrategy strategy;
+        private final SearchBudget budget;
+        /** s * log(s) for every bucket size s, when scoring by entropy. */
+        private final double[] weights;
+
+        Scan(CodeSpace space, int[] candidates, int[] guessPool, SuggestionStrategy strategy, SearchBudget budget) {
+            this.space = space;
+            this.table = space.feedbackTable();
+            this.candidates = candidates;
+            this.guessPool = guessPool;
+            this.strategy = strategy;
+            this.budget = budget;
+            this.weights = strategy == SuggestionStrategy.ENTROPY ? entropyWeights(candidates.length) : null;
+        }
+
+        /**
+         * @return The best guess in the range, or null if the budget ran out before any was scored
+         */
+        Scored score(Spliterator.OfInt positions) {
+            int winning = space.winningFeedback();
+            int[] histogram = new int[space.feedbackCount()];
+            Scored[] best = new Scored[1];
+            IntConsumer scoreGuess = (int position) -> {
+                int guess = guessPool == null ? position : guessPool[position];
+                Arrays.fill(histogram, 0);
+                for (int candidate : candidates) {
+                    // Feedback is symmetric; (guess, candidate) walks one table row in order.
+                    ++histogram[table != null ? table.get(guess, candidate) : space.computeFeedback(candidate, guess)];
+                }
+                double cost = cost(histogram, winning);
+                // A guess is itself a candidate exactly when some candidate scores it as a win.
+                boolean consistent = histogram[winning] > 0;
+                if (best[0] == null || cost < best[0].cost
+                        || (cost == best[0].cost && consistent && !best[0].consistent)) {
+                    best[0] = new Scored(guess, cost, consistent);
+                }
+            };
+            // Each guess costs one pass over the candidates, so the budget is checked per guess.
+            boolean more = true;
+            while (more && !budget.isExhausted()) {
+                more = positions.tryAdvance(scoreGuess);
+            }
+            return best[0];
+        }
+
+        /**
+         * Score a feedback partition; lower is better for every strategy.
+         */
+        private double cost(int[] histogram, int winning) {
+            switch (strategy) {
+                case ENTROPY: {
+                    // Entropy is log(n) - sum(s * log(s)) / n, so the smallest sum is the most informative.
+                    double sum = 0;
+                    for (int size : histogram) {
+                        sum += weights[size];
+                    }
+                    return sum;
+                }
+                case EXPECTED: {
+                    // The secret lands in a bucket of size s with probability s / n; a win leaves nothing.
+                    long sum = 0;
+                    for (int feedback = 0; feedback < histogram.length; feedback++) {
+                        if (feedback != winning) {
+                            sum += (long) histogram[feedback] * histogram[feedback];
+                        }
+                    }
+                    return sum;
+                }
+                default: {
+                    int largest = 0;
+                    for (int size : histogram) {
+                        largest = Math.max(largest, size);
+                    }
+                    return largest;
+                }
+            }
+        }
+
+        private static double[] entropyWeights(int candidateCount) {
+            double[] weights = new double[candidateCount + 1];
+            for (int size = 2; size <= candidateCount; size++) {
+                weights[size] = size * Math.log(size);
+            }
+            return weights;
+        }
+    }
+
+    /**
+     * Splits the pool positions until each leaf holds about {@link #LEAF_EVALUATIONS} evaluations.
+     * Serializable only through ForkJoinTask; tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static final class ScoreTask extends RecursiveTask<Scored> {
+        private final Scan scan;
+        private final Spliterator.OfInt positions;
+        private final int leafGuesses;
+
+        ScoreTask(Scan scan, Spliterator.OfInt positions, int leafGuesses) {
+            this.scan = scan;
+            this.positions = positions;
+            this.leafGuesses = leafGuesses;
+        }
+
+        @Override
+        protected Scored compute() {
+            Spliterator.OfInt prefix = positions.estimateSize() > leafGuesses ? positions.trySplit() : null;
+            if (prefix == null) {
+                long start = SearchBudget.threadCpuNanos();
+                Scored best = scan.score(positions);
+                scan.budget.chargeWorkerCpu(SearchBudget.threadCpuNanos() - start);
+                return best;
+            }
+            ScoreTask left = new ScoreTask(scan, prefix, leafGuesses);
+            left.fork();
+            Scored right = new ScoreTask(scan, positions, leafGuesses).compute();
+            Scored leftBest = left.join();
+            return right != null && right.isBetterThan(leftBest) ? right : leftBest;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mastermind.solver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Offline generator for strategy trees and opening books.
+ *
+ * Usage: {@code java -cp target/classes com.mastermind.solver.PrecomputedGenerator
+ * <tree|book> <resource-dir> <strategy> <pool> <slot-count>...}, for example
+ * {@code tree src/main/resources minimax all 4 5}.
+ */
+public final class PrecomputedGenerator {
+
+    private static final String USAGE = "Usage: PrecomputedGenerator <tree|book> <resource-dir> <strategy> <pool> <slot-count>...";
+
+    private PrecomputedGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5 || !(args[0].equals("tree") || args[0].equals("book"))) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        boolean tree = args[0].equals("tree");
+        Path root = Paths.get(args[1]);
+        SuggestionStrategy strategy = SuggestionStrategy.fromString(args[2]);
+        GuessPool guessPool = GuessPool.fromString(args[3]);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        try (PartitionSearch search = new PartitionSearch(parallelism, Long.MAX_VALUE, PartitionSearch.DEFAULT_PARALLEL_THRESHOLD)) {
+            for (int i = 4; i < args.length; i++) {
+                CodeSpace space = CodeSpace.of(Integer.parseInt(args[i]));
+                long start = System.nanoTime();
+                if (tree) {
+                    StrategyTree computed = StrategyTree.compute(space, strategy, guessPool, search);
+                    write(root, computed.resourceName(), computed::write, computed, start);
+                } else {
+                    OpeningBook computed = OpeningBook.compute(space, strategy, guessPool, search);
+                    write(root, computed.resourceName(), computed::write, computed, start);
+                }
+            }
+        }
+    }
+
+    private static void write(Path root, String resourceName, Output output, Object computed, long start) throws IOException {
+        Path file = root.resolve(resourceName);
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            output.write(out);
+        }
+        System.out.println("Wrote " + computed + " to " + file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @FunctionalInterface
+    private interface Output {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,110 @@
+package com.mastermind.solver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time limit for one suggestion, and a record of whether the search had to cut it short.
+ *
+ * Searches poll {@link #isExhausted()} between units of work and return the best
+ * answer found so far once it turns true. Anything that settles for less than
+ * the full search, including the evaluation budget in {@link PartitionSearch},
+ * calls {@link #truncate()}, so after the search {@link #isTruncated()} tells the
+ * caller whether the answer is the one an unlimited search would have given.
+ * A budget belongs to one request and is safe to poll from worker threads.
+ *
+ * Work that a search hands to the solver's worker pool records its CPU time
+ * here, so the request can be charged for threads other than its own.
+ */
+public final class SearchBudget {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean THREAD_CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final long deadlineNanos;
+    private volatile boolean expired;
+    private volatile boolean truncated;
+    private final LongAdder workerCpuNanos = new LongAdder();
+
+    private SearchBudget(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return A budget without a time limit
+     */
+    public static SearchBudget unlimited() {
+        return new SearchBudget(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param millis Time allowed from now; 0 or less means no limit
+     * @return A budget that runs out after the given time
+     */
+    public static SearchBudget ofMillis(long millis) {
+        if (millis <= 0) {
+            return unlimited();
+        }
+        return new SearchBudget(System.nanoTime() + millis * 1_000_000L);
+    }
+
+    /**
+     * Check whether the time is up, recording the truncation if it is.
+     *
+     * @return true if the search should stop and return what it has
+     */
+    public boolean isExhausted() {
+        if (expired) {
+            return true;
+        }
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0) {
+            expired = true;
+            truncated = true;
+        }
+        return expired;
+    }
+
+    /**
+     * Stop the search at its next poll, as if its time had run out.
+     */
+    public void cancel() {
+        truncated = true;
+        expired = true;
+    }
+
+    /**
+     * Record that the search settled for less than the full answer.
+     */
+    public void truncate() {
+        truncated = true;
+    }
+
+    /**
+     * @return true if the search stopped early or narrowed itself to stay within its limits
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Record CPU time spent on this search by a worker pool thread.
+     */
+    void chargeWorkerCpu(long nanos) {
+        workerCpuNanos.add(nanos);
+    }
+
+    /**
+     * @return CPU time spent on this search by worker pool threads, not counting the calling thread
+     */
+    public long getWorkerCpuNanos() {
+        return workerCpuNanos.sum();
+    }
+
+    /**
+     * @return CPU time used so far by the current thread, or wall-clock time where the JVM cannot measure it
+     */
+    public static long threadCpuNanos() {
+        return THREAD_CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,319 @@
+package com.mastermind.solver;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A complete strategy for one board, strategy and guess pool: the guess to play
+ * after every history the strategy itself can reach.
+ *
+ * Each node holds a guess, and a child for every feedback that guess can get
+ * short of the win. Walking a history from the root takes one step per attempt,
+ * so a game that follows the tree gets every hint without searching. Trees are
+ * computed offline by {@link PrecomputedGenerator} and stored in a fixed-width
+ * binary format meant to be memory-mapped: a header naming the board and
+ * strategy, then one {@value #NODE_BYTES}-byte record per node in
+ * breadth-first order: the packed guess, the index of its first child, and a
+ * bit per feedback that has a child. A node's children are stored together,
+ * in feedback order, so the child for a feedback is found by counting the bits
+ * below it.
+ */
+public final class StrategyTree {
+
+    private static final int MAGIC = 0x4D4D5354;
+    private static final int VERSION = 1;
+    static final int NODE_BYTES = 16;
+
+    private final CodeSpace space;
+    private final SuggestionStrategy strategy;
+    private final GuessPool guessPool;
+    private final int depth;
+    private final int nodeCount;
+    // Node records only; read with absolute gets so lookups can share it across threads
+    private final ByteBuffer nodes;
+
+    private StrategyTree(CodeSpace space, SuggestionStrategy strategy, GuessPool guessPool, int depth,
+                         int nodeCount, ByteBuffer nodes) {
+        this.space = space;
+        this.strategy = strategy;
+        this.guessPool = guessPool;
+        this.depth = depth;
+        this.nodeCount = nodeCount;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Compute a tree by searching every history the strategy reaches, level by level.
+     *
+     * @param space The board
+     * @param strategy The strategy the tree plays
+     * @param guessPool The guess pool the tree plays
+     * @param search The search to run, normally with a budget large enough for the full opening
+     * @return The computed tree
+     * @throws IllegalArgumentException if the strategy is {@link SuggestionStrategy#FIRST},
+     *         or the board has more feedbacks than a node can index
+     */
+    public static StrategyTree compute(CodeSpace space, SuggestionStrategy strategy, GuessPool guessPool,
+                                       PartitionSearch search) {
+        if (strategy == SuggestionStrategy.FIRST) {
+            throw new IllegalArgumentException("Strategy trees need a partition strategy");
+        }
+        if (space.feedbackCount() > Long.SIZE) {
+            throw new IllegalArgumentException("Strategy trees support at most " + Long.SIZE
+                    + " feedbacks, board has " + space.feedbackCount());
+        }
+        int winning = space.winningFeedback();
+        int[] guesses = new int[64];
+        int[] firstChildren = new int[64];
+        long[] childMasks = new long[64];
+        int[] levels = new int[64];
+        int count = 1;
+
+        // Breadth-first, so each node's children are numbered consecutively
+        Deque<CandidateSet> pending = new ArrayDeque<>();
+        pending.add(CandidateSet.all(space));
+        for (int node = 0; node < count; node++) {
+            CandidateSet candidates = pending.poll();
+            int guess = search.bestGuess(candidates, strategy, guessPool);
+            long mask = 0;
+            int first = count;
+            for (int feedback = 0; feedback < space.feedbackCount(); feedback++) {
+                if (feedback == winning) {
+                    continue;
+                }
+                CandidateSet next = candidates.filter(guess, feedback);
+                if (next.isEmpty()) {
+                    continue;
+                }
+                mask |= 1L << feedback;
+                pending.add(next);
+                if (count == guesses.length) {
+                    guesses = Arrays.copyOf(guesses, count * 2);
+                    firstChildren = Arrays.copyOf(firstChildren, count * 2);
+                    childMasks = Arrays.copyOf(childMasks, count * 2);
+                    levels = Arrays.copyOf(levels, count * 2);
+                }
+                levels[count++] = levels[node] + 1;
+            }
+            guesses[node] = guess;
+            firstChildren[node] = first;
+            childMasks[node] = mask;
+        }
+
+        ByteBuffer nodes = ByteBuffer.allocate(count * NODE_BYTES);
+        for (int node = 0; node < count; node++) {
+            nodes.putInt(guesses[node]).putInt(firstChildren[node]).putLong(childMasks[node]);
+        }
+        // The deepest node has no children, so its guess wins: one more guess than its level
+        int depth = levels[count - 1] + 1;
+        return new StrategyTree(space, strategy, guessPool, depth, count, nodes.clear());
+    }
+
+    /**
+     * Map a tree file into memory. Its pages stay in the page cache rather than the
+     * heap, and are shared with every other process mapping the same file.
+     *
+     * @param file A file written by {@link #write(OutputStream)}
+     * @return The tree
+     * @throws IOException if the file can't be read or is not a valid tree for this palette
+     */
+    public static StrategyTree map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a tree from a buffer holding a whole file written by {@link #write(OutputStream)}.
+     * The tree keeps a view of the buffer rather than copying it.
+     *
+     * @param buffer The file contents, from its position to its limit
+     * @return The tree
+     * @throws IOException if the buffer is not a valid tree for this palette
+     */
+    public static StrategyTree read(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.duplicate();
+        try {
+            if (data.getInt() != MAGIC || Byte.toUnsignedInt(data.get()) != VERSION) {
+                throw new IOException("Not a strategy tree");
+            }
+            int slotCount = Byte.toUnsignedInt(data.get());
+            int colorCount = Byte.toUnsignedInt(data.get());
+            if (!CodeSpace.isPackable(slotCount) || colorCount != CodeSpace.of(slotCount).getColorCount()) {
+                throw new IOException("Strategy tree is for a different board: " + slotCount + " slots, " + colorCount + " colors");
+            }
+            CodeSpace space = CodeSpace.of(slotCount);
+            SuggestionStrategy strategy;
+            GuessPool guessPool;
+            try {
+                strategy = SuggestionStrategy.fromString(readString(data));
+                guessPool = GuessPool.fromString(readString(data));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unsupported strategy tree: " + e.getMessage(), e);
+            }
+            int depth = Byte.toUnsignedInt(data.get());
+            int nodeCount = data.getInt();
+            if (nodeCount <= 0 || (long) nodeCount * NODE_BYTES != data.remaining()) {
+                throw new IOException("Strategy tree has " + data.remaining() + " bytes for " + nodeCount + " nodes");
+            }
+            StrategyTree tree = new StrategyTree(space, strategy, guessPool, depth, nodeCount, data.slice());
+            tree.validate();
+            return tree;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Strategy tree is truncated", e);
+        }
+    }
+
+    private static String readString(ByteBuffer data) {
+        byte[] bytes = new byte[Short.toUnsignedInt(data.getShort())];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check every record once, so lookups can trust the file: guesses are codes on the
+     * board, and children only lie after their parent and inside the file.
+     */
+    private void validate() throws IOException {
+        long feedbacks = space.feedbackCount() >= Long.SIZE ? -1L : (1L << space.feedbackCount()) - 1;
+        for (int node = 0; node < nodeCount; node++) {
+            int guess = guessOf(node);
+            int first = nodes.getInt(node * NODE_BYTES + 4);
+            long mask = nodes.getLong(node * NODE_BYTES + 8);
+            if (guess < 0 || guess >= space.size()) {
+                throw new IOException("Strategy tree guess out of range at node " + node + ": " + guess);
+            }
+            if ((mask & ~feedbacks) != 0 || (mask & (1L << space.winningFeedback())) != 0
+                    || mask != 0 && (first <= node || (long) first + Long.bitCount(mask) > nodeCount)) {
+                throw new IOException("Strategy tree has invalid children at node " + node);
+            }
+        }
+    }
+
+    /**
+     * Write the tree in its binary format.
+     *
+     * @param out The stream to write; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(space.getSlotCount());
+        data.writeByte(space.getColorCount());
+        data.writeUTF(strategy.getValue());
+        data.writeUTF(guessPool.getValue());
+        data.writeByte(depth);
+        data.writeInt(nodeCount);
+        byte[] record = new byte[NODE_BYTES];
+        for (int node = 0; node < nodeCount; node++) {
+            nodes.get(node * NODE_BYTES, record);
+            data.write(record);
+        }
+        data.flush();
+    }
+
+    /**
+     * Look up the next guess for a history by walking it from the root.
+     *
+     * @param history The packed history
+     * @return The packed guess, or {@link CodeSpace#UNPACKED} if the history left the tree
+     *         by playing another guess, or ended in a win
+     */
+    public int lookup(PackedHistory history) {
+        if (history.getSpace() != space) {
+            return CodeSpace.UNPACKED;
+        }
+        int node = 0;
+        for (int i = 0; i < history.size(); i++) {
+            int offset = node * NODE_BYTES;
+            long mask = nodes.getLong(offset + 8);
+            int feedback = history.feedbackAt(i);
+            if (history.guessAt(i) != nodes.getInt(offset) || (mask & (1L << feedback)) == 0) {
+                return CodeSpace.UNPACKED;
+            }
+            node = nodes.getInt(offset + 4) + Long.bitCount(mask & ((1L << feedback) - 1));
+        }
+        return guessOf(node);
+    }
+
+    private int guessOf(int node) {
+        return nodes.getInt(node * NODE_BYTES);
+    }
+
+    /**
+     * @return true if the tree plays this strategy and guess pool
+     */
+    public boolean plays(SuggestionStrategy strategy, GuessPool guessPool) {
+        return this.strategy == strategy && this.guessPool == guessPool;
+    }
+
+    /**
+     * @return The file name this tree is bundled or stored under
+     */
+    public String resourceName() {
+        return resourceName(space, strategy, guessPool);
+    }
+
+    /**
+     * @return The file name for a tree, relative to the classpath or a tree directory
+     */
+    public static String resourceName(CodeSpace space, SuggestionStrategy strategy, GuessPool guessPool) {
+        return "strategy-trees/" + space.getSlotCount() + "x" + space.getColorCount()
+                + "-" + strategy.getValue() + "-" + guessPool.getValue() + ".tree";
+    }
+
+    public CodeSpace getSpace() {
+        return space;
+    }
+
+    public SuggestionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public GuessPool getGuessPool() {
+        return guessPool;
+    }
+
+    /**
+     * @return Most guesses any secret takes when the tree is followed, the winning guess included
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StrategyTree other = (StrategyTree) o;
+        return space == other.space && strategy == other.strategy && guessPool == other.guessPool
+                && depth == other.depth && nodeCount == other.nodeCount && nodes.equals(other.nodes);
+    }
+
+    @Override
+    public int hashCode() {
+        return (space.getSlotCount() * 31 + strategy.hashCode()) * 31 + guessPool.hashCode() + nodeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "StrategyTree{" + space + ", " + strategy + ", " + guessPool + ", nodes=" + nodeCount
+                + ", depth=" + depth + "}";
+    }
+}
@@ -0,0 +1,317 @@
+package com.mastermind.solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Suggestions and candidate sets shared across games, keyed by packed history.
+ *
+ * Entries form a trie: one root per board holding every code, and one child per
+ * (guess, feedback) step. A new entry filters its parent's candidate set by one
+ * attempt, so games that share an opening share its sets, and each entry
+ * remembers the optimal suggestion per strategy and guess pool once computed.
+ *
+ * The cache is bounded by the estimated size of its candidate sets. When it is
+ * full, the least recently used leaves are dropped until it is 10% under the
+ * limit; a parent becomes evictable once its children are gone. Only boards
+ * with {@link FeedbackMasks} are cached, where each step is a bitmap AND.
+ */
+public final class SuggestionCache {
+
+    /** Default bound on cached candidate sets (64 MB). */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int POOL_COUNT = GuessPool.values().length;
+
+    private final long maxBytes;
+    private final Map<Integer, Entry> roots = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong entries = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder prefixHits = new LongAdder();
+    private final LongAdder prefixMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * @param maxBytes Bound on the estimated size of the cached candidate sets
+     */
+    public SuggestionCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return true if histories on this board can be cached
+     */
+    public static boolean supports(CodeSpace space) {
+        return FeedbackMasks.supports(space);
+    }
+
+    /**
+     * Find the entry for a history, creating it and any missing prefixes.
+     *
+     * @param history The packed history
+     * @return The entry for the whole history
+     * @throws IllegalArgumentException if the board is not supported or the history is not satisfiable
+     */
+    public Entry entry(PackedHistory history) {
+        CodeSpace space = history.getSpace();
+        if (!supports(space) || !history.isSatisfiable()) {
+            throw new IllegalArgumentException("History cannot be cached on " + space);
+        }
+        Entry entry = roots.get(space.getSlotCount());
+        if (entry == null) {
+            Entry root = new Entry(null, 0L, CandidateSet.all(space));
+            Entry raced = roots.putIfAbsent(space.getSlotCount(), root);
+            entry = raced != null ? raced : root;
+        }
+        entry.touch();
+        for (int i = 0; i < history.size(); i++) {
+            int guess = history.guessAt(i);
+            int feedback = history.feedbackAt(i);
+            long key = ((long) guess << 8) | feedback;
+            Entry child = entry.children.get(key);
+            if (child != null) {
+                prefixHits.increment();
+            } else {
+                prefixMisses.increment();
+                // Filtered outside the map, so other prefixes in the same bin are not held up;
+                // threads missing the same prefix at once each filter, and the first one in is kept
+                Entry built = new Entry(entry, key, entry.candidates.filter(guess, feedback));
+                Entry raced = entry.children.putIfAbsent(key, built);
+                child = raced != null ? raced : added(built);
+            }
+            child.touch();
+            entry = child;
+        }
+        if (bytes.get() > maxBytes) {
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * Find the entry for a history without creating anything, for callers that must stay cheap.
+     * Neither the access order nor the counters are touched.
+     *
+     * @param history The packed history
+     * @return The entry for the whole history, or null if it or one of its prefixes is not cached
+     */
+    public Entry find(PackedHistory history) {
+        if (!supports(history.getSpace())) {
+            return null;
+        }
+        Entry entry = roots.get(history.getSpace().getSlotCount());
+        for (int i = 0; i < history.size() && entry != null; i++) {
+            entry = entry.children.get(((long) history.guessAt(i) << 8) | history.feedbackAt(i));
+        }
+        return entry;
+    }
+
+    private Entry added(Entry entry) {
+        bytes.addAndGet(entry.candidates.estimatedBytes());
+        entries.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Drop least recently used leaves until the cache is 10% under its bound.
+     * Only one thread evicts at a time; others carry on over the limit meanwhile.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long target = maxBytes - maxBytes / 10;
+            while (true) {
+                // Recount from the reachable entries so concurrent detaches cannot skew the total.
+                List<Entry> leaves = new ArrayList<>();
+                long reachableBytes = 0;
+                long reachableEntries = 0;
+                List<Entry> pending = new ArrayList<>(roots.values());
+                while (!pending.isEmpty()) {
+                    Entry entry = pending.remove(pending.size() - 1);
+                    if (entry.parent != null) {
+                        reachableBytes += entry.candidates.estimatedBytes();
+                        reachableEntries++;
+                        if (entry.children.isEmpty()) {
+                            leaves.add(entry);
+                        }
+                    }
+                    pending.addAll(entry.children.values());
+                }
+                bytes.set(reachableBytes);
+                entries.set(reachableEntries);
+                if (reachableBytes <= target || leaves.isEmpty()) {
+                    return;
+                }
+                leaves.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+                for (Entry leaf : leaves) {
+                    if (bytes.get() <= target) {
+                        return;
+                    }
+                    if (leaf.parent.children.remove(leaf.key, leaf)) {
+                        bytes.addAndGet(-leaf.candidates.estimatedBytes());
+                        entries.decrementAndGet();
+                        evictions.increment();
+                    }
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Forget every entry; the counters are kept.
+     */
+    public void clear() {
+        roots.clear();
+        bytes.set(0);
+        entries.set(0);
+    }
+
+    /**
+     * @return A snapshot of the cache size and counters
+     */
+    public Stats stats() {
+        return new Stats(entries.get(), bytes.get(), maxBytes, hits.sum(), misses.sum(),
+                prefixHits.sum(), prefixMisses.sum(), evictions.sum());
+    }
+
+    /**
+     * One history prefix: its candidate set and the suggestions computed for it.
+     */
+    public final class Entry {
+        private final Entry parent;
+        private final long key;
+        private final CandidateSet candidates;
+        private final Map<Long, Entry> children = new ConcurrentHashMap<>();
+        // Packed guess + 1 per (strategy, pool), so 0 means not computed yet
+        private final AtomicIntegerArray suggestions = new AtomicIntegerArray(SuggestionStrategy.values().length * POOL_COUNT);
+        private volatile long lastAccess;
+
+        private Entry(Entry parent, long key, CandidateSet candidates) {
+            this.parent = parent;
+            this.key = key;
+            this.candidates = candidates;
+        }
+
+        private void touch() {
+            lastAccess = clock.incrementAndGet();
+        }
+
+        /**
+         * @return The codes consistent with this history
+         */
+        public CandidateSet getCandidates() {
+            return candidates;
+        }
+
+        /**
+         * Look up a suggestion, counting the hit or miss.
+         *
+         * @return The packed suggestion, or {@link CodeSpace#UNPACKED} if none is cached
+         */
+        public int getSuggestion(SuggestionStrategy strategy, GuessPool guessPool) {
+            int stored = suggestions.get(slot(strategy, guessPool));
+            if (stored == 0) {
+                misses.increment();
+                return CodeSpace.UNPACKED;
+            }
+            hits.increment();
+            return stored - 1;
+        }
+
+        /**
+         * Remember the suggestion from a search that ran to completion.
+         */
+        public void putSuggestion(SuggestionStrategy strategy, GuessPool guessPool, int guess) {
+            suggestions.set(slot(strategy, guessPool), guess + 1);
+        }
+
+        private int slot(SuggestionStrategy strategy, GuessPool guessPool) {
+            return strategy.ordinal() * POOL_COUNT + guessPool.ordinal();
+        }
+    }
+
+    /**
+     * Cache size and hit/miss counters at one point in time.
+     */
+    public static final class Stats {
+        private final long entries;
+        private final long bytes;
+        private final long maxBytes;
+        private final long hits;
+        private final long misses;
+        private final long prefixHits;
+        private final long prefixMisses;
+        private final long evictions;
+
+        Stats(long entries, long bytes, long maxBytes, long hits, long misses,
+              long prefixHits, long prefixMisses, long evictions) {
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.prefixHits = prefixHits;
+            this.prefixMisses = prefixMisses;
+            this.evictions = evictions;
+        }
+
+        /** Cached history prefixes, not counting the per-board roots. */
+        public long getEntries() {
+            return entries;
+        }
+
+        /** Estimated size of the cached candidate sets. */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        /** Suggestions served from the cache. */
+        public long getHits() {
+            return hits;
+        }
+
+        /** Suggestions that had to be searched. */
+        public long getMisses() {
+            return misses;
+        }
+
+        /** History steps whose candidate set was already cached. */
+        public long getPrefixHits() {
+            return prefixHits;
+        }
+
+        /** History steps whose candidate set was filtered from the parent's. */
+        public long getPrefixMisses() {
+            return prefixMisses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /** Share of suggestions served from the cache, or 0 before the first lookup. */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
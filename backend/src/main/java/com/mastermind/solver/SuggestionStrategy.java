@@ -0,0 +1,45 @@
+package com.mastermind.solver;
+
+/**
+ * Strategies for choosing a suggested guess.
+ */
+public enum SuggestionStrategy {
+    /** The first code, in palette order, that is consistent with the history. */
+    FIRST("first"),
+    /** Knuth's rule: the guess whose largest feedback partition is smallest. */
+    MINIMAX("minimax"),
+    /** The guess whose feedback partition has the highest entropy, i.e. is most informative on average. */
+    ENTROPY("entropy"),
+    /** The guess leaving the fewest candidates on average, counting a winning guess as none left. */
+    EXPECTED("expected");
+
+    private final String value;
+
+    SuggestionStrategy(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Convert string value to SuggestionStrategy enum.
+     * @param value String representation of the strategy
+     * @return SuggestionStrategy enum value
+     * @throws IllegalArgumentException if the strategy is not valid
+     */
+    public static SuggestionStrategy fromString(String value) {
+        for (SuggestionStrategy strategy : SuggestionStrategy.values()) {
+            if (strategy.value.equalsIgnoreCase(value)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Invalid strategy: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
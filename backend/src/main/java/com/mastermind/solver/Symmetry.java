@@ -0,0 +1,301 @@
+package com.mastermind.solver;
+
+import java.util.Arrays;
+
+/**
+ * Relabellings of codes that leave a set of fixed guesses unchanged.
+ *
+ * Two kinds are tracked: permuting positions that every fixed guess colors the
+ * same way, and permuting colors that no fixed guess uses. Applying such a
+ * relabelling to both a secret and a guess keeps their feedback, so the codes
+ * consistent with a history of those guesses map onto each other, and guesses
+ * in one orbit split the candidates into the same feedback histogram.
+ *
+ * Each orbit is represented by its lowest code. That code has non-decreasing
+ * colors within each class of interchangeable positions, uses the lowest free
+ * colors, and no permutation of those free colors makes it lower. Scoring only
+ * representatives therefore finds the same lowest best guess as scoring all.
+ */
+final class Symmetry {
+
+    private final int slotCount;
+    private final int colorCount;
+    // Interchangeable positions share a class, numbered in order of first slot
+    private final byte[] positionClass;
+    private final int classCount;
+    // Bit per palette index that no fixed guess uses
+    private final int freeColors;
+    // Previous slot in the same class, or -1
+    private final int[] previousInClass;
+    private final int[][] classSlots;
+
+    private Symmetry(int slotCount, int colorCount, byte[] positionClass, int freeColors) {
+        this.slotCount = slotCount;
+        this.colorCount = colorCount;
+        this.positionClass = positionClass;
+        this.freeColors = freeColors;
+
+        int classes = 0;
+        for (byte c : positionClass) {
+            classes = Math.max(classes, c + 1);
+        }
+        this.classCount = classes;
+        this.previousInClass = new int[slotCount];
+        int[] last = new int[classes];
+        Arrays.fill(last, -1);
+        int[] sizes = new int[classes];
+        for (int slot = 0; slot < slotCount; slot++) {
+            previousInClass[slot] = last[positionClass[slot]];
+            last[positionClass[slot]] = slot;
+            sizes[positionClass[slot]]++;
+        }
+        this.classSlots = new int[classes][];
+        for (int c = 0; c < classes; c++) {
+            classSlots[c] = new int[sizes[c]];
+            sizes[c] = 0;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int c = positionClass[slot];
+            classSlots[c][sizes[c]++] = slot;
+        }
+    }
+
+    /**
+     * @return The symmetry of an empty history: every position and every color is interchangeable
+     */
+    static Symmetry full(CodeSpace space) {
+        return new Symmetry(space.getSlotCount(), space.getColorCount(),
+                new byte[space.getSlotCount()], (1 << space.getColorCount()) - 1);
+    }
+
+    /**
+     * @return The symmetry left by every guess in a history
+     */
+    static Symmetry of(PackedHistory history) {
+        CodeSpace space = history.getSpace();
+        Symmetry symmetry = full(space);
+        for (int i = 0; i < history.size(); i++) {
+            symmetry = symmetry.fix(space, history.guessAt(i));
+        }
+        return symmetry;
+    }
+
+    /**
+     * @return A symmetry that relates no two codes
+     */
+    static Symmetry none(CodeSpace space) {
+        byte[] classes = new byte[space.getSlotCount()];
+        for (int slot = 0; slot < classes.length; slot++) {
+            classes[slot] = (byte) slot;
+        }
+        return new Symmetry(space.getSlotCount(), space.getColorCount(), classes, 0);
+    }
+
+    /**
+     * Keep only the relabellings that also leave {@code guess} unchanged.
+     */
+    Symmetry fix(CodeSpace space, int guess) {
+        byte[] digits = new byte[slotCount];
+        space.digits(guess, digits);
+        // Split each class by the guess's color, renumbering in order of first slot
+        int[] renumber = new int[classCount * colorCount];
+        Arrays.fill(renumber, -1);
+        byte[] classes = new byte[slotCount];
+        int next = 0;
+        int used = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int key = positionClass[slot] * colorCount + digits[slot];
+            if (renumber[key] < 0) {
+                renumber[key] = next++;
+            }
+            classes[slot] = (byte) renumber[key];
+            used |= 1 << digits[slot];
+        }
+        int free = freeColors & ~used;
+        if (next == classCount && free == freeColors) {
+            return this;
+        }
+        return new Symmetry(slotCount, colorCount, classes, free);
+    }
+
+    /**
+     * @return true if no two codes are related, so there is nothing to reduce
+     */
+    boolean isTrivial() {
+        return classCount == slotCount && Integer.bitCount(freeColors) <= 1;
+    }
+
+    /**
+     * @return The lowest code of every orbit in the space, ascending
+     */
+    int[] representatives(CodeSpace space) {
+        int[] result = new int[64];
+        int count = 0;
+        byte[] digits = new byte[slotCount];
+        Scratch scratch = new Scratch();
+        for (int code = 0; code < space.size(); code++) {
+            if (code > 0) {
+                // Odometer increment of the digits, least significant slot last
+                int slot = slotCount - 1;
+                while (++digits[slot] == colorCount) {
+                    digits[slot--] = 0;
+                }
+            }
+            if (isRepresentative(digits, scratch)) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = code;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @param codes Codes closed under this symmetry, ascending
+     * @return The lowest code of every orbit among them, ascending
+     */
+    int[] representatives(CodeSpace space, int[] codes) {
+        int[] result = new int[codes.length];
+        int count = 0;
+        byte[] digits = new byte[slotCount];
+        Scratch scratch = new Scratch();
+        for (int code : codes) {
+            space.digits(code, digits);
+            if (isRepresentative(digits, scratch)) {
+                result[count++] = code;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private boolean isRepresentative(byte[] digits, Scratch scratch) {
+        int used = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int previous = previousInClass[slot];
+            if (previous >= 0 && digits[previous] > digits[slot]) {
+                return false;
+            }
+            used |= 1 << digits[slot];
+        }
+        int usedFree = used & freeColors;
+        int k = Integer.bitCount(usedFree);
+        if (usedFree != lowestBits(freeColors, k)) {
+            return false;
+        }
+        if (k <= 1) {
+            return true;
+        }
+
+        // Try every other labelling of the free colors in use
+        int[] colors = scratch.colors;
+        for (int i = 0, bits = usedFree; i < k; i++, bits &= bits - 1) {
+            colors[i] = Integer.numberOfTrailingZeros(bits);
+        }
+        int[] perm = scratch.perm;
+        int[] counters = scratch.counters;
+        for (int i = 0; i < k; i++) {
+            perm[i] = colors[i];
+            counters[i] = 0;
+        }
+        // Heap's algorithm, skipping the identity
+        int i = 1;
+        while (i < k) {
+            if (counters[i] < i) {
+                int j = (i & 1) == 0 ? 0 : counters[i];
+                int swap = perm[j];
+                perm[j] = perm[i];
+                perm[i] = swap;
+                if (isLowerRelabelled(digits, colors, perm, k, scratch)) {
+                    return false;
+                }
+                counters[i]++;
+                i = 1;
+            } else {
+                counters[i] = 0;
+                i++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if mapping {@code colors[i]} to {@code perm[i]} and sorting each class gives a lower code
+     */
+    private boolean isLowerRelabelled(byte[] digits, int[] colors, int[] perm, int k, Scratch scratch) {
+        int[] map = scratch.map;
+        for (int color = 0; color < colorCount; color++) {
+            map[color] = color;
+        }
+        for (int i = 0; i < k; i++) {
+            map[colors[i]] = perm[i];
+        }
+        int[] relabelled = scratch.relabelled;
+        for (int c = 0; c < classCount; c++) {
+            int[] slots = classSlots[c];
+            // Insertion sort of the class's new colors into its slots
+            for (int n = 0; n < slots.length; n++) {
+                int value = map[digits[slots[n]]];
+                int m = n;
+                while (m > 0 && relabelled[slots[m - 1]] > value) {
+                    relabelled[slots[m]] = relabelled[slots[m - 1]];
+                    m--;
+                }
+                relabelled[slots[m]] = value;
+            }
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (relabelled[slot] != digits[slot]) {
+                return relabelled[slot] < digits[slot];
+            }
+        }
+        return false;
+    }
+
+    private static int lowestBits(int bits, int k) {
+        int result = 0;
+        for (int i = 0; i < k; i++) {
+            int lowest = bits & -bits;
+            result |= lowest;
+            bits &= ~lowest;
+        }
+        return result;
+    }
+
+    /**
+     * Number of orbits in a whole space under {@link #full(CodeSpace)}: the ways to split
+     * {@code slotCount} positions into at most {@code colorCount} groups of equal color.
+     */
+    static long openingOrbits(CodeSpace space) {
+        int n = space.getSlotCount();
+        // partitions[j] = partitions of j into parts, using at most the parts processed so far
+        long[][] partitions = new long[space.getColorCount() + 1][n + 1];
+        for (int parts = 0; parts <= space.getColorCount(); parts++) {
+            partitions[parts][0] = 1;
+        }
+        for (int parts = 1; parts <= space.getColorCount(); parts++) {
+            for (int j = 1; j <= n; j++) {
+                // Partitions of j into at most `parts` parts
+                partitions[parts][j] = partitions[parts - 1][j] + (j >= parts ? partitions[parts][j - parts] : 0);
+            }
+        }
+        return partitions[space.getColorCount()][n];
+    }
+
+    /**
+     * Per-scan buffers, so checking a code allocates nothing.
+     */
+    private final class Scratch {
+        final int[] colors = new int[colorCount];
+        final int[] perm = new int[colorCount];
+        final int[] counters = new int[colorCount];
+        final int[] map = new int[colorCount];
+        final int[] relabelled = new int[slotCount];
+    }
+
+    @Override
+    public String toString() {
+        return "Symmetry{classes=" + Arrays.toString(positionClass)
+                + ", freeColors=" + Integer.toBinaryString(freeColors) + "}";
+    }
+}
@@ -0,0 +1,761 @@
+package com.mastermind.store;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.model.Game;
+import com.mastermind.model.GameMatch;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.model.PlayerSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of game events, so games survive a restart. Multiplayer matches
+ * and player sessions are journaled alongside them, each change as a record of the
+ * whole match or session, so a recovered game still has its match and its players.
+ *
+ * Each event is one frame appended to the current log segment: its length, type and
+ * payload, and a CRC of both. Appending only encodes the frame and queues it, so callers
+ * holding a game's lock never wait on the file or on each other; a background thread
+ * writes everything queued every few milliseconds, in the order it was appended, and
+ * forces the file to disk, so many events share one write and one sync. Events
+ * acknowledged since the last sync can be lost if the process or the machine fails.
+ *
+ * {@link #compact(Consumer)} starts a new segment, writes every live game, match and
+ * session to a snapshot numbered like it, and then deletes the older snapshot and
+ * segments. Recovery loads the newest snapshot and replays the segments from its
+ * number on, stopping at the first torn or corrupt frame of a segment. Guesses and
+ * resets carry the game version they produced, so replaying an event a snapshot
+ * already holds is a no-op; match and session records simply replace the one before.
+ */
+public final class GameJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameJournal.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("games-(\\d+)\\.(log|snapshot)");
+
+    private static final byte CREATED = 1;
+    private static final byte GUESSED = 2;
+    private static final byte RESET = 3;
+    private static final byte DELETED = 4;
+    private static final byte MATCH_CHANGED = 5;
+    private static final byte MATCH_ENDED = 6;
+    private static final byte SESSION_CHANGED = 7;
+    private static final byte SESSION_ENDED = 8;
+
+    // Most frames handed to one gathering write
+    private static final int WRITE_BATCH = 256;
+
+    private final Path dir;
+    private final long syncIntervalMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder appendedBytes = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final Queue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+    private volatile boolean open;
+    private FileChannel log;
+    private long segment;
+    private ScheduledExecutorService syncer;
+    private Replay replay;
+    private volatile Consumer<Consumer<GameMatch>> liveMatches = action -> { };
+    private volatile Consumer<Consumer<PlayerSession>> liveSessions = action -> { };
+
+    /**
+     * @param dir Directory for the segments and snapshots, created if missing; null for no journal
+     * @param syncIntervalMillis Most time an appended event waits to be forced to disk
+     */
+    public GameJournal(Path dir, long syncIntervalMillis) {
+        this.dir = dir;
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    /**
+     * @return A journal that keeps nothing
+     */
+    public static GameJournal disabled() {
+        return new GameJournal(null, 0);
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Rebuild the games from the newest snapshot and the segments after it. The first of
+     * the recover methods to be called replays the journal and starts a new segment for
+     * appends; all of them must be called before any event is appended.
+     *
+     * @return The games as they were last journaled, or none if the journal is disabled;
+     *         handed over once
+     * @throws UncheckedIOException if the directory can't be read or a segment can't be created
+     */
+    public Collection<Game> recover() {
+        return take(state -> state.games);
+    }
+
+    /**
+     * Rebuild the multiplayer matches, like {@link #recover()} does the games.
+     *
+     * @param live Visits every live match, for the snapshots written by compaction
+     * @return The matches as they were last journaled; handed over once
+     */
+    public Collection<GameMatch> recoverMatches(Consumer<Consumer<GameMatch>> live) {
+        liveMatches = live;
+        return take(state -> state.matches);
+    }
+
+    /**
+     * Rebuild the player sessions, like {@link #recover()} does the games. A recovered
+     * session counts as active from now, so its player has time to reconnect.
+     *
+     * @param live Visits every live session, for the snapshots written by compaction
+     * @return The sessions as they were last journaled; handed over once
+     */
+    public Collection<PlayerSession> recoverSessions(Consumer<Consumer<PlayerSession>> live) {
+        liveSessions = live;
+        return take(state -> state.sessions);
+    }
+
+    private <T> List<T> take(Function<Replay, Map<String, T>> part) {
+        lock.lock();
+        try {
+            Map<String, T> recovered = part.apply(replayed());
+            List<T> taken = List.copyOf(recovered.values());
+            recovered.clear();
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Replay replayed() {
+        lock.lock();
+        try {
+            if (replay == null) {
+                replay = new Replay();
+                if (isEnabled()) {
+                    replayAll(replay);
+                }
+            }
+            return replay;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void replayAll(Replay replay) {
+        try {
+            Files.createDirectories(dir);
+            long snapshot = -1;
+            List<Long> segments = new ArrayList<>();
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        long number = Long.parseLong(matcher.group(1));
+                        if (matcher.group(2).equals("snapshot")) {
+                            snapshot = Math.max(snapshot, number);
+                        } else {
+                            segments.add(number);
+                        }
+                    }
+                }
+            }
+            segments.sort(null);
+
+            long events = 0;
+            if (snapshot >= 0) {
+                events += replay(file(snapshot, "snapshot"), replay);
+            }
+            for (long number : segments) {
+                if (number >= snapshot) {
+                    events += replay(file(number, "log"), replay);
+                }
+            }
+            long last = segments.isEmpty() ? snapshot : Math.max(snapshot, segments.get(segments.size() - 1));
+            openSegment(last + 1);
+            open = true;
+            syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+            logger.info("Recovered {} games, {} matches and {} player sessions from {} journal events in {}",
+                    replay.games.size(), replay.matches.size(), replay.sessions.size(), events, dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover game journal from " + dir, e);
+        }
+    }
+
+    /**
+     * Apply the frames of one file, up to the first torn or corrupt one.
+     *
+     * @return Number of frames applied
+     */
+    private long replay(Path file, Replay replay) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        long count = 0;
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= 4) {
+            int length = data.getInt();
+            if (length < 1 || length > data.remaining() - 4) {
+                logger.warn("Journal {} ends in a torn frame at byte {}", file.getFileName(), data.position() - 4);
+                break;
+            }
+            ByteBuffer frame = data.slice(data.position(), length);
+            crc.reset();
+            crc.update(frame.duplicate());
+            data.position(data.position() + length);
+            if ((int) crc.getValue() != data.getInt()) {
+                logger.warn("Journal {} has a corrupt frame at byte {}", file.getFileName(), data.position() - length - 8);
+                break;
+            }
+            try {
+                apply(frame, replay);
+            } catch (RuntimeException e) {
+                logger.warn("Skipping unreadable frame in journal {}", file.getFileName(), e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static void apply(ByteBuffer frame, Replay replay) {
+        byte type = frame.get();
+        switch (type) {
+            case CREATED -> {
+                Game game = Game.fromRecord(frame);
+                replay.games.put(game.getId(), game);
+            }
+            case MATCH_CHANGED -> {
+                GameMatch match = readMatch(frame);
+                replay.matches.put(match.getMatchId(), match);
+            }
+            case MATCH_ENDED -> replay.matches.remove(readId(frame));
+            case SESSION_CHANGED -> {
+                PlayerSession session = readSession(frame);
+                replay.sessions.put(session.getSessionId(), session);
+            }
+            case SESSION_ENDED -> replay.sessions.remove(readId(frame));
+            default -> applyToGame(type, frame, replay.games);
+        }
+    }
+
+    private static void applyToGame(byte type, ByteBuffer frame, Map<String, Game> games) {
+        String gameId = readId(frame);
+        Game game = games.get(gameId);
+        if (type == DELETED) {
+            games.remove(gameId);
+            return;
+        }
+        int version = frame.getInt();
+        if (game == null || game.getVersion() >= version) {
+            // Deleted later, or already in the snapshot
+            return;
+        }
+        List<Color> code = readCode(frame, game.getSlotCount());
+        if (type == GUESSED) {
+            game.addGuessAttempt(new GuessAttempt(code, new Feedback(frame.getInt(), frame.getInt())));
+        } else if (type == RESET) {
+            game.restart(code);
+        }
+    }
+
+    /**
+     * Record a new game.
+     */
+    public void created(Game game) {
+        byte[] record = game.toRecord();
+        append(CREATED, record.length, out -> out.write(record));
+    }
+
+    /**
+     * Record a guess.
+     *
+     * @param version The game version after the guess
+     */
+    public void guessed(String gameId, int version, GuessAttempt attempt) {
+        List<Color> guess = attempt.getGuess();
+        Feedback feedback = attempt.getFeedback();
+        append(GUESSED, idBytes(gameId) + 4 + guess.size() + 8, out -> {
+            writeId(out, gameId);
+            out.writeInt(version);
+            writeCode(out, guess);
+            out.writeInt(feedback.getExact());
+            out.writeInt(feedback.getPartial());
+        });
+    }
+
+    /**
+     * Record a reset to a new secret.
+     *
+     * @param version The game version after the reset
+     */
+    public void reset(String gameId, int version, List<Color> secret) {
+        append(RESET, idBytes(gameId) + 4 + secret.size(), out -> {
+            writeId(out, gameId);
+            out.writeInt(version);
+            writeCode(out, secret);
+        });
+    }
+
+    /**
+     * Record that a game was deleted or dropped from the store.
+     */
+    public void deleted(String gameId) {
+        append(DELETED, idBytes(gameId), out -> writeId(out, gameId));
+    }
+
+    /**
+     * Record a match as it is now, when it is created or changes.
+     */
+    public void matchChanged(GameMatch match) {
+        byte[] record = matchRecord(match);
+        append(MATCH_CHANGED, record.length, out -> out.write(record));
+    }
+
+    /**
+     * Record that a match ended or was cancelled.
+     */
+    public void matchEnded(String matchId) {
+        append(MATCH_ENDED, idBytes(matchId), out -> writeId(out, matchId));
+    }
+
+    /**
+     * Record a player session as it is now, when the player logs in or their status changes.
+     */
+    public void sessionChanged(PlayerSession session) {
+        byte[] record = sessionRecord(session);
+        append(SESSION_CHANGED, record.length, out -> out.write(record));
+    }
+
+    /**
+     * Record that a player logged out or was removed for inactivity.
+     */
+    public void sessionEnded(String sessionId) {
+        append(SESSION_ENDED, idBytes(sessionId), out -> writeId(out, sessionId));
+    }
+
+    private void append(byte type, int payloadBytes, FrameWriter writer) {
+        if (!isEnabled()) {
+            return;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(4 + 1 + payloadBytes + 4);
+        frame.putInt(1 + payloadBytes).put(type);
+        try {
+            writer.write(new DataOutputStream(new ByteBufferOutput(frame)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), 4, 1 + payloadBytes);
+        frame.putInt((int) crc.getValue()).flip();
+
+        if (!open) {
+            throw new IllegalStateException("Game journal is not open");
+        }
+        pending.add(frame);
+        appended.increment();
+        appendedBytes.add(frame.limit());
+    }
+
+    /**
+     * Write the queued frames to the current segment, oldest first. The caller holds the lock.
+     *
+     * @return Whether anything was written
+     */
+    private boolean writePending() throws IOException {
+        ByteBuffer[] batch = new ByteBuffer[WRITE_BATCH];
+        boolean wrote = false;
+        while (true) {
+            int count = 0;
+            ByteBuffer frame;
+            while (count < batch.length && (frame = pending.poll()) != null) {
+                batch[count++] = frame;
+            }
+            if (count == 0) {
+                return wrote;
+            }
+            while (batch[count - 1].hasRemaining()) {
+                log.write(batch, 0, count);
+            }
+            wrote = true;
+        }
+    }
+
+    /**
+     * Write everything appended so far and force it to disk, if anything was appended.
+     */
+    public void sync() {
+        lock.lock();
+        try {
+            if (log == null || !writePending()) {
+                return;
+            }
+            // Under the lock, so compaction or close can't close the channel during the sync;
+            // appends only queue frames, so they don't wait for it
+            log.force(false);
+            syncs.increment();
+        } catch (IOException e) {
+            logger.error("Failed to sync game journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace the journal so far with a snapshot of the live games, and of the matches
+     * and sessions visited by the callbacks given when they were recovered. Events
+     * appended while the snapshot is written go to the new segment, and replay on top of it.
+     *
+     * @param games Visits every live game
+     * @throws UncheckedIOException if the snapshot can't be written
+     */
+    public void compact(Consumer<Consumer<Game>> games) {
+        if (!isEnabled()) {
+            return;
+        }
+        long number;
+        lock.lock();
+        try {
+            if (log == null) {
+                return;
+            }
+            number = segment + 1;
+            // Everything appended before the new segment belongs in the old one
+            writePending();
+            FileChannel previous = log;
+            openSegment(number);
+            previous.force(false);
+            previous.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start a new game journal segment", e);
+        } finally {
+            lock.unlock();
+        }
+
+        Path snapshot = file(number, "snapshot");
+        Path partial = dir.resolve(snapshot.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            CRC32 crc = new CRC32();
+            games.accept(game -> writeFrame(out, crc, CREATED, game.toRecord()));
+            liveMatches.accept(match -> writeFrame(out, crc, MATCH_CHANGED, matchRecord(match)));
+            liveSessions.accept(session -> writeFrame(out, crc, SESSION_CHANGED, sessionRecord(session)));
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write game snapshot " + snapshot, e);
+        }
+        try {
+            Files.move(partial, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches() && Long.parseLong(matcher.group(1)) < number) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to install game snapshot " + snapshot, e);
+        }
+        compactions.increment();
+    }
+
+    private static void writeFrame(DataOutputStream out, CRC32 crc, byte type, byte[] record) {
+        crc.reset();
+        crc.update(type);
+        crc.update(record);
+        try {
+            out.writeInt(1 + record.length);
+            out.writeByte(type);
+            out.write(record);
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        segment = number;
+        log = FileChannel.open(file(number, "log"), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path file(long number, String kind) {
+        return dir.resolve(String.format("games-%010d.%s", number, kind));
+    }
+
+    /**
+     * Write what is queued, then sync and close the current segment.
+     */
+    public void close() {
+        if (syncer != null) {
+            // Not shutdownNow: interrupting a write or sync would close the channel under it
+            syncer.shutdown();
+        }
+        open = false;
+        lock.lock();
+        try {
+            if (log != null) {
+                writePending();
+                log.force(false);
+                log.close();
+                log = null;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to close game journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return A snapshot of the journal counters
+     */
+    public Stats stats() {
+        long current;
+        lock.lock();
+        try {
+            current = log == null ? -1 : segment;
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(isEnabled(), current, appended.sum(), appendedBytes.sum(), syncs.sum(), compactions.sum());
+    }
+
+    private static int idBytes(String gameId) {
+        return 2 + gameId.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void writeId(DataOutputStream out, String gameId) throws IOException {
+        byte[] bytes = gameId.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readId(ByteBuffer frame) {
+        byte[] bytes = new byte[Short.toUnsignedInt(frame.getShort())];
+        frame.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeCode(DataOutputStream out, List<Color> code) throws IOException {
+        for (Color color : code) {
+            out.writeByte(color.ordinal());
+        }
+    }
+
+    private static List<Color> readCode(ByteBuffer frame, int slotCount) {
+        Color[] palette = Color.values();
+        List<Color> code = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            code.add(palette[frame.get()]);
+        }
+        return code;
+    }
+
+    private static byte[] matchRecord(GameMatch match) {
+        return record(out -> {
+            writeId(out, match.getMatchId());
+            writeId(out, match.getPlayer1Nickname());
+            writeId(out, match.getPlayer2Nickname());
+            writeText(out, match.getPlayer1GameId());
+            writeText(out, match.getPlayer2GameId());
+            out.writeBoolean(match.isPlayer1Ready());
+            out.writeBoolean(match.isPlayer2Ready());
+            out.writeByte(match.getStatus().ordinal());
+            writeTime(out, match.getCreatedAt());
+            writeTime(out, match.getStartedAt());
+        });
+    }
+
+    private static GameMatch readMatch(ByteBuffer frame) {
+        GameMatch match = new GameMatch();
+        match.setMatchId(readId(frame));
+        match.setPlayer1Nickname(readId(frame));
+        match.setPlayer2Nickname(readId(frame));
+        match.setPlayer1GameId(readText(frame));
+        match.setPlayer2GameId(readText(frame));
+        match.setPlayer1Ready(frame.get() != 0);
+        match.setPlayer2Ready(frame.get() != 0);
+        match.setStatus(GameMatch.MatchStatus.values()[frame.get()]);
+        match.setCreatedAt(readTime(frame));
+        match.setStartedAt(readTime(frame));
+        return match;
+    }
+
+    private static byte[] sessionRecord(PlayerSession session) {
+        return record(out -> {
+            writeId(out, session.getSessionId());
+            writeId(out, session.getNickname());
+            out.writeByte(session.getStatus().ordinal());
+            writeTime(out, session.getConnectedAt());
+        });
+    }
+
+    private static PlayerSession readSession(ByteBuffer frame) {
+        PlayerSession session = new PlayerSession(readId(frame), readId(frame));
+        session.setStatus(PlayerSession.PlayerStatus.values()[frame.get()]);
+        session.setConnectedAt(readTime(frame));
+        return session;
+    }
+
+    private static byte[] record(FrameWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writer.write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes an optional string, with null as the empty string.
+     */
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        writeId(out, text == null ? "" : text);
+    }
+
+    private static String readText(ByteBuffer frame) {
+        String text = readId(frame);
+        return text.isEmpty() ? null : text;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        writeText(out, time == null ? null : time.toString());
+    }
+
+    private static LocalDateTime readTime(ByteBuffer frame) {
+        String text = readText(frame);
+        return text == null ? null : LocalDateTime.parse(text);
+    }
+
+    @FunctionalInterface
+    private interface FrameWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes into a buffer sized for the frame up front.
+     */
+    private static final class ByteBufferOutput extends OutputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferOutput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.put(bytes, offset, length);
+        }
+    }
+
+    /**
+     * What recovery rebuilt, until each service takes its part.
+     */
+    private static final class Replay {
+        private final Map<String, Game> games = new LinkedHashMap<>();
+        private final Map<String, GameMatch> matches = new LinkedHashMap<>();
+        private final Map<String, PlayerSession> sessions = new LinkedHashMap<>();
+    }
+
+    /**
+     * Journal counters at one point in time.
+     */
+    public static final class Stats {
+        private final boolean enabled;
+        private final long segment;
+        private final long appended;
+        private final long appendedBytes;
+        private final long syncs;
+        private final long compactions;
+
+        Stats(boolean enabled, long segment, long appended, long appendedBytes, long syncs, long compactions) {
+            this.enabled = enabled;
+            this.segment = segment;
+            this.appended = appended;
+            this.appendedBytes = appendedBytes;
+            this.syncs = syncs;
+            this.compactions = compactions;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /** Number of the segment being appended to, or -1 if none is open. */
+        public long getSegment() {
+            return segment;
+        }
+
+        /** Events appended since startup. */
+        public long getAppended() {
+            return appended;
+        }
+
+        public long getAppendedBytes() {
+            return appendedBytes;
+        }
+
+        /** Times the journal was forced to disk; each covers every event appended before it. */
+        public long getSyncs() {
+            return syncs;
+        }
+
+        /** Average events covered by one sync, or 0 before the first. */
+        public double getEventsPerSync() {
+            return syncs == 0 ? 0 : (double) appended / syncs;
+        }
+
+        public long getCompactions() {
+            return compactions;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.mastermind.store;
+
+import com.mastermind.model.Game;
+
+import java.util.function.Consumer;
+
+/**
+ * Where {@link com.mastermind.service.GameService} keeps its games.
+ *
+ * A store may drop games on its own, when they have been idle too long or it is
+ * over its size bound; listeners are told about every game it drops that way, but
+ * not about games removed explicitly. A game changed after {@link #get(String)}
+ * must be {@link #replace(Game) replaced} so the store sees the change; a game the
+ * store dropped meanwhile is not brought back that way.
+ */
+public interface GameStore {
+
+    /**
+     * Look up a game, counting it as used.
+     *
+     * @param gameId The unique game identifier
+     * @return The game, or null if it doesn't exist or has expired
+     */
+    Game get(String gameId);
+
+    /**
+     * Check whether a game is held, without counting it as used.
+     *
+     * @param gameId The unique game identifier
+     * @return true if the game is held, expired or not
+     */
+    boolean contains(String gameId);
+
+    /**
+     * Add a game, or store the changes made to one already held.
+     *
+     * @param game The game to store
+     */
+    void put(Game game);
+
+    /**
+     * Store the changes made to a game, but only while the store still holds it.
+     *
+     * @param game The changed game
+     * @return true if the changes were stored, false if the game had been dropped or removed
+     */
+    boolean replace(Game game);
+
+    /**
+     * Remove a game without telling the listeners.
+     *
+     * @param gameId The unique game identifier
+     * @return The removed game, or null if not found
+     */
+    Game remove(String gameId);
+
+    /**
+     * @return true if {@link #get(String)} returns the very game that was stored, so state kept
+     *         only on the game, such as a precomputed hint, lasts from one lookup to the next
+     */
+    boolean keepsGameInstances();
+
+    /**
+     * Visit every game held, for snapshots. Games changed meanwhile may be seen either way.
+     */
+    void forEach(Consumer<Game> action);
+
+    /**
+     * @return Number of games held, expired ones not yet swept included
+     */
+    int size();
+
+    /**
+     * Drop every game past its time to live.
+     */
+    void evictExpired();
+
+    /**
+     * Register a listener for games the store drops on its own.
+     */
+    void addEvictionListener(EvictionListener listener);
+
+    /**
+     * @return A snapshot of the store size and eviction counters
+     */
+    Stats stats();
+
+    /**
+     * Why a game was dropped.
+     */
+    enum EvictionCause {
+        /** Idle for longer than the time to live of a game in progress. */
+        EXPIRED,
+        /** Over and idle for longer than the shorter time to live of a finished game. */
+        FINISHED,
+        /** Dropped to bring the store back under its bound on games or bytes. */
+        SIZE
+    }
+
+    /**
+     * Told about each game a store drops on its own, on the thread that dropped it.
+     */
+    @FunctionalInterface
+    interface EvictionListener {
+        void gameEvicted(Game game, EvictionCause cause);
+    }
+
+    /**
+     * Store size and eviction counters at one point in time.
+     */
+    final class Stats {
+        private final int games;
+        private final long bytes;
+        private final int maxGames;
+        private final long maxBytes;
+        private final long expired;
+        private final long finished;
+        private final long evicted;
+
+        public Stats(int games, long bytes, int maxGames, long maxBytes, long expired, long finished, long evicted) {
+            this.games = games;
+            this.bytes = bytes;
+            this.maxGames = maxGames;
+            this.maxBytes = maxBytes;
+            this.expired = expired;
+            this.finished = finished;
+            this.evicted = evicted;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        /** Estimated size of the stored games. */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getMaxGames() {
+            return maxGames;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        /** Games in progress dropped after their idle time to live. */
+        public long getExpired() {
+            return expired;
+        }
+
+        /** Finished games dropped after their shorter time to live. */
+        public long getFinished() {
+            return finished;
+        }
+
+        /** Games dropped to stay under the size bounds. */
+        public long getEvicted() {
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.mastermind.store;
+
+import com.mastermind.model.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Games held on the heap, bounded by idle time, count and estimated size.
+ *
+ * A game idle for longer than its time to live is dropped, either when it is next
+ * looked up or by {@link #evictExpired()}; finished games get a much shorter one.
+ * When a put takes the store over its bound on games or bytes, games are dropped
+ * until it is 10% under, in segmented LRU order: finished games first, then games
+ * never looked up since they were created (the probation segment), then games in
+ * play (the protected segment). The protected segment is kept to 80% of the target,
+ * its oldest games demoted to probation, so a burst of new games can't push out
+ * every other new game.
+ *
+ * Recency is kept incrementally in a queue per segment rather than by sorting the
+ * store: a game joins the probation queue when it is first stored, and a lookup
+ * only marks it as used. Eviction takes games off the head of the queues, moving
+ * a probation game used since it was queued to the protected queue, and giving a
+ * protected game used since it was queued a second pass instead of demoting it.
+ * Places left in the queues by games removed meanwhile are skipped, and cleared
+ * out by {@link #evictExpired()}.
+ */
+public final class InMemoryGameStore implements GameStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryGameStore.class);
+
+    /** Default time to live of an idle game in progress. */
+    public static final Duration DEFAULT_IDLE_TTL = Duration.ofMinutes(30);
+
+    /** Default time to live of an idle finished game. */
+    public static final Duration DEFAULT_FINISHED_TTL = Duration.ofMinutes(2);
+
+    /** Default bound on stored games. */
+    public static final int DEFAULT_MAX_GAMES = 100_000;
+
+    /** Default bound on the estimated size of stored games (128 MB). */
+    public static final long DEFAULT_MAX_BYTES = 128L * 1024 * 1024;
+
+    // A map node and entry per game, on top of the game itself
+    private static final long ENTRY_BYTES = 88;
+
+    private final long idleTtlNanos;
+    private final long finishedTtlNanos;
+    private final int maxGames;
+    private final long maxBytes;
+    private final LongSupplier clock;
+    private final Map<String, Entry> games = new ConcurrentHashMap<>();
+    private final List<EvictionListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final Queue<Place> probationQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Place> protectedQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Place> finishedQueue = new ConcurrentLinkedQueue<>();
+    // Places in the protected queue, counting those of removed games until they are skipped
+    private int protectedCount;
+
+    public InMemoryGameStore() {
+        this(DEFAULT_IDLE_TTL, DEFAULT_FINISHED_TTL, DEFAULT_MAX_GAMES, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param idleTtl Time a game in progress is kept without being looked up
+     * @param finishedTtl Time a finished game is kept without being looked up
+     * @param maxGames Bound on stored games
+     * @param maxBytes Bound on the estimated size of stored games
+     */
+    public InMemoryGameStore(Duration idleTtl, Duration finishedTtl, int maxGames, long maxBytes) {
+        this(idleTtl, finishedTtl, maxGames, maxBytes, System::nanoTime);
+    }
+
+    InMemoryGameStore(Duration idleTtl, Duration finishedTtl, int maxGames, long maxBytes, LongSupplier clock) {
+        if (maxGames <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Game store bounds must be positive");
+        }
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.finishedTtlNanos = finishedTtl.toNanos();
+        this.maxGames = maxGames;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+    }
+
+    @Override
+    public Game get(String gameId) {
+        Entry entry = games.get(gameId);
+        if (entry == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (entry.isExpired(now)) {
+            expire(entry);
+            return null;
+        }
+        entry.lastAccess = now;
+        entry.used = true;
+        return entry.game;
+    }
+
+    @Override
+    public boolean contains(String gameId) {
+        return games.containsKey(gameId);
+    }
+
+    @Override
+    public void put(Game game) {
+        long size = estimateBytes(game);
+        long now = clock.getAsLong();
+        games.compute(game.getId(), (id, previous) -> {
+            bytes.addAndGet(previous == null ? size : size - previous.bytes);
+            return stored(game, size, now, previous);
+        });
+        if (games.size() > maxGames || bytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    @Override
+    public boolean replace(Game game) {
+        long size = estimateBytes(game);
+        long now = clock.getAsLong();
+        Entry replaced = games.computeIfPresent(game.getId(), (id, previous) -> {
+            bytes.addAndGet(size - previous.bytes);
+            return stored(game, size, now, previous);
+        });
+        if (replaced != null && bytes.get() > maxBytes) {
+            evict();
+        }
+        return replaced != null;
+    }
+
+    /**
+     * Make the entry for a game being stored, taking over the place of the entry it
+     * replaces or queueing a new one. Called while the map holds the game's key.
+     */
+    private Entry stored(Game game, long size, long now, Entry previous) {
+        Place place = previous == null ? new Place() : previous.place;
+        Entry entry = new Entry(game, size, now, place, previous != null);
+        place.entry = entry;
+        if (previous == null) {
+            probationQueue.add(place);
+        }
+        if (game.isGameOver() && !place.inFinishedQueue) {
+            place.inFinishedQueue = true;
+            finishedQueue.add(place);
+        }
+        return entry;
+    }
+
+    @Override
+    public Game remove(String gameId) {
+        Entry entry = games.remove(gameId);
+        if (entry == null) {
+            return null;
+        }
+        bytes.addAndGet(-entry.bytes);
+        return entry.game;
+    }
+
+    @Override
+    public boolean keepsGameInstances() {
+        return true;
+    }
+
+    @Override
+    public void forEach(Consumer<Game> action) {
+        games.values().forEach(entry -> action.accept(entry.game));
+    }
+
+    @Override
+    public int size() {
+        return games.size();
+    }
+
+    @Override
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        for (Entry entry : games.values()) {
+            if (entry.isExpired(now)) {
+                expire(entry);
+            }
+        }
+        evictionLock.lock();
+        try {
+            probationQueue.removeIf(place -> live(place) == null);
+            protectedQueue.removeIf(place -> live(place) == null);
+            finishedQueue.removeIf(place -> live(place) == null);
+            protectedCount = protectedQueue.size();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void expire(Entry entry) {
+        boolean over = entry.game.isGameOver();
+        if (drop(entry)) {
+            (over ? finished : expired).increment();
+            notifyListeners(entry.game, over ? EvictionCause.FINISHED : EvictionCause.EXPIRED);
+        }
+    }
+
+    /**
+     * Drop games until the store is 10% under both bounds. Only one thread evicts
+     * at a time; others carry on over the bounds meanwhile.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int targetGames = maxGames - maxGames / 10;
+            long targetBytes = maxBytes - maxBytes / 10;
+            long now = clock.getAsLong();
+            while (games.size() > targetGames || bytes.get() > targetBytes) {
+                Entry victim = nextVictim(targetGames * 4 / 5);
+                if (victim == null) {
+                    return;
+                }
+                if (victim.isExpired(now)) {
+                    expire(victim);
+                } else if (drop(victim)) {
+                    evicted.increment();
+                    notifyListeners(victim.game, EvictionCause.SIZE);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Take the next game to drop off the queues. The caller holds the eviction lock.
+     *
+     * @param maxProtected Most games kept in the protected segment
+     * @return The game's entry, or null if no game is left to drop
+     */
+    private Entry nextVictim(int maxProtected) {
+        for (Place place; (place = finishedQueue.poll()) != null; ) {
+            place.inFinishedQueue = false;
+            Entry entry = live(place);
+            if (entry != null && entry.game.isGameOver()) {
+                return entry;
+            }
+        }
+        while (protectedCount > maxProtected) {
+            Place place = protectedQueue.poll();
+            protectedCount--;
+            Entry entry = live(place);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.used) {
+                entry.used = false;
+                protectedQueue.add(place);
+                protectedCount++;
+            } else {
+                probationQueue.add(place);
+            }
+        }
+        while (true) {
+            Place place = probationQueue.poll();
+            if (place == null) {
+                place = protectedQueue.poll();
+                if (place == null) {
+                    return null;
+                }
+                protectedCount--;
+                Entry entry = live(place);
+                if (entry != null) {
+                    return entry;
+                }
+                continue;
+            }
+            Entry entry = live(place);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.used && !entry.game.isGameOver()) {
+                entry.used = false;
+                protectedQueue.add(place);
+                protectedCount++;
+            } else {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * @return The entry holding a place, or null if its game was removed since it was queued
+     */
+    private Entry live(Place place) {
+        Entry entry = place.entry;
+        return entry != null && games.get(entry.game.getId()) == entry ? entry : null;
+    }
+
+    private boolean drop(Entry entry) {
+        if (!games.remove(entry.game.getId(), entry)) {
+            return false;
+        }
+        bytes.addAndGet(-entry.bytes);
+        return true;
+    }
+
+    private void notifyListeners(Game game, EvictionCause cause) {
+        for (EvictionListener listener : listeners) {
+            try {
+                listener.gameEvicted(game, cause);
+            } catch (RuntimeException e) {
+                logger.warn("Eviction listener failed for game {}", game.getId(), e);
+            }
+        }
+    }
+
+    @Override
+    public void addEvictionListener(EvictionListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(games.size(), bytes.get(), maxGames, maxBytes, expired.sum(), finished.sum(), evicted.sum());
+    }
+
+    /**
+     * @return The estimated heap size of a game, its history and its entry
+     */
+    static long estimateBytes(Game game) {
+        return ENTRY_BYTES + game.estimatedBytes();
+    }
+
+    /**
+     * One stored game and when it was last used.
+     */
+    private final class Entry {
+        private final Game game;
+        private final long bytes;
+        private final Place place;
+        private volatile long lastAccess;
+        // Looked up or stored again since its place was last queued
+        private volatile boolean used;
+
+        Entry(Game game, long bytes, long lastAccess, Place place, boolean used) {
+            this.game = game;
+            this.bytes = bytes;
+            this.lastAccess = lastAccess;
+            this.place = place;
+            this.used = used;
+        }
+
+        boolean isExpired(long now) {
+            return now - lastAccess > (game.isGameOver() ? finishedTtlNanos : idleTtlNanos);
+        }
+    }
+
+    /**
+     * A game's place in the eviction queues, handed on to each entry that replaces the
+     * one before while the game stays stored.
+     */
+    private static final class Place {
+        private volatile Entry entry;
+        private volatile boolean inFinishedQueue;
+    }
+}
@@ -0,0 +1,690 @@
+package com.mastermind.store;
+
+import com.mastermind.model.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Games held outside the heap, as {@link Game#toRecord() records} in direct memory,
+ * so millions of games cost the garbage collector next to nothing.
+ *
+ * Memory is carved into fixed-size blocks, allocated in chunks as the store grows up
+ * to its byte bound. A game's record starts in a head block, which also holds when it
+ * was last used, and continues through a chain of overflow blocks as its history grows;
+ * freed blocks are threaded into a free list through the blocks themselves. Games are
+ * found through an open-addressed index of ID hashes to head blocks, held in two
+ * primitive arrays sized for the game bound up front, so heap use doesn't grow with the
+ * number of games. Every get decodes a new {@link Game}, and changes are only kept once
+ * it is put back; precomputed hints are not part of the record and are not kept, so
+ * games held here get no hints worked out in the background.
+ *
+ * Large stores are split by ID hash into segments, one per 1024 games up to
+ * {@value #MAX_SEGMENTS}, each with its own lock, index, chunks and free list and an
+ * equal share of both bounds, so games in different segments are looked up and stored
+ * without waiting on each other.
+ *
+ * Expiry follows {@link InMemoryGameStore}. When a put finds its segment at either bound,
+ * games are dropped until it is 10% under, each picked as the least recently used of a
+ * few sampled games, finished games before games never looked up since they were
+ * created, and those before games in play: an approximation of the heap store's
+ * segmented LRU that needs no ordering of the whole store.
+ */
+public final class OffHeapGameStore implements GameStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapGameStore.class);
+
+    /** Default block size, which fits a 4-slot game with about ten guesses in its head block. */
+    public static final int DEFAULT_BLOCK_BYTES = 128;
+
+    /** Default bound on direct memory for blocks (1 GB). */
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    /** Most segments a store is split into. */
+    public static final int MAX_SEGMENTS = 64;
+
+    private static final int GAMES_PER_SEGMENT = 1024;
+    private static final int CHUNK_BYTES = 16 * 1024 * 1024;
+    private static final int NONE = -1;
+    private static final int SAMPLES = 8;
+
+    // Head block: next block, record length, last access, state; then the start of the record
+    private static final int NEXT = 0;
+    private static final int LENGTH = 4;
+    private static final int ACCESS = 8;
+    private static final int STATE = 16;
+    private static final int HEAD_DATA = 20;
+    // Overflow block: next block, then the rest of the record
+    private static final int OVERFLOW_DATA = 4;
+
+    private static final int FINISHED = 1;
+    // Looked up since it was first stored, so evicted after games that never were
+    private static final int PROTECTED = 2;
+
+    private final long idleTtlNanos;
+    private final long finishedTtlNanos;
+    private final int maxGames;
+    private final long maxBytes;
+    private final int blockBytes;
+    private final int blocksPerChunk;
+    private final LongSupplier clock;
+
+    private final Segment[] segments;
+
+    // Held by forEach, so only one scan at a time tracks games moved behind its cursor
+    private final ReentrantLock scanLock = new ReentrantLock();
+    private final List<EvictionListener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * @param idleTtl Time a game in progress is kept without being looked up
+     * @param finishedTtl Time a finished game is kept without being looked up
+     * @param maxGames Bound on stored games, which also sizes the index
+     * @param maxBytes Bound on direct memory for blocks
+     * @param blockBytes Size of each block
+     */
+    public OffHeapGameStore(Duration idleTtl, Duration finishedTtl, int maxGames, long maxBytes, int blockBytes) {
+        this(idleTtl, finishedTtl, maxGames, maxBytes, blockBytes, System::nanoTime);
+    }
+
+    OffHeapGameStore(Duration idleTtl, Duration finishedTtl, int maxGames, long maxBytes, int blockBytes,
+                     LongSupplier clock) {
+        this(idleTtl, finishedTtl, maxGames, maxBytes, blockBytes, clock,
+                segmentsFor(maxGames, maxBytes / Math.max(1, blockBytes)));
+    }
+
+    OffHeapGameStore(Duration idleTtl, Duration finishedTtl, int maxGames, long maxBytes, int blockBytes,
+                     LongSupplier clock, int segmentCount) {
+        if (maxGames <= 0 || maxGames > 1 << 29) {
+            throw new IllegalArgumentException("Off-heap store holds 1 to " + (1 << 29) + " games, not " + maxGames);
+        }
+        if (blockBytes < 2 * HEAD_DATA || blockBytes > CHUNK_BYTES || maxBytes < (long) blockBytes * segmentCount) {
+            throw new IllegalArgumentException("Off-heap store needs blocks of at least " + 2 * HEAD_DATA
+                    + " bytes and room for one per segment");
+        }
+        if (Integer.bitCount(segmentCount) != 1 || segmentCount > MAX_SEGMENTS || segmentCount > maxGames) {
+            throw new IllegalArgumentException("Off-heap store segments must be a power of two up to "
+                    + MAX_SEGMENTS + " and at most the game bound, not " + segmentCount);
+        }
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.finishedTtlNanos = finishedTtl.toNanos();
+        this.maxGames = maxGames;
+        this.maxBytes = maxBytes;
+        this.blockBytes = blockBytes;
+        this.blocksPerChunk = CHUNK_BYTES / blockBytes;
+        this.clock = clock;
+        long maxBlocks = maxBytes / blockBytes;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((maxGames + segmentCount - 1) / segmentCount,
+                    (int) Math.min(Integer.MAX_VALUE, maxBlocks / segmentCount));
+        }
+    }
+
+    /**
+     * @return One segment per {@value #GAMES_PER_SEGMENT} games, as a power of two up to
+     *         {@value #MAX_SEGMENTS}, so small stores keep exact bounds
+     */
+    static int segmentsFor(int maxGames, long maxBlocks) {
+        long perBound = Math.min(maxGames, maxBlocks) / GAMES_PER_SEGMENT;
+        return (int) Math.max(1, Math.min(MAX_SEGMENTS, Long.highestOneBit(perBound)));
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[segmentIndex(hash)];
+    }
+
+    private int segmentIndex(long hash) {
+        // The index uses the low bits, so pick the segment with the high ones
+        return (int) (hash >>> 40) & (segments.length - 1);
+    }
+
+    /**
+     * @return The index of the segment a game is stored in
+     */
+    int segmentOf(String gameId) {
+        return segmentIndex(hash(gameId));
+    }
+
+    @Override
+    public Game get(String gameId) {
+        long hash = hash(gameId);
+        List<Game> dropped = new ArrayList<>(1);
+        byte[] record = segmentFor(hash).get(gameId, hash, clock.getAsLong(), dropped);
+        notifyExpired(dropped);
+        return record == null ? null : Game.fromRecord(ByteBuffer.wrap(record));
+    }
+
+    @Override
+    public boolean contains(String gameId) {
+        long hash = hash(gameId);
+        return segmentFor(hash).contains(gameId, hash);
+    }
+
+    @Override
+    public void put(Game game) {
+        store(game, false);
+    }
+
+    @Override
+    public boolean replace(Game game) {
+        return store(game, true);
+    }
+
+    /**
+     * Write a game's record over any stored one.
+     *
+     * @param onlyIfHeld Leave a game that is not held unstored
+     * @return true if the game was stored
+     */
+    private boolean store(Game game, boolean onlyIfHeld) {
+        byte[] record = game.toRecord();
+        long hash = hash(game.getId());
+        int state = game.isGameOver() ? FINISHED : 0;
+        Segment segment = segmentFor(hash);
+        if (segment.blocksFor(record.length) > segment.maxBlocks) {
+            throw new IllegalArgumentException("Game " + game.getId() + " does not fit in the off-heap store");
+        }
+        List<Game> expiredGames = new ArrayList<>();
+        List<Game> evictedGames = new ArrayList<>();
+        boolean stored = segment.store(game.getId(), hash, record, state, onlyIfHeld, clock.getAsLong(),
+                expiredGames, evictedGames);
+        notifyExpired(expiredGames);
+        for (Game dropped : evictedGames) {
+            notifyListeners(dropped, EvictionCause.SIZE);
+        }
+        return stored;
+    }
+
+    @Override
+    public Game remove(String gameId) {
+        long hash = hash(gameId);
+        return segmentFor(hash).remove(gameId, hash);
+    }
+
+    @Override
+    public boolean keepsGameInstances() {
+        return false;
+    }
+
+    @Override
+    public void forEach(Consumer<Game> action) {
+        scanLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.forEach(action);
+            }
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int games = 0;
+        for (Segment segment : segments) {
+            games += segment.games;
+        }
+        return games;
+    }
+
+    @Override
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        for (Segment segment : segments) {
+            List<Game> dropped = new ArrayList<>();
+            segment.evictExpired(now, dropped);
+            notifyExpired(dropped);
+        }
+    }
+
+    private boolean isExpired(ByteBuffer chunk, int offset, long now) {
+        long ttl = (chunk.getInt(offset + STATE) & FINISHED) != 0 ? finishedTtlNanos : idleTtlNanos;
+        return now - chunk.getLong(offset + ACCESS) > ttl;
+    }
+
+    private static long hash(String gameId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < gameId.length(); i++) {
+            hash = (hash ^ gameId.charAt(i)) * 0x100000001b3L;
+        }
+        // Mix the high bits into the low ones the index uses
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * The games whose ID hashes to one segment, with the index and blocks that hold them.
+     * Every field is guarded by the segment's lock, except the game count, which is
+     * volatile so the store's size can be read without it.
+     */
+    private final class Segment {
+        private final int maxGames;
+        private final int maxBlocks;
+
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private int allocatedBlocks;
+        private int usedBlocks;
+        private int freeBlock = NONE;
+
+        // Index slots: the ID hash and the head block, or NONE if the slot is empty
+        private final long[] hashes;
+        private final int[] heads;
+        private final int mask;
+        private volatile int games;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Index slot a forEach has reached, or NONE, and the IDs of games moved or added behind it
+        private int scanCursor = NONE;
+        private List<String> scanMissed;
+
+        Segment(int maxGames, int maxBlocks) {
+            this.maxGames = maxGames;
+            this.maxBlocks = maxBlocks;
+            // At most half full, so probes stay short
+            int capacity = Integer.highestOneBit(maxGames * 2 - 1) << 1;
+            this.hashes = new long[capacity];
+            this.heads = new int[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(heads, NONE);
+        }
+
+        /**
+         * @return A copy of the game's record, or null if it is not held or has expired,
+         *         in which case it is added to {@code dropped}
+         */
+        byte[] get(String gameId, long hash, long now, List<Game> dropped) {
+            lock.lock();
+            try {
+                int slot = find(gameId, hash);
+                if (slot < 0) {
+                    return null;
+                }
+                int head = heads[slot];
+                if (isExpired(chunk(head), offset(head), now)) {
+                    Game game = drop(slot);
+                    (game.isGameOver() ? finished : expired).increment();
+                    dropped.add(game);
+                    return null;
+                }
+                chunk(head).putLong(offset(head) + ACCESS, now);
+                setState(head, state(head) | PROTECTED);
+                return read(head);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean contains(String gameId, long hash) {
+            lock.lock();
+            try {
+                return find(gameId, hash) >= 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean store(String gameId, long hash, byte[] record, int state, boolean onlyIfHeld, long now,
+                      List<Game> expiredGames, List<Game> evictedGames) {
+            int needed = blocksFor(record.length);
+            lock.lock();
+            try {
+                int slot = find(gameId, hash);
+                if (slot < 0 && onlyIfHeld) {
+                    return false;
+                }
+                if (slot >= 0) {
+                    // Stored again after a lookup, so in play
+                    state |= PROTECTED;
+                    free(heads[slot]);
+                    deleteAt(slot);
+                    games--;
+                }
+                makeRoom(needed, now, expiredGames, evictedGames);
+                int head = write(record, now, state);
+                slot = ~find(gameId, hash);
+                hashes[slot] = hash;
+                heads[slot] = head;
+                games++;
+                if (slot < scanCursor) {
+                    scanMissed.add(gameId);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Game remove(String gameId, long hash) {
+            lock.lock();
+            try {
+                int slot = find(gameId, hash);
+                return slot < 0 ? null : drop(slot);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void forEach(Consumer<Game> action) {
+            // Copy the records out one index slot at a time, so the lock is never held for long
+            List<String> missed = new ArrayList<>();
+            for (int slot = 0; slot <= mask; slot++) {
+                byte[] record = null;
+                lock.lock();
+                try {
+                    scanCursor = slot;
+                    scanMissed = missed;
+                    if (heads[slot] != NONE) {
+                        record = read(heads[slot]);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (record != null) {
+                    action.accept(Game.fromRecord(ByteBuffer.wrap(record)));
+                }
+            }
+            lock.lock();
+            try {
+                scanCursor = NONE;
+                scanMissed = null;
+            } finally {
+                lock.unlock();
+            }
+            // Games that landed behind the cursor meanwhile; some may have been seen already
+            for (String gameId : missed) {
+                byte[] record = null;
+                lock.lock();
+                try {
+                    int slot = find(gameId, hash(gameId));
+                    if (slot >= 0) {
+                        record = read(heads[slot]);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (record != null) {
+                    action.accept(Game.fromRecord(ByteBuffer.wrap(record)));
+                }
+            }
+        }
+
+        void evictExpired(long now, List<Game> dropped) {
+            lock.lock();
+            try {
+                expireAll(now, dropped);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void expireAll(long now, List<Game> dropped) {
+            int slot = 0;
+            while (slot <= mask) {
+                if (heads[slot] != NONE && isExpired(chunk(heads[slot]), offset(heads[slot]), now)) {
+                    Game game = drop(slot);
+                    (game.isGameOver() ? finished : expired).increment();
+                    dropped.add(game);
+                    // Deleting shifts a later game into this slot, so look at it again
+                } else {
+                    slot++;
+                }
+            }
+        }
+
+        /**
+         * Drop games until a record of this many blocks fits with the segment 10% under
+         * both bounds. Only called when the segment is at one of them.
+         */
+        private void makeRoom(int needed, long now, List<Game> expiredGames, List<Game> evictedGames) {
+            if (games < maxGames && usedBlocks + needed <= maxBlocks) {
+                return;
+            }
+            expireAll(now, expiredGames);
+            int targetGames = maxGames - maxGames / 10;
+            int targetBlocks = maxBlocks - maxBlocks / 10;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (games > 0 && (games + 1 > targetGames || usedBlocks + needed > Math.max(targetBlocks, needed))) {
+                int victim = NONE;
+                long victimRank = Long.MAX_VALUE;
+                for (int sample = 0; sample < SAMPLES; sample++) {
+                    int slot = random.nextInt(mask + 1);
+                    while (heads[slot] == NONE) {
+                        slot = (slot + 1) & mask;
+                    }
+                    int head = heads[slot];
+                    int state = state(head);
+                    long priority = (state & FINISHED) != 0 ? 0 : (state & PROTECTED) != 0 ? 2 : 1;
+                    // Segment first, then the last access, offset so any access in the past is positive
+                    long lastAccess = chunk(head).getLong(offset(head) + ACCESS) - now + (1L << 60);
+                    long rank = (priority << 61) | Math.max(0, Math.min((1L << 61) - 1, lastAccess));
+                    if (rank < victimRank) {
+                        victimRank = rank;
+                        victim = slot;
+                    }
+                }
+                evictedGames.add(drop(victim));
+                evicted.increment();
+            }
+        }
+
+        /**
+         * Remove the game in an index slot and free its blocks.
+         *
+         * @return The game as it was stored
+         */
+        private Game drop(int slot) {
+            int head = heads[slot];
+            Game game = Game.fromRecord(ByteBuffer.wrap(read(head)));
+            free(head);
+            deleteAt(slot);
+            games--;
+            return game;
+        }
+
+        // Index
+
+        /**
+         * @return The index slot holding this game, or the complement of the empty slot
+         *         where it would go
+         */
+        private int find(String gameId, long hash) {
+            int slot = (int) hash & mask;
+            while (heads[slot] != NONE) {
+                if (hashes[slot] == hash && gameId.equals(idOf(heads[slot]))) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return ~slot;
+        }
+
+        /**
+         * Empty an index slot, shifting back later games in its probe run so lookups never
+         * stop at the gap.
+         */
+        private void deleteAt(int slot) {
+            int gap = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (heads[next] == NONE) {
+                    break;
+                }
+                int home = (int) hashes[next] & mask;
+                // Move the game back unless its home slot lies cyclically after the gap
+                boolean after = gap <= next ? gap < home && home <= next : gap < home || home <= next;
+                if (!after) {
+                    if (gap < scanCursor && next >= scanCursor) {
+                        scanMissed.add(idOf(heads[next]));
+                    }
+                    hashes[gap] = hashes[next];
+                    heads[gap] = heads[next];
+                    gap = next;
+                }
+            }
+            heads[gap] = NONE;
+        }
+
+        // Blocks
+
+        private int blocksFor(int recordBytes) {
+            int head = blockBytes - HEAD_DATA;
+            int overflow = blockBytes - OVERFLOW_DATA;
+            return recordBytes <= head ? 1 : 1 + (recordBytes - head + overflow - 1) / overflow;
+        }
+
+        private int write(byte[] record, long now, int state) {
+            int head = allocate();
+            ByteBuffer chunk = chunk(head);
+            int offset = offset(head);
+            chunk.putInt(offset + NEXT, NONE);
+            chunk.putInt(offset + LENGTH, record.length);
+            chunk.putLong(offset + ACCESS, now);
+            chunk.putInt(offset + STATE, state);
+            int written = Math.min(record.length, blockBytes - HEAD_DATA);
+            chunk.put(offset + HEAD_DATA, record, 0, written);
+            int previous = head;
+            while (written < record.length) {
+                int block = allocate();
+                chunk(previous).putInt(offset(previous) + NEXT, block);
+                int length = Math.min(record.length - written, blockBytes - OVERFLOW_DATA);
+                chunk(block).putInt(offset(block) + NEXT, NONE);
+                chunk(block).put(offset(block) + OVERFLOW_DATA, record, written, length);
+                written += length;
+                previous = block;
+            }
+            return head;
+        }
+
+        private byte[] read(int head) {
+            return read(head, chunk(head).getInt(offset(head) + LENGTH));
+        }
+
+        /**
+         * Read the first bytes of a record, following its overflow chain.
+         */
+        private byte[] read(int head, int length) {
+            byte[] record = new byte[length];
+            int read = Math.min(length, blockBytes - HEAD_DATA);
+            chunk(head).get(offset(head) + HEAD_DATA, record, 0, read);
+            int block = chunk(head).getInt(offset(head) + NEXT);
+            while (read < length) {
+                int count = Math.min(length - read, blockBytes - OVERFLOW_DATA);
+                chunk(block).get(offset(block) + OVERFLOW_DATA, record, read, count);
+                read += count;
+                block = chunk(block).getInt(offset(block) + NEXT);
+            }
+            return record;
+        }
+
+        private String idOf(int head) {
+            // The record starts with the ID's length and UTF-8 bytes
+            byte[] prefix = read(head, 2);
+            int idLength = ((prefix[0] & 0xff) << 8) | (prefix[1] & 0xff);
+            byte[] id = read(head, 2 + idLength);
+            return new String(id, 2, idLength, StandardCharsets.UTF_8);
+        }
+
+        private int allocate() {
+            int block;
+            if (freeBlock != NONE) {
+                block = freeBlock;
+                freeBlock = chunk(block).getInt(offset(block) + NEXT);
+            } else {
+                block = allocatedBlocks++;
+                if (block / blocksPerChunk == chunks.size()) {
+                    int blocks = Math.min(blocksPerChunk, maxBlocks - block);
+                    chunks.add(ByteBuffer.allocateDirect(blocks * blockBytes));
+                }
+            }
+            usedBlocks++;
+            return block;
+        }
+
+        private void free(int head) {
+            int block = head;
+            while (block != NONE) {
+                int next = chunk(block).getInt(offset(block) + NEXT);
+                chunk(block).putInt(offset(block) + NEXT, freeBlock);
+                freeBlock = block;
+                usedBlocks--;
+                block = next;
+            }
+        }
+
+        private ByteBuffer chunk(int block) {
+            return chunks.get(block / blocksPerChunk);
+        }
+
+        private int offset(int block) {
+            return (block % blocksPerChunk) * blockBytes;
+        }
+
+        private int state(int head) {
+            return chunk(head).getInt(offset(head) + STATE);
+        }
+
+        private void setState(int head, int state) {
+            chunk(head).putInt(offset(head) + STATE, state);
+        }
+
+        private long usedBytes() {
+            lock.lock();
+            try {
+                return (long) usedBlocks * blockBytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Listeners and stats
+
+    private void notifyExpired(List<Game> dropped) {
+        for (Game game : dropped) {
+            notifyListeners(game, game.isGameOver() ? EvictionCause.FINISHED : EvictionCause.EXPIRED);
+        }
+    }
+
+    private void notifyListeners(Game game, EvictionCause cause) {
+        for (EvictionListener listener : listeners) {
+            try {
+                listener.gameEvicted(game, cause);
+            } catch (RuntimeException e) {
+                logger.warn("Eviction listener failed for game {}", game.getId(), e);
+            }
+        }
+    }
+
+    @Override
+    public void addEvictionListener(EvictionListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Stats stats() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.usedBytes();
+        }
+        long maxBlockBytes = maxBytes / blockBytes / segments.length * segments.length * blockBytes;
+        return new Stats(size(), bytes, maxGames, maxBlockBytes, expired.sum(), finished.sum(), evicted.sum());
+    }
+}
@@ -1,7 +1,22 @@
 package com.mastermind.controller;
 
+import com.mastermind.dto.CandidatePageResponse;
+import com.mastermind.dto.SuggestionHeaders;
 import com.mastermind.model.Color;
+import com.mastermind.model.Game;
+import com.mastermind.model.Suggestion;
 import com.mastermind.service.GameService;
+import com.mastermind.service.PlayerSessionService;
+import com.mastermind.service.SolverAdmission;
+import com.mastermind.service.SuggestionExecutor;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SearchBudget;
+import com.mastermind.solver.SuggestionStrategy;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -9,27 +24,49 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
- * Unit tests for GameController suggestGuess endpoint.
+ * Unit tests for GameController suggestGuess and candidate endpoints.
  */
 class GameControllerSuggestTest {
 
     @Mock
     private GameService gameService;
 
+    private SuggestionExecutor suggestionExecutor;
+    private PlayerSessionService playerSessionService;
     private GameController gameController;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        gameController = new GameController(gameService);
+        suggestionExecutor = new SuggestionExecutor(1, 1, 2);
+        when(gameService.createBudget(any())).thenReturn(SearchBudget.unlimited());
+        playerSessionService = new PlayerSessionService();
+        gameController = new GameController(gameService, suggestionExecutor, new SolverAdmission(gameService),
+                playerSessionService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggestionExecutor.shutdown();
     }
 
     @Test
@@ -38,16 +75,17 @@ class GameControllerSuggestTest {
         // Arrange
         String gameId = "test-game-123";
         List<Color> suggestion = Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW);
-        when(gameService.suggestGuess(gameId)).thenReturn(suggestion);
+        when(gameService.suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class))).thenReturn(new Suggestion(suggestion, true));
 
         // Act
-        ResponseEntity<?> response = gameController.suggestGuess(gameId);
+        ResponseEntity<?> response = gameController.suggestGuess(gameId, null, null, null, null, null).join();
 
         // Assert
         assertEquals(200, response.getStatusCode().value());
         List<String> expectedColors = Arrays.asList("red", "blue", "green", "yellow");
         assertEquals(expectedColors, response.getBody());
-        verify(gameService).suggestGuess(gameId);
+        assertEquals("optimal", response.getHeaders().getFirst(SuggestionHeaders.STATUS));
+        verify(gameService).suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class));
     }
 
     @Test
@@ -55,15 +93,15 @@ class GameControllerSuggestTest {
     void testSuggestGuess_NullSuggestion() {
         // Arrange
         String gameId = "test-game-123";
-        when(gameService.suggestGuess(gameId)).thenReturn(null);
+        when(gameService.suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class))).thenReturn(null);
 
         // Act
-        ResponseEntity<?> response = gameController.suggestGuess(gameId);
+        ResponseEntity<?> response = gameController.suggestGuess(gameId, null, null, null, null, null).join();
 
         // Assert
         assertEquals(204, response.getStatusCode().value());
         // Response should be empty (No Content)
-        verify(gameService).suggestGuess(gameId);
+        verify(gameService).suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class));
     }
 
     @Test
@@ -71,14 +109,14 @@ class GameControllerSuggestTest {
     void testSuggestGuess_GameNotFound() {
         // Arrange
         String gameId = "non-existent-game";
-        when(gameService.suggestGuess(gameId)).thenThrow(new IllegalArgumentException("Game not found"));
+        when(gameService.suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class))).thenThrow(new IllegalArgumentException("Game not found"));
 
         // Act
-        ResponseEntity<?> response = gameController.suggestGuess(gameId);
+        ResponseEntity<?> response = gameController.suggestGuess(gameId, null, null, null, null, null).join();
 
         // Assert
         assertEquals(404, response.getStatusCode().value());
-        verify(gameService).suggestGuess(gameId);
+        verify(gameService).suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class));
     }
 
     @Test
@@ -86,13 +124,332 @@ class GameControllerSuggestTest {
     void testSuggestGuess_ServiceException() {
         // Arrange
         String gameId = "test-game-123";
-        when(gameService.suggestGuess(gameId)).thenThrow(new RuntimeException("Service error"));
+        when(gameService.suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class))).thenThrow(new RuntimeException("Service error"));
 
         // Act
-        ResponseEntity<?> response = gameController.suggestGuess(gameId);
+        ResponseEntity<?> response = gameController.suggestGuess(gameId, null, null, null, null, null).join();
 
         // Assert
         assertEquals(500, response.getStatusCode().value());
-        verify(gameService).suggestGuess(gameId);
+        verify(gameService).suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class));
+    }
+
+    @Test
+    @DisplayName("Suggest guess should pass the requested strategy to the service")
+    void testSuggestGuess_WithStrategy() {
+        // Arrange
+        String gameId = "test-game-123";
+        List<Color> suggestion = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE);
+        when(gameService.suggestWithin(eq(gameId), eq(SuggestionStrategy.MINIMAX), isNull(), any(SearchBudget.class))).thenReturn(new Suggestion(suggestion, true));
+
+        // Act
+        ResponseEntity<?> response = gameController.suggestGuess(gameId, "minimax", null, null, null, null).join();
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(Arrays.asList("red", "red", "blue", "blue"), response.getBody());
+        verify(gameService).suggestWithin(eq(gameId), eq(SuggestionStrategy.MINIMAX), isNull(), any(SearchBudget.class));
+    }
+
+    @Test
+    @DisplayName("Suggest guess should reject an unknown strategy")
+    void testSuggestGuess_InvalidStrategy() {
+        // Act
+        ResponseEntity<?> response = gameController.suggestGuess("test-game-123", "telepathy", null, null, null, null).join();
+
+        // Assert
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Suggest guess should pass the requested guess pool to the service")
+    void testSuggestGuess_WithPool() {
+        // Arrange
+        String gameId = "test-game-123";
+        List<Color> suggestion = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE);
+        when(gameService.suggestWithin(eq(gameId), eq(SuggestionStrategy.ENTROPY), eq(GuessPool.CONSISTENT), any(SearchBudget.class))).thenReturn(new Suggestion(suggestion, true));
+
+        // Act
+        ResponseEntity<?> response = gameController.suggestGuess(gameId, "entropy", "consistent", null, null, null).join();
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        verify(gameService).suggestWithin(eq(gameId), eq(SuggestionStrategy.ENTROPY), eq(GuessPool.CONSISTENT), any(SearchBudget.class));
+    }
+
+    @Test
+    @DisplayName("Suggest guess should reject an unknown guess pool")
+    void testSuggestGuess_InvalidPool() {
+        // Act
+        ResponseEntity<?> response = gameController.suggestGuess("test-game-123", null, "everything", null, null, null).join();
+
+        // Assert
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Suggest guess should report a suggestion cut short by the budget")
+    void testSuggestGuess_Truncated() {
+        // Arrange
+        String gameId = "test-game-123";
+        List<Color> suggestion = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE);
+        when(gameService.suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class))).thenReturn(new Suggestion(suggestion, false));
+
+        // Act
+        ResponseEntity<?> response = gameController.suggestGuess(gameId, null, null, 50L, null, null).join();
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("truncated", response.getHeaders().getFirst(SuggestionHeaders.STATUS));
+        verify(gameService).createBudget(50L);
+        verify(gameService).suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class));
+    }
+
+    @Test
+    @DisplayName("Suggest guess should reject a zero budget, which would lift the server's time limit")
+    void testSuggestGuess_ZeroBudget() {
+        // Act
+        ResponseEntity<?> response = gameController.suggestGuess("test-game-123", null, null, 0L, null, null).join();
+
+        // Assert
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Suggest guess should reject a negative budget")
+    void testSuggestGuess_InvalidBudget() {
+        // Act
+        ResponseEntity<?> response = gameController.suggestGuess("test-game-123", null, null, -1L, null, null).join();
+
+        // Assert
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Candidates should return one page of color names")
+    void testGetCandidates_Page() {
+        // Arrange
+        String gameId = "test-game-123";
+        when(gameService.getMaxCandidatePageSize()).thenReturn(1000);
+        when(gameService.getGame(gameId)).thenReturn(new Game(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW), 4));
+        when(gameService.getCandidatePage(gameId, 10, 1))
+                .thenReturn(List.of(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW)));
+
+        // Act
+        ResponseEntity<?> response = gameController.getCandidates(gameId, 10, 1);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        CandidatePageResponse page = (CandidatePageResponse) response.getBody();
+        assertEquals(10, page.getOffset());
+        assertEquals(List.of(Arrays.asList("red", "blue", "green", "yellow")), page.getCandidates());
+        assertTrue(page.isMore());
+    }
+
+    @Test
+    @DisplayName("Candidates should reject a page outside the allowed range")
+    void testGetCandidates_InvalidPage() {
+        // Arrange
+        when(gameService.getMaxCandidatePageSize()).thenReturn(1000);
+
+        // Act
+        ResponseEntity<?> negative = gameController.getCandidates("test-game-123", -1, 10);
+        ResponseEntity<?> tooLarge = gameController.getCandidates("test-game-123", 0, 1001);
+
+        // Assert
+        assertEquals(400, negative.getStatusCode().value());
+        assertEquals(400, tooLarge.getStatusCode().value());
+        verify(gameService, never()).getCandidatePage(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Get game should answer 304 to a weak or listed ETag of the current version, 200 to an old one")
+    void testGetGame_ConditionalOnVersion() {
+        // Arrange
+        Game game = new Game(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW), 4);
+        when(gameService.getGame(game.getId())).thenReturn(game);
+        int version = game.getVersion();
+        MockHttpServletRequest current = new MockHttpServletRequest("GET", "/api/games/" + game.getId());
+        current.addHeader("If-None-Match", "\"" + (version + 7) + "\", W/\"" + version + "\"");
+        MockHttpServletResponse currentResponse = new MockHttpServletResponse();
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/api/games/" + game.getId());
+        stale.addHeader("If-None-Match", "\"" + (version + 7) + "\"");
+
+        // Act
+        ResponseEntity<?> notModified = gameController.getGame(game.getId(), new ServletWebRequest(current, currentResponse));
+        ResponseEntity<?> modified = gameController.getGame(game.getId(),
+                new ServletWebRequest(stale, new MockHttpServletResponse()));
+
+        // Assert
+        assertNull(notModified);
+        assertEquals(304, currentResponse.getStatus());
+        assertEquals("\"" + version + "\"", currentResponse.getHeader("ETag"));
+        assertEquals(200, modified.getStatusCode().value());
+        assertEquals("\"" + version + "\"", modified.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("Candidate count should return 404 for an unknown game")
+    void testCountCandidates_GameNotFound() {
+        // Arrange
+        when(gameService.getGame("missing")).thenReturn(null);
+
+        // Act
+        ResponseEntity<?> response = gameController.countCandidates("missing");
+
+        // Assert
+        assertEquals(404, response.getStatusCode().value());
+        verify(gameService, never()).countCandidates(anyString());
+    }
+
+    @Test
+    @DisplayName("Suggest guess should answer 503 with Retry-After once the queue is full")
+    void testSuggestGuess_QueueFull() throws InterruptedException {
+        // Arrange: one thread busy and one request queued fill the executor
+        String gameId = "test-game-123";
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(gameService.suggestWithin(eq(gameId), isNull(), isNull(), any(SearchBudget.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new Suggestion(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW), true);
+        });
+        CompletableFuture<ResponseEntity<?>> running = gameController.suggestGuess(gameId, null, null, null, null, null);
+        started.await();
+        CompletableFuture<ResponseEntity<?>> queued = gameController.suggestGuess(gameId, null, null, null, null, null);
+
+        // Act
+        ResponseEntity<?> rejected = gameController.suggestGuess(gameId, null, null, null, null, null).join();
+        release.countDown();
+
+        // Assert
+        assertEquals(503, rejected.getStatusCode().value());
+        assertEquals("2", rejected.getHeaders().getFirst("Retry-After"));
+        assertEquals(200, running.join().getStatusCode().value());
+        assertEquals(200, queued.join().getStatusCode().value());
+        SuggestionExecutor.Stats stats = suggestionExecutor.stats();
+        assertEquals(2, stats.getSubmitted());
+        assertEquals(1, stats.getRejected());
+    }
+
+    @Test
+    @DisplayName("Suggest guess should answer 429 once the session has spent its solver time")
+    void testSuggestGuess_CpuBudgetSpent() {
+        // Arrange
+        String sessionId = playerSessionService.login("greedy").getSessionId();
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        admission.charge("session:" + sessionId, 2_000_000_000L);
+        GameController controller = new GameController(gameService, suggestionExecutor, admission, playerSessionService);
+
+        // Act
+        ResponseEntity<?> response = controller.suggestGuess("test-game-123", null, null, null, sessionId, null).join();
+
+        // Assert
+        assertEquals(429, response.getStatusCode().value());
+        assertNotNull(response.getHeaders().getFirst("Retry-After"));
+        verify(gameService, never()).suggestWithin(anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Suggest guess should keep charging the client address when the session ID is not logged in")
+    void testSuggestGuess_UnknownSessionsShareAddressBudget() {
+        // Arrange
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        admission.charge("address:10.0.0.7", 2_000_000_000L);
+        GameController controller = new GameController(gameService, suggestionExecutor, admission, playerSessionService);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+
+        // Act
+        ResponseEntity<?> first = controller.suggestGuess("test-game-123", null, null, null, "made-up-1", request).join();
+        ResponseEntity<?> rotated = controller.suggestGuess("test-game-123", null, null, null, "made-up-2", request).join();
+
+        // Assert
+        assertEquals(429, first.getStatusCode().value());
+        assertEquals(429, rotated.getStatusCode().value());
+        assertEquals(1, admission.stats().getSessions());
+        verify(gameService, never()).suggestWithin(anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Suggest guess should charge callers behind the same proxy to their own forwarded addresses")
+    void testSuggestGuess_ForwardedAddressesGetOwnBudgets() throws Exception {
+        // Arrange
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        admission.charge("address:203.0.113.5", 2_000_000_000L);
+        GameController controller = new GameController(gameService, suggestionExecutor, admission, playerSessionService);
+        when(gameService.suggestWithin(eq("test-game-123"), isNull(), isNull(), any(SearchBudget.class)))
+                .thenReturn(new Suggestion(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW), true));
+
+        // Act
+        ResponseEntity<?> greedy = controller.suggestGuess("test-game-123", null, null, null, null,
+                forwarded("169.254.129.3", "203.0.113.5")).join();
+        ResponseEntity<?> other = controller.suggestGuess("test-game-123", null, null, null, null,
+                forwarded("169.254.129.3", "198.51.100.9")).join();
+
+        // Assert
+        assertEquals(429, greedy.getStatusCode().value());
+        assertEquals(200, other.getStatusCode().value());
+        assertEquals(2, admission.stats().getSessions());
+    }
+
+    @Test
+    @DisplayName("Suggest guess should ignore forwarded addresses sent by a client that is not a trusted proxy")
+    void testSuggestGuess_UntrustedForwardedAddressIgnored() throws Exception {
+        // Arrange
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        admission.charge("address:203.0.113.5", 2_000_000_000L);
+        GameController controller = new GameController(gameService, suggestionExecutor, admission, playerSessionService);
+
+        // Act: a direct client, and one on a private network, each claiming another address
+        ResponseEntity<?> direct = controller.suggestGuess("test-game-123", null, null, null, null,
+                forwarded("203.0.113.5", "198.51.100.9")).join();
+        ResponseEntity<?> internal = controller.suggestGuess("test-game-123", null, null, null, null,
+                forwarded("10.0.0.7", "198.51.100.9")).join();
+
+        // Assert
+        assertEquals(429, direct.getStatusCode().value());
+        assertEquals(204, internal.getStatusCode().value());
+        // Charged to 203.0.113.5 and 10.0.0.7, never to the claimed 198.51.100.9
+        assertEquals(2, admission.stats().getSessions());
+    }
+
+    /**
+     * @return A request from a peer carrying an X-Forwarded-For header, as the server sees it
+     *         with server.forward-headers-strategy=native and the configured internal proxies
+     */
+    private static HttpServletRequest forwarded(String peerAddress, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(peerAddress);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        RemoteIpFilter filter = new RemoteIpFilter();
+        MockFilterConfig config = new MockFilterConfig();
+        config.addInitParameter("internalProxies", configuredInternalProxies());
+        filter.init(config);
+        AtomicReference<ServletRequest> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest filtered, ServletResponse response) {
+                seen.set(filtered);
+            }
+        });
+        return (HttpServletRequest) seen.get();
+    }
+
+    /**
+     * @return The default of server.tomcat.remoteip.internal-proxies in application.properties
+     */
+    private static String configuredInternalProxies() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = GameControllerSuggestTest.class.getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        }
+        String value = properties.getProperty("server.tomcat.remoteip.internal-proxies");
+        // ${TRUSTED_PROXIES:default}
+        return value.substring(value.indexOf(':') + 1, value.length() - 1);
     }
-}
\ No newline at end of file
+}
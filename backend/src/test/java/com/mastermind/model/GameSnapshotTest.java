@@ -0,0 +1,138 @@
+package com.mastermind.model;
+
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SuggestionStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the versioned snapshots behind Game.
+ */
+class GameSnapshotTest {
+
+    private static final List<Color> SECRET = List.of(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW);
+    private static final List<Color> GUESS = List.of(Color.RED, Color.GREEN, Color.BLACK, Color.BLACK);
+
+    @Test
+    @DisplayName("A snapshot should keep its own history and version as the game moves on")
+    void testSnapshot_UnchangedByLaterVersions() {
+        // Arrange
+        Game game = new Game("game", SECRET, 4);
+        game.addGuessAttempt(new GuessAttempt(GUESS, new Feedback(1, 1)));
+        GameSnapshot first = game.snapshot();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            game.addGuessAttempt(new GuessAttempt(GUESS, new Feedback(1, 1)));
+        }
+        GameSnapshot eleventh = game.snapshot();
+        game.addGuessAttempt(new GuessAttempt(SECRET, new Feedback(4, 0)));
+        game.restart(List.of(Color.BLACK, Color.BLACK, Color.RED, Color.RED));
+
+        // Assert
+        assertEquals(1, first.getVersion());
+        assertEquals(1, first.getHistory().size());
+        assertEquals(GUESS, first.getHistory().get(0).getGuess());
+        assertFalse(first.isGameOver());
+        assertEquals(11, eleventh.getHistory().size());
+        assertEquals(11, eleventh.getVersion());
+        assertEquals(SECRET, eleventh.getSecret());
+        assertEquals(13, game.getVersion());
+        assertEquals(0, game.getGuessCount());
+        assertFalse(game.isWon());
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.getHistory().add(new GuessAttempt(GUESS, new Feedback(1, 1))));
+    }
+
+    @Test
+    @DisplayName("Readers should always see a whole version while guesses are added")
+    void testSnapshot_ConsistentUnderConcurrentWrites() throws Exception {
+        // Arrange
+        Game game = new Game("game", SECRET, 4);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        Runnable read = () -> {
+            while (!done.get()) {
+                GameSnapshot snapshot = game.snapshot();
+                List<GuessAttempt> history = snapshot.getHistory();
+                assertEquals(snapshot.getVersion(), history.size());
+                for (GuessAttempt attempt : history) {
+                    assertEquals(GUESS, attempt.getGuess());
+                }
+            }
+        };
+
+        try {
+            List<Future<?>> tasks = List.of(readers.submit(read), readers.submit(read),
+                    readers.submit(read), readers.submit(read));
+
+            // Act
+            for (int i = 0; i < 5000; i++) {
+                game.addGuessAttempt(new GuessAttempt(GUESS, new Feedback(1, 1)));
+            }
+            done.set(true);
+
+            // Assert
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(5000, game.getHistory().size());
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("A snapshot should decode its history once, and a hint should only be served for its version")
+    void testSnapshot_HistoryDecodedOnceAndHintVersioned() {
+        // Arrange
+        Game game = new Game("game", SECRET, 4);
+        game.addGuessAttempt(new GuessAttempt(GUESS, new Feedback(1, 1)));
+        GameSnapshot snapshot = game.snapshot();
+        Suggestion hint = new Suggestion(SECRET, true);
+
+        // Act
+        boolean offered = game.offerPrecomputedHint(snapshot.getVersion(), SuggestionStrategy.MINIMAX, GuessPool.ALL, hint);
+        Suggestion before = game.getPrecomputedHint(SuggestionStrategy.MINIMAX, GuessPool.ALL);
+        Suggestion otherPool = game.getPrecomputedHint(SuggestionStrategy.MINIMAX, GuessPool.CONSISTENT);
+        game.addGuessAttempt(new GuessAttempt(GUESS, new Feedback(1, 1)));
+        boolean staleOffered = game.offerPrecomputedHint(snapshot.getVersion(), SuggestionStrategy.MINIMAX, GuessPool.ALL, hint);
+
+        // Assert
+        assertSame(snapshot.getHistory(), snapshot.getHistory());
+        assertSame(snapshot.getHistory().get(0), snapshot.getHistory().get(0));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getHistory().get(0).getGuess().set(0, Color.BLACK));
+        assertTrue(offered);
+        assertSame(hint, before);
+        assertNull(otherPool);
+        assertFalse(staleOffered);
+        assertNull(game.getPrecomputedHint(SuggestionStrategy.MINIMAX, GuessPool.ALL));
+    }
+
+    @Test
+    @DisplayName("The history shared by every reader should not be changeable through its guesses or feedback")
+    void testSnapshot_SharedHistoryIsReadOnly() {
+        // Arrange
+        Game game = new Game("game", SECRET, 4);
+        game.addGuessAttempt(new GuessAttempt(GUESS, new Feedback(1, 1)));
+        GuessAttempt attempt = game.snapshot().getHistory().get(0);
+
+        // Act & Assert
+        assertThrows(UnsupportedOperationException.class, () -> attempt.setGuess(SECRET));
+        assertThrows(UnsupportedOperationException.class, () -> attempt.setFeedback(new Feedback(4, 0)));
+        assertThrows(UnsupportedOperationException.class, () -> attempt.getFeedback().setExact(4));
+        assertThrows(UnsupportedOperationException.class, () -> attempt.getFeedback().setPartial(0));
+        assertThrows(UnsupportedOperationException.class, () -> attempt.getGuess().set(0, Color.BLACK));
+        assertEquals(new Feedback(1, 1), game.snapshot().getHistory().get(0).getFeedback());
+        assertEquals(GUESS, game.getHistory().get(0).getGuess());
+    }
+}
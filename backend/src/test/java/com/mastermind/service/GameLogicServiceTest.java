@@ -3,14 +3,22 @@ package com.mastermind.service;
 import com.mastermind.model.Color;
 import com.mastermind.model.Feedback;
 import com.mastermind.model.GuessAttempt;
+import com.mastermind.model.Suggestion;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SearchBudget;
+import com.mastermind.solver.SuggestionStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -366,4 +374,235 @@ class GameLogicServiceTest {
         assertEquals(feedback2.getPartial(), testFeedback2.getPartial(),
                     "Compatible suggestion should produce same partial matches");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Suggest guess should return a code consistent with every attempt")
+    void testSuggestGuess_ConsistentWithHistory() {
+        List<Color> secret = Arrays.asList(Color.PURPLE, Color.RED, Color.BLACK, Color.RED);
+        List<Color> guess1 = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE);
+        List<Color> guess2 = Arrays.asList(Color.PURPLE, Color.CYAN, Color.BLACK, Color.GREEN);
+        List<GuessAttempt> attempts = Arrays.asList(
+            new GuessAttempt(guess1, gameLogicService.evaluateGuess(secret, guess1)),
+            new GuessAttempt(guess2, gameLogicService.evaluateGuess(secret, guess2))
+        );
+
+        List<Color> suggestion = gameLogicService.suggestGuess(attempts, 4);
+
+        assertNotNull(suggestion);
+        for (GuessAttempt attempt : attempts) {
+            assertEquals(attempt.getFeedback(), gameLogicService.evaluateGuess(suggestion, attempt.getGuess()));
+        }
+    }
+
+    @Test
+    @DisplayName("Minimax opening should have the smallest worst-case partition")
+    void testSuggestGuess_MinimaxOpening() {
+        List<Color> suggestion = gameLogicService.suggestGuess(new ArrayList<>(), 4, SuggestionStrategy.MINIMAX);
+
+        assertNotNull(suggestion);
+        int worstCase = largestPartition(suggestion);
+        assertTrue(worstCase <= largestPartition(Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE)));
+        assertTrue(worstCase <= largestPartition(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW)));
+        assertEquals(suggestion, gameLogicService.suggestGuess(new ArrayList<>(), 4, SuggestionStrategy.MINIMAX),
+                "Minimax should be deterministic");
+    }
+
+    @Test
+    @DisplayName("Minimax suggestions should solve games within seven guesses")
+    void testSuggestGuess_MinimaxSolves() {
+        for (int game = 0; game < 20; game++) {
+            List<Color> secret = gameLogicService.generateSecret(4);
+            List<GuessAttempt> attempts = new ArrayList<>();
+            boolean solved = false;
+            while (!solved && attempts.size() < 7) {
+                List<Color> guess = gameLogicService.suggestGuess(attempts, 4, SuggestionStrategy.MINIMAX);
+                Feedback feedback = gameLogicService.evaluateGuess(secret, guess);
+                attempts.add(new GuessAttempt(guess, feedback));
+                solved = gameLogicService.isWinningGuess(feedback, 4);
+            }
+            assertTrue(solved, "Minimax should solve " + secret + " but history was " + attempts);
+        }
+    }
+
+    @Test
+    @DisplayName("Entropy and expected-size suggestions should average fewer guesses than first-consistent")
+    void testSuggestGuess_InformationStrategiesAverage() {
+        Random random = new Random(8);
+        List<Color> colors = gameLogicService.getAvailableColors();
+        List<List<Color>> secrets = new ArrayList<>();
+        for (int game = 0; game < 30; game++) {
+            List<Color> secret = new ArrayList<>();
+            for (int slot = 0; slot < 4; slot++) {
+                secret.add(colors.get(random.nextInt(colors.size())));
+            }
+            secrets.add(secret);
+        }
+
+        int first = totalGuesses(secrets, SuggestionStrategy.FIRST, GuessPool.ALL);
+        for (SuggestionStrategy strategy : Arrays.asList(SuggestionStrategy.ENTROPY, SuggestionStrategy.EXPECTED)) {
+            for (GuessPool guessPool : GuessPool.values()) {
+                int total = totalGuesses(secrets, strategy, guessPool);
+                assertTrue(total < first, strategy + "/" + guessPool + " took " + total + " guesses, first took " + first);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Opening book should answer the first two hints for its strategy only")
+    void testSuggestGuess_OpeningBook() throws Exception {
+        List<Color> secret = Arrays.asList(Color.GREEN, Color.GREEN, Color.PURPLE, Color.RED);
+        gameLogicService.installOpeningBook(gameLogicService.loadOpeningBook(4));
+
+        List<Color> opening = gameLogicService.openingBookGuess(new ArrayList<>(), 4, SuggestionStrategy.MINIMAX, GuessPool.ALL);
+        List<GuessAttempt> attempts = new ArrayList<>();
+        attempts.add(new GuessAttempt(opening, gameLogicService.evaluateGuess(secret, opening)));
+        List<Color> reply = gameLogicService.openingBookGuess(attempts, 4, SuggestionStrategy.MINIMAX, GuessPool.ALL);
+
+        assertNotNull(opening);
+        assertEquals(opening, gameLogicService.suggestGuess(new ArrayList<>(), 4, SuggestionStrategy.MINIMAX));
+        assertEquals(gameLogicService.suggestGuess(gameLogicService.buildCandidates(attempts, 4), SuggestionStrategy.MINIMAX), reply);
+        assertNull(gameLogicService.openingBookGuess(attempts, 4, SuggestionStrategy.ENTROPY, GuessPool.ALL));
+        assertNull(gameLogicService.openingBookGuess(new ArrayList<>(), 5, SuggestionStrategy.MINIMAX, GuessPool.ALL));
+    }
+
+    @Test
+    @DisplayName("Strategy tree should answer every hint of a game that follows it")
+    void testSuggest_StrategyTree() throws Exception {
+        // Arrange
+        List<Color> secret = Arrays.asList(Color.CYAN, Color.RED, Color.CYAN, Color.BLACK);
+        gameLogicService.installStrategyTree(gameLogicService.loadStrategyTree(4));
+        GameLogicService searching = new GameLogicService();
+        List<GuessAttempt> attempts = new ArrayList<>();
+
+        // Act
+        List<Color> guess;
+        do {
+            guess = gameLogicService.strategyTreeGuess(attempts, 4, SuggestionStrategy.MINIMAX, GuessPool.ALL);
+
+            // Assert
+            assertNotNull(guess);
+            assertEquals(searching.suggestGuess(attempts, 4, SuggestionStrategy.MINIMAX), guess);
+            attempts.add(new GuessAttempt(guess, gameLogicService.evaluateGuess(secret, guess)));
+        } while (!guess.equals(secret));
+        assertNull(gameLogicService.strategyTreeGuess(new ArrayList<>(), 4, SuggestionStrategy.ENTROPY, GuessPool.ALL));
+        assertNull(gameLogicService.strategyTreeGuess(new ArrayList<>(), 3, SuggestionStrategy.MINIMAX, GuessPool.ALL));
+    }
+
+    @Test
+    @DisplayName("Boards past the enumeration threshold should be solved by constraint propagation")
+    void testSuggest_ConstraintSolverOnLargeBoard() {
+        // Arrange
+        List<Color> secret = Arrays.asList(Color.BLUE, Color.BLUE, Color.GREEN, Color.RED, Color.CYAN,
+                Color.BLACK, Color.PURPLE, Color.YELLOW, Color.RED, Color.GREEN);
+        List<Color> guess = Arrays.asList(Color.RED, Color.RED, Color.RED, Color.BLUE, Color.BLUE,
+                Color.BLUE, Color.GREEN, Color.GREEN, Color.GREEN, Color.YELLOW);
+        List<GuessAttempt> attempts = new ArrayList<>();
+        attempts.add(new GuessAttempt(guess, gameLogicService.evaluateGuess(secret, guess)));
+
+        // Act
+        Suggestion first = gameLogicService.suggest(attempts, 10, SuggestionStrategy.FIRST, GuessPool.ALL,
+                SearchBudget.ofMillis(60_000));
+        Suggestion minimax = gameLogicService.suggest(attempts, 10, SuggestionStrategy.MINIMAX, GuessPool.ALL,
+                SearchBudget.ofMillis(60_000));
+
+        // Assert
+        assertTrue(gameLogicService.usesConstraintSolver(10));
+        assertFalse(gameLogicService.usesConstraintSolver(6));
+        assertTrue(first.isOptimal());
+        assertEquals(attempts.get(0).getFeedback(), gameLogicService.evaluateGuess(first.getGuess(), guess));
+        assertFalse(minimax.isOptimal());
+        assertEquals(first.getGuess(), minimax.getGuess());
+    }
+
+    @Test
+    @DisplayName("Suggestion should be optimal when the search finishes within its budget")
+    void testSuggest_Optimal() {
+        List<Color> guess = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE);
+        List<GuessAttempt> attempts = new ArrayList<>();
+        attempts.add(new GuessAttempt(guess, new Feedback(1, 1)));
+
+        Suggestion suggestion = gameLogicService.suggest(attempts, 4, SuggestionStrategy.MINIMAX, GuessPool.ALL,
+                SearchBudget.ofMillis(60_000));
+
+        assertTrue(suggestion.isOptimal());
+        assertEquals(gameLogicService.suggestGuess(attempts, 4, SuggestionStrategy.MINIMAX), suggestion.getGuess());
+    }
+
+    @Test
+    @DisplayName("Suggestion should still return a guess when the budget runs out")
+    void testSuggest_TruncatedOnLargeBoard() throws InterruptedException {
+        List<Color> secret = Arrays.asList(Color.BLUE, Color.BLUE, Color.GREEN, Color.RED,
+                Color.CYAN, Color.BLACK, Color.PURPLE, Color.YELLOW, Color.RED);
+        List<Color> guess = Arrays.asList(Color.RED, Color.RED, Color.RED, Color.BLUE,
+                Color.BLUE, Color.BLUE, Color.GREEN, Color.GREEN, Color.GREEN);
+        List<GuessAttempt> attempts = new ArrayList<>();
+        attempts.add(new GuessAttempt(guess, gameLogicService.evaluateGuess(secret, guess)));
+        SearchBudget budget = SearchBudget.ofMillis(1);
+        Thread.sleep(5);
+
+        Suggestion suggestion = gameLogicService.suggest(attempts, 9, SuggestionStrategy.FIRST, GuessPool.ALL, budget);
+
+        assertNotNull(suggestion);
+        assertFalse(suggestion.isOptimal());
+        assertEquals(9, suggestion.getGuess().size());
+        assertTrue(gameLogicService.isValidGuess(suggestion.getGuess(), 9));
+    }
+
+    @Test
+    @DisplayName("Opening move on six slots should be searched, one guess per symmetry class")
+    void testSuggest_OpeningSearchedBySymmetry() {
+        // Act
+        Suggestion first = gameLogicService.suggest(new ArrayList<>(), 6, SuggestionStrategy.MINIMAX,
+                GuessPool.ALL, SearchBudget.unlimited());
+        Suggestion second = gameLogicService.suggest(new ArrayList<>(), 6, SuggestionStrategy.MINIMAX,
+                GuessPool.ALL, SearchBudget.unlimited());
+
+        // Assert
+        assertTrue(first.isOptimal());
+        assertEquals(first, second);
+        // The lowest code of its class starts with red and uses colors in palette order
+        assertEquals(Color.RED, first.getGuess().get(0));
+    }
+
+    /**
+     * Play each secret to the end from a fixed opening and count the guesses, failing on any game over eight.
+     */
+    private int totalGuesses(List<List<Color>> secrets, SuggestionStrategy strategy, GuessPool guessPool) {
+        List<Color> opening = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.GREEN);
+        int total = 0;
+        for (List<Color> secret : secrets) {
+            List<GuessAttempt> attempts = new ArrayList<>();
+            List<Color> guess = opening;
+            while (true) {
+                Feedback feedback = gameLogicService.evaluateGuess(secret, guess);
+                attempts.add(new GuessAttempt(guess, feedback));
+                if (gameLogicService.isWinningGuess(feedback, 4)) {
+                    break;
+                }
+                assertTrue(attempts.size() < 8, strategy + " did not solve " + secret);
+                guess = gameLogicService.suggestGuess(attempts, 4, strategy, guessPool);
+            }
+            total += attempts.size();
+        }
+        return total;
+    }
+
+    /**
+     * Size of the largest group of 4-slot secrets that give the same feedback to a guess.
+     */
+    private int largestPartition(List<Color> guess) {
+        Map<Feedback, Integer> partitions = new HashMap<>();
+        List<Color> colors = gameLogicService.getAvailableColors();
+        for (Color a : colors) {
+            for (Color b : colors) {
+                for (Color c : colors) {
+                    for (Color d : colors) {
+                        Feedback feedback = gameLogicService.evaluateGuess(Arrays.asList(a, b, c, d), guess);
+                        partitions.merge(feedback, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        return partitions.values().stream().max(Integer::compare).orElse(0);
+    }
+}
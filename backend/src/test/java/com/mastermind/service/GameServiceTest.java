@@ -4,6 +4,12 @@ import com.mastermind.model.Color;
 import com.mastermind.model.Feedback;
 import com.mastermind.model.Game;
 import com.mastermind.model.GuessAttempt;
+import com.mastermind.model.Suggestion;
+import com.mastermind.solver.CodeSpace;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SearchBudget;
+import com.mastermind.solver.SuggestionStrategy;
+import com.mastermind.store.OffHeapGameStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -11,8 +17,19 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -147,8 +164,8 @@ class GameServiceTest {
         when(gameLogicService.generateSecret(anyInt())).thenReturn(TEST_SECRET);
         Game game = gameService.createGame();
         
-        // Manually set game as over using reflection
-        ReflectionTestUtils.setField(game, "gameOver", true);
+        // Manually set game as over
+        game.setGameOver(true);
 
         // Act & Assert
         assertThrows(IllegalStateException.class, 
@@ -336,4 +353,390 @@ class GameServiceTest {
         assertEquals(guess1, updatedGame.getHistory().get(0).getGuess());
         assertEquals(guess2, updatedGame.getHistory().get(1).getGuess());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Games longer than one packed code should keep their secret and history")
+    void testSubmitGuess_LongBoardRoundTrips() {
+        // Arrange
+        GameLogicService realLogic = new GameLogicService();
+        GameService service = new GameService(realLogic);
+        List<Color> secret = realLogic.generateSecret(23);
+        Game game = service.createGameWithSecret(23, secret);
+        List<Color> guess = realLogic.generateSecret(23);
+
+        // Act
+        service.submitGuess(game.getId(), guess);
+        Game updatedGame = service.submitGuess(game.getId(), secret);
+
+        // Assert
+        assertEquals(secret, updatedGame.getSecret());
+        assertEquals(CodeSpace.UNPACKED, updatedGame.getPackedSecret());
+        assertEquals(2, updatedGame.getGuessCount());
+        assertEquals(guess, updatedGame.getHistory().get(0).getGuess());
+        assertEquals(realLogic.evaluateGuess(secret, guess), updatedGame.getHistory().get(0).getFeedback());
+        assertEquals(new Feedback(23, 0), updatedGame.getHistory().get(1).getFeedback());
+        assertTrue(updatedGame.isWon());
+    }
+
+    @Test
+    @DisplayName("Games kept off the heap should keep every guess and reset through the service")
+    void testSubmitGuess_OffHeapStore() {
+        // Arrange
+        GameLogicService realLogic = new GameLogicService();
+        GameService service = new GameService(realLogic, new SecretSupply(),
+                new OffHeapGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2), 100, 1 << 20, 128));
+        Game game = service.createGameWithSecret(4, TEST_SECRET);
+
+        // Act
+        service.submitGuess(game.getId(), TEST_GUESS);
+        assertNotNull(service.suggestGuess(game.getId()));
+        service.submitGuess(game.getId(), TEST_SECRET);
+        Game finished = service.getGame(game.getId());
+        Game reset = service.resetGame(game.getId());
+
+        // Assert
+        assertEquals(2, finished.getGuessCount());
+        assertTrue(finished.isWon());
+        assertEquals(SuggestionStrategy.FIRST, finished.getHintStrategy());
+        assertEquals(0, service.getGame(game.getId()).getGuessCount());
+        assertFalse(service.getGame(game.getId()).isGameOver());
+        assertEquals(reset.getSecret(), service.getGame(game.getId()).getSecret());
+    }
+
+    @Test
+    @DisplayName("A candidate set built while guesses land on an off-heap game should not outlive its version")
+    void testSuggestWithin_CandidatesRaceGuessesOffHeap() throws Exception {
+        // Arrange
+        GameLogicService realLogic = new GameLogicService();
+        GameService service = new GameService(realLogic, new SecretSupply(),
+                new OffHeapGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2), 100, 1 << 20, 128));
+        // Too large for the shared cache, so hints build the game's own candidate set
+        List<Color> secret = Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW,
+                Color.PURPLE, Color.CYAN, Color.BLACK);
+        Game game = service.createGameWithSecret(7, secret);
+        service.submitGuess(game.getId(), Collections.nCopies(7, Color.RED));
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> hints = executor.submit(() -> {
+                while (!done.get()) {
+                    service.suggestWithin(game.getId(), SuggestionStrategy.FIRST, GuessPool.ALL, SearchBudget.unlimited());
+                }
+                return null;
+            });
+
+            // Act
+            Random random = new Random(7);
+            for (int i = 0; i < 12; i++) {
+                List<Color> guess = new ArrayList<>();
+                for (int slot = 0; slot < 7; slot++) {
+                    guess.add(Color.values()[random.nextInt(Color.values().length)]);
+                }
+                if (!guess.equals(secret)) {
+                    service.submitGuess(game.getId(), guess);
+                }
+                Thread.sleep(5);
+            }
+            done.set(true);
+            hints.get(30, TimeUnit.SECONDS);
+
+            // Assert
+            Game played = service.getGame(game.getId());
+            assertEquals(realLogic.countCandidates(played.getHistory(), 7), service.countCandidates(game.getId()));
+            List<Color> hint = service.suggestWithin(game.getId(), SuggestionStrategy.FIRST, GuessPool.ALL,
+                    SearchBudget.unlimited()).getGuess();
+            for (GuessAttempt attempt : played.getHistory()) {
+                assertEquals(attempt.getFeedback(), realLogic.evaluateGuess(hint, attempt.getGuess()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent guesses on one game should all be kept, and only one winning guess accepted")
+    void testSubmitGuess_ConcurrentGuessesAreNotLost() throws Exception {
+        // Arrange
+        GameLogicService realLogic = new GameLogicService();
+        GameService heapService = new GameService(realLogic);
+        GameService offHeapService = new GameService(realLogic, new SecretSupply(),
+                new OffHeapGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2), 100, 1 << 20, 128));
+        int threads = 16;
+        int guessesPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (GameService service : List.of(heapService, offHeapService)) {
+                Game game = service.createGameWithSecret(4, TEST_SECRET);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger wins = new AtomicInteger();
+                AtomicInteger rejected = new AtomicInteger();
+                List<Future<?>> tasks = new ArrayList<>();
+
+                // Act
+                for (int t = 0; t < threads; t++) {
+                    tasks.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < guessesPerThread; i++) {
+                            service.submitGuess(game.getId(), TEST_GUESS);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> task : tasks) {
+                    task.get(30, TimeUnit.SECONDS);
+                }
+                tasks.clear();
+                CountDownLatch finish = new CountDownLatch(1);
+                for (int t = 0; t < threads; t++) {
+                    tasks.add(executor.submit(() -> {
+                        finish.await();
+                        try {
+                            service.submitGuess(game.getId(), TEST_SECRET);
+                            wins.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            rejected.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                finish.countDown();
+                for (Future<?> task : tasks) {
+                    task.get(30, TimeUnit.SECONDS);
+                }
+
+                // Assert
+                Game played = service.getGame(game.getId());
+                assertEquals(threads * guessesPerThread + 1, played.getGuessCount());
+                assertEquals(threads * guessesPerThread + 1, played.getVersion());
+                assertEquals(1, wins.get());
+                assertEquals(threads - 1, rejected.get());
+                assertTrue(played.isWon());
+                assertEquals(TEST_SECRET, played.getHistory().get(played.getGuessCount() - 1).getGuess());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Client budgets should be capped at the server limit, and a zero budget refused")
+    void testCreateBudget_CappedAtServerLimit() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(gameService, "defaultMaxMillis", 5L);
+
+        // Act
+        SearchBudget generous = gameService.createBudget(60_000L);
+        Thread.sleep(20);
+
+        // Assert
+        assertTrue(generous.isExhausted());
+        assertThrows(IllegalArgumentException.class, () -> gameService.createBudget(0L));
+        assertThrows(IllegalArgumentException.class, () -> gameService.createBudget(-1L));
+    }
+
+    @Test
+    @DisplayName("Candidate count should narrow on each guess after the first hint")
+    void testCountCandidates_NarrowsIncrementally() {
+        // Arrange
+        GameLogicService realLogic = new GameLogicService();
+        GameService service = new GameService(realLogic);
+        Game game = service.createGameWithSecret(4, TEST_SECRET);
+        List<Color> guess1 = Arrays.asList(Color.RED, Color.RED, Color.PURPLE, Color.PURPLE);
+        List<Color> guess2 = Arrays.asList(Color.BLUE, Color.CYAN, Color.GREEN, Color.BLACK);
+
+        // Act
+        assertEquals(2401, service.countCandidates(game.getId()));
+        service.submitGuess(game.getId(), guess1);
+        assertNotNull(service.suggestGuess(game.getId()));
+        int afterFirstGuess = service.countCandidates(game.getId());
+        service.submitGuess(game.getId(), guess2);
+        int afterSecondGuess = service.countCandidates(game.getId());
+
+        // Assert
+        assertTrue(afterSecondGuess < afterFirstGuess);
+        assertEquals(countConsistent(realLogic, game), afterSecondGuess);
+    }
+
+    @Test
+    @DisplayName("Reset game should discard the candidate set")
+    void testResetGame_ClearsCandidates() {
+        // Arrange
+        GameService service = new GameService(new GameLogicService());
+        Game game = service.createGameWithSecret(4, TEST_SECRET);
+        service.submitGuess(game.getId(), TEST_GUESS);
+        service.suggestGuess(game.getId());
+
+        // Act
+        service.resetGame(game.getId());
+
+        // Assert
+        assertEquals(2401, service.countCandidates(game.getId()));
+    }
+
+    @Test
+    @DisplayName("Games with the same history should share cached suggestions")
+    void testSuggestGuess_SharedAcrossGames() {
+        // Arrange
+        GameService service = new GameService(new GameLogicService());
+        Game first = service.createGameWithSecret(4, TEST_SECRET);
+        Game second = service.createGameWithSecret(4, TEST_SECRET);
+        List<Color> guess1 = Arrays.asList(Color.RED, Color.GREEN, Color.GREEN, Color.BLACK);
+        List<Color> guess2 = Arrays.asList(Color.YELLOW, Color.YELLOW, Color.PURPLE, Color.BLACK);
+        for (Game game : Arrays.asList(first, second)) {
+            service.submitGuess(game.getId(), guess1);
+            service.submitGuess(game.getId(), guess2);
+        }
+
+        // Act
+        List<Color> firstSuggestion = service.suggestGuess(first.getId());
+        List<Color> secondSuggestion = service.suggestGuess(second.getId());
+
+        // Assert
+        assertEquals(firstSuggestion, secondSuggestion);
+        assertEquals(1, service.getSuggestionCacheStats().getHits());
+        assertEquals(1, service.getSuggestionCacheStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("Estimating a suggestion should only look up candidate sets, never build them")
+    void testEstimateEvaluations_BuildsNothing() {
+        // Arrange
+        GameService service = new GameService(new GameLogicService());
+        Game game = service.createGameWithSecret(4, TEST_SECRET);
+        service.submitGuess(game.getId(), TEST_GUESS);
+
+        // Act
+        long guessed = service.estimateEvaluations(game.getId(), SuggestionStrategy.MINIMAX, GuessPool.ALL);
+        long entriesBefore = service.getSuggestionCacheStats().getEntries();
+        service.suggestGuess(game.getId());
+        long known = service.estimateEvaluations(game.getId(), SuggestionStrategy.MINIMAX, GuessPool.ALL);
+
+        // Assert
+        assertEquals(0, entriesBefore);
+        assertTrue(guessed > 0);
+        assertTrue(known > 0);
+        assertEquals(1, service.getSuggestionCacheStats().getEntries());
+    }
+
+    @Test
+    @DisplayName("Candidate pages should walk the consistent codes in palette order")
+    void testGetCandidatePage_CoversCount() {
+        // Arrange
+        GameService service = new GameService(new GameLogicService());
+        Game game = service.createGameWithSecret(4, TEST_SECRET);
+        service.submitGuess(game.getId(), TEST_GUESS);
+        int count = service.countCandidates(game.getId());
+
+        // Act
+        List<List<Color>> all = new ArrayList<>();
+        for (long offset = 0; offset <= count; offset += 50) {
+            all.addAll(service.getCandidatePage(game.getId(), offset, 50));
+        }
+
+        // Assert
+        assertEquals(countConsistent(new GameLogicService(), game), count);
+        assertEquals(count, all.size());
+        assertTrue(all.contains(TEST_SECRET));
+        CodeSpace space = CodeSpace.of(4);
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(space.encode(all.get(i - 1)) < space.encode(all.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Candidates on a board too large for masks should be streamed page by page")
+    void testGetCandidatePage_LargeBoard() {
+        // Arrange
+        GameLogicService realLogic = new GameLogicService();
+        GameService service = new GameService(realLogic);
+        List<Color> secret = Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW,
+                Color.PURPLE, Color.CYAN, Color.BLACK);
+        Game game = service.createGameWithSecret(7, secret);
+        service.submitGuess(game.getId(), Arrays.asList(Color.RED, Color.RED, Color.RED, Color.BLUE,
+                Color.BLUE, Color.GREEN, Color.GREEN));
+
+        // Act
+        List<List<Color>> first = service.getCandidatePage(game.getId(), 0, 5);
+        List<List<Color>> second = service.getCandidatePage(game.getId(), 3, 5);
+
+        // Assert
+        assertEquals(5, first.size());
+        assertEquals(first.subList(3, 5), second.subList(0, 2));
+        for (List<Color> code : first) {
+            assertEquals(game.getHistory().get(0).getFeedback(),
+                    realLogic.evaluateGuess(code, game.getHistory().get(0).getGuess()));
+        }
+        assertTrue(service.countCandidates(game.getId()) > 5);
+    }
+
+    @Test
+    @DisplayName("Next hint should be worked out in the background once a game has used hints")
+    void testSubmitGuess_SpeculatesNextHint() throws InterruptedException {
+        // Arrange
+        GameService service = new GameService(new GameLogicService());
+        ReflectionTestUtils.setField(service, "speculativeMaxLoad", 0.0);
+        Game game = service.createGameWithSecret(4, TEST_SECRET);
+        List<Color> guess1 = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE);
+        List<Color> guess2 = Arrays.asList(Color.GREEN, Color.YELLOW, Color.PURPLE, Color.PURPLE);
+        service.submitGuess(game.getId(), guess1);
+        assertEquals(0, service.getSpeculativeHintStats().getStarted());
+        service.suggestGuess(game.getId(), SuggestionStrategy.MINIMAX, GuessPool.ALL);
+
+        // Act
+        service.submitGuess(game.getId(), guess2);
+        for (int i = 0; i < 500 && service.getSpeculativeHintStats().getStored() == 0; i++) {
+            Thread.sleep(10);
+        }
+        List<Color> hint = service.suggestGuess(game.getId(), SuggestionStrategy.MINIMAX, GuessPool.ALL);
+
+        // Assert
+        assertEquals(1, service.getSpeculativeHintStats().getStored());
+        assertEquals(1, service.getSpeculativeHintStats().getServed());
+        assertEquals(new GameLogicService().suggestGuess(game.getHistory(), 4, SuggestionStrategy.MINIMAX), hint);
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("A hint worked out for an earlier history should not be served after reset")
+    void testResetGame_DiscardsPrecomputedHint() {
+        // Arrange
+        when(gameLogicService.generateSecret(anyInt())).thenReturn(TEST_SECRET);
+        Game game = gameService.createGame();
+        int version = game.getVersion();
+        Suggestion stale = new Suggestion(TEST_GUESS, true);
+
+        // Act
+        gameService.resetGame(game.getId());
+        boolean kept = game.offerPrecomputedHint(version, SuggestionStrategy.MINIMAX, GuessPool.ALL, stale);
+
+        // Assert
+        assertFalse(kept);
+        assertNull(game.getPrecomputedHint(SuggestionStrategy.MINIMAX, GuessPool.ALL));
+    }
+
+    /**
+     * Count 4-slot codes consistent with a game's history by brute force.
+     */
+    private int countConsistent(GameLogicService logic, Game game) {
+        List<Color> colors = logic.getAvailableColors();
+        int count = 0;
+        for (Color a : colors) {
+            for (Color b : colors) {
+                for (Color c : colors) {
+                    for (Color d : colors) {
+                        List<Color> code = Arrays.asList(a, b, c, d);
+                        boolean consistent = game.getHistory().stream().allMatch(attempt ->
+                                logic.evaluateGuess(code, attempt.getGuess()).equals(attempt.getFeedback()));
+                        if (consistent) {
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+package com.mastermind.service;
+
+import com.mastermind.model.Color;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SecretSupply pooling and refills.
+ */
+class SecretSupplyTest {
+
+    private final SecretSupply supply = new SecretSupply(new int[]{4}, 64, 16);
+
+    @AfterEach
+    void tearDown() {
+        supply.shutdown();
+    }
+
+    @Test
+    @DisplayName("Secrets should come from the pool once the refill thread has filled it")
+    void testNextSecret_ServedFromPool() throws InterruptedException {
+        // Arrange
+        supply.nextSecret(4);
+        SecretSupply.Stats stats = awaitDepth("secrets-4", 64);
+
+        // Act
+        List<Color> secret = supply.nextSecret(4);
+
+        // Assert
+        assertEquals(4, secret.size());
+        stats = find("secrets-4");
+        assertEquals(1, stats.getMissed());
+        assertEquals(1, stats.getServed());
+        assertEquals(63, stats.getDepth());
+        assertEquals(64, stats.getRefilled());
+        assertTrue(stats.getRefillRatePerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Board sizes without a pool should still get a secret of the right size")
+    void testNextSecret_UnpooledSize() {
+        // Act
+        List<Color> secret = supply.nextSecret(6);
+
+        // Assert
+        assertEquals(6, secret.size());
+        assertTrue(supply.stats().stream().noneMatch(stats -> stats.getPool().equals("secrets-6")));
+        assertThrows(IllegalArgumentException.class, () -> supply.nextSecret(0));
+    }
+
+    @Test
+    @DisplayName("IDs should be unique version 4 UUIDs")
+    void testNextId_UniqueRandomUuids() {
+        // Arrange
+        Set<String> ids = new HashSet<>();
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            ids.add(supply.nextId());
+        }
+
+        // Assert
+        assertEquals(500, ids.size());
+        for (String id : ids) {
+            UUID uuid = UUID.fromString(id);
+            assertEquals(4, uuid.version());
+            assertEquals(2, uuid.variant());
+        }
+    }
+
+    private SecretSupply.Stats awaitDepth(String pool, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        SecretSupply.Stats stats = find(pool);
+        while (stats.getDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stats = find(pool);
+        }
+        assertEquals(depth, stats.getDepth());
+        return stats;
+    }
+
+    private SecretSupply.Stats find(String pool) {
+        return supply.stats().stream()
+                .filter(stats -> stats.getPool().equals(pool))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.mastermind.service;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Game;
+import com.mastermind.model.Suggestion;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SearchBudget;
+import com.mastermind.solver.SuggestionStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SolverAdmission.
+ */
+class SolverAdmissionTest {
+
+    private static final String ACCOUNT = "session:test";
+    private static final String GAME_ID = "test-game-123";
+
+    @Mock
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(gameService.getDefaultStrategy()).thenReturn(SuggestionStrategy.MINIMAX);
+        when(gameService.getDefaultPool()).thenReturn(GuessPool.ALL);
+    }
+
+    @Test
+    @DisplayName("Requests within the session budget should be admitted as asked")
+    void testAdmit_WithinBudget() {
+        // Arrange: 1 CPU second per minute, 1 ns per evaluation
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        when(gameService.estimateEvaluations(GAME_ID, SuggestionStrategy.ENTROPY, GuessPool.ALL)).thenReturn(1_000_000L);
+
+        // Act
+        SolverAdmission.Admission result = admission.admit(ACCOUNT, GAME_ID, SuggestionStrategy.ENTROPY, null);
+
+        // Assert
+        assertEquals(SolverAdmission.Decision.ADMITTED, result.getDecision());
+        assertEquals(SuggestionStrategy.ENTROPY, result.getStrategy());
+        assertEquals(GuessPool.ALL, result.getGuessPool());
+    }
+
+    @Test
+    @DisplayName("Requests estimated above the remaining budget should be downgraded")
+    void testAdmit_Downgrades() {
+        // Arrange
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        when(gameService.estimateEvaluations(GAME_ID, SuggestionStrategy.MINIMAX, GuessPool.ALL)).thenReturn(5_000_000_000L);
+        when(gameService.estimateEvaluations(GAME_ID, SuggestionStrategy.MINIMAX, GuessPool.CONSISTENT)).thenReturn(1_000_000L);
+
+        // Act
+        SolverAdmission.Admission consistent = admission.admit(ACCOUNT, GAME_ID, null, null);
+        when(gameService.estimateEvaluations(GAME_ID, SuggestionStrategy.MINIMAX, GuessPool.CONSISTENT)).thenReturn(5_000_000_000L);
+        SolverAdmission.Admission first = admission.admit(ACCOUNT, GAME_ID, null, null);
+
+        // Assert
+        assertEquals(SolverAdmission.Decision.DOWNGRADED, consistent.getDecision());
+        assertEquals(SuggestionStrategy.MINIMAX, consistent.getStrategy());
+        assertEquals(GuessPool.CONSISTENT, consistent.getGuessPool());
+        assertEquals(SuggestionStrategy.FIRST, first.getStrategy());
+        assertEquals(2, admission.stats().getDowngraded());
+    }
+
+    @Test
+    @DisplayName("A session that has spent its CPU budget should be rejected with a retry delay")
+    void testAdmit_RejectsSpentSession() {
+        // Arrange
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        admission.charge(ACCOUNT, 3_000_000_000L);
+
+        // Act
+        SolverAdmission.Admission result = admission.admit(ACCOUNT, GAME_ID, null, null);
+        SolverAdmission.Admission other = admission.admit("session:other", GAME_ID, null, null);
+
+        // Assert
+        assertTrue(result.isRejected());
+        // 2 s of CPU overdrawn at 1/60 s per second takes about two minutes to repay
+        assertTrue(result.getRetryAfterSeconds() >= 119 && result.getRetryAfterSeconds() <= 120);
+        assertFalse(other.isRejected());
+        assertEquals(1, admission.stats().getRejected());
+    }
+
+    @Test
+    @DisplayName("Admitting a request should reserve its expected cost, so concurrent requests can't overdraw")
+    void testAdmit_ReservesExpectedCost() {
+        // Arrange: 1 CPU second per minute, requests estimated at 0.6 s each, a 0.5 s time budget
+        SolverAdmission admission = new SolverAdmission(gameService, 1, 1);
+        when(gameService.estimateEvaluations(GAME_ID, SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT)).thenReturn(600_000_000L);
+        when(gameService.budgetMillis(null)).thenReturn(0L);
+        when(gameService.budgetMillis(500L)).thenReturn(500L);
+        when(gameService.estimateEvaluations(GAME_ID, SuggestionStrategy.EXPECTED, GuessPool.CONSISTENT)).thenReturn(450_000_000L);
+
+        // Act
+        SolverAdmission.Admission first = admission.admit(ACCOUNT, GAME_ID, SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT);
+        SolverAdmission.Admission second = admission.admit(ACCOUNT, GAME_ID, SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT);
+        admission.release(first);
+        SolverAdmission.Admission capped = admission.admit(ACCOUNT, GAME_ID, SuggestionStrategy.ENTROPY,
+                GuessPool.CONSISTENT, 500L);
+        SolverAdmission.Admission afterCapped = admission.admit(ACCOUNT, GAME_ID, SuggestionStrategy.EXPECTED,
+                GuessPool.CONSISTENT, 500L);
+
+        // Assert
+        assertEquals(SolverAdmission.Decision.ADMITTED, first.getDecision());
+        assertEquals(SuggestionStrategy.FIRST, second.getStrategy());
+        assertEquals(SolverAdmission.Decision.ADMITTED, capped.getDecision());
+        // Only the 0.5 s budget was reserved for the capped one, leaving 0.5 s for this 0.45 s one
+        assertEquals(SolverAdmission.Decision.ADMITTED, afterCapped.getDecision());
+    }
+
+    @Test
+    @DisplayName("Running a suggestion should charge its CPU time to the session")
+    void testSuggest_ChargesCpu() {
+        // Arrange
+        GameService realService = new GameService(new GameLogicService());
+        Game game = realService.createGameWithSecret(5, Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW, Color.CYAN));
+        realService.submitGuess(game.getId(), Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE, Color.GREEN));
+        SolverAdmission admission = new SolverAdmission(realService, 30, 5);
+
+        // Act
+        SolverAdmission.Admission admitted = admission.admit(ACCOUNT, game.getId(), SuggestionStrategy.MINIMAX, GuessPool.ALL);
+        Suggestion suggestion = admission.suggest(admitted, game.getId(), null);
+
+        // Assert
+        assertEquals(SolverAdmission.Decision.ADMITTED, admitted.getDecision());
+        assertTrue(admitted.getEstimatedEvaluations() > 0);
+        assertNotNull(suggestion);
+        assertTrue(admission.stats().getChargedCpuMillis() > 0);
+        assertEquals(1, admission.stats().getSessions());
+    }
+}
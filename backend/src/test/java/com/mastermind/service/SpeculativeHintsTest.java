@@ -0,0 +1,72 @@
+package com.mastermind.service;
+
+import com.mastermind.solver.SearchBudget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SpeculativeHints cancellation and concurrency limits.
+ */
+class SpeculativeHintsTest {
+
+    private final SpeculativeHints hints = new SpeculativeHints(1, 0);
+
+    @AfterEach
+    void tearDown() {
+        hints.shutdown();
+    }
+
+    @Test
+    @DisplayName("Starting a task for a game should cancel the one still running for it")
+    void testStart_CancelsPreviousTask() throws InterruptedException {
+        // Arrange
+        SearchBudget first = SearchBudget.unlimited();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        hints.start("game", first, () -> {
+            running.countDown();
+            while (!first.isExhausted()) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // Act
+        hints.cancel("game");
+
+        // Assert
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertTrue(first.isTruncated());
+        assertEquals(1, hints.stats().getCancelled());
+    }
+
+    @Test
+    @DisplayName("Tasks beyond the thread limit should be skipped rather than queued")
+    void testStart_SkipsWhenBusy() throws InterruptedException {
+        // Arrange
+        SearchBudget budget = SearchBudget.unlimited();
+        CountDownLatch running = new CountDownLatch(1);
+        hints.start("first", budget, () -> {
+            running.countDown();
+            while (!budget.isExhausted()) {
+                Thread.onSpinWait();
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // Act
+        boolean started = hints.start("second", SearchBudget.unlimited(), () -> { });
+
+        // Assert
+        assertFalse(started);
+        assertEquals(1, hints.stats().getSkippedBusy());
+        assertEquals(1, hints.stats().getRunning());
+    }
+}
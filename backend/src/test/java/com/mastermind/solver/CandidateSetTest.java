@@ -0,0 +1,97 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.service.GameLogicService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bitmap/array CandidateSet.
+ */
+class CandidateSetTest {
+
+    private final GameLogicService gameLogicService = new GameLogicService();
+
+    @Test
+    @DisplayName("Full set should contain every code")
+    void testAll() {
+        CodeSpace space = CodeSpace.of(3);
+        CandidateSet all = CandidateSet.all(space);
+
+        assertEquals(343, all.size());
+        assertTrue(all.isDense());
+        assertEquals(0, all.first());
+        assertTrue(all.contains(342));
+        assertFalse(all.contains(343));
+        assertEquals(343, all.toArray().length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 5, 7})
+    @DisplayName("Incremental filtering should match a brute-force scan of the history")
+    void testFilter_MatchesConsistentCodes(int slotCount) {
+        CodeSpace space = CodeSpace.of(slotCount);
+        Random random = new Random(slotCount);
+        List<Color> secret = space.decode(random.nextInt(space.size()));
+        List<GuessAttempt> attempts = new ArrayList<>();
+        CandidateSet set = CandidateSet.all(space);
+
+        for (int i = 0; i < 4; i++) {
+            List<Color> guess = space.decode(random.nextInt(space.size()));
+            GuessAttempt attempt = new GuessAttempt(guess, gameLogicService.evaluateGuess(secret, guess));
+            attempts.add(attempt);
+            set = set.filter(attempt.getPackedGuess(), attempt.getPackedFeedback());
+
+            int[] expected = PackedHistory.of(attempts, space).consistentCodes();
+            assertArrayEquals(expected, set.toArray());
+            assertEquals(expected.length, set.size());
+            assertTrue(set.contains(space.encode(secret)));
+        }
+        assertArrayEquals(set.toArray(), CandidateSet.of(PackedHistory.of(attempts, space)).toArray());
+    }
+
+    @Test
+    @DisplayName("Pages of dense and sparse sets should be consecutive slices of the codes")
+    void testPage_MatchesSlices() {
+        CodeSpace space = CodeSpace.of(4);
+        List<Color> guess = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.GREEN);
+        CandidateSet dense = CandidateSet.all(space).filter(space.encode(guess), space.packFeedback(1, 1));
+        CandidateSet sparse = dense.filter(space.encode(Arrays.asList(Color.BLUE, Color.RED, Color.PURPLE, Color.CYAN)),
+                space.packFeedback(1, 0));
+
+        for (CandidateSet set : List.of(dense, sparse)) {
+            int[] codes = set.toArray();
+            for (int offset = 0; offset <= codes.length; offset += 7) {
+                assertArrayEquals(Arrays.copyOfRange(codes, offset, Math.min(codes.length, offset + 10)),
+                        set.page(offset, 10));
+            }
+            assertEquals(0, set.page(codes.length + 5L, 10).length);
+        }
+        assertTrue(dense.isDense());
+        assertFalse(sparse.isDense());
+    }
+
+    @Test
+    @DisplayName("Set should switch to a sorted array once sparse")
+    void testFilter_BecomesSparse() {
+        CodeSpace space = CodeSpace.of(4);
+        List<Color> guess = Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW);
+
+        CandidateSet winners = CandidateSet.all(space).filter(space.encode(guess), space.winningFeedback());
+
+        assertFalse(winners.isDense());
+        assertEquals(1, winners.size());
+        assertEquals(space.encode(guess), winners.first());
+        assertTrue(winners.filter(space.encode(guess), space.packFeedback(0, 0)).isEmpty());
+    }
+}
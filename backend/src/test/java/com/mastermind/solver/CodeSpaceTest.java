@@ -0,0 +1,94 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.service.GameLogicService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CodeSpace and FeedbackTable.
+ * Packed scoring is checked against the reference List-based evaluation.
+ */
+class CodeSpaceTest {
+
+    private GameLogicService gameLogicService;
+
+    @BeforeEach
+    void setUp() {
+        gameLogicService = new GameLogicService();
+    }
+
+    @Test
+    @DisplayName("Encode and decode should round trip")
+    void testEncodeDecode_RoundTrip() {
+        CodeSpace space = CodeSpace.of(4);
+        List<Color> code = Arrays.asList(Color.BLACK, Color.RED, Color.CYAN, Color.BLUE);
+
+        int packed = space.encode(code);
+
+        assertEquals(code, space.decode(packed));
+        assertEquals(2401, space.size());
+        assertEquals(0, space.encode(Arrays.asList(Color.RED, Color.RED, Color.RED, Color.RED)));
+        assertEquals(space.size() - 1, space.encode(Arrays.asList(Color.BLACK, Color.BLACK, Color.BLACK, Color.BLACK)));
+    }
+
+    @Test
+    @DisplayName("Encode should reject codes of the wrong length")
+    void testEncode_WrongLength() {
+        CodeSpace space = CodeSpace.of(4);
+        assertThrows(IllegalArgumentException.class,
+                () -> space.encode(Arrays.asList(Color.RED, Color.BLUE)));
+        assertThrows(IllegalArgumentException.class, () -> CodeSpace.of(CodeSpace.MAX_PACKED_SLOTS + 1));
+    }
+
+    @Test
+    @DisplayName("Packed feedback should round trip and reject impossible feedback")
+    void testPackFeedback() {
+        CodeSpace space = CodeSpace.of(4);
+
+        assertEquals(new Feedback(2, 1), space.unpackFeedback(space.packFeedback(new Feedback(2, 1))));
+        assertEquals(space.winningFeedback(), space.packFeedback(new Feedback(4, 0)));
+        assertEquals(CodeSpace.UNPACKED, space.packFeedback(new Feedback(0, 5)));
+    }
+
+    @Test
+    @DisplayName("Feedback table should agree with reference evaluation for every pair")
+    void testFeedbackTable_MatchesReference() {
+        CodeSpace space = CodeSpace.of(3);
+        FeedbackTable table = space.feedbackTable();
+        assertNotNull(table);
+
+        for (int secret = 0; secret < space.size(); secret++) {
+            for (int guess = 0; guess < space.size(); guess++) {
+                Feedback expected = gameLogicService.evaluateGuess(space.decode(secret), space.decode(guess));
+                assertEquals(space.packFeedback(expected), table.get(secret, guess));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 6, 8})
+    @DisplayName("Computed feedback should agree with reference evaluation on large boards")
+    void testComputeFeedback_MatchesReference(int slotCount) {
+        CodeSpace space = CodeSpace.of(slotCount);
+        assertNull(space.feedbackTable());
+
+        Random random = new Random(slotCount);
+        for (int i = 0; i < 2000; i++) {
+            int secret = random.nextInt(space.size());
+            int guess = random.nextInt(space.size());
+            Feedback expected = gameLogicService.evaluateGuess(space.decode(secret), space.decode(guess));
+            assertEquals(space.packFeedback(expected), space.feedback(secret, guess));
+        }
+    }
+}
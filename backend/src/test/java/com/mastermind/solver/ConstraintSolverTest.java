@@ -0,0 +1,97 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.model.GuessAttempt;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConstraintSolver propagation and search.
+ */
+class ConstraintSolverTest {
+
+    private final PartitionSearch search = PartitionSearch.sequential();
+
+    @Test
+    @DisplayName("Solver should find the same lowest consistent code as a full scan")
+    void testFirstConsistent_MatchesScan() {
+        // Arrange
+        Random random = new Random(17);
+        for (int slots = 2; slots <= 5; slots++) {
+            CodeSpace space = CodeSpace.of(slots);
+            for (int game = 0; game < 20; game++) {
+                int secret = random.nextInt(space.size());
+                List<GuessAttempt> attempts = new ArrayList<>();
+                for (int turn = 0; turn < 1 + random.nextInt(4); turn++) {
+                    int guess = random.nextInt(space.size());
+                    attempts.add(new GuessAttempt(space.decode(guess), space.unpackFeedback(space.feedback(secret, guess))));
+                }
+                int expected = search.firstConsistent(PackedHistory.of(attempts, space), SearchBudget.unlimited());
+
+                // Act
+                List<Color> found = ConstraintSolver.of(attempts, slots).firstConsistent(SearchBudget.unlimited());
+
+                // Assert
+                assertEquals(space.decode(expected), found, "History " + attempts);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Solver should report no code for a contradictory history")
+    void testFirstConsistent_Unsatisfiable() {
+        // Arrange
+        List<Color> guess = Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW);
+        List<GuessAttempt> attempts = Arrays.asList(
+                new GuessAttempt(guess, new Feedback(4, 0)),
+                new GuessAttempt(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN, Color.PURPLE), new Feedback(0, 0)));
+        SearchBudget budget = SearchBudget.unlimited();
+
+        // Act
+        List<Color> found = ConstraintSolver.of(attempts, 4).firstConsistent(budget);
+
+        // Assert
+        assertNull(found);
+        assertFalse(budget.isTruncated());
+    }
+
+    @Test
+    @DisplayName("Solver should play out a 20-slot game without enumerating its codes")
+    void testFirstConsistent_LargeBoard() {
+        // Arrange
+        Random random = new Random(5);
+        Color[] colors = Color.values();
+        List<Color> secret = new ArrayList<>();
+        for (int slot = 0; slot < 20; slot++) {
+            secret.add(colors[random.nextInt(colors.length)]);
+        }
+        List<GuessAttempt> attempts = new ArrayList<>();
+
+        // Act
+        List<Color> guess;
+        do {
+            guess = ConstraintSolver.of(attempts, 20).firstConsistent(SearchBudget.ofMillis(10_000));
+
+            // Assert
+            assertNotNull(guess);
+            for (GuessAttempt attempt : attempts) {
+                assertEquals(attempt.getFeedback(), feedback(guess, attempt.getGuess()));
+            }
+            attempts.add(new GuessAttempt(guess, feedback(secret, guess)));
+        } while (!guess.equals(secret) && attempts.size() < 60);
+        assertEquals(secret, guess);
+    }
+
+    private static Feedback feedback(List<Color> secret, List<Color> guess) {
+        int packed = FeedbackScorer.score(secret, guess);
+        return new Feedback(FeedbackScorer.exactOf(packed, secret.size()), FeedbackScorer.partialOf(packed, secret.size()));
+    }
+}
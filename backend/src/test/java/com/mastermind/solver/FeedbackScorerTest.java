@@ -0,0 +1,68 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.service.GameLogicService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the histogram-based FeedbackScorer.
+ */
+class FeedbackScorerTest {
+
+    private final GameLogicService gameLogicService = new GameLogicService();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 9, 16, 40})
+    @DisplayName("Byte array scoring should agree with packed scoring for any slot count")
+    void testScoreBytes_AgreesWithLists(int slotCount) {
+        Random random = new Random(slotCount);
+        Color[] palette = Color.values();
+        for (int i = 0; i < 500; i++) {
+            byte[] secret = new byte[slotCount];
+            byte[] guess = new byte[slotCount];
+            List<Color> secretColors = new ArrayList<>();
+            List<Color> guessColors = new ArrayList<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                secret[slot] = (byte) random.nextInt(palette.length);
+                guess[slot] = (byte) random.nextInt(palette.length);
+                secretColors.add(palette[secret[slot]]);
+                guessColors.add(palette[guess[slot]]);
+            }
+
+            assertEquals(FeedbackScorer.score(secretColors, guessColors),
+                    FeedbackScorer.score(secret, guess, palette.length));
+        }
+    }
+
+    @Test
+    @DisplayName("Scoring should count duplicates once per matching secret color")
+    void testScore_Duplicates() {
+        List<Color> secret = Arrays.asList(Color.RED, Color.RED, Color.BLUE, Color.BLUE);
+        List<Color> guess = Arrays.asList(Color.BLUE, Color.RED, Color.RED, Color.RED);
+
+        int packed = FeedbackScorer.score(secret, guess);
+
+        assertEquals(1, FeedbackScorer.exactOf(packed, 4));
+        assertEquals(2, FeedbackScorer.partialOf(packed, 4));
+    }
+
+    @Test
+    @DisplayName("Null entries should never match")
+    void testScore_NullEntries() {
+        List<Color> secret = Arrays.asList(Color.RED, null, Color.BLUE);
+        List<Color> guess = Arrays.asList(null, null, Color.RED);
+
+        assertEquals(new Feedback(0, 1), gameLogicService.evaluateGuess(secret, guess));
+    }
+}
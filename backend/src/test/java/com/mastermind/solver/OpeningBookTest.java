@@ -0,0 +1,69 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.GuessAttempt;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OpeningBook computation, lookup and the binary format.
+ */
+class OpeningBookTest {
+
+    private final PartitionSearch search = PartitionSearch.sequential();
+
+    @Test
+    @DisplayName("Book should round-trip through its binary format")
+    void testWriteRead_RoundTrip() throws IOException {
+        OpeningBook book = OpeningBook.compute(CodeSpace.of(3), SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT, search);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        book.write(out);
+        OpeningBook read = OpeningBook.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(book, read);
+        assertTrue(read.plays(SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT));
+        assertFalse(read.plays(SuggestionStrategy.MINIMAX, GuessPool.CONSISTENT));
+    }
+
+    @Test
+    @DisplayName("Reading should reject data that is not a book")
+    void testRead_Invalid() {
+        assertThrows(IOException.class, () -> OpeningBook.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5})));
+    }
+
+    @Test
+    @DisplayName("Lookup should answer the first two moves and agree with the search")
+    void testLookup_AgreesWithSearch() {
+        CodeSpace space = CodeSpace.of(4);
+        OpeningBook book = OpeningBook.compute(space, SuggestionStrategy.MINIMAX, GuessPool.ALL, search);
+        int opening = book.getOpening();
+        int secret = 1234;
+        int feedback = space.feedback(secret, opening);
+        PackedHistory afterOpening = PackedHistory.of(Collections.singletonList(
+                new GuessAttempt(space.decode(opening), space.unpackFeedback(feedback))), space);
+
+        assertEquals(search.bestGuess(CandidateSet.all(space), SuggestionStrategy.MINIMAX), opening);
+        assertEquals(opening, book.lookup(PackedHistory.of(Collections.emptyList(), space)));
+        assertEquals(search.bestGuess(CandidateSet.of(afterOpening), SuggestionStrategy.MINIMAX), book.lookup(afterOpening));
+    }
+
+    @Test
+    @DisplayName("Lookup should miss histories that leave the book")
+    void testLookup_OffBook() {
+        CodeSpace space = CodeSpace.of(4);
+        OpeningBook book = OpeningBook.compute(space, SuggestionStrategy.MINIMAX, GuessPool.ALL, search);
+        int other = book.getOpening() == 0 ? 1 : 0;
+        PackedHistory offBook = PackedHistory.of(Collections.singletonList(new GuessAttempt(
+                space.decode(other), space.unpackFeedback(space.packFeedback(0, 0)))), space);
+
+        assertEquals(CodeSpace.UNPACKED, book.lookup(offBook));
+        assertEquals(CodeSpace.UNPACKED, book.lookup(PackedHistory.of(Collections.emptyList(), CodeSpace.of(3))));
+    }
+}
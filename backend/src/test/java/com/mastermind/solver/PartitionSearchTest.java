@@ -0,0 +1,193 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.service.GameLogicService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PartitionSearch, in particular that parallel searches agree
+ * with sequential ones.
+ */
+class PartitionSearchTest {
+
+    private final GameLogicService gameLogicService = new GameLogicService();
+    private PartitionSearch sequential;
+    private PartitionSearch parallel;
+
+    @BeforeEach
+    void setUp() {
+        sequential = PartitionSearch.sequential();
+        // Threshold 0 forces every search onto the pool
+        parallel = new PartitionSearch(4, PartitionSearch.DEFAULT_MAX_EVALUATIONS, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallel.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 5})
+    @DisplayName("Parallel minimax should pick the same guess as sequential minimax")
+    void testBestGuess_Deterministic(int slotCount) {
+        CodeSpace space = CodeSpace.of(slotCount);
+        Random random = new Random(slotCount);
+        for (int trial = 0; trial < 5; trial++) {
+            List<GuessAttempt> attempts = randomHistory(space, random, 2);
+            CandidateSet candidates = CandidateSet.of(PackedHistory.of(attempts, space));
+
+            int expected = sequential.bestGuess(candidates, SuggestionStrategy.MINIMAX);
+
+            assertEquals(expected, parallel.bestGuess(candidates, SuggestionStrategy.MINIMAX));
+            try (PartitionSearch twoThreads = new PartitionSearch(2, PartitionSearch.DEFAULT_MAX_EVALUATIONS, 0)) {
+                assertEquals(expected, twoThreads.bestGuess(candidates, SuggestionStrategy.MINIMAX));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SuggestionStrategy.class, names = {"ENTROPY", "EXPECTED"})
+    @DisplayName("Parallel entropy and expected-size searches should match sequential ones")
+    void testBestGuess_DeterministicForStrategy(SuggestionStrategy strategy) {
+        CodeSpace space = CodeSpace.of(4);
+        Random random = new Random(strategy.ordinal());
+        for (int trial = 0; trial < 5; trial++) {
+            CandidateSet candidates = CandidateSet.of(PackedHistory.of(randomHistory(space, random, 1), space));
+
+            for (GuessPool guessPool : GuessPool.values()) {
+                assertEquals(sequential.bestGuess(candidates, strategy, guessPool),
+                        parallel.bestGuess(candidates, strategy, guessPool));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SuggestionStrategy.class, names = {"MINIMAX", "ENTROPY", "EXPECTED"})
+    @DisplayName("Consistent guess pool should only suggest candidates")
+    void testBestGuess_ConsistentPool(SuggestionStrategy strategy) {
+        CodeSpace space = CodeSpace.of(4);
+        Random random = new Random(42);
+        for (int trial = 0; trial < 10; trial++) {
+            CandidateSet candidates = CandidateSet.of(PackedHistory.of(randomHistory(space, random, 2), space));
+
+            assertTrue(candidates.contains(sequential.bestGuess(candidates, strategy, GuessPool.CONSISTENT)));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SuggestionStrategy.class, names = {"MINIMAX", "ENTROPY", "EXPECTED"})
+    @DisplayName("Scoring one guess per symmetry class should pick the same guess as scoring all")
+    void testBestGuess_SymmetryReduction(SuggestionStrategy strategy) {
+        CodeSpace space = CodeSpace.of(4);
+        Random random = new Random(strategy.ordinal() + 12);
+        for (int trial = 0; trial < 6; trial++) {
+            CandidateSet reduced = CandidateSet.of(PackedHistory.of(randomHistory(space, random, trial % 3), space));
+            CandidateSet unreduced = CandidateSet.ofSorted(space, reduced.toArray());
+
+            for (GuessPool guessPool : GuessPool.values()) {
+                assertEquals(sequential.bestGuess(unreduced, strategy, guessPool),
+                        sequential.bestGuess(reduced, strategy, guessPool));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel enumeration should find the same candidates in order")
+    void testCandidates_ParallelMatchesSequential() {
+        CodeSpace space = CodeSpace.of(7);
+        PackedHistory history = PackedHistory.of(randomHistory(space, new Random(7), 2), space);
+
+        assertArrayEquals(history.consistentCodes(), parallel.candidates(history).toArray());
+    }
+
+    @Test
+    @DisplayName("Search should return a candidate and report truncation when the budget is spent")
+    void testBestGuess_BudgetExhausted() throws InterruptedException {
+        CodeSpace space = CodeSpace.of(4);
+        CandidateSet candidates = CandidateSet.of(PackedHistory.of(randomHistory(space, new Random(3), 1), space));
+        SearchBudget unlimited = SearchBudget.unlimited();
+        SearchBudget expired = expiredBudget();
+
+        int complete = parallel.bestGuess(candidates, SuggestionStrategy.MINIMAX, GuessPool.ALL, unlimited);
+        int truncated = parallel.bestGuess(candidates, SuggestionStrategy.MINIMAX, GuessPool.ALL, expired);
+
+        assertFalse(unlimited.isTruncated());
+        assertEquals(sequential.bestGuess(candidates, SuggestionStrategy.MINIMAX), complete);
+        assertTrue(expired.isTruncated());
+        assertTrue(candidates.contains(truncated));
+    }
+
+    @Test
+    @DisplayName("Narrowing the guess pool to fit the evaluation limit should count as truncation")
+    void testBestGuess_EvaluationLimitTruncates() {
+        CodeSpace space = CodeSpace.of(4);
+        CandidateSet candidates = CandidateSet.of(PackedHistory.of(randomHistory(space, new Random(3), 1), space));
+        SearchBudget budget = SearchBudget.unlimited();
+        long limit = (long) candidates.size() * candidates.size();
+
+        try (PartitionSearch limited = new PartitionSearch(1, limit, PartitionSearch.DEFAULT_PARALLEL_THRESHOLD)) {
+            assertTrue(candidates.contains(limited.bestGuess(candidates, SuggestionStrategy.MINIMAX, GuessPool.ALL, budget)));
+        }
+        assertTrue(budget.isTruncated());
+    }
+
+    @Test
+    @DisplayName("Enumeration should stop early when the budget is spent")
+    void testCandidates_BudgetExhausted() throws InterruptedException {
+        CodeSpace space = CodeSpace.of(8);
+        PackedHistory history = PackedHistory.of(randomHistory(space, new Random(8), 2), space);
+        SearchBudget expired = expiredBudget();
+
+        CandidateSet partial = parallel.candidates(history, expired);
+
+        assertTrue(expired.isTruncated());
+        assertTrue(partial.size() < space.size());
+        for (int code : partial.toArray()) {
+            assertTrue(history.isConsistent(code));
+        }
+    }
+
+    @Test
+    @DisplayName("Code range spliterator should split into ordered halves")
+    void testCodeRangeSpliterator_Split() {
+        CodeRangeSpliterator range = new CodeRangeSpliterator(0, 100, 10);
+        CodeRangeSpliterator.OfInt prefix = range.trySplit();
+
+        assertNotNull(prefix);
+        assertEquals(50, prefix.estimateSize());
+        assertEquals(50, range.estimateSize());
+        int[] first = new int[1];
+        prefix.tryAdvance((int code) -> first[0] = code);
+        assertEquals(0, first[0]);
+        assertNull(new CodeRangeSpliterator(0, 15, 10).trySplit());
+    }
+
+    private SearchBudget expiredBudget() throws InterruptedException {
+        SearchBudget budget = SearchBudget.ofMillis(1);
+        Thread.sleep(5);
+        return budget;
+    }
+
+    private List<GuessAttempt> randomHistory(CodeSpace space, Random random, int depth) {
+        List<Color> secret = space.decode(random.nextInt(space.size()));
+        List<GuessAttempt> attempts = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            List<Color> guess = space.decode(random.nextInt(space.size()));
+            attempts.add(new GuessAttempt(guess, gameLogicService.evaluateGuess(secret, guess)));
+        }
+        return attempts;
+    }
+}
@@ -0,0 +1,128 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.GuessAttempt;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StrategyTree computation, lookup and the binary format.
+ */
+class StrategyTreeTest {
+
+    private final PartitionSearch search = PartitionSearch.sequential();
+
+    @Test
+    @DisplayName("Tree should round-trip through a memory-mapped file")
+    void testWriteMap_RoundTrip(@TempDir Path dir) throws IOException {
+        // Arrange
+        StrategyTree tree = StrategyTree.compute(CodeSpace.of(3), SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT, search);
+        Path file = dir.resolve("tree.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            tree.write(out);
+        }
+
+        // Act
+        StrategyTree mapped = StrategyTree.map(file);
+
+        // Assert
+        assertEquals(tree, mapped);
+        assertTrue(mapped.plays(SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT));
+        assertFalse(mapped.plays(SuggestionStrategy.MINIMAX, GuessPool.CONSISTENT));
+    }
+
+    @Test
+    @DisplayName("Reading should reject data that is not a tree or is cut short")
+    void testRead_Invalid() throws IOException {
+        // Arrange
+        StrategyTree tree = StrategyTree.compute(CodeSpace.of(3), SuggestionStrategy.MINIMAX, GuessPool.ALL, search);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tree.write(out);
+        byte[] bytes = out.toByteArray();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> StrategyTree.read(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5})));
+        assertThrows(IOException.class, () -> StrategyTree.read(ByteBuffer.wrap(bytes, 0, bytes.length - 1)));
+        assertEquals(tree, StrategyTree.read(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    @DisplayName("Following the tree should solve every secret within its depth, agreeing with the search")
+    void testLookup_SolvesEverySecret() {
+        // Arrange
+        CodeSpace space = CodeSpace.of(3);
+        StrategyTree tree = StrategyTree.compute(space, SuggestionStrategy.MINIMAX, GuessPool.ALL, search);
+
+        for (int secret = 0; secret < space.size(); secret++) {
+            List<GuessAttempt> attempts = new ArrayList<>();
+            int guesses = 0;
+            while (true) {
+                // Act
+                PackedHistory history = PackedHistory.of(attempts, space);
+                int guess = tree.lookup(history);
+
+                // Assert
+                assertEquals(search.bestGuess(CandidateSet.of(history), SuggestionStrategy.MINIMAX), guess);
+                guesses++;
+                if (guess == secret) {
+                    break;
+                }
+                attempts.add(new GuessAttempt(space.decode(guess), space.unpackFeedback(space.feedback(secret, guess))));
+            }
+            assertTrue(guesses <= tree.getDepth(), "Secret " + secret + " took " + guesses + " guesses");
+        }
+    }
+
+    @Test
+    @DisplayName("Lookup should miss histories that leave the tree")
+    void testLookup_OffTree() {
+        // Arrange
+        CodeSpace space = CodeSpace.of(4);
+        StrategyTree tree = StrategyTree.compute(space, SuggestionStrategy.MINIMAX, GuessPool.ALL, search);
+        int opening = tree.lookup(PackedHistory.of(Collections.emptyList(), space));
+        int other = opening == 0 ? 1 : 0;
+
+        // Act
+        PackedHistory offTree = PackedHistory.of(Collections.singletonList(new GuessAttempt(
+                space.decode(other), space.unpackFeedback(space.packFeedback(0, 0)))), space);
+        PackedHistory won = PackedHistory.of(Collections.singletonList(new GuessAttempt(
+                space.decode(opening), space.unpackFeedback(space.winningFeedback()))), space);
+
+        // Assert
+        assertEquals(CodeSpace.UNPACKED, tree.lookup(offTree));
+        assertEquals(CodeSpace.UNPACKED, tree.lookup(won));
+        assertEquals(CodeSpace.UNPACKED, tree.lookup(PackedHistory.of(Collections.emptyList(), CodeSpace.of(3))));
+    }
+
+    @Test
+    @DisplayName("Bundled 4-slot tree should match a fresh computation")
+    void testBundledTree_UpToDate() throws IOException {
+        // Arrange
+        CodeSpace space = CodeSpace.of(4);
+        String resource = StrategyTree.resourceName(space, SuggestionStrategy.MINIMAX, GuessPool.ALL);
+
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull(in, "Missing bundled tree " + resource);
+
+            // Act
+            StrategyTree bundled = StrategyTree.read(ByteBuffer.wrap(in.readAllBytes()));
+
+            // Assert
+            assertEquals(StrategyTree.compute(space, SuggestionStrategy.MINIMAX, GuessPool.ALL, search), bundled,
+                    "Regenerate with PrecomputedGenerator tree");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mastermind.solver;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.service.GameLogicService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the history-trie SuggestionCache.
+ */
+class SuggestionCacheTest {
+
+    private final GameLogicService gameLogicService = new GameLogicService();
+
+    @Test
+    @DisplayName("Entries should hold the consistent codes and share prefixes")
+    void testEntry_SharesPrefixes() {
+        CodeSpace space = CodeSpace.of(4);
+        SuggestionCache cache = new SuggestionCache(SuggestionCache.DEFAULT_MAX_BYTES);
+        List<GuessAttempt> attempts = randomHistory(space, new Random(4), 3);
+
+        SuggestionCache.Entry full = cache.entry(PackedHistory.of(attempts, space));
+        SuggestionCache.Entry prefix = cache.entry(PackedHistory.of(attempts.subList(0, 2), space));
+
+        assertArrayEquals(PackedHistory.of(attempts, space).consistentCodes(), full.getCandidates().toArray());
+        assertSame(prefix, cache.entry(PackedHistory.of(attempts.subList(0, 2), space)));
+        SuggestionCache.Stats stats = cache.stats();
+        assertEquals(3, stats.getEntries());
+        assertEquals(3, stats.getPrefixMisses());
+        assertEquals(4, stats.getPrefixHits());
+    }
+
+    @Test
+    @DisplayName("Suggestions should be remembered per strategy and pool")
+    void testSuggestion_HitsAndMisses() {
+        CodeSpace space = CodeSpace.of(4);
+        SuggestionCache cache = new SuggestionCache(SuggestionCache.DEFAULT_MAX_BYTES);
+        SuggestionCache.Entry entry = cache.entry(PackedHistory.of(randomHistory(space, new Random(5), 1), space));
+
+        assertEquals(CodeSpace.UNPACKED, entry.getSuggestion(SuggestionStrategy.MINIMAX, GuessPool.ALL));
+        entry.putSuggestion(SuggestionStrategy.MINIMAX, GuessPool.ALL, 0);
+
+        assertEquals(0, entry.getSuggestion(SuggestionStrategy.MINIMAX, GuessPool.ALL));
+        assertEquals(CodeSpace.UNPACKED, entry.getSuggestion(SuggestionStrategy.MINIMAX, GuessPool.CONSISTENT));
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(2, cache.stats().getMisses());
+    }
+
+    @Test
+    @DisplayName("Cache should evict old leaves to stay within its bound")
+    void testEntry_Evicts() {
+        CodeSpace space = CodeSpace.of(5);
+        long maxBytes = 256 * 1024;
+        SuggestionCache cache = new SuggestionCache(maxBytes);
+        Random random = new Random(6);
+
+        for (int game = 0; game < 200; game++) {
+            cache.entry(PackedHistory.of(randomHistory(space, random, 2), space));
+        }
+        List<GuessAttempt> recent = randomHistory(space, random, 2);
+        SuggestionCache.Entry entry = cache.entry(PackedHistory.of(recent, space));
+
+        SuggestionCache.Stats stats = cache.stats();
+        assertTrue(stats.getEvictions() > 0);
+        assertTrue(stats.getBytes() <= maxBytes, "Cache holds " + stats.getBytes() + " bytes");
+        assertSame(entry, cache.entry(PackedHistory.of(recent, space)));
+    }
+
+    private List<GuessAttempt> randomHistory(CodeSpace space, Random random, int depth) {
+        List<Color> secret = space.decode(random.nextInt(space.size()));
+        List<GuessAttempt> attempts = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            List<Color> guess = space.decode(random.nextInt(space.size()));
+            attempts.add(new GuessAttempt(guess, gameLogicService.evaluateGuess(secret, guess)));
+        }
+        return attempts;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mastermind.solver;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Symmetry orbit representatives.
+ */
+class SymmetryTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 6})
+    @DisplayName("Opening representatives should be one code per color-count pattern")
+    void testRepresentatives_Opening(int slotCount) {
+        CodeSpace space = CodeSpace.of(slotCount);
+
+        int[] representatives = Symmetry.full(space).representatives(space);
+
+        assertEquals(Symmetry.openingOrbits(space), representatives.length);
+        assertEquals(0, representatives[0]);
+    }
+
+    @Test
+    @DisplayName("Opening representatives of four slots should be AAAA, AAAB, AABB, AABC and ABCD")
+    void testRepresentatives_FourSlots() {
+        CodeSpace space = CodeSpace.of(4);
+
+        int[] representatives = Symmetry.full(space).representatives(space);
+
+        // Base-7 digits, slot 0 most significant
+        assertArrayEquals(new int[]{0, 1, 8, 9, 66}, representatives);
+    }
+
+    @Test
+    @DisplayName("A guess should split the positions and colors it distinguishes")
+    void testFix_NarrowsSymmetry() {
+        CodeSpace space = CodeSpace.of(4);
+        Symmetry symmetry = Symmetry.full(space);
+
+        // RRBB fixes red and blue, and pairs positions 0-1 and 2-3
+        Symmetry fixed = symmetry.fix(space, 0 * 343 + 0 * 49 + 1 * 7 + 1);
+
+        assertFalse(fixed.isTrivial());
+        assertSame(fixed, fixed.fix(space, 1 * 343 + 1 * 49));
+        assertTrue(Symmetry.none(space).isTrivial());
+        // Representatives of every code are ascending within each pair, over the free colors in order
+        int[] representatives = fixed.representatives(space);
+        assertTrue(representatives.length < space.size());
+        assertEquals(representatives.length, fixed.representatives(space, CandidateSet.all(space).toArray()).length);
+    }
+}
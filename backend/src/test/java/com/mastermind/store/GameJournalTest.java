@@ -0,0 +1,262 @@
+package com.mastermind.store;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.model.Game;
+import com.mastermind.model.GameMatch;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.model.PlayerSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GameJournal replay, compaction and torn frames.
+ */
+class GameJournalTest {
+
+    private static final List<Color> SECRET = List.of(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW);
+    private static final List<Color> GUESS = List.of(Color.RED, Color.GREEN, Color.BLACK, Color.BLACK);
+
+    @TempDir
+    Path dir;
+
+    private GameJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private Map<String, Game> reopen() {
+        if (journal != null) {
+            journal.close();
+        }
+        journal = new GameJournal(dir, 5);
+        Map<String, Game> games = new HashMap<>();
+        for (Game game : journal.recover()) {
+            games.put(game.getId(), game);
+        }
+        return games;
+    }
+
+    private static void guess(GameJournal journal, Game game, List<Color> guess, Feedback feedback) {
+        GuessAttempt attempt = new GuessAttempt(guess, feedback);
+        game.addGuessAttempt(attempt);
+        journal.guessed(game.getId(), game.getVersion(), attempt);
+    }
+
+    @Test
+    @DisplayName("Recovery should replay creations, guesses, resets and deletions")
+    void testRecover_ReplaysEvents() {
+        // Arrange
+        reopen();
+        Game kept = new Game("kept", SECRET, 4);
+        Game reset = new Game("reset", SECRET, 4);
+        Game deleted = new Game("deleted", SECRET, 4);
+        for (Game game : List.of(kept, reset, deleted)) {
+            journal.created(game);
+        }
+        guess(journal, kept, GUESS, new Feedback(1, 1));
+        guess(journal, kept, SECRET, new Feedback(4, 0));
+        guess(journal, reset, GUESS, new Feedback(1, 1));
+        List<Color> newSecret = List.of(Color.BLACK, Color.BLACK, Color.RED, Color.RED);
+        reset.restart(newSecret);
+        journal.reset("reset", reset.getVersion(), newSecret);
+        journal.deleted("deleted");
+
+        // Act
+        Map<String, Game> games = reopen();
+
+        // Assert
+        assertEquals(2, games.size());
+        Game recovered = games.get("kept");
+        assertEquals(2, recovered.getGuessCount());
+        assertEquals(GUESS, recovered.getHistory().get(0).getGuess());
+        assertEquals(new Feedback(1, 1), recovered.getHistory().get(0).getFeedback());
+        assertTrue(recovered.isWon());
+        assertEquals(kept.getVersion(), recovered.getVersion());
+        assertEquals(newSecret, games.get("reset").getSecret());
+        assertEquals(0, games.get("reset").getGuessCount());
+        assertFalse(games.containsKey("deleted"));
+        assertEquals(0, journal.stats().getAppended());
+    }
+
+    @Test
+    @DisplayName("Compaction should leave one snapshot that, with later events, recovers every game")
+    void testCompact_ReplacesSegmentsWithSnapshot() throws IOException {
+        // Arrange
+        reopen();
+        Map<String, Game> live = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            Game game = new Game("game-" + i, SECRET, 4);
+            live.put(game.getId(), game);
+            journal.created(game);
+            guess(journal, game, GUESS, new Feedback(1, 1));
+        }
+
+        // Act
+        journal.compact(action -> live.values().forEach(action));
+        guess(journal, live.get("game-7"), SECRET, new Feedback(4, 0));
+        journal.deleted("game-8");
+        Map<String, Game> games = reopen();
+
+        // Assert
+        List<String> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+        assertEquals(List.of("games-0000000001.log", "games-0000000001.snapshot", "games-0000000002.log"), files);
+        assertEquals(49, games.size());
+        assertEquals(1, games.get("game-0").getGuessCount());
+        assertEquals(2, games.get("game-7").getGuessCount());
+        assertTrue(games.get("game-7").isWon());
+        assertNull(games.get("game-8"));
+    }
+
+    @Test
+    @DisplayName("Matches and player sessions should be recovered with the games, through compaction")
+    void testRecoverMatchesAndSessions_SurviveCompaction() {
+        // Arrange
+        reopen();
+        GameMatch match = new GameMatch("alice", "bob");
+        GameMatch cancelled = new GameMatch("carol", "dave");
+        journal.matchChanged(match);
+        journal.matchChanged(cancelled);
+        match.setPlayer1GameId("game-1");
+        match.setPlayer1Ready(true);
+        journal.matchChanged(match);
+        journal.matchEnded(cancelled.getMatchId());
+        PlayerSession alice = new PlayerSession("session-1", "alice");
+        PlayerSession carol = new PlayerSession("session-2", "carol");
+        journal.sessionChanged(alice);
+        journal.sessionChanged(carol);
+        alice.setStatus(PlayerSession.PlayerStatus.IN_GAME);
+        journal.sessionChanged(alice);
+        journal.sessionEnded("session-2");
+        Consumer<Consumer<GameMatch>> liveMatches = action -> action.accept(match);
+        Consumer<Consumer<PlayerSession>> liveSessions = action -> action.accept(alice);
+        reopen();
+        journal.recoverMatches(liveMatches);
+        journal.recoverSessions(liveSessions);
+
+        // Act
+        journal.compact(action -> { });
+        match.setPlayer2GameId("game-2");
+        match.setPlayer2Ready(true);
+        match.setStatus(GameMatch.MatchStatus.PLAYING);
+        journal.matchChanged(match);
+        reopen();
+        List<GameMatch> matches = List.copyOf(journal.recoverMatches(liveMatches));
+        List<PlayerSession> sessions = List.copyOf(journal.recoverSessions(liveSessions));
+
+        // Assert
+        assertEquals(1, matches.size());
+        GameMatch recovered = matches.get(0);
+        assertEquals(match.getMatchId(), recovered.getMatchId());
+        assertEquals("alice", recovered.getPlayer1Nickname());
+        assertEquals("bob", recovered.getPlayer2Nickname());
+        assertEquals("game-1", recovered.getPlayer1GameId());
+        assertEquals("game-2", recovered.getPlayer2GameId());
+        assertTrue(recovered.areBothPlayersReady());
+        assertEquals(GameMatch.MatchStatus.PLAYING, recovered.getStatus());
+        assertEquals(match.getCreatedAt(), recovered.getCreatedAt());
+        assertNull(recovered.getStartedAt());
+        assertEquals(1, sessions.size());
+        assertEquals("session-1", sessions.get(0).getSessionId());
+        assertEquals("alice", sessions.get(0).getNickname());
+        assertEquals(PlayerSession.PlayerStatus.IN_GAME, sessions.get(0).getStatus());
+        assertEquals(alice.getConnectedAt(), sessions.get(0).getConnectedAt());
+        assertTrue(journal.recoverMatches(liveMatches).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Events appended from many threads at once should all be recovered, each game's in order")
+    void testAppend_ConcurrentAppendsAllRecovered() throws InterruptedException {
+        // Arrange
+        reopen();
+        int threads = 8;
+        int gamesPerThread = 25;
+        Thread[] appenders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            appenders[t] = new Thread(() -> {
+                for (int i = 0; i < gamesPerThread; i++) {
+                    Game game = new Game("game-" + thread + "-" + i, SECRET, 4);
+                    journal.created(game);
+                    guess(journal, game, GUESS, new Feedback(1, 1));
+                    guess(journal, game, SECRET, new Feedback(4, 0));
+                }
+            });
+        }
+
+        // Act
+        for (Thread appender : appenders) {
+            appender.start();
+        }
+        for (Thread appender : appenders) {
+            appender.join();
+        }
+        Map<String, Game> games = reopen();
+
+        // Assert
+        assertEquals(threads * gamesPerThread, games.size());
+        assertTrue(games.values().stream().allMatch(game -> game.getGuessCount() == 2 && game.isWon()));
+    }
+
+    @Test
+    @DisplayName("A torn frame at the end of a segment should be skipped, keeping the events before it")
+    void testRecover_StopsAtTornFrame() throws IOException {
+        // Arrange
+        reopen();
+        Game game = new Game("torn", SECRET, 4);
+        journal.created(game);
+        guess(journal, game, GUESS, new Feedback(1, 1));
+        journal.close();
+        Path log = dir.resolve("games-0000000000.log");
+        long size = Files.size(log);
+        Files.write(log, new byte[] {0, 0, 0, 40, 2, 0, 5}, StandardOpenOption.APPEND);
+
+        // Act
+        Map<String, Game> games = reopen();
+
+        // Assert
+        assertEquals(size + 7, Files.size(log));
+        assertEquals(1, games.get("torn").getGuessCount());
+    }
+
+    @Test
+    @DisplayName("A garbage frame length near the largest int should be taken as a torn frame")
+    void testRecover_StopsAtGarbageLength() throws IOException {
+        // Arrange
+        reopen();
+        Game game = new Game("garbage", SECRET, 4);
+        journal.created(game);
+        guess(journal, game, GUESS, new Feedback(1, 1));
+        journal.close();
+        Path log = dir.resolve("games-0000000000.log");
+        Files.write(log, new byte[] {0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xfe, 2, 0, 5, 1, 9},
+                StandardOpenOption.APPEND);
+
+        // Act
+        Map<String, Game> games = reopen();
+
+        // Assert
+        assertEquals(1, games.get("garbage").getGuessCount());
+    }
+}
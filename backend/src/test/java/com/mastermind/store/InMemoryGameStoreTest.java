@@ -0,0 +1,159 @@
+package com.mastermind.store;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.model.Game;
+import com.mastermind.model.GuessAttempt;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InMemoryGameStore expiry and size bounds.
+ */
+class InMemoryGameStoreTest {
+
+    private static final List<Color> SECRET = List.of(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW);
+
+    private long now;
+    private final List<String> evictions = new ArrayList<>();
+
+    private InMemoryGameStore store(int maxGames) {
+        InMemoryGameStore store = new InMemoryGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2),
+                maxGames, Long.MAX_VALUE, () -> now);
+        store.addEvictionListener((game, cause) -> evictions.add(game.getId() + ":" + cause));
+        return store;
+    }
+
+    @Test
+    @DisplayName("Finished games should expire well before idle games in progress")
+    void testEvictExpired_FinishedGamesFirst() {
+        // Arrange
+        InMemoryGameStore store = store(100);
+        Game playing = new Game("playing", SECRET, 4);
+        Game won = new Game("won", SECRET, 4);
+        won.addGuessAttempt(new GuessAttempt(SECRET, new Feedback(4, 0)));
+        store.put(playing);
+        store.put(won);
+
+        // Act
+        now += Duration.ofMinutes(5).toNanos();
+        store.evictExpired();
+        boolean playingKept = store.get("playing") != null;
+        now += Duration.ofMinutes(31).toNanos();
+
+        // Assert
+        assertTrue(playingKept);
+        assertNull(store.get("playing"));
+        assertEquals(List.of("won:FINISHED", "playing:EXPIRED"), evictions);
+        assertEquals(0, store.size());
+        assertEquals(0, store.stats().getBytes());
+        assertEquals(1, store.stats().getFinished());
+        assertEquals(1, store.stats().getExpired());
+    }
+
+    @Test
+    @DisplayName("A full store should drop games never played before games in play")
+    void testPut_EvictsProbationBeforeProtected() {
+        // Arrange
+        InMemoryGameStore store = store(10);
+        for (int i = 0; i < 10; i++) {
+            store.put(new Game("game-" + i, SECRET, 4));
+            now++;
+        }
+        // The oldest games are played, so they move to the protected segment
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(store.get("game-" + i));
+            now++;
+        }
+
+        // Act
+        store.put(new Game("game-10", SECRET, 4));
+
+        // Assert
+        assertEquals(9, store.size());
+        assertEquals(List.of("game-5:SIZE", "game-6:SIZE"), evictions);
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(store.get("game-" + i));
+        }
+        assertNotNull(store.get("game-10"));
+        assertEquals(2, store.stats().getEvicted());
+    }
+
+    @Test
+    @DisplayName("A full store should drop finished games first, and skip games removed meanwhile")
+    void testPut_EvictsFinishedFirst() {
+        // Arrange
+        InMemoryGameStore store = store(10);
+        for (int i = 0; i < 10; i++) {
+            store.put(new Game("game-" + i, SECRET, 4));
+            now++;
+        }
+        Game won = store.get("game-8");
+        won.addGuessAttempt(new GuessAttempt(SECRET, new Feedback(4, 0)));
+        store.replace(won);
+        store.remove("game-0");
+        store.put(new Game("game-10", SECRET, 4));
+
+        // Act
+        store.put(new Game("game-11", SECRET, 4));
+
+        // Assert
+        assertEquals(9, store.size());
+        assertEquals(List.of("game-8:SIZE", "game-1:SIZE"), evictions);
+        assertNull(store.get("game-8"));
+        assertNotNull(store.get("game-11"));
+    }
+
+    @Test
+    @DisplayName("Explicit removal should not notify listeners, and puts should track size")
+    void testRemove_DoesNotNotify() {
+        // Arrange
+        InMemoryGameStore store = store(100);
+        Game game = new Game("game", SECRET, 4);
+        store.put(game);
+        long emptyBytes = store.stats().getBytes();
+
+        // Act
+        game.addGuessAttempt(new GuessAttempt(List.of(Color.RED, Color.RED, Color.RED, Color.RED), new Feedback(1, 0)));
+        store.put(game);
+        long playedBytes = store.stats().getBytes();
+        Game removed = store.remove("game");
+
+        // Assert
+        assertTrue(playedBytes > emptyBytes);
+        assertSame(game, removed);
+        assertTrue(evictions.isEmpty());
+        assertEquals(0, store.stats().getBytes());
+    }
+
+    @Test
+    @DisplayName("Replacing a game the store dropped meanwhile should not bring it back")
+    void testReplace_DoesNotRestoreDroppedGame() {
+        // Arrange
+        InMemoryGameStore store = store(100);
+        Game game = new Game("game", SECRET, 4);
+        store.put(game);
+        Game held = store.get("game");
+        now += Duration.ofMinutes(31).toNanos();
+        store.evictExpired();
+
+        // Act
+        held.addGuessAttempt(new GuessAttempt(List.of(Color.RED, Color.RED, Color.RED, Color.RED), new Feedback(1, 0)));
+        boolean replaced = store.replace(held);
+        store.put(new Game("other", SECRET, 4));
+        boolean otherReplaced = store.replace(store.get("other"));
+
+        // Assert
+        assertFalse(replaced);
+        assertNull(store.get("game"));
+        assertEquals(List.of("game:EXPIRED"), evictions);
+        assertTrue(otherReplaced);
+        assertEquals(1, store.size());
+    }
+}
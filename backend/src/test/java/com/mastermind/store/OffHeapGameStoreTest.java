@@ -0,0 +1,284 @@
+package com.mastermind.store;
+
+import com.mastermind.model.Color;
+import com.mastermind.model.Feedback;
+import com.mastermind.model.Game;
+import com.mastermind.model.GuessAttempt;
+import com.mastermind.service.GameLogicService;
+import com.mastermind.service.GameService;
+import com.mastermind.service.SecretSupply;
+import com.mastermind.solver.GuessPool;
+import com.mastermind.solver.SuggestionStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OffHeapGameStore records, index and eviction.
+ */
+class OffHeapGameStoreTest {
+
+    private static final List<Color> SECRET = List.of(Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW);
+
+    private long now;
+    private final List<String> evictions = new ArrayList<>();
+
+    private OffHeapGameStore store(int maxGames, long maxBytes, int blockBytes) {
+        OffHeapGameStore store = new OffHeapGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2),
+                maxGames, maxBytes, blockBytes, () -> now);
+        store.addEvictionListener((game, cause) -> evictions.add(game.getId() + ":" + cause));
+        return store;
+    }
+
+    @Test
+    @DisplayName("Games should come back as stored, histories spilling into overflow blocks")
+    void testPut_RoundTripsThroughOverflowBlocks() {
+        // Arrange
+        OffHeapGameStore store = store(100, 64 * 1024, 64);
+        Game game = new Game("long-game", SECRET, 4);
+        Random random = new Random(22);
+        for (int i = 0; i < 30; i++) {
+            List<Color> guess = List.of(Color.values()[random.nextInt(7)], Color.RED, Color.BLUE, Color.BLACK);
+            game.addGuessAttempt(new GuessAttempt(guess, new Feedback(i % 3, 1)));
+        }
+        game.recordHintSettings(SuggestionStrategy.ENTROPY, GuessPool.CONSISTENT);
+
+        // Act
+        store.put(game);
+        long bytes = store.stats().getBytes();
+        Game stored = store.get("long-game");
+
+        // Assert
+        assertTrue(bytes > 64, "a 30-guess history should need overflow blocks");
+        assertNotSame(game, stored);
+        assertEquals(game.getSecret(), stored.getSecret());
+        assertEquals(game.getPackedSecret(), stored.getPackedSecret());
+        assertEquals(30, stored.getGuessCount());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(game.getHistory().get(i).getGuess(), stored.getHistory().get(i).getGuess());
+            assertEquals(game.getHistory().get(i).getFeedback(), stored.getHistory().get(i).getFeedback());
+        }
+        assertEquals(game.getVersion(), stored.getVersion());
+        assertEquals(SuggestionStrategy.ENTROPY, stored.getHintStrategy());
+        assertEquals(GuessPool.CONSISTENT, stored.getHintPool());
+        assertEquals(game.getCreatedAt(), stored.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("The index should find every game left after many removals")
+    void testRemove_KeepsIndexConsistent() {
+        // Arrange
+        OffHeapGameStore store = store(2000, 1024 * 1024, 128);
+        for (int i = 0; i < 1500; i++) {
+            store.put(new Game("game-" + i, SECRET, 4));
+        }
+
+        // Act
+        for (int i = 0; i < 1500; i += 3) {
+            assertNotNull(store.remove("game-" + i));
+        }
+
+        // Assert
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1500; i++) {
+            assertEquals(i % 3 != 0, store.get("game-" + i) != null, "game-" + i);
+        }
+        assertTrue(evictions.isEmpty());
+        List<String> visited = new ArrayList<>();
+        store.forEach(game -> visited.add(game.getId()));
+        assertEquals(1000, visited.size());
+        assertFalse(visited.contains("game-0"));
+    }
+
+    @Test
+    @DisplayName("Finished games should expire first, and a full store should drop games to fit new ones")
+    void testPut_ExpiresAndEvicts() {
+        // Arrange
+        OffHeapGameStore store = store(10, 1024 * 1024, 128);
+        Game won = new Game("won", SECRET, 4);
+        won.addGuessAttempt(new GuessAttempt(SECRET, new Feedback(4, 0)));
+        store.put(won);
+        for (int i = 0; i < 9; i++) {
+            store.put(new Game("game-" + i, SECRET, 4));
+        }
+
+        // Act
+        now += Duration.ofMinutes(5).toNanos();
+        store.evictExpired();
+        store.put(new Game("game-9", SECRET, 4));
+        store.put(new Game("game-10", SECRET, 4));
+
+        // Assert
+        assertEquals("won:FINISHED", evictions.get(0));
+        assertEquals(3, evictions.size());
+        assertTrue(evictions.get(1).endsWith(":SIZE"));
+        assertEquals(9, store.size());
+        assertEquals(2, store.stats().getEvicted());
+        assertNotNull(store.get("game-10"));
+        assertEquals(1, store.stats().getFinished());
+    }
+
+    @Test
+    @DisplayName("Replacing a game the store dropped meanwhile should not bring it back")
+    void testReplace_DoesNotRestoreDroppedGame() {
+        // Arrange
+        OffHeapGameStore store = store(100, 1024 * 1024, 128);
+        Game game = new Game("game", SECRET, 4);
+        store.put(game);
+        Game held = store.get("game");
+        now += Duration.ofMinutes(31).toNanos();
+        store.evictExpired();
+
+        // Act
+        held.addGuessAttempt(new GuessAttempt(List.of(Color.RED, Color.RED, Color.RED, Color.RED), new Feedback(1, 0)));
+        boolean replaced = store.replace(held);
+        store.put(new Game("other", SECRET, 4));
+        boolean otherReplaced = store.replace(store.get("other"));
+
+        // Assert
+        assertFalse(replaced);
+        assertNull(store.get("game"));
+        assertEquals(List.of("game:EXPIRED"), evictions);
+        assertTrue(otherReplaced);
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("A store split into segments should keep every game stored from many threads at once")
+    void testPut_ConcurrentAcrossSegments() throws Exception {
+        // Arrange
+        OffHeapGameStore store = new OffHeapGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2),
+                20_000, 16 * 1024 * 1024, 128, () -> now, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        try {
+            // Act
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        Game game = new Game("game-" + thread + "-" + i, SECRET, 4);
+                        store.put(game);
+                        game.addGuessAttempt(new GuessAttempt(SECRET, new Feedback(4, 0)));
+                        assertTrue(store.replace(game));
+                        if (i % 4 == 0) {
+                            assertNotNull(store.remove(game.getId()));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(6000, store.size());
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 1000; i++) {
+                Game stored = store.get("game-" + t + "-" + i);
+                assertEquals(i % 4 != 0, stored != null, "game-" + t + "-" + i);
+                assertTrue(stored == null || stored.isWon());
+            }
+        }
+        List<String> visited = new ArrayList<>();
+        store.forEach(game -> visited.add(game.getId()));
+        assertEquals(6000, visited.size());
+        assertTrue(evictions.isEmpty());
+        assertEquals(1, OffHeapGameStore.segmentsFor(1000, 1 << 20));
+        assertEquals(OffHeapGameStore.MAX_SEGMENTS, OffHeapGameStore.segmentsFor(1_000_000, 1 << 23));
+    }
+
+    @Test
+    @DisplayName("Guesses that each drop a game under the other's lock should not deadlock")
+    void testReplace_CrossedDropsDoNotDeadlock() throws Exception {
+        // Arrange: A and Y share a segment, as do B and X; X shares A's lock and Y shares B's
+        OffHeapGameStore probe = new OffHeapGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2),
+                4, 1024, 64, () -> now, 2);
+        String a = findId(i -> probe.segmentOf(id(i)) == 0);
+        String b = findId(i -> probe.segmentOf(id(i)) == 1 && stripeOf(id(i)) != stripeOf(a));
+        String x = findId(i -> probe.segmentOf(id(i)) == 1 && stripeOf(id(i)) == stripeOf(a));
+        String y = findId(i -> probe.segmentOf(id(i)) == 0 && stripeOf(id(i)) == stripeOf(b));
+        // Each new game fills one block and a guess spills it into a second, so with two
+        // blocks per segment a guess makes room by expiring the other game there
+        int blockBytes = new Game(a, SECRET, 4).toRecord().length + 20;
+        OffHeapGameStore store = new OffHeapGameStore(Duration.ofMinutes(30), Duration.ofMinutes(2),
+                4, 4L * blockBytes, blockBytes, () -> now, 2);
+        store.addEvictionListener((game, cause) -> evictions.add(game.getId() + ":" + cause));
+        CyclicBarrier bothLocked = new CyclicBarrier(2);
+        GameLogicService logic = new GameLogicService() {
+            @Override
+            public Feedback evaluateGuess(List<Color> secret, List<Color> guess) {
+                try {
+                    // Called under the game's lock, so both guesses hold theirs from here on
+                    bothLocked.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return super.evaluateGuess(secret, guess);
+            }
+        };
+        GameService service = new GameService(logic, new SecretSupply(), store);
+        store.put(new Game(x, SECRET, 4));
+        store.put(new Game(y, SECRET, 4));
+        now += Duration.ofMinutes(31).toNanos();
+        store.put(new Game(a, SECRET, 4));
+        store.put(new Game(b, SECRET, 4));
+        List<Color> guess = List.of(Color.RED, Color.RED, Color.RED, Color.RED);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<Game> guessA = executor.submit(() -> service.submitGuess(a, guess));
+            Future<Game> guessB = executor.submit(() -> service.submitGuess(b, guess));
+
+            // Assert
+            assertEquals(1, guessA.get(10, TimeUnit.SECONDS).getGuessCount());
+            assertEquals(1, guessB.get(10, TimeUnit.SECONDS).getGuessCount());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, store.size());
+        assertFalse(store.contains(x));
+        assertFalse(store.contains(y));
+        assertEquals(2, store.stats().getExpired());
+        assertTrue(evictions.containsAll(List.of(x + ":EXPIRED", y + ":EXPIRED")));
+    }
+
+    private static String id(int i) {
+        return String.format("game-%05d", i);
+    }
+
+    private static String findId(IntPredicate matches) {
+        for (int i = 0; i < 100_000; i++) {
+            if (matches.test(i)) {
+                return id(i);
+            }
+        }
+        throw new AssertionError("No game ID matches");
+    }
+
+    /**
+     * @return The lock stripe GameService changes this game under
+     */
+    private static int stripeOf(String gameId) {
+        int hash = gameId.hashCode();
+        return (hash ^ (hash >>> 16)) & 1023;
+    }
+}
@@ -24,6 +24,7 @@ export interface GameState {
   won: boolean
   createdAt: string
   slotCount: number
+  version: number
 }
 
 export interface CreateGameRequest {